@@ -1,9 +1,18 @@
 package com.cz.flashtp.admin;
 
+import com.cz.flashtp.admin.config.MetricsHistoryProperties;
+import com.cz.flashtp.admin.config.QueryCacheProperties;
+import com.cz.flashtp.admin.config.StreamProperties;
+import com.cz.flashtp.admin.domain.batch.ThreadPoolConfigBatchService;
+import com.cz.flashtp.admin.domain.cache.ThreadPoolQueryCache;
+import com.cz.flashtp.admin.domain.stream.ThreadPoolStreamService;
+import com.cz.flashtp.domain.codec.FlashTpRedisCodec;
+import com.cz.flashtp.domain.entity.ThreadPoolConfigAck;
+import com.cz.flashtp.domain.entity.ThreadPoolReportEvent;
 import lombok.Data;
 import org.redisson.Redisson;
+import org.redisson.api.RTopic;
 import org.redisson.api.RedissonClient;
-import org.redisson.codec.JsonJacksonCodec;
 import org.redisson.config.Config;
 import org.springframework.beans.factory.annotation.Configurable;
 import org.springframework.boot.SpringApplication;
@@ -13,6 +22,7 @@ import org.springframework.boot.context.properties.EnableConfigurationProperties
 import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 /**
  * code desc
  *
@@ -21,6 +31,8 @@ import org.springframework.context.annotation.Configuration;
 
 @SpringBootApplication
 @Configurable
+@EnableScheduling
+@EnableConfigurationProperties({MetricsHistoryProperties.class, StreamProperties.class, QueryCacheProperties.class})
 public class Application {
 
     public static void main(String[] args) {
@@ -34,7 +46,8 @@ public class Application {
         public RedissonClient redissonClient(ConfigurableApplicationContext applicationContext, RedisClientConfigProperties properties) {
             Config config = new Config();
             // 根据需要可以设定编解码器；https://github.com/redisson/redisson/wiki/4.-%E6%95%B0%E6%8D%AE%E5%BA%8F%E5%88%97%E5%8C%96
-            config.setCodec(JsonJacksonCodec.INSTANCE);
+            // 默认 JSON，可选 binary；二进制编解码同时能读取 JSON 数据，切换时先升级管理端
+            config.setCodec(FlashTpRedisCodec.select(properties.getCodec()));
 
             config.useSingleServer()
                     .setAddress("redis://" + properties.getHost() + ":" + properties.getPort())
@@ -51,6 +64,38 @@ public class Application {
             return Redisson.create(config);
         }
 
+        /**
+         * 订阅各实例的上报变化通知，整个管理端只订阅一次：先使 {@link ThreadPoolQueryCache} 失效，再由 {@link ThreadPoolStreamService} 推送给全部看板。
+         *
+         * @param redissonClient          Redisson客户端
+         * @param threadPoolQueryCache    线程池查询缓存
+         * @param threadPoolStreamService 线程池数据推送服务
+         * @return 上报主题
+         */
+        @Bean(name = "threadPoolReportTopic")
+        public RTopic threadPoolReportTopic(RedissonClient redissonClient, ThreadPoolQueryCache threadPoolQueryCache, ThreadPoolStreamService threadPoolStreamService) {
+            RTopic topic = redissonClient.getTopic("THREAD_POOL_REPORT_TOPIC");
+            topic.addListener(ThreadPoolReportEvent.class, (channel, event) -> {
+                threadPoolQueryCache.onReport(event);
+                threadPoolStreamService.onReport(event);
+            });
+            return topic;
+        }
+
+        /**
+         * 订阅各实例回传的批量调整确认，由 {@link ThreadPoolConfigBatchService} 汇总到对应批次。
+         *
+         * @param redissonClient               Redisson客户端
+         * @param threadPoolConfigBatchService 线程池配置批量调整服务
+         * @return 确认主题
+         */
+        @Bean(name = "threadPoolConfigAckTopic")
+        public RTopic threadPoolConfigAckTopic(RedissonClient redissonClient, ThreadPoolConfigBatchService threadPoolConfigBatchService) {
+            RTopic topic = redissonClient.getTopic("THREAD_POOL_CONFIG_ACK_TOPIC");
+            topic.addListener(ThreadPoolConfigAck.class, (channel, ack) -> threadPoolConfigBatchService.onAck(ack));
+            return topic;
+        }
+
     }
 
 
@@ -101,5 +146,9 @@ public class Application {
          * 设置是否保持长连接，默认为true
          */
         private boolean keepAlive = true;
+        /**
+         * 编解码方式：json（默认，写入 JSON）或 binary（线程池配置写入二进制），两者都能读取两种格式
+         */
+        private String codec = "json";
     }
 }
@@ -0,0 +1,30 @@
+package com.cz.flashtp.admin.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 线程池历史指标配置
+ *
+ * @author Zjianru
+ */
+@Data
+@ConfigurationProperties(prefix = "flash-tp.admin.metrics", ignoreInvalidFields = true)
+public class MetricsHistoryProperties {
+    /**
+     * 采集间隔（单位：毫秒），默认为10000
+     */
+    private long collectInterval = 10000;
+    /**
+     * 历史保留时长（单位：秒），默认为3600，每条序列的槽位数 = 保留时长 / 采集间隔
+     */
+    private long retention = 3600;
+    /**
+     * 最多保留的序列数（应用 × 实例 × 线程池），超出后新序列不再记录，默认为20000
+     */
+    private int maxSeries = 20000;
+    /**
+     * 单次查询的最大桶数，默认为1000
+     */
+    private int maxBuckets = 1000;
+}
@@ -0,0 +1,27 @@
+package com.cz.flashtp.admin.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 线程池查询缓存配置
+ *
+ * @author Zjianru
+ */
+@Data
+@ConfigurationProperties(prefix = "flash-tp.admin.cache", ignoreInvalidFields = true)
+public class QueryCacheProperties {
+    /**
+     * 线程池数据列表的缓存时长（单位：毫秒），收到变化通知时提前失效；
+     * 实例心跳过期不会产生通知，由该时长兜底，默认为5000
+     */
+    private long listTtl = 5000;
+    /**
+     * 线程池配置的缓存时长（单位：毫秒），配置参数变化时提前失效，默认为60000
+     */
+    private long configTtl = 60000;
+    /**
+     * 每类缓存的最大条目数，超出后按最近最少使用淘汰，默认为1024
+     */
+    private long maximumSize = 1024;
+}
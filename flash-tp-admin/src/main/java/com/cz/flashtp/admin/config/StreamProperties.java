@@ -0,0 +1,38 @@
+package com.cz.flashtp.admin.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 线程池数据推送配置
+ *
+ * @author Zjianru
+ */
+@Data
+@ConfigurationProperties(prefix = "flash-tp.admin.stream", ignoreInvalidFields = true)
+public class StreamProperties {
+    /**
+     * 向每个客户端推送增量的最小间隔（单位：毫秒），间隔内同一线程池的多次变化合并为最新值，默认为1000
+     */
+    private long flushInterval = 1000;
+    /**
+     * 心跳间隔（单位：毫秒），没有数据时发送注释行保持连接，默认为15000
+     */
+    private long heartbeatInterval = 15000;
+    /**
+     * 单个连接的最长时间（单位：毫秒），超时后浏览器 EventSource 会自动重连，默认为1800000
+     */
+    private long timeout = 1800000;
+    /**
+     * 推送线程数，慢客户端最多占用一个推送线程，默认为4
+     */
+    private int senderThreads = 4;
+    /**
+     * 最大连接数，超过后新连接返回 503，默认为200
+     */
+    private int maxClients = 200;
+    /**
+     * 单次推送的最长耗时（单位：毫秒），超过后关闭该连接并中断推送线程，避免慢客户端长期占用推送线程，默认为5000
+     */
+    private long sendTimeout = 5000;
+}
@@ -0,0 +1,99 @@
+package com.cz.flashtp.admin.domain.batch;
+
+import com.cz.flashtp.domain.entity.ThreadPoolConfigAck;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 一次批量调整（单个应用）的确认汇总，由对象锁保护，确认到达时唤醒等待方
+ *
+ * @author Zjianru
+ */
+final class BatchRecord {
+
+    private final String batchId;
+    private final String appName;
+    private final long publishedTimestamp;
+    private final int changeCount;
+    private final Set<String> expectedInstances;
+    private long receivers;
+
+    /**
+     * 实例标识 -> 确认，同一实例重复确认时保留首次
+     */
+    private final Map<String, InstanceApplyStatus> acks = new LinkedHashMap<>();
+
+    BatchRecord(String batchId, String appName, long publishedTimestamp, int changeCount, Set<String> expectedInstances) {
+        this.batchId = batchId;
+        this.appName = appName;
+        this.publishedTimestamp = publishedTimestamp;
+        this.changeCount = changeCount;
+        this.expectedInstances = new LinkedHashSet<>(expectedInstances);
+    }
+
+    /**
+     * 记录订阅连接数，仅用于展示：旧版本实例或其他订阅方不会回传确认，不参与是否完成的判断
+     */
+    synchronized void published(long receivers) {
+        this.receivers = receivers;
+    }
+
+    synchronized void onAck(ThreadPoolConfigAck ack, long now) {
+        if (acks.containsKey(ack.getInstanceId())) return;
+        acks.put(ack.getInstanceId(), InstanceApplyStatus.builder()
+                .instanceId(ack.getInstanceId())
+                .ackTimestamp(now)
+                .latencyMillis(Math.max(0, now - publishedTimestamp))
+                .appliedTimestamp(ack.getAppliedTimestamp())
+                .applyMicros(ack.getApplyMicros())
+                .applied(ack.getApplied())
+                .rejected(ack.getRejected())
+                .build());
+        notifyAll();
+    }
+
+    /**
+     * 等待预期实例全部确认或超时
+     *
+     * @param deadlineMillis 截止时间（毫秒时间戳）
+     */
+    synchronized void await(long deadlineMillis) throws InterruptedException {
+        long remaining;
+        while (!complete() && (remaining = deadlineMillis - System.currentTimeMillis()) > 0) {
+            wait(remaining);
+        }
+    }
+
+    synchronized ThreadPoolConfigBatchStatus status() {
+        List<String> pending = new ArrayList<>();
+        for (String instanceId : expectedInstances) {
+            if (!acks.containsKey(instanceId)) pending.add(instanceId);
+        }
+        long maxLatencyMillis = 0;
+        for (InstanceApplyStatus ack : acks.values()) {
+            maxLatencyMillis = Math.max(maxLatencyMillis, ack.getLatencyMillis());
+        }
+        return ThreadPoolConfigBatchStatus.builder()
+                .batchId(batchId)
+                .appName(appName)
+                .publishedTimestamp(publishedTimestamp)
+                .changeCount(changeCount)
+                .receivers(receivers)
+                .expectedInstances(new ArrayList<>(expectedInstances))
+                .acks(new ArrayList<>(acks.values()))
+                .pendingInstances(pending)
+                .maxLatencyMillis(maxLatencyMillis)
+                .complete(complete())
+                .build();
+    }
+
+    private boolean complete() {
+        return acks.keySet().containsAll(expectedInstances);
+    }
+
+}
@@ -0,0 +1,49 @@
+package com.cz.flashtp.admin.domain.batch;
+
+import com.cz.flashtp.domain.entity.ThreadPoolConfig;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 单个实例对一次批量调整的确认
+ *
+ * @author Zjianru
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InstanceApplyStatus {
+    /**
+     * 实例标识
+     */
+    private String instanceId;
+    /**
+     * 管理端收到确认的时间（毫秒时间戳，管理端时钟）
+     */
+    private long ackTimestamp;
+    /**
+     * 从发布到收到确认的耗时（单位：毫秒），发布与确认均按管理端时钟计算，不受实例时钟偏差影响
+     */
+    private long latencyMillis;
+    /**
+     * 实例应用完成的时间（毫秒时间戳，实例时钟）
+     */
+    private long appliedTimestamp;
+    /**
+     * 实例内应用本批调整的耗时（单位：微秒）
+     */
+    private long applyMicros;
+    /**
+     * 调整后实际生效的线程池参数
+     */
+    private List<ThreadPoolConfig> applied;
+    /**
+     * 未能应用的线程池名称
+     */
+    private List<String> rejected;
+}
@@ -0,0 +1,137 @@
+package com.cz.flashtp.admin.domain.batch;
+
+import com.cz.flashtp.admin.domain.cache.ThreadPoolQueryCache;
+import com.cz.flashtp.domain.entity.ThreadPoolConfig;
+import com.cz.flashtp.domain.entity.ThreadPoolConfigAck;
+import com.cz.flashtp.domain.entity.ThreadPoolConfigBatch;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RedissonClient;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * 线程池配置批量调整服务
+ * 按应用分组，每个应用只向其调整主题发布一条 {@link ThreadPoolConfigBatch}；
+ * 各实例一次性应用后通过确认主题回传 {@link ThreadPoolConfigAck}，这里汇总为每个批次的生效情况：
+ * 哪些实例已生效、实际生效的参数、从发布到确认的耗时，以及仍未确认的实例。
+ * 预期实例取自发布时仍在上报心跳的实例；批次记录只保存在内存中，保留最近 {@value #MAX_BATCHES} 个。
+ *
+ * @author Zjianru
+ */
+@Slf4j
+@Service
+public class ThreadPoolConfigBatchService {
+
+    static final int MAX_BATCHES = 256;
+
+    @Resource
+    private RedissonClient redissonClient;
+
+    @Resource
+    private ThreadPoolQueryCache threadPoolQueryCache;
+
+    /**
+     * 批次标识 -> 确认汇总，超出容量时淘汰最早的批次
+     */
+    private final Map<String, BatchRecord> records = new LinkedHashMap<String, BatchRecord>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, BatchRecord> eldest) {
+            return size() > MAX_BATCHES;
+        }
+    };
+
+    /**
+     * 发布批量调整
+     *
+     * @param changes    需要调整的线程池配置，可跨多个应用
+     * @param waitMillis 等待全部确认的最长时间（单位：毫秒），为 0 时发布后立即返回
+     * @return 每个应用一个批次的生效情况
+     */
+    public List<ThreadPoolConfigBatchStatus> submit(List<ThreadPoolConfig> changes, long waitMillis) throws InterruptedException {
+        Map<String, List<ThreadPoolConfig>> byApp = new LinkedHashMap<>();
+        for (ThreadPoolConfig change : changes) {
+            byApp.computeIfAbsent(change.getAppName(), appName -> new ArrayList<>()).add(change);
+        }
+        List<BatchRecord> submitted = new ArrayList<>(byApp.size());
+        for (Map.Entry<String, List<ThreadPoolConfig>> entry : byApp.entrySet()) {
+            submitted.add(publish(entry.getKey(), entry.getValue()));
+        }
+        long deadline = System.currentTimeMillis() + waitMillis;
+        List<ThreadPoolConfigBatchStatus> statuses = new ArrayList<>(submitted.size());
+        for (BatchRecord record : submitted) {
+            if (waitMillis > 0) record.await(deadline);
+            statuses.add(record.status());
+        }
+        return statuses;
+    }
+
+    /**
+     * 查询批次的生效情况
+     *
+     * @param batchId 批次标识
+     * @return 生效情况，批次不存在或已淘汰时为 null
+     */
+    public ThreadPoolConfigBatchStatus query(String batchId) {
+        BatchRecord record;
+        synchronized (records) {
+            record = records.get(batchId);
+        }
+        return null == record ? null : record.status();
+    }
+
+    /**
+     * 处理实例回传的确认
+     *
+     * @param ack 批量调整确认
+     */
+    public void onAck(ThreadPoolConfigAck ack) {
+        BatchRecord record;
+        synchronized (records) {
+            record = records.get(ack.getBatchId());
+        }
+        if (null == record) {
+            log.debug("[flash-tp]==> 收到未知批次的确认 批次:{} 实例:{}", ack.getBatchId(), ack.getInstanceId());
+            return;
+        }
+        record.onAck(ack, System.currentTimeMillis());
+    }
+
+    private BatchRecord publish(String appName, List<ThreadPoolConfig> changes) {
+        Set<String> expectedInstances = new LinkedHashSet<>();
+        for (ThreadPoolConfig threadPool : threadPoolQueryCache.queryThreadPoolList(appName)) {
+            if (null != threadPool.getInstanceId()) expectedInstances.add(threadPool.getInstanceId());
+        }
+        ThreadPoolConfigBatch batch = ThreadPoolConfigBatch.builder()
+                .batchId(UUID.randomUUID().toString())
+                .appName(appName)
+                .timestamp(System.currentTimeMillis())
+                .changes(changes)
+                .build();
+        BatchRecord record = new BatchRecord(batch.getBatchId(), appName, batch.getTimestamp(), changes.size(), expectedInstances);
+        // 先登记再发布，避免确认先于登记到达
+        track(record, batch.getBatchId());
+        long receivers = redissonClient.getTopic("DYNAMIC_THREAD_POOL_REDIS_TOPIC" + "_" + appName).publish(batch);
+        record.published(receivers);
+        for (ThreadPoolConfig change : changes) {
+            threadPoolQueryCache.invalidateConfig(appName, change.getThreadPoolName());
+        }
+        log.info("[flash-tp]==> 发布线程池配置批量调整 应用:{} 批次:{} 调整数:{} 订阅连接数:{} 预期实例数:{}",
+                appName, batch.getBatchId(), changes.size(), receivers, expectedInstances.size());
+        return record;
+    }
+
+    void track(BatchRecord record, String batchId) {
+        synchronized (records) {
+            records.put(batchId, record);
+        }
+    }
+
+}
@@ -0,0 +1,60 @@
+package com.cz.flashtp.admin.domain.batch;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 一次批量调整（单个应用）的生效情况
+ *
+ * @author Zjianru
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ThreadPoolConfigBatchStatus {
+    /**
+     * 批次标识
+     */
+    private String batchId;
+    /**
+     * 应用名称
+     */
+    private String appName;
+    /**
+     * 发布时间（毫秒时间戳）
+     */
+    private long publishedTimestamp;
+    /**
+     * 本批调整的线程池数
+     */
+    private int changeCount;
+    /**
+     * 发布时订阅该应用调整主题的连接数，仅供参考，可能包含不回传确认的旧版本实例或其他订阅方
+     */
+    private long receivers;
+    /**
+     * 发布时仍在上报心跳的实例
+     */
+    private List<String> expectedInstances;
+    /**
+     * 已确认的实例，按确认先后排列
+     */
+    private List<InstanceApplyStatus> acks;
+    /**
+     * 尚未确认的实例
+     */
+    private List<String> pendingInstances;
+    /**
+     * 最慢实例从发布到确认的耗时（单位：毫秒），没有确认时为 0
+     */
+    private long maxLatencyMillis;
+    /**
+     * 是否全部确认：按心跳得到的预期实例均已确认
+     */
+    private boolean complete;
+}
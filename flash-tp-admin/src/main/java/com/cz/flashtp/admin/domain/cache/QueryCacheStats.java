@@ -0,0 +1,54 @@
+package com.cz.flashtp.admin.domain.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 查询缓存统计
+ *
+ * @author Zjianru
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class QueryCacheStats {
+    /**
+     * 缓存名称
+     */
+    private String name;
+    /**
+     * 当前条目数
+     */
+    private long size;
+    /**
+     * 命中次数
+     */
+    private long hitCount;
+    /**
+     * 未命中次数，每次未命中访问一次 Redis
+     */
+    private long missCount;
+    /**
+     * 命中率
+     */
+    private double hitRate;
+    /**
+     * 因容量或过期淘汰的条目数，不含变化通知触发的失效
+     */
+    private long evictionCount;
+    /**
+     * 变化通知触发的失效次数
+     */
+    private long invalidationCount;
+    /**
+     * 变化通知就地更新缓存条目的次数，不访问 Redis
+     */
+    private long updateCount;
+    /**
+     * 加载失败次数
+     */
+    private long loadExceptionCount;
+}
@@ -0,0 +1,244 @@
+package com.cz.flashtp.admin.domain.cache;
+
+import com.cz.flashtp.admin.config.QueryCacheProperties;
+import com.cz.flashtp.admin.domain.service.ThreadPoolQueryService;
+import com.cz.flashtp.domain.entity.ThreadPoolConfig;
+import com.cz.flashtp.domain.entity.ThreadPoolReportEvent;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 线程池查询缓存
+ * 看板与自动化脚本的查询先读本地缓存，未命中时才访问 Redis；同一个键的并发未命中只加载一次。
+ * 缓存按上报变化通知 {@link ThreadPoolReportEvent} 保持最新：
+ * <ul>
+ *     <li>线程池数据列表：通知已携带变化与移除的线程池数据，直接就地更新该应用与全部应用的列表，不失效、不访问 Redis；
+ *     几乎每个实例每个周期都会发布通知，失效会使列表持续未命中，每次未命中都要扫描并读取全部实例的 Hash；</li>
+ *     <li>线程池配置：仅当通知中的核心线程数、最大线程数或队列容量与缓存值不同（或线程池被移除）时失效。</li>
+ * </ul>
+ * 就地更新不重置缓存时长；实例心跳过期不会产生通知，列表到期后重新从 Redis 加载兜底。
+ *
+ * @author Zjianru
+ */
+@Service
+public class ThreadPoolQueryCache {
+
+    /**
+     * 全部应用的列表使用的缓存键
+     */
+    private static final String ALL_APPS = "*";
+
+    private final ThreadPoolQueryService threadPoolQueryService;
+
+    /**
+     * 应用名 -> 线程池数据列表
+     */
+    private final Cache<String, PoolList> lists;
+
+    /**
+     * 应用名|线程池名 -> 线程池配置，Redis 中不存在时缓存空值
+     */
+    private final Cache<String, Optional<ThreadPoolConfig>> configs;
+
+    private final AtomicLong listUpdates = new AtomicLong();
+    private final AtomicLong configInvalidations = new AtomicLong();
+
+    public ThreadPoolQueryCache(QueryCacheProperties properties, ThreadPoolQueryService threadPoolQueryService) {
+        this.threadPoolQueryService = threadPoolQueryService;
+        this.lists = CacheBuilder.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getListTtl(), TimeUnit.MILLISECONDS)
+                .recordStats()
+                .build();
+        this.configs = CacheBuilder.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getConfigTtl(), TimeUnit.MILLISECONDS)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * 查询线程池数据列表
+     *
+     * @param appName 应用名称，为空时返回全部应用
+     * @return 线程池数据列表，只读
+     */
+    public List<ThreadPoolConfig> queryThreadPoolList(String appName) {
+        String key = null == appName || appName.isEmpty() ? ALL_APPS : appName;
+        return load(lists, key, () -> new PoolList(Collections.unmodifiableList(threadPoolQueryService.queryThreadPoolList(appName)))).threadPools;
+    }
+
+    /**
+     * 查询线程池配置
+     *
+     * @param appName        应用名称
+     * @param threadPoolName 线程池名称
+     * @return 线程池配置，不存在时为 null
+     */
+    public ThreadPoolConfig queryThreadPoolConfig(String appName, String threadPoolName) {
+        return load(configs, configKey(appName, threadPoolName),
+                () -> Optional.ofNullable(threadPoolQueryService.queryThreadPoolConfig(appName, threadPoolName))).orElse(null);
+    }
+
+    /**
+     * 处理一个实例的上报变化通知
+     *
+     * @param event 变化通知
+     */
+    public void onReport(ThreadPoolReportEvent event) {
+        for (String key : Arrays.asList(event.getAppName(), ALL_APPS)) {
+            // asMap 读取不计入命中统计，就地修改不重置写入时间
+            PoolList cached = lists.asMap().get(key);
+            if (null == cached) continue;
+            cached.apply(event);
+            listUpdates.incrementAndGet();
+        }
+        if (null != event.getChanged()) {
+            for (ThreadPoolConfig config : event.getChanged()) {
+                String key = configKey(config.getAppName(), config.getThreadPoolName());
+                Optional<ThreadPoolConfig> cached = configs.getIfPresent(key);
+                if (null == cached || sameParameters(cached.orElse(null), config)) continue;
+                invalidateConfig(key);
+            }
+        }
+        if (null != event.getRemoved()) {
+            for (String threadPoolName : event.getRemoved()) {
+                invalidateConfig(configKey(event.getAppName(), threadPoolName));
+            }
+        }
+    }
+
+    /**
+     * 使线程池配置缓存失效，用于管理端下发配置后
+     *
+     * @param appName        应用名称
+     * @param threadPoolName 线程池名称
+     */
+    public void invalidateConfig(String appName, String threadPoolName) {
+        invalidateConfig(configKey(appName, threadPoolName));
+    }
+
+    /**
+     * 缓存统计
+     */
+    public List<QueryCacheStats> stats() {
+        List<QueryCacheStats> stats = new ArrayList<>(2);
+        stats.add(stats("thread_pool_list", lists, 0, listUpdates.get()));
+        stats.add(stats("thread_pool_config", configs, configInvalidations.get(), 0));
+        return stats;
+    }
+
+    private void invalidateConfig(String key) {
+        configs.invalidate(key);
+        configInvalidations.incrementAndGet();
+    }
+
+    private static <V> V load(Cache<String, V> cache, String key, Callable<V> loader) {
+        try {
+            return cache.get(key, loader);
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            // 加载失败不缓存，交给调用方按原有方式处理
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private static QueryCacheStats stats(String name, Cache<?, ?> cache, long invalidations, long updates) {
+        CacheStats stats = cache.stats();
+        return QueryCacheStats.builder()
+                .name(name)
+                .size(cache.size())
+                .hitCount(stats.hitCount())
+                .missCount(stats.missCount())
+                .hitRate(stats.hitRate())
+                .evictionCount(stats.evictionCount())
+                .invalidationCount(invalidations)
+                .updateCount(updates)
+                .loadExceptionCount(stats.loadExceptionCount())
+                .build();
+    }
+
+    private static boolean sameParameters(ThreadPoolConfig cached, ThreadPoolConfig current) {
+        return null != cached
+                && cached.getCorePoolSize() == current.getCorePoolSize()
+                && cached.getMaximumPoolSize() == current.getMaximumPoolSize()
+                && cached.getQueueCapacity() == current.getQueueCapacity()
+                && cached.getLaneCount() == current.getLaneCount()
+                && cached.getLaneCapacity() == current.getLaneCapacity()
+                && cached.getAdmissionMinLimit() == current.getAdmissionMinLimit()
+                && cached.getAdmissionMaxLimit() == current.getAdmissionMaxLimit()
+                && cached.getAdmissionTargetQueueWaitMs() == current.getAdmissionTargetQueueWaitMs()
+                && cached.getSlowTaskThresholdMs() == current.getSlowTaskThresholdMs();
+    }
+
+    private static String configKey(String appName, String threadPoolName) {
+        return appName + "|" + threadPoolName;
+    }
+
+    /**
+     * 缓存的线程池数据列表，按实例 Hash 键名排序（与 Redis 加载顺序一致）。
+     * 列表本身不可变，更新时整体替换，读取方拿到的列表不会被修改。
+     */
+    private static final class PoolList {
+
+        private volatile List<ThreadPoolConfig> threadPools;
+
+        private PoolList(List<ThreadPoolConfig> threadPools) {
+            this.threadPools = threadPools;
+        }
+
+        /**
+         * 替换通知实例中变化的线程池、删除移除的线程池；新增的线程池放在该实例已有数据之后，实例不存在时按排序位置插入
+         */
+        private synchronized void apply(ThreadPoolReportEvent event) {
+            Map<String, ThreadPoolConfig> changed = new LinkedHashMap<>();
+            if (null != event.getChanged()) {
+                for (ThreadPoolConfig config : event.getChanged()) {
+                    changed.put(config.getThreadPoolName(), config);
+                }
+            }
+            Set<String> removed = null == event.getRemoved() ? Collections.emptySet() : new HashSet<>(event.getRemoved());
+            String order = orderKey(event.getAppName(), event.getInstanceId());
+            List<ThreadPoolConfig> current = threadPools;
+            List<ThreadPoolConfig> next = new ArrayList<>(current.size() + changed.size());
+            int insertAt = -1;
+            for (ThreadPoolConfig config : current) {
+                if (Objects.equals(event.getAppName(), config.getAppName()) && Objects.equals(event.getInstanceId(), config.getInstanceId())) {
+                    if (removed.contains(config.getThreadPoolName())) continue;
+                    ThreadPoolConfig update = changed.remove(config.getThreadPoolName());
+                    next.add(null == update ? config : update);
+                    insertAt = next.size();
+                    continue;
+                }
+                if (insertAt < 0 && orderKey(config.getAppName(), config.getInstanceId()).compareTo(order) > 0) insertAt = next.size();
+                next.add(config);
+            }
+            next.addAll(insertAt < 0 ? next.size() : insertAt, changed.values());
+            threadPools = Collections.unmodifiableList(next);
+        }
+
+        private static String orderKey(String appName, String instanceId) {
+            return appName + "_" + instanceId;
+        }
+    }
+
+}
@@ -0,0 +1,49 @@
+package com.cz.flashtp.admin.domain.metrics;
+
+import com.cz.flashtp.domain.entity.ThreadPoolConfig;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * 历史指标类型
+ * 每个类型对应 {@link ThreadPoolConfig} 中的一个数值字段，name 与字段名保持一致，便于前端直接引用。
+ *
+ * @author Zjianru
+ */
+@Getter
+@AllArgsConstructor
+public enum MetricType {
+
+    CORE_POOL_SIZE("corePoolSize", ThreadPoolConfig::getCorePoolSize),
+    MAXIMUM_POOL_SIZE("maximumPoolSize", ThreadPoolConfig::getMaximumPoolSize),
+    ACTIVE_COUNT("activeCount", ThreadPoolConfig::getActiveCount),
+    POOL_SIZE("poolSize", ThreadPoolConfig::getPoolSize),
+    QUEUE_SIZE("queueSize", ThreadPoolConfig::getQueueSize),
+    ACTIVE_COUNT_MAX("activeCountMax", ThreadPoolConfig::getActiveCountMax),
+    POOL_SIZE_MAX("poolSizeMax", ThreadPoolConfig::getPoolSizeMax),
+    QUEUE_SIZE_MAX("queueSizeMax", ThreadPoolConfig::getQueueSizeMax),
+    QUEUE_WAIT_P99_MS("queueWaitP99Ms", ThreadPoolConfig::getQueueWaitP99Ms),
+    RUN_TIME_P99_MS("runTimeP99Ms", ThreadPoolConfig::getRunTimeP99Ms),
+    TPS("tps", ThreadPoolConfig::getTps),
+    REJECTION_RATE("rejectionRate", ThreadPoolConfig::getRejectionRate),
+    ;
+
+    private final String code;
+    private final ToDoubleFunction<ThreadPoolConfig> extractor;
+
+    /**
+     * 按名称查找指标类型
+     *
+     * @param code 指标名称
+     * @return 指标类型，不存在时返回 null
+     */
+    public static MetricType of(String code) {
+        for (MetricType type : values()) {
+            if (type.code.equals(code)) return type;
+        }
+        return null;
+    }
+
+}
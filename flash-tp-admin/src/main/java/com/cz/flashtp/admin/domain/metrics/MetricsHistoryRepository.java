@@ -0,0 +1,118 @@
+package com.cz.flashtp.admin.domain.metrics;
+
+import com.cz.flashtp.admin.config.MetricsHistoryProperties;
+import com.cz.flashtp.domain.entity.ThreadPoolConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 线程池历史指标存储
+ * 按 (应用, 线程池) -> 实例 两级索引 {@link MetricsRingBuffer}，每条序列内存固定；
+ * 实例下线后序列在超过保留时长未更新时清除，总序列数受 maxSeries 限制。
+ *
+ * @author Zjianru
+ */
+@Slf4j
+@Component
+public class MetricsHistoryRepository {
+
+    private final MetricsHistoryProperties properties;
+    private final int capacity;
+
+    /**
+     * appName|threadPoolName -> instanceId -> 序列
+     */
+    private final Map<String, Map<String, MetricsRingBuffer>> series = new ConcurrentHashMap<>();
+    private final AtomicInteger seriesCount = new AtomicInteger();
+
+    public MetricsHistoryRepository(MetricsHistoryProperties properties) {
+        this.properties = properties;
+        this.capacity = (int) Math.max(1L, properties.getRetention() * 1000 / Math.max(1L, properties.getCollectInterval()));
+    }
+
+    /**
+     * 记录一次采集结果
+     *
+     * @param timestamp   采集时间（毫秒）
+     * @param threadPools 各实例上报的线程池数据
+     */
+    public void record(long timestamp, List<ThreadPoolConfig> threadPools) {
+        for (ThreadPoolConfig config : threadPools) {
+            Map<String, MetricsRingBuffer> instances = series.computeIfAbsent(seriesKey(config.getAppName(), config.getThreadPoolName()), k -> new ConcurrentHashMap<>());
+            String instanceId = null == config.getInstanceId() ? "" : config.getInstanceId();
+            MetricsRingBuffer buffer = instances.get(instanceId);
+            if (null == buffer) {
+                if (seriesCount.get() >= properties.getMaxSeries()) {
+                    log.warn("[flash-tp]==> 历史指标序列数已达上限，忽略新序列 app:{} instance:{} pool:{}", config.getAppName(), instanceId, config.getThreadPoolName());
+                    continue;
+                }
+                buffer = instances.computeIfAbsent(instanceId, k -> {
+                    seriesCount.incrementAndGet();
+                    return new MetricsRingBuffer(capacity);
+                });
+            }
+            buffer.add(timestamp, config);
+        }
+        evict(timestamp);
+    }
+
+    /**
+     * 区间查询
+     *
+     * @param appName        应用名称
+     * @param threadPoolName 线程池名称
+     * @param instanceId     实例标识，为空时返回该线程池所有实例的序列
+     * @param from           起始时间（毫秒，含）
+     * @param to             结束时间（毫秒，不含）
+     * @param buckets        桶数量
+     * @param types          需要的指标
+     * @return 各实例降采样后的指标
+     */
+    public List<MetricsRange> query(String appName, String threadPoolName, String instanceId, long from, long to, int buckets, List<MetricType> types) {
+        Map<String, MetricsRingBuffer> instances = series.get(seriesKey(appName, threadPoolName));
+        if (null == instances) return Collections.emptyList();
+        List<MetricsRange> ranges = new ArrayList<>();
+        for (Map.Entry<String, MetricsRingBuffer> entry : instances.entrySet()) {
+            if (null != instanceId && !instanceId.isEmpty() && !instanceId.equals(entry.getKey())) continue;
+            MetricsRange range = entry.getValue().query(from, to, buckets, types);
+            range.setAppName(appName);
+            range.setThreadPoolName(threadPoolName);
+            range.setInstanceId(entry.getKey());
+            ranges.add(range);
+        }
+        ranges.sort((a, b) -> a.getInstanceId().compareTo(b.getInstanceId()));
+        return ranges;
+    }
+
+    /**
+     * 当前序列数
+     */
+    public int seriesCount() {
+        return seriesCount.get();
+    }
+
+    /**
+     * 清除超过保留时长未更新的序列
+     */
+    private void evict(long now) {
+        long expireBefore = now - properties.getRetention() * 1000;
+        series.values().forEach(instances -> instances.entrySet().removeIf(entry -> {
+            boolean expired = entry.getValue().lastTimestamp() < expireBefore;
+            if (expired) seriesCount.decrementAndGet();
+            return expired;
+        }));
+        series.values().removeIf(Map::isEmpty);
+    }
+
+    private static String seriesKey(String appName, String threadPoolName) {
+        return appName + "|" + threadPoolName;
+    }
+
+}
@@ -0,0 +1,51 @@
+package com.cz.flashtp.admin.domain.metrics;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * 降采样后的区间指标
+ * 每个桶输出最小值、最大值与平均值，没有样本的桶不输出，timestamps 为各桶的起始时间。
+ *
+ * @author Zjianru
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MetricsRange {
+
+    private String appName;
+    private String instanceId;
+    private String threadPoolName;
+
+    /**
+     * 桶宽（毫秒）
+     */
+    private long bucketMillis;
+
+    /**
+     * 各桶起始时间（毫秒时间戳）
+     */
+    private long[] timestamps;
+
+    /**
+     * 指标名称 -> 各桶统计值
+     */
+    private Map<String, Aggregate> metrics;
+
+    /**
+     * 桶内统计值，数组下标与 timestamps 对应
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Aggregate {
+        private float[] min;
+        private float[] max;
+        private float[] avg;
+    }
+
+}
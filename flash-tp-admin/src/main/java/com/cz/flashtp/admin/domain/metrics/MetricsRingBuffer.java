@@ -0,0 +1,126 @@
+package com.cz.flashtp.admin.domain.metrics;
+
+import com.cz.flashtp.domain.entity.ThreadPoolConfig;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 单个线程池的指标环形缓冲
+ * 时间戳与各指标分别保存在定长的基本类型数组中，写满后覆盖最旧的样本，内存占用在创建时即确定，
+ * 写入不产生任何对象。写入方为采集线程，读取方为查询线程，以对象锁互斥，临界区仅为数组拷贝与遍历。
+ *
+ * @author Zjianru
+ */
+public class MetricsRingBuffer {
+
+    private static final MetricType[] TYPES = MetricType.values();
+
+    private final int capacity;
+    private final long[] timestamps;
+
+    /**
+     * [指标][槽位]
+     */
+    private final float[][] values;
+
+    /**
+     * 下一个写入槽位
+     */
+    private int head;
+    private int size;
+
+    public MetricsRingBuffer(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("capacity must be positive");
+        this.capacity = capacity;
+        this.timestamps = new long[capacity];
+        this.values = new float[TYPES.length][capacity];
+    }
+
+    /**
+     * 写入一个样本，时间戳需单调递增，回退的样本直接丢弃
+     *
+     * @param timestamp 采集时间（毫秒）
+     * @param config    线程池数据
+     */
+    public synchronized void add(long timestamp, ThreadPoolConfig config) {
+        if (size > 0 && timestamp < timestamps[(head - 1 + capacity) % capacity]) return;
+        timestamps[head] = timestamp;
+        for (int m = 0; m < TYPES.length; m++) {
+            values[m][head] = (float) TYPES[m].getExtractor().applyAsDouble(config);
+        }
+        head = (head + 1) % capacity;
+        if (size < capacity) size++;
+    }
+
+    /**
+     * 最近一个样本的时间戳，无样本时返回 0
+     */
+    public synchronized long lastTimestamp() {
+        return size == 0 ? 0L : timestamps[(head - 1 + capacity) % capacity];
+    }
+
+    /**
+     * 按时间区间查询并降采样
+     *
+     * @param from    起始时间（毫秒，含）
+     * @param to      结束时间（毫秒，不含）
+     * @param buckets 桶数量
+     * @param types   需要的指标
+     * @return 各指标的桶统计值，外层字段（应用、实例、线程池）由调用方填充
+     */
+    public MetricsRange query(long from, long to, int buckets, List<MetricType> types) {
+        long bucketMillis = Math.max(1L, (to - from + buckets - 1) / buckets);
+        float[][] min = new float[types.size()][buckets];
+        float[][] max = new float[types.size()][buckets];
+        double[][] sum = new double[types.size()][buckets];
+        int[] count = new int[buckets];
+        synchronized (this) {
+            int start = (head - size + capacity) % capacity;
+            for (int i = 0; i < size; i++) {
+                int slot = (start + i) % capacity;
+                long timestamp = timestamps[slot];
+                if (timestamp < from) continue;
+                if (timestamp >= to) break;
+                int bucket = (int) ((timestamp - from) / bucketMillis);
+                boolean first = count[bucket]++ == 0;
+                for (int t = 0; t < types.size(); t++) {
+                    float v = values[types.get(t).ordinal()][slot];
+                    min[t][bucket] = first ? v : Math.min(min[t][bucket], v);
+                    max[t][bucket] = first ? v : Math.max(max[t][bucket], v);
+                    sum[t][bucket] += v;
+                }
+            }
+        }
+        // 去掉空桶
+        int nonEmpty = 0;
+        for (int c : count) {
+            if (c > 0) nonEmpty++;
+        }
+        long[] bucketTimestamps = new long[nonEmpty];
+        for (int b = 0, j = 0; b < buckets; b++) {
+            if (count[b] > 0) bucketTimestamps[j++] = from + b * bucketMillis;
+        }
+        Map<String, MetricsRange.Aggregate> metrics = new LinkedHashMap<>();
+        for (int t = 0; t < types.size(); t++) {
+            float[] tMin = new float[nonEmpty];
+            float[] tMax = new float[nonEmpty];
+            float[] tAvg = new float[nonEmpty];
+            for (int b = 0, j = 0; b < buckets; b++) {
+                if (count[b] == 0) continue;
+                tMin[j] = min[t][b];
+                tMax[j] = max[t][b];
+                tAvg[j] = (float) (sum[t][b] / count[b]);
+                j++;
+            }
+            metrics.put(types.get(t).getCode(), new MetricsRange.Aggregate(tMin, tMax, tAvg));
+        }
+        MetricsRange range = new MetricsRange();
+        range.setBucketMillis(bucketMillis);
+        range.setTimestamps(bucketTimestamps);
+        range.setMetrics(metrics);
+        return range;
+    }
+
+}
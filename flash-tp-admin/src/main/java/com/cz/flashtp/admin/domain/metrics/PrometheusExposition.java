@@ -0,0 +1,329 @@
+package com.cz.flashtp.admin.domain.metrics;
+
+import com.cz.flashtp.domain.entity.ThreadPoolConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.ToDoubleFunction;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Prometheus 文本格式指标
+ * 将各实例上报的线程池数据渲染为 Prometheus text exposition format（0.0.4），标签为 app、instance、pool。
+ * <p>
+ * 渲染在采集时完成，抓取只复制预渲染好的字节：
+ * <ul>
+ *     <li>每条序列（应用 × 实例 × 线程池）按指标族分别缓存已渲染的行，数据与上次采集相同时直接复用，只有变化的序列重新渲染；</li>
+ *     <li>每次采集后按指标族拼接出完整的响应体整体替换，抓取读取的始终是一份完整、不可变的快照；</li>
+ *     <li>gzip 压缩结果按快照懒计算并缓存，同一快照的多次抓取只压缩一次。</li>
+ * </ul>
+ *
+ * @author Zjianru
+ */
+@Slf4j
+@Component
+public class PrometheusExposition {
+
+    /**
+     * 响应的 Content-Type
+     */
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static final List<Family> FAMILIES = Arrays.asList(
+            Family.gauge("flash_tp_pool_core_size", "核心线程数", ThreadPoolConfig::getCorePoolSize),
+            Family.gauge("flash_tp_pool_max_size", "最大线程数", ThreadPoolConfig::getMaximumPoolSize),
+            Family.gauge("flash_tp_pool_size", "池中线程数", ThreadPoolConfig::getPoolSize),
+            Family.gauge("flash_tp_pool_size_max", "上报窗口内池中线程数最大值", ThreadPoolConfig::getPoolSizeMax),
+            Family.gauge("flash_tp_pool_active", "活跃线程数", ThreadPoolConfig::getActiveCount),
+            Family.gauge("flash_tp_pool_active_max", "上报窗口内活跃线程数最大值", ThreadPoolConfig::getActiveCountMax),
+            Family.gauge("flash_tp_queue_size", "队列深度", ThreadPoolConfig::getQueueSize),
+            Family.gauge("flash_tp_queue_size_max", "上报窗口内队列深度最大值", ThreadPoolConfig::getQueueSizeMax),
+            Family.gauge("flash_tp_queue_capacity", "队列容量", ThreadPoolConfig::getQueueCapacity),
+            Family.gauge("flash_tp_queue_remaining", "队列剩余容量", ThreadPoolConfig::getRemainingCapacity),
+            Family.counter("flash_tp_tasks_submitted_total", "累计提交任务数", ThreadPoolConfig::getSubmittedTaskCount),
+            Family.counter("flash_tp_tasks_completed_total", "累计完成任务数", ThreadPoolConfig::getCompletedTaskCount),
+            Family.counter("flash_tp_tasks_failed_total", "累计执行失败任务数", ThreadPoolConfig::getFailedTaskCount),
+            Family.counter("flash_tp_tasks_rejected_total", "累计拒绝任务数", ThreadPoolConfig::getRejectedTaskCount),
+            Family.gauge("flash_tp_tasks_tps", "统计窗口内每秒完成任务数", ThreadPoolConfig::getTps),
+            Family.gauge("flash_tp_tasks_rejection_rate", "统计窗口内拒绝率", ThreadPoolConfig::getRejectionRate),
+            Family.gauge("flash_tp_lane_count", "有序线程池通道数，非有序线程池为 0", ThreadPoolConfig::getLaneCount),
+            Family.gauge("flash_tp_lane_depth_max", "有序线程池排队最多的通道的任务数", ThreadPoolConfig::getLaneDepthMax),
+            Family.gauge("flash_tp_lane_skew", "有序线程池统计窗口内最热通道提交数与平均值之比", ThreadPoolConfig::getLaneSkew),
+            Family.gauge("flash_tp_fork_join_parallelism", "ForkJoinPool 并行度，其他类型为 0", ThreadPoolConfig::getParallelism),
+            Family.gauge("flash_tp_fork_join_running", "ForkJoinPool 未阻塞的工作线程数", ThreadPoolConfig::getRunningThreadCount),
+            Family.gauge("flash_tp_fork_join_queued_submissions", "ForkJoinPool 外部提交排队数", ThreadPoolConfig::getQueuedSubmissionCount),
+            Family.counter("flash_tp_fork_join_steals_total", "ForkJoinPool 累计窃取任务数", ThreadPoolConfig::getStealCount),
+            Family.gauge("flash_tp_spill_depth", "溢出层落盘等待回灌的任务数，未开启溢出层为 0", ThreadPoolConfig::getSpillDepth),
+            Family.gauge("flash_tp_spill_bytes", "溢出层尚未执行完成的任务占用的磁盘字节数", ThreadPoolConfig::getSpillBytes),
+            Family.gauge("flash_tp_spill_drain_rate", "统计窗口内每秒从溢出层回灌的任务数", ThreadPoolConfig::getSpillDrainRate),
+            Family.counter("flash_tp_tasks_spilled_total", "累计落盘任务数", ThreadPoolConfig::getSpilledTaskCount),
+            Family.counter("flash_tp_tasks_spill_drained_total", "累计从溢出层回灌的任务数", ThreadPoolConfig::getSpillDrainedTaskCount),
+            Family.counter("flash_tp_tasks_spill_failed_total", "累计序列化或反序列化失败的溢出任务数", ThreadPoolConfig::getSpillFailedTaskCount),
+            Family.gauge("flash_tp_admission_limit", "异步提交的准入限额，未使用异步提交为 0", ThreadPoolConfig::getAdmissionLimit),
+            Family.gauge("flash_tp_admission_in_flight", "已准入尚未执行完成的异步提交任务数", ThreadPoolConfig::getAdmissionInFlight),
+            Family.counter("flash_tp_admission_rejected_total", "累计准入拒绝次数", ThreadPoolConfig::getAdmissionRejectedCount),
+            Family.gauge("flash_tp_slow_tasks_running", "执行超过阈值且仍在执行的任务数，未开启慢任务检测为 0", ThreadPoolConfig::getSlowTaskRunningCount),
+            Family.gauge("flash_tp_slow_task_max_run_milliseconds", "仍在执行的慢任务中最长的已执行时间", ThreadPoolConfig::getSlowTaskMaxRunMs),
+            Family.counter("flash_tp_tasks_slow_total", "累计执行超过阈值的任务数", ThreadPoolConfig::getSlowTaskCount),
+            Family.quantiles("flash_tp_schedule_lag_milliseconds", "定时线程池统计窗口内触发延迟分位，quantile=1 为最大值（含已到期未触发的任务）",
+                    new String[]{"0.99", "1"}, ThreadPoolConfig::getScheduleLagP99Ms, ThreadPoolConfig::getScheduleLagMaxMs),
+            Family.quantiles("flash_tp_task_queue_wait_milliseconds", "统计窗口内任务排队耗时分位",
+                    ThreadPoolConfig::getQueueWaitP50Ms, ThreadPoolConfig::getQueueWaitP99Ms, ThreadPoolConfig::getQueueWaitP999Ms),
+            Family.quantiles("flash_tp_task_run_time_milliseconds", "统计窗口内任务执行耗时分位",
+                    ThreadPoolConfig::getRunTimeP50Ms, ThreadPoolConfig::getRunTimeP99Ms, ThreadPoolConfig::getRunTimeP999Ms)
+    );
+
+    /**
+     * 每个线程池输出的样本数
+     */
+    private static final int SAMPLES_PER_POOL = FAMILIES.stream().mapToInt(family -> family.values.length).sum();
+
+    /**
+     * 各指标族的 HELP 与 TYPE 行
+     */
+    private static final byte[][] HEADERS = FAMILIES.stream()
+            .map(family -> ("# HELP " + family.name + " " + family.help + "\n# TYPE " + family.name + " " + family.type + "\n").getBytes(StandardCharsets.UTF_8))
+            .toArray(byte[][]::new);
+
+    /**
+     * app \0 instance \0 pool -> 已渲染的序列，仅在采集线程中访问
+     */
+    private Map<String, RenderedSeries> rendered = Collections.emptyMap();
+
+    /**
+     * 当前快照，整体替换
+     */
+    private volatile Snapshot snapshot = new Snapshot(assemble(Collections.emptyList(), 0, 0), 0);
+
+    /**
+     * 以一次采集结果更新预渲染的响应体，实例或线程池消失后其序列随之移除
+     *
+     * @param timestamp   采集时间（毫秒）
+     * @param threadPools 各实例上报的线程池数据
+     */
+    public synchronized void update(long timestamp, List<ThreadPoolConfig> threadPools) {
+        Map<String, RenderedSeries> previous = rendered;
+        Map<String, RenderedSeries> current = new TreeMap<>();
+        int changed = 0;
+        for (ThreadPoolConfig config : threadPools) {
+            String key = config.getAppName() + '\0' + config.getInstanceId() + '\0' + config.getThreadPoolName();
+            RenderedSeries series = previous.get(key);
+            if (null == series || !series.config.equals(config)) {
+                series = render(config);
+                changed++;
+            }
+            current.put(key, series);
+        }
+        rendered = current;
+        snapshot = new Snapshot(assemble(new ArrayList<>(current.values()), current.size(), timestamp), current.size());
+        log.debug("[flash-tp]==> Prometheus 指标已更新 线程池数:{} 重新渲染:{} 样本数:{} 响应体:{}B", current.size(), changed, sampleCount(), snapshot.body.length);
+    }
+
+    /**
+     * 获取预渲染的响应体，调用方不得修改返回的数组
+     *
+     * @return 响应体
+     */
+    public byte[] body() {
+        return snapshot.body;
+    }
+
+    /**
+     * 获取 gzip 压缩后的响应体，同一快照只压缩一次，调用方不得修改返回的数组
+     *
+     * @return 压缩后的响应体
+     */
+    public byte[] gzipBody() {
+        return snapshot.gzip();
+    }
+
+    /**
+     * 当前线程池数（应用 × 实例 × 线程池）
+     */
+    public int poolCount() {
+        return snapshot.poolCount;
+    }
+
+    /**
+     * 当前输出的样本数，即 Prometheus 中的时间序列数
+     */
+    public int sampleCount() {
+        return snapshot.poolCount * SAMPLES_PER_POOL;
+    }
+
+    /**
+     * 渲染一条序列在每个指标族下的样本行
+     */
+    private static RenderedSeries render(ThreadPoolConfig config) {
+        String labels = "app=\"" + escape(config.getAppName()) + "\",instance=\"" + escape(config.getInstanceId())
+                + "\",pool=\"" + escape(config.getThreadPoolName()) + "\"";
+        byte[][] lines = new byte[FAMILIES.size()][];
+        StringBuilder line = new StringBuilder(256);
+        for (int i = 0; i < lines.length; i++) {
+            Family family = FAMILIES.get(i);
+            line.setLength(0);
+            for (int s = 0; s < family.values.length; s++) {
+                line.append(family.name).append('{').append(labels);
+                if (null != family.quantiles) line.append(",quantile=\"").append(family.quantiles[s]).append('"');
+                line.append("} ");
+                appendValue(line, family.values[s].applyAsDouble(config));
+                line.append('\n');
+            }
+            lines[i] = line.toString().getBytes(StandardCharsets.UTF_8);
+        }
+        return new RenderedSeries(config, lines);
+    }
+
+    /**
+     * 按指标族拼接完整的响应体
+     */
+    private static byte[] assemble(List<RenderedSeries> series, int poolCount, long timestamp) {
+        byte[] tail = ("# HELP flash_tp_exposition_pools 管理端汇总的线程池数（应用 × 实例 × 线程池）\n"
+                + "# TYPE flash_tp_exposition_pools gauge\n"
+                + "flash_tp_exposition_pools " + poolCount + "\n"
+                + "# HELP flash_tp_exposition_last_update_seconds 最近一次采集时间\n"
+                + "# TYPE flash_tp_exposition_last_update_seconds gauge\n"
+                + "flash_tp_exposition_last_update_seconds " + timestamp / 1000D + "\n").getBytes(StandardCharsets.UTF_8);
+        int size = tail.length;
+        for (int f = 0; f < HEADERS.length; f++) {
+            size += HEADERS[f].length;
+            for (RenderedSeries s : series) size += s.lines[f].length;
+        }
+        byte[] body = new byte[size];
+        int position = 0;
+        for (int f = 0; f < HEADERS.length; f++) {
+            System.arraycopy(HEADERS[f], 0, body, position, HEADERS[f].length);
+            position += HEADERS[f].length;
+            for (RenderedSeries s : series) {
+                System.arraycopy(s.lines[f], 0, body, position, s.lines[f].length);
+                position += s.lines[f].length;
+            }
+        }
+        System.arraycopy(tail, 0, body, position, tail.length);
+        return body;
+    }
+
+    private static void appendValue(StringBuilder line, double value) {
+        if (value == (long) value) {
+            line.append((long) value);
+        } else if (Double.isNaN(value)) {
+            line.append("NaN");
+        } else if (Double.isInfinite(value)) {
+            line.append(value > 0 ? "+Inf" : "-Inf");
+        } else {
+            line.append(value);
+        }
+    }
+
+    /**
+     * 标签值转义：反斜杠、双引号与换行
+     */
+    static String escape(String value) {
+        if (null == value) return "";
+        StringBuilder escaped = null;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String replacement = c == '\\' ? "\\\\" : c == '"' ? "\\\"" : c == '\n' ? "\\n" : null;
+            if (null == replacement) {
+                if (null != escaped) escaped.append(c);
+                continue;
+            }
+            if (null == escaped) escaped = new StringBuilder(value.length() + 8).append(value, 0, i);
+            escaped.append(replacement);
+        }
+        return null == escaped ? value : escaped.toString();
+    }
+
+    /**
+     * 指标族
+     */
+    private static final class Family {
+        private final String name;
+        private final String type;
+        private final String help;
+        private final String[] quantiles;
+        private final ToDoubleFunction<ThreadPoolConfig>[] values;
+
+        @SafeVarargs
+        private Family(String name, String type, String help, String[] quantiles, ToDoubleFunction<ThreadPoolConfig>... values) {
+            this.name = name;
+            this.type = type;
+            this.help = help;
+            this.quantiles = quantiles;
+            this.values = values;
+        }
+
+        static Family gauge(String name, String help, ToDoubleFunction<ThreadPoolConfig> value) {
+            return new Family(name, "gauge", help, null, value);
+        }
+
+        static Family counter(String name, String help, ToDoubleFunction<ThreadPoolConfig> value) {
+            return new Family(name, "counter", help, null, value);
+        }
+
+        static Family quantiles(String name, String help, ToDoubleFunction<ThreadPoolConfig> p50,
+                                ToDoubleFunction<ThreadPoolConfig> p99, ToDoubleFunction<ThreadPoolConfig> p999) {
+            return new Family(name, "gauge", help, new String[]{"0.5", "0.99", "0.999"}, p50, p99, p999);
+        }
+
+        @SafeVarargs
+        static Family quantiles(String name, String help, String[] quantiles, ToDoubleFunction<ThreadPoolConfig>... values) {
+            return new Family(name, "gauge", help, quantiles, values);
+        }
+    }
+
+    /**
+     * 一条序列的渲染结果，config 用于判断下次采集时是否需要重新渲染
+     */
+    private static final class RenderedSeries {
+        private final ThreadPoolConfig config;
+        private final byte[][] lines;
+
+        RenderedSeries(ThreadPoolConfig config, byte[][] lines) {
+            this.config = config;
+            this.lines = lines;
+        }
+    }
+
+    /**
+     * 一次采集后的完整响应体
+     */
+    private static final class Snapshot {
+        private final byte[] body;
+        private final int poolCount;
+        private volatile byte[] gzip;
+
+        Snapshot(byte[] body, int poolCount) {
+            this.body = body;
+            this.poolCount = poolCount;
+        }
+
+        byte[] gzip() {
+            byte[] compressed = gzip;
+            if (null != compressed) return compressed;
+            synchronized (this) {
+                if (null == gzip) {
+                    ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, body.length / 8));
+                    try (GZIPOutputStream stream = new GZIPOutputStream(out, 8192)) {
+                        stream.write(body);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    gzip = out.toByteArray();
+                }
+                return gzip;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,87 @@
+package com.cz.flashtp.admin.domain.service;
+
+import com.cz.flashtp.domain.entity.ThreadPoolConfig;
+import org.redisson.api.BatchOptions;
+import org.redisson.api.RBatch;
+import org.redisson.api.RFuture;
+import org.redisson.api.RedissonClient;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 线程池数据查询服务
+ * 运行数据按应用与实例分片存储在 THREAD_POOL_INSTANCE_KEY_{appName}_{instanceId} Hash 中，
+ * 这里以 SCAN 遍历实例键（不使用 KEYS 阻塞 Redis），再分批以管道读取各实例 Hash 汇总。
+ *
+ * @author Zjianru
+ */
+@Service
+public class ThreadPoolQueryService {
+
+    /**
+     * SCAN 每次迭代的建议数量
+     */
+    private static final int SCAN_COUNT = 500;
+
+    /**
+     * 每次管道读取的实例 Hash 数量
+     */
+    private static final int READ_BATCH_SIZE = 100;
+
+    @Resource
+    private RedissonClient redissonClient;
+
+    /**
+     * 查询全部实例上报的线程池数据
+     *
+     * @param appName 应用名称，为空时返回全部应用
+     * @return 线程池数据列表
+     */
+    public List<ThreadPoolConfig> queryThreadPoolList(String appName) {
+        boolean filterApp = null != appName && !appName.isEmpty();
+        String pattern = "THREAD_POOL_INSTANCE_KEY_" + (filterApp ? appName + "_*" : "*");
+        List<String> keys = new ArrayList<>();
+        for (String key : redissonClient.getKeys().getKeysByPattern(pattern, SCAN_COUNT)) {
+            keys.add(key);
+        }
+        Collections.sort(keys);
+        List<ThreadPoolConfig> threadPools = new ArrayList<>();
+        for (int from = 0; from < keys.size(); from += READ_BATCH_SIZE) {
+            List<String> chunk = keys.subList(from, Math.min(keys.size(), from + READ_BATCH_SIZE));
+            RBatch batch = redissonClient.createBatch(BatchOptions.defaults());
+            List<RFuture<Map<String, ThreadPoolConfig>>> futures = new ArrayList<>(chunk.size());
+            for (String key : chunk) {
+                futures.add(batch.<String, ThreadPoolConfig>getMap(key).readAllMapAsync());
+            }
+            batch.execute();
+            for (RFuture<Map<String, ThreadPoolConfig>> future : futures) {
+                Map<String, ThreadPoolConfig> instance = future.getNow();
+                if (null == instance) continue;
+                for (ThreadPoolConfig threadPoolConfig : instance.values()) {
+                    // 应用名本身可能包含下划线，前缀匹配后再按字段精确过滤
+                    if (filterApp && !appName.equals(threadPoolConfig.getAppName())) continue;
+                    threadPools.add(threadPoolConfig);
+                }
+            }
+        }
+        return threadPools;
+    }
+
+    /**
+     * 查询线程池配置
+     *
+     * @param appName        应用名称
+     * @param threadPoolName 线程池名称
+     * @return 线程池配置，不存在时为 null
+     */
+    public ThreadPoolConfig queryThreadPoolConfig(String appName, String threadPoolName) {
+        String cacheKey = "THREAD_POOL_CONFIG_PARAMETER_LIST_KEY" + "_" + appName + "_" + threadPoolName;
+        return redissonClient.<ThreadPoolConfig>getBucket(cacheKey).get();
+    }
+
+}
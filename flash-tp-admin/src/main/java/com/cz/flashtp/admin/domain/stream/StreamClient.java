@@ -0,0 +1,132 @@
+package com.cz.flashtp.admin.domain.stream;
+
+import com.cz.flashtp.domain.entity.ThreadPoolConfig;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 一个看板连接
+ * 待推送的变化按序列键合并，同一线程池在两次推送之间的多次变化只保留最新值，
+ * 慢客户端积压的数据量不超过序列总数，不会拖慢其他连接。
+ *
+ * @author Zjianru
+ */
+final class StreamClient {
+
+    final SseEmitter emitter;
+
+    /**
+     * 只接收该应用的数据，为空时接收全部应用
+     */
+    private final String appName;
+
+    /**
+     * 序列键 -> 最新数据，值为 null 表示已移除，由对象锁保护
+     */
+    private Map<String, ThreadPoolConfig> pending = new LinkedHashMap<>();
+    private boolean snapshotPending = true;
+    private long coalesced;
+
+    /**
+     * 是否有推送正在进行，同一连接同一时刻最多一个推送任务
+     */
+    final AtomicBoolean inFlight = new AtomicBoolean();
+    volatile long lastSendMillis;
+
+    /**
+     * 正在推送的线程与推送开始时间，由对象锁保护，推送超时时据此中断推送线程
+     */
+    private Thread sendThread;
+    private long sendStartMillis;
+
+    StreamClient(SseEmitter emitter, String appName, long now) {
+        this.emitter = emitter;
+        this.appName = appName;
+        this.lastSendMillis = now;
+    }
+
+    boolean accepts(ThreadPoolConfig config) {
+        return null == appName || appName.isEmpty() || appName.equals(config.getAppName());
+    }
+
+    /**
+     * 记录一条变化
+     *
+     * @param key    序列键
+     * @param config 最新数据，为 null 表示已移除
+     */
+    synchronized void offer(String key, ThreadPoolConfig config) {
+        if (pending.containsKey(key)) coalesced++;
+        if (null == config && snapshotPending) {
+            // 全量尚未发出，移除的序列直接从全量中去掉
+            pending.remove(key);
+            return;
+        }
+        pending.put(key, config);
+    }
+
+    synchronized boolean hasPending() {
+        return snapshotPending || !pending.isEmpty();
+    }
+
+    synchronized long coalesced() {
+        return coalesced;
+    }
+
+    synchronized void beginSend(long now) {
+        sendThread = Thread.currentThread();
+        sendStartMillis = now;
+    }
+
+    /**
+     * 结束推送，此后超时检查不会再中断当前线程，并清除推送期间收到的中断标记
+     */
+    void endSend() {
+        synchronized (this) {
+            sendThread = null;
+        }
+        Thread.interrupted();
+    }
+
+    /**
+     * 推送已超时时中断推送线程
+     *
+     * @param now     当前时间
+     * @param timeout 单次推送的最长耗时
+     * @return 是否已超时
+     */
+    synchronized boolean abortSendIfExpired(long now, long timeout) {
+        if (null == sendThread || now - sendStartMillis < timeout) return false;
+        sendThread.interrupt();
+        sendThread = null;
+        return true;
+    }
+
+    /**
+     * 取出待推送的变化并开始新的一批
+     *
+     * @return 待推送的变化，没有变化时为 null
+     */
+    synchronized ThreadPoolStreamDelta drain() {
+        if (!snapshotPending && pending.isEmpty()) return null;
+        List<ThreadPoolConfig> updated = new ArrayList<>();
+        List<String> removed = new ArrayList<>();
+        for (Map.Entry<String, ThreadPoolConfig> entry : pending.entrySet()) {
+            if (null == entry.getValue()) {
+                removed.add(entry.getKey());
+            } else {
+                updated.add(entry.getValue());
+            }
+        }
+        ThreadPoolStreamDelta delta = new ThreadPoolStreamDelta(snapshotPending, updated, removed);
+        snapshotPending = false;
+        pending = new LinkedHashMap<>();
+        return delta;
+    }
+
+}
@@ -0,0 +1,32 @@
+package com.cz.flashtp.admin.domain.stream;
+
+import com.cz.flashtp.domain.entity.ThreadPoolConfig;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 推送给看板的一批线程池变化
+ * 连接建立后的第一批为全量（snapshot = true），之后为增量；removed 为已下线的序列键 appName|instanceId|threadPoolName。
+ *
+ * @author Zjianru
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ThreadPoolStreamDelta {
+    /**
+     * 是否为全量数据，为 true 时看板应先清空已有数据
+     */
+    private boolean snapshot;
+    /**
+     * 新增或变化的线程池数据
+     */
+    private List<ThreadPoolConfig> updated;
+    /**
+     * 移除的序列键
+     */
+    private List<String> removed;
+}
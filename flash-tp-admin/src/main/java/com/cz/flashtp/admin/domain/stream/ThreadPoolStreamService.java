@@ -0,0 +1,262 @@
+package com.cz.flashtp.admin.domain.stream;
+
+import com.cz.flashtp.admin.config.StreamProperties;
+import com.cz.flashtp.domain.entity.ThreadPoolConfig;
+import com.cz.flashtp.domain.entity.ThreadPoolReportEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 线程池数据推送服务
+ * 管理端在内存中维护全部实例的最新线程池数据，由两路输入更新：
+ * <ul>
+ *     <li>订阅一次上报主题，实时接收各实例的变化通知 {@link ThreadPoolReportEvent}；</li>
+ *     <li>采集任务定期汇总的全量数据，用于补齐丢失的通知，并移除心跳过期的实例。</li>
+ * </ul>
+ * 看板通过 SSE 连接，建立连接时推送一次内存中的全量数据，之后按 flushInterval 推送增量；
+ * 看板数量不再影响 Redis 的访问量。每个连接独立合并待推送数据，同一时刻最多占用一个推送线程，
+ * 写入失败或单次推送超过 sendTimeout 的连接直接关闭（超时时中断推送线程），由浏览器 EventSource 自动重连。
+ * 连接数上限的检查与登记在同一把锁内完成，并发建立连接也不会超过 maxClients。
+ *
+ * @author Zjianru
+ */
+@Slf4j
+@Service
+public class ThreadPoolStreamService {
+
+    private final StreamProperties properties;
+    private final List<StreamClient> clients = new CopyOnWriteArrayList<>();
+
+    /**
+     * 序列键 -> 最新数据，写入与向连接分发在同一把锁内完成，保证每个连接看到的变化顺序与内存一致
+     */
+    private final Map<String, ThreadPoolConfig> fleet = new HashMap<>();
+
+    private volatile ExecutorService sender;
+    private volatile ScheduledExecutorService scheduler;
+
+    public ThreadPoolStreamService(StreamProperties properties) {
+        this.properties = properties;
+    }
+
+    @PostConstruct
+    public synchronized void start() {
+        if (null != scheduler) return;
+        AtomicInteger index = new AtomicInteger();
+        sender = Executors.newFixedThreadPool(Math.max(1, properties.getSenderThreads()), r -> {
+            Thread thread = new Thread(r, "flash-tp-stream-sender-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "flash-tp-stream");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                flush();
+            } catch (Exception e) {
+                log.error("[flash-tp]==> 线程池数据推送失败", e);
+            }
+        }, properties.getFlushInterval(), properties.getFlushInterval(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (null != scheduler) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+        if (null != sender) {
+            sender.shutdownNow();
+            sender = null;
+        }
+        clients.forEach(client -> client.emitter.complete());
+        clients.clear();
+    }
+
+    /**
+     * 建立看板连接
+     *
+     * @param appName 只推送该应用的数据，为空时推送全部应用
+     * @return SSE 连接，超过最大连接数时返回 null
+     */
+    public SseEmitter connect(String appName) {
+        SseEmitter emitter = new SseEmitter(properties.getTimeout());
+        StreamClient client = new StreamClient(emitter, appName, System.currentTimeMillis());
+        emitter.onCompletion(() -> clients.remove(client));
+        emitter.onTimeout(() -> clients.remove(client));
+        emitter.onError(e -> clients.remove(client));
+        if (!register(client)) {
+            log.warn("[flash-tp]==> 看板连接数已达上限，拒绝新连接 上限:{}", properties.getMaxClients());
+            return null;
+        }
+        log.info("[flash-tp]==> 看板已连接 应用:{} 连接数:{}", null == appName ? "*" : appName, clients.size());
+        return emitter;
+    }
+
+    /**
+     * 登记连接，以内存中的全量数据作为第一批推送，不访问 Redis
+     *
+     * @return 是否登记成功，连接数已达上限时为 false
+     */
+    boolean register(StreamClient client) {
+        synchronized (fleet) {
+            if (clients.size() >= properties.getMaxClients()) return false;
+            for (Map.Entry<String, ThreadPoolConfig> entry : fleet.entrySet()) {
+                if (client.accepts(entry.getValue())) client.offer(entry.getKey(), entry.getValue());
+            }
+            clients.add(client);
+        }
+        schedule(client, System.currentTimeMillis());
+        return true;
+    }
+
+    /**
+     * 处理一个实例的上报变化通知
+     *
+     * @param event 变化通知
+     */
+    public void onReport(ThreadPoolReportEvent event) {
+        synchronized (fleet) {
+            if (null != event.getChanged()) {
+                for (ThreadPoolConfig config : event.getChanged()) {
+                    String key = key(config);
+                    fleet.put(key, config);
+                    dispatch(key, config, config);
+                }
+            }
+            if (null != event.getRemoved()) {
+                for (String threadPoolName : event.getRemoved()) {
+                    String key = key(event.getAppName(), event.getInstanceId(), threadPoolName);
+                    ThreadPoolConfig removed = fleet.remove(key);
+                    if (null != removed) dispatch(key, removed, null);
+                }
+            }
+        }
+    }
+
+    /**
+     * 以一次全量采集结果对齐内存数据，不在本次结果中的序列（实例心跳过期或线程池移除）一并移除
+     *
+     * @param threadPools 各实例上报的线程池数据
+     */
+    public void reconcile(List<ThreadPoolConfig> threadPools) {
+        synchronized (fleet) {
+            Set<String> seen = new HashSet<>(threadPools.size() * 2);
+            for (ThreadPoolConfig config : threadPools) {
+                String key = key(config);
+                seen.add(key);
+                ThreadPoolConfig previous = fleet.put(key, config);
+                if (!config.equals(previous)) dispatch(key, config, config);
+            }
+            Iterator<Map.Entry<String, ThreadPoolConfig>> iterator = fleet.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, ThreadPoolConfig> entry = iterator.next();
+                if (seen.contains(entry.getKey())) continue;
+                iterator.remove();
+                dispatch(entry.getKey(), entry.getValue(), null);
+            }
+        }
+    }
+
+    /**
+     * 关闭推送超时的连接，为有待推送数据或需要心跳的连接安排一次推送
+     */
+    public void flush() {
+        long now = System.currentTimeMillis();
+        for (StreamClient client : clients) {
+            if (client.abortSendIfExpired(now, properties.getSendTimeout())) {
+                log.warn("[flash-tp]==> 看板连接推送超时，关闭连接 超时:{}ms", properties.getSendTimeout());
+                close(client, new TimeoutException("stream send timeout"));
+                continue;
+            }
+            schedule(client, now);
+        }
+    }
+
+    /**
+     * 当前连接数
+     */
+    public int clientCount() {
+        return clients.size();
+    }
+
+    private void dispatch(String key, ThreadPoolConfig config, ThreadPoolConfig value) {
+        for (StreamClient client : clients) {
+            if (client.accepts(config)) client.offer(key, value);
+        }
+    }
+
+    private void schedule(StreamClient client, long now) {
+        ExecutorService sender = this.sender;
+        if (null == sender) return;
+        boolean heartbeat = now - client.lastSendMillis >= properties.getHeartbeatInterval();
+        if (!client.hasPending() && !heartbeat) return;
+        // 上一次推送尚未完成（慢客户端），本轮跳过，变化继续在连接内合并
+        if (!client.inFlight.compareAndSet(false, true)) return;
+        try {
+            sender.execute(() -> send(client));
+        } catch (RejectedExecutionException e) {
+            client.inFlight.set(false);
+        }
+    }
+
+    private void send(StreamClient client) {
+        client.beginSend(System.currentTimeMillis());
+        try {
+            ThreadPoolStreamDelta delta = client.drain();
+            if (null == delta) {
+                client.emitter.send(SseEmitter.event().comment("heartbeat"));
+            } else {
+                client.emitter.send(SseEmitter.event().name(delta.isSnapshot() ? "snapshot" : "delta").data(delta, MediaType.APPLICATION_JSON));
+            }
+            client.lastSendMillis = System.currentTimeMillis();
+        } catch (IOException | RuntimeException e) {
+            log.debug("[flash-tp]==> 看板连接写入失败，关闭连接 累计合并:{}", client.coalesced(), e);
+            close(client, e);
+        } finally {
+            client.endSend();
+            client.inFlight.set(false);
+        }
+    }
+
+    private void close(StreamClient client, Throwable cause) {
+        clients.remove(client);
+        try {
+            client.emitter.completeWithError(cause);
+        } catch (RuntimeException ignore) {
+            // 连接已关闭
+        }
+    }
+
+    static String key(ThreadPoolConfig config) {
+        return key(config.getAppName(), config.getInstanceId(), config.getThreadPoolName());
+    }
+
+    static String key(String appName, String instanceId, String threadPoolName) {
+        return appName + "|" + (null == instanceId ? "" : instanceId) + "|" + threadPoolName;
+    }
+
+}
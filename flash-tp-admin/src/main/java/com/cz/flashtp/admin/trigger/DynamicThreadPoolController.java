@@ -2,15 +2,33 @@ package com.cz.flashtp.admin.trigger;
 
 
 import com.alibaba.fastjson.JSON;
+import com.cz.flashtp.admin.config.MetricsHistoryProperties;
+import com.cz.flashtp.admin.domain.batch.ThreadPoolConfigBatchService;
+import com.cz.flashtp.admin.domain.batch.ThreadPoolConfigBatchStatus;
+import com.cz.flashtp.admin.domain.cache.QueryCacheStats;
+import com.cz.flashtp.admin.domain.cache.ThreadPoolQueryCache;
+import com.cz.flashtp.admin.domain.metrics.MetricType;
+import com.cz.flashtp.admin.domain.metrics.MetricsHistoryRepository;
+import com.cz.flashtp.admin.domain.metrics.MetricsRange;
+import com.cz.flashtp.admin.domain.service.ThreadPoolQueryService;
+import com.cz.flashtp.admin.domain.stream.ThreadPoolStreamService;
 import com.cz.flashtp.admin.types.Response;
 import com.cz.flashtp.domain.entity.ThreadPoolConfig;
+import com.cz.flashtp.domain.entity.TuningDecision;
 import lombok.extern.slf4j.Slf4j;
 import org.redisson.api.RList;
 import org.redisson.api.RTopic;
 import org.redisson.api.RedissonClient;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -24,22 +42,49 @@ import java.util.List;
 @RequestMapping("/api/v1/flash/tp/")
 public class DynamicThreadPoolController {
 
+    /**
+     * 单次批量修改的最大线程池数
+     */
+    private static final int MAX_BATCH_SIZE = 1000;
+
+    /**
+     * 批量修改等待确认的最长时间（单位：毫秒）
+     */
+    private static final long MAX_BATCH_WAIT_MILLIS = 10000;
+
     @Resource
     public RedissonClient redissonClient;
 
+    @Resource
+    private ThreadPoolQueryCache threadPoolQueryCache;
+
+    @Resource
+    private ThreadPoolStreamService threadPoolStreamService;
+
+    @Resource
+    private ThreadPoolConfigBatchService threadPoolConfigBatchService;
+
+    @Resource
+    private MetricsHistoryRepository metricsHistoryRepository;
+
+    @Resource
+    private MetricsHistoryProperties metricsHistoryProperties;
+
     /**
      * 查询线程池数据
+     * 汇总各实例上报的运行数据，见 {@link ThreadPoolQueryService}；读取经过 {@link ThreadPoolQueryCache}，收到变化通知后失效
      * curl --request GET \
-     * --url 'http://localhost:8089/api/v1/flash/tp/query_thread_pool_list'
+     * --url 'http://localhost:8089/api/v1/flash/tp/query_thread_pool_list?appName=dynamic-thread-pool-test-app'
+     * appName 可选，不传时返回全部应用
      */
     @RequestMapping(value = "query_thread_pool_list", method = RequestMethod.GET)
-    public Response<List<ThreadPoolConfig>> queryThreadPoolList() {
+    public Response<List<ThreadPoolConfig>> queryThreadPoolList(@RequestParam(required = false) String appName) {
         try {
-            RList<ThreadPoolConfig> cacheList = redissonClient.getList("THREAD_POOL_CONFIG_LIST_KEY");
+            List<ThreadPoolConfig> threadPools = threadPoolQueryCache.queryThreadPoolList(appName);
             return Response.<List<ThreadPoolConfig>>builder()
                     .code(Response.Code.SUCCESS.getCode())
                     .info(Response.Code.SUCCESS.getInfo())
-                    .data(cacheList.readAll())
+                    .data(threadPools)
                     .build();
         } catch (Exception e) {
             log.error("查询线程池数据异常", e);
@@ -50,16 +95,127 @@ public class DynamicThreadPoolController {
         }
     }
 
+    /**
+     * 订阅线程池数据推送（SSE）
+     * 建立连接后先推送一次全量（event: snapshot），之后按变化推送增量（event: delta），数据来自管理端内存，不访问 Redis。
+     * curl --no-buffer --request GET \
+     * --url 'http://localhost:8089/api/v1/flash/tp/stream_thread_pool_list?appName=dynamic-thread-pool-test-app'
+     * appName 可选，不传时推送全部应用
+     */
+    @RequestMapping(value = "stream_thread_pool_list", method = RequestMethod.GET, produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamThreadPoolList(@RequestParam(required = false) String appName) {
+        SseEmitter emitter = threadPoolStreamService.connect(appName);
+        if (null == emitter) throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "too many stream clients");
+        return emitter;
+    }
+
+    /**
+     * 查询线程池历史指标
+     * 数据来自管理端本地的历史指标存储，按桶降采样后返回每个桶的最小值、最大值与平均值，不访问 Redis。
+     * curl --request GET \
+     * --url 'http://localhost:8089/api/v1/flash/tp/query_thread_pool_metrics?appName=dynamic-thread-pool-test-app&threadPoolName=threadPoolExecutor&rangeSeconds=3600&buckets=120&metrics=activeCount,queueSize'
+     * instanceId 可选，不传时返回所有实例；from/to 为毫秒时间戳，不传时取最近 rangeSeconds 秒（默认 3600）；metrics 可选，不传时返回全部指标
+     */
+    @RequestMapping(value = "query_thread_pool_metrics", method = RequestMethod.GET)
+    public Response<List<MetricsRange>> queryThreadPoolMetrics(@RequestParam String appName,
+                                                               @RequestParam String threadPoolName,
+                                                               @RequestParam(required = false) String instanceId,
+                                                               @RequestParam(required = false) Long from,
+                                                               @RequestParam(required = false) Long to,
+                                                               @RequestParam(defaultValue = "3600") long rangeSeconds,
+                                                               @RequestParam(defaultValue = "120") int buckets,
+                                                               @RequestParam(required = false) String metrics) {
+        try {
+            long end = null == to ? System.currentTimeMillis() : to;
+            long start = null == from ? end - rangeSeconds * 1000 : from;
+            List<MetricType> types = new ArrayList<>();
+            if (null == metrics || metrics.isEmpty()) {
+                types.addAll(Arrays.asList(MetricType.values()));
+            } else {
+                for (String code : metrics.split(",")) {
+                    MetricType type = MetricType.of(code.trim());
+                    if (null != type) types.add(type);
+                }
+            }
+            if (start >= end || buckets <= 0 || buckets > metricsHistoryProperties.getMaxBuckets() || types.isEmpty()) {
+                return Response.<List<MetricsRange>>builder()
+                        .code(Response.Code.ILLEGAL_PARAMETER.getCode())
+                        .info(Response.Code.ILLEGAL_PARAMETER.getInfo())
+                        .build();
+            }
+            return Response.<List<MetricsRange>>builder()
+                    .code(Response.Code.SUCCESS.getCode())
+                    .info(Response.Code.SUCCESS.getInfo())
+                    .data(metricsHistoryRepository.query(appName, threadPoolName, instanceId, start, end, buckets, types))
+                    .build();
+        } catch (Exception e) {
+            log.error("查询线程池历史指标异常", e);
+            return Response.<List<MetricsRange>>builder()
+                    .code(Response.Code.UN_ERROR.getCode())
+                    .info(Response.Code.UN_ERROR.getInfo())
+                    .build();
+        }
+    }
+
+    /**
+     * 查询自动调优决策
+     * 返回应用最近的自动调优决策（包括 dry-run 模式下的建议），按时间倒序。
+     * curl --request GET \
+     * --url 'http://localhost:8089/api/v1/flash/tp/query_tuning_decisions?appName=dynamic-thread-pool-test-app&limit=100'
+     * threadPoolName 可选，用于只看单个线程池
+     */
+    @RequestMapping(value = "query_tuning_decisions", method = RequestMethod.GET)
+    public Response<List<TuningDecision>> queryTuningDecisions(@RequestParam String appName,
+                                                               @RequestParam(required = false) String threadPoolName,
+                                                               @RequestParam(defaultValue = "100") int limit) {
+        try {
+            RList<TuningDecision> list = redissonClient.getList("THREAD_POOL_TUNING_DECISION_KEY" + "_" + appName);
+            int size = list.size();
+            int count = Math.max(0, Math.min(limit, size));
+            List<TuningDecision> decisions = new ArrayList<>(count == 0 ? Collections.emptyList() : list.range(size - count, size - 1));
+            if (null != threadPoolName && !threadPoolName.isEmpty()) {
+                decisions.removeIf(decision -> !threadPoolName.equals(decision.getThreadPoolName()));
+            }
+            Collections.reverse(decisions);
+            return Response.<List<TuningDecision>>builder()
+                    .code(Response.Code.SUCCESS.getCode())
+                    .info(Response.Code.SUCCESS.getInfo())
+                    .data(decisions)
+                    .build();
+        } catch (Exception e) {
+            log.error("查询自动调优决策异常", e);
+            return Response.<List<TuningDecision>>builder()
+                    .code(Response.Code.UN_ERROR.getCode())
+                    .info(Response.Code.UN_ERROR.getInfo())
+                    .build();
+        }
+    }
+
+    /**
+     * 查询缓存统计
+     * 返回线程池数据列表与线程池配置两类查询缓存的命中、未命中、淘汰与失效次数。
+     * curl --request GET \
+     * --url 'http://localhost:8089/api/v1/flash/tp/query_cache_stats'
+     */
+    @RequestMapping(value = "query_cache_stats", method = RequestMethod.GET)
+    public Response<List<QueryCacheStats>> queryCacheStats() {
+        return Response.<List<QueryCacheStats>>builder()
+                .code(Response.Code.SUCCESS.getCode())
+                .info(Response.Code.SUCCESS.getInfo())
+                .data(threadPoolQueryCache.stats())
+                .build();
+    }
+
     /**
      * 查询线程池配置
+     * 读取经过 {@link ThreadPoolQueryCache}，配置参数变化或下发配置后失效
      * curl --request GET \
      * --url 'http://localhost:8089/api/v1/flash/tp/query_thread_pool_config?appName=dynamic-thread-pool-test-app&threadPoolName=threadPoolExecutor'
      */
     @RequestMapping(value = "query_thread_pool_config", method = RequestMethod.GET)
     public Response<ThreadPoolConfig> queryThreadPoolConfig(@RequestParam String appName, @RequestParam String threadPoolName) {
         try {
-            String cacheKey = "THREAD_POOL_CONFIG_PARAMETER_LIST_KEY" + "_" + appName + "_" + threadPoolName;
-            ThreadPoolConfig ThreadPoolConfig = redissonClient.<ThreadPoolConfig>getBucket(cacheKey).get();
+            ThreadPoolConfig ThreadPoolConfig = threadPoolQueryCache.queryThreadPoolConfig(appName, threadPoolName);
             return Response.<ThreadPoolConfig>builder()
                     .code(Response.Code.SUCCESS.getCode())
                     .info(Response.Code.SUCCESS.getInfo())
@@ -83,15 +239,33 @@ public class DynamicThreadPoolController {
      * "appName":"dynamic-thread-pool-test-app",
      * "threadPoolName": "threadPoolExecutor",
      * "corePoolSize": 1,
-     * "maximumPoolSize": 10
+     * "maximumPoolSize": 10,
+     * "queueCapacity": 2000
      * }'
+     * queueCapacity 可选，大于 0 且线程池使用 ResizableCapacityLinkedBlockingQueue 时生效
+     * laneCount、laneCapacity 可选，大于 0 且线程池为有序线程池（KeyedOrderedExecutor）时调整通道数与单通道排队上限
+     * admissionMinLimit、admissionMaxLimit、admissionTargetQueueWaitMs 可选，大于 0 且线程池为托管线程池时调整异步提交（submitAsync）的准入限额上下限与排队耗时目标
+     * slowTaskThresholdMs 可选，大于 0 且线程池已开启慢任务检测（flash-tp.slow-task.enabled）时调整慢任务阈值
+     * ForkJoinPool 调整并行度：取 parallelism，未指定时取 corePoolSize（需要客户端运行在 JDK 19 及以上），有实例上报不支持调整（parallelismAdjustable 为 false）时返回非法参数
+     * ScheduledThreadPoolExecutor 只调整 corePoolSize，忽略 maximumPoolSize 与 queueCapacity
+     * ThreadPoolTaskExecutor 与内嵌 Web 服务器工作线程池（Tomcat、Jetty、Undertow）调整 corePoolSize 与 maximumPoolSize，忽略 queueCapacity
      */
     @RequestMapping(value = "update_thread_pool_config", method = RequestMethod.POST)
     public Response<Boolean> updateThreadPoolConfig(@RequestBody ThreadPoolConfig request) {
         try {
             log.info("修改线程池配置开始 {} {} {}", request.getAppName(), request.getThreadPoolName(), JSON.toJSONString(request));
+            String instanceId = parallelismFixedInstance(request);
+            if (null != instanceId) {
+                log.warn("修改线程池配置被拒绝，ForkJoinPool 不支持调整并行度 {} {} 实例:{}", request.getAppName(), request.getThreadPoolName(), instanceId);
+                return Response.<Boolean>builder()
+                        .code(Response.Code.ILLEGAL_PARAMETER.getCode())
+                        .info(parallelismFixedInfo(instanceId))
+                        .data(false)
+                        .build();
+            }
             RTopic topic = redissonClient.getTopic("DYNAMIC_THREAD_POOL_REDIS_TOPIC" + "_" + request.getAppName());
             topic.publish(request);
+            threadPoolQueryCache.invalidateConfig(request.getAppName(), request.getThreadPoolName());
             log.info("修改线程池配置完成 {} {}", request.getAppName(), request.getThreadPoolName());
             return Response.<Boolean>builder()
                     .code(Response.Code.SUCCESS.getCode())
@@ -108,4 +282,93 @@ public class DynamicThreadPoolController {
         }
     }
 
+    /**
+     * 批量修改线程池配置
+     * 可跨多个应用，每个应用只发布一条批量调整消息，各实例一次性应用后回传确认。
+     * waitMillis 大于 0 时等待按心跳得到的预期实例全部确认或超时（最长 {@value #MAX_BATCH_WAIT_MILLIS} 毫秒）后返回；未确认的实例列在 pendingInstances 中，可稍后按 batchId 查询。
+     * curl --request POST \
+     * --url 'http://localhost:8089/api/v1/flash/tp/update_thread_pool_config_batch?waitMillis=3000' \
+     * --header 'content-type: application/json' \
+     * --data '[
+     * {"appName":"dynamic-thread-pool-test-app","threadPoolName":"threadPoolExecutor","corePoolSize":20,"maximumPoolSize":50},
+     * {"appName":"dynamic-thread-pool-test-app","threadPoolName":"threadPoolExecutor02","corePoolSize":10,"maximumPoolSize":20,"queueCapacity":5000}
+     * ]'
+     */
+    @RequestMapping(value = "update_thread_pool_config_batch", method = RequestMethod.POST)
+    public Response<List<ThreadPoolConfigBatchStatus>> updateThreadPoolConfigBatch(@RequestBody List<ThreadPoolConfig> request,
+                                                                                   @RequestParam(defaultValue = "0") long waitMillis) {
+        if (null == request || request.isEmpty() || request.size() > MAX_BATCH_SIZE || waitMillis < 0 || waitMillis > MAX_BATCH_WAIT_MILLIS
+                || request.stream().anyMatch(config -> null == config.getAppName() || null == config.getThreadPoolName()
+                || config.getCorePoolSize() < 0 || config.getMaximumPoolSize() <= 0 || config.getCorePoolSize() > config.getMaximumPoolSize())) {
+            return Response.<List<ThreadPoolConfigBatchStatus>>builder()
+                    .code(Response.Code.ILLEGAL_PARAMETER.getCode())
+                    .info(Response.Code.ILLEGAL_PARAMETER.getInfo())
+                    .build();
+        }
+        try {
+            for (ThreadPoolConfig config : request) {
+                String instanceId = parallelismFixedInstance(config);
+                if (null == instanceId) continue;
+                return Response.<List<ThreadPoolConfigBatchStatus>>builder()
+                        .code(Response.Code.ILLEGAL_PARAMETER.getCode())
+                        .info(parallelismFixedInfo(instanceId) + " 线程池:" + config.getAppName() + "/" + config.getThreadPoolName())
+                        .build();
+            }
+            List<ThreadPoolConfigBatchStatus> statuses = threadPoolConfigBatchService.submit(request, waitMillis);
+            return Response.<List<ThreadPoolConfigBatchStatus>>builder()
+                    .code(Response.Code.SUCCESS.getCode())
+                    .info(Response.Code.SUCCESS.getInfo())
+                    .data(statuses)
+                    .build();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("批量修改线程池配置等待确认被中断");
+            return Response.<List<ThreadPoolConfigBatchStatus>>builder()
+                    .code(Response.Code.UN_ERROR.getCode())
+                    .info(Response.Code.UN_ERROR.getInfo())
+                    .build();
+        } catch (Exception e) {
+            log.error("批量修改线程池配置异常 {}", JSON.toJSONString(request), e);
+            return Response.<List<ThreadPoolConfigBatchStatus>>builder()
+                    .code(Response.Code.UN_ERROR.getCode())
+                    .info(Response.Code.UN_ERROR.getInfo())
+                    .build();
+        }
+    }
+
+    /**
+     * 查询批量修改的生效情况
+     * curl --request GET \
+     * --url 'http://localhost:8089/api/v1/flash/tp/query_thread_pool_config_batch?batchId=0b8e...'
+     */
+    @RequestMapping(value = "query_thread_pool_config_batch", method = RequestMethod.GET)
+    public Response<ThreadPoolConfigBatchStatus> queryThreadPoolConfigBatch(@RequestParam String batchId) {
+        ThreadPoolConfigBatchStatus status = threadPoolConfigBatchService.query(batchId);
+        Response.Code code = null == status ? Response.Code.ILLEGAL_PARAMETER : Response.Code.SUCCESS;
+        return Response.<ThreadPoolConfigBatchStatus>builder()
+                .code(code.getCode())
+                .info(code.getInfo())
+                .data(status)
+                .build();
+    }
+
+    /**
+     * 查找上报不支持调整并行度的 ForkJoinPool 实例（客户端运行在 JDK 19 以下），这类调整发布后只会被实例忽略
+     *
+     * @param request 调整请求
+     * @return 第一个不支持调整的实例标识，全部支持或不是 ForkJoinPool 时为 null
+     */
+    private String parallelismFixedInstance(ThreadPoolConfig request) {
+        for (ThreadPoolConfig threadPool : threadPoolQueryCache.queryThreadPoolList(request.getAppName())) {
+            if (Boolean.FALSE.equals(threadPool.getParallelismAdjustable()) && threadPool.getThreadPoolName().equals(request.getThreadPoolName())) {
+                return null == threadPool.getInstanceId() ? "-" : threadPool.getInstanceId();
+            }
+        }
+        return null;
+    }
+
+    private static String parallelismFixedInfo(String instanceId) {
+        return "ForkJoinPool 不支持调整并行度（需要客户端运行在 JDK 19 及以上） 实例:" + instanceId;
+    }
+
 }
@@ -0,0 +1,42 @@
+package com.cz.flashtp.admin.trigger;
+
+import com.cz.flashtp.admin.domain.metrics.PrometheusExposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.annotation.Resource;
+
+/**
+ * Prometheus 抓取入口
+ * 汇总全部应用、实例与线程池的指标，Prometheus 只需抓取管理端，无需逐个抓取业务实例。
+ * 响应体在采集任务中预渲染（见 {@link PrometheusExposition}），抓取不访问 Redis，也不做序列化。
+ * scrape_configs:
+ * - job_name: flash-tp
+ * metrics_path: /metrics
+ * honor_labels: true
+ * static_configs:
+ * - targets: ['localhost:8089']
+ * honor_labels 保留指标中的 instance 标签（业务实例），而不是被替换为管理端地址
+ *
+ * @author Zjianru
+ */
+@RestController
+public class PrometheusController {
+
+    @Resource
+    private PrometheusExposition prometheusExposition;
+
+    @RequestMapping(value = "/metrics", method = RequestMethod.GET)
+    public ResponseEntity<byte[]> metrics(@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().header(HttpHeaders.CONTENT_TYPE, PrometheusExposition.CONTENT_TYPE);
+        if (null != acceptEncoding && acceptEncoding.contains("gzip")) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(prometheusExposition.gzipBody());
+        }
+        return response.body(prometheusExposition.body());
+    }
+
+}
@@ -0,0 +1,53 @@
+package com.cz.flashtp.admin.trigger.job;
+
+import com.cz.flashtp.admin.domain.metrics.MetricsHistoryRepository;
+import com.cz.flashtp.admin.domain.metrics.PrometheusExposition;
+import com.cz.flashtp.admin.domain.service.ThreadPoolQueryService;
+import com.cz.flashtp.admin.domain.stream.ThreadPoolStreamService;
+import com.cz.flashtp.domain.entity.ThreadPoolConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+import java.util.List;
+
+/**
+ * 线程池历史指标采集任务
+ * 定时汇总各实例上报的线程池数据写入 {@link MetricsHistoryRepository}，历史查询不再访问 Redis；
+ * 同一份数据同时更新 {@link PrometheusExposition} 的预渲染响应体，/metrics 抓取同样不访问 Redis；
+ * 并对齐 {@link ThreadPoolStreamService} 的内存数据，补齐丢失的变化通知、移除心跳过期的实例。
+ *
+ * @author Zjianru
+ */
+@Slf4j
+@Component
+public class MetricsCollectJob {
+
+    @Resource
+    private ThreadPoolQueryService threadPoolQueryService;
+
+    @Resource
+    private MetricsHistoryRepository metricsHistoryRepository;
+
+    @Resource
+    private PrometheusExposition prometheusExposition;
+
+    @Resource
+    private ThreadPoolStreamService threadPoolStreamService;
+
+    @Scheduled(fixedDelayString = "${flash-tp.admin.metrics.collect-interval:10000}")
+    public void collect() {
+        try {
+            long start = System.currentTimeMillis();
+            List<ThreadPoolConfig> threadPools = threadPoolQueryService.queryThreadPoolList(null);
+            metricsHistoryRepository.record(start, threadPools);
+            prometheusExposition.update(start, threadPools);
+            threadPoolStreamService.reconcile(threadPools);
+            log.debug("[flash-tp]==> 历史指标采集完成 线程池数:{} 序列数:{} 耗时:{}ms", threadPools.size(), metricsHistoryRepository.seriesCount(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("[flash-tp]==> 历史指标采集失败", e);
+        }
+    }
+
+}
@@ -0,0 +1,103 @@
+package com.cz.flashtp.admin.domain.batch;
+
+import com.cz.flashtp.domain.entity.ThreadPoolConfig;
+import com.cz.flashtp.domain.entity.ThreadPoolConfigAck;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 线程池配置批量调整确认汇总测试
+ * 不发布消息，直接登记批次后模拟各实例的确认。
+ *
+ * @author Zjianru
+ */
+public class ThreadPoolConfigBatchServiceTest {
+
+    private static ThreadPoolConfigAck ack(String batchId, String instanceId) {
+        return ThreadPoolConfigAck.builder()
+                .batchId(batchId)
+                .appName("app")
+                .instanceId(instanceId)
+                .appliedTimestamp(System.currentTimeMillis())
+                .applyMicros(42)
+                .applied(Collections.singletonList(ThreadPoolConfig.builder().threadPoolName("p1").corePoolSize(8).maximumPoolSize(16).build()))
+                .rejected(Collections.emptyList())
+                .build();
+    }
+
+    @Test
+    public void test_acksAggregated() {
+        ThreadPoolConfigBatchService service = new ThreadPoolConfigBatchService();
+        BatchRecord record = new BatchRecord("b1", "app", System.currentTimeMillis(), 1, new LinkedHashSet<>(Arrays.asList("i1", "i2")));
+        service.track(record, "b1");
+        record.published(2);
+
+        service.onAck(ack("b1", "i2"));
+        service.onAck(ack("b1", "i2"));
+        service.onAck(ack("unknown", "i1"));
+        ThreadPoolConfigBatchStatus status = service.query("b1");
+        assertFalse(status.isComplete());
+        assertEquals(1, status.getAcks().size());
+        assertEquals("i2", status.getAcks().get(0).getInstanceId());
+        assertEquals(42, status.getAcks().get(0).getApplyMicros());
+        assertEquals(Collections.singletonList("i1"), status.getPendingInstances());
+
+        service.onAck(ack("b1", "i1"));
+        status = service.query("b1");
+        assertTrue(status.isComplete());
+        assertTrue(status.getPendingInstances().isEmpty());
+        assertEquals(Arrays.asList("i2", "i1"), Arrays.asList(status.getAcks().get(0).getInstanceId(), status.getAcks().get(1).getInstanceId()));
+    }
+
+    @Test
+    public void test_awaitWakesOnLastAck() throws InterruptedException {
+        BatchRecord record = new BatchRecord("b1", "app", System.currentTimeMillis(), 1, Collections.singleton("i1"));
+        record.published(1);
+        Thread acker = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException ignore) {
+                return;
+            }
+            record.onAck(ack("b1", "i1"), System.currentTimeMillis());
+        });
+        acker.start();
+        long start = System.currentTimeMillis();
+        record.await(start + 5000);
+        assertTrue(System.currentTimeMillis() - start < 5000);
+        ThreadPoolConfigBatchStatus status = record.status();
+        assertTrue(status.isComplete());
+        assertTrue(status.getMaxLatencyMillis() >= 40);
+    }
+
+    @Test(timeout = 5000)
+    public void test_extraSubscriberDoesNotBlockCompletion() throws InterruptedException {
+        // 订阅连接数多于预期实例（例如不回传确认的旧版本实例），预期实例确认后即完成，不等到超时
+        BatchRecord record = new BatchRecord("b1", "app", System.currentTimeMillis(), 1, Collections.singleton("i1"));
+        record.published(2);
+        record.onAck(ack("b1", "i1"), System.currentTimeMillis());
+        record.await(System.currentTimeMillis() + 60_000);
+        ThreadPoolConfigBatchStatus status = record.status();
+        assertTrue(status.isComplete());
+        assertEquals(2, status.getReceivers());
+    }
+
+    @Test
+    public void test_oldestBatchEvicted() {
+        ThreadPoolConfigBatchService service = new ThreadPoolConfigBatchService();
+        for (int i = 0; i <= ThreadPoolConfigBatchService.MAX_BATCHES; i++) {
+            service.track(new BatchRecord("b" + i, "app", 0, 1, Collections.emptySet()), "b" + i);
+        }
+        assertNull(service.query("b0"));
+        assertEquals("b1", service.query("b1").getBatchId());
+    }
+
+}
@@ -0,0 +1,182 @@
+package com.cz.flashtp.admin.domain.cache;
+
+import com.cz.flashtp.admin.config.QueryCacheProperties;
+import com.cz.flashtp.admin.domain.service.ThreadPoolQueryService;
+import com.cz.flashtp.domain.entity.ThreadPoolConfig;
+import com.cz.flashtp.domain.entity.ThreadPoolReportEvent;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * 线程池查询缓存测试
+ * 以计数的查询服务代替 Redis，校验命中、失效与统计。
+ *
+ * @author Zjianru
+ */
+public class ThreadPoolQueryCacheTest {
+
+    private static class CountingQueryService extends ThreadPoolQueryService {
+        final AtomicInteger listLoads = new AtomicInteger();
+        final AtomicInteger configLoads = new AtomicInteger();
+        volatile int corePoolSize = 1;
+
+        @Override
+        public List<ThreadPoolConfig> queryThreadPoolList(String appName) {
+            listLoads.incrementAndGet();
+            // 与 Redis 加载顺序一致：按实例排序
+            List<ThreadPoolConfig> threadPools = new ArrayList<>();
+            if (null == appName || "app".equals(appName)) {
+                threadPools.add(running("app", "i1", "p1", 0));
+                threadPools.add(running("app", "i1", "p2", 0));
+                threadPools.add(running("app", "i3", "p1", 0));
+            }
+            if (null == appName || "other".equals(appName)) threadPools.add(running("other", "i1", "p1", 0));
+            return threadPools;
+        }
+
+        @Override
+        public ThreadPoolConfig queryThreadPoolConfig(String appName, String threadPoolName) {
+            configLoads.incrementAndGet();
+            return "missing".equals(threadPoolName) ? null : pool(appName, threadPoolName, corePoolSize);
+        }
+    }
+
+    private static ThreadPoolConfig pool(String appName, String threadPoolName, int corePoolSize) {
+        return ThreadPoolConfig.builder().appName(appName).threadPoolName(threadPoolName).corePoolSize(corePoolSize).maximumPoolSize(10).build();
+    }
+
+    private static ThreadPoolConfig running(String appName, String instanceId, String threadPoolName, int activeCount) {
+        ThreadPoolConfig config = pool(appName, threadPoolName, 1);
+        config.setInstanceId(instanceId);
+        config.setActiveCount(activeCount);
+        return config;
+    }
+
+    private static String describe(List<ThreadPoolConfig> threadPools) {
+        StringBuilder builder = new StringBuilder();
+        for (ThreadPoolConfig config : threadPools) {
+            if (builder.length() > 0) builder.append(',');
+            builder.append(config.getAppName()).append('/').append(config.getInstanceId()).append('/').append(config.getThreadPoolName())
+                    .append('=').append(config.getActiveCount());
+        }
+        return builder.toString();
+    }
+
+    private static ThreadPoolReportEvent changed(ThreadPoolConfig config) {
+        return new ThreadPoolReportEvent(config.getAppName(), "i1", System.currentTimeMillis(), Collections.singletonList(config), null);
+    }
+
+    @Test
+    public void test_listHitAndUpdate() {
+        CountingQueryService service = new CountingQueryService();
+        ThreadPoolQueryCache cache = new ThreadPoolQueryCache(new QueryCacheProperties(), service);
+        for (int i = 0; i < 10; i++) {
+            cache.queryThreadPoolList("app");
+            cache.queryThreadPoolList(null);
+        }
+        assertEquals(2, service.listLoads.get());
+
+        // 该应用与全部应用的列表就地更新，其他应用不受影响
+        cache.queryThreadPoolList("other");
+        cache.onReport(new ThreadPoolReportEvent("app", "i1", System.currentTimeMillis(),
+                Collections.singletonList(running("app", "i1", "p2", 7)), null));
+        assertEquals("app/i1/p1=0,app/i1/p2=7,app/i3/p1=0", describe(cache.queryThreadPoolList("app")));
+        assertEquals("app/i1/p1=0,app/i1/p2=7,app/i3/p1=0,other/i1/p1=0", describe(cache.queryThreadPoolList(null)));
+        assertEquals("other/i1/p1=0", describe(cache.queryThreadPoolList("other")));
+        assertEquals(3, service.listLoads.get());
+
+        QueryCacheStats stats = cache.stats().get(0);
+        assertEquals("thread_pool_list", stats.getName());
+        assertEquals(21, stats.getHitCount());
+        assertEquals(3, stats.getMissCount());
+        assertEquals(0, stats.getInvalidationCount());
+        assertEquals(2, stats.getUpdateCount());
+    }
+
+    @Test
+    public void test_listHitsSurviveReportStream() {
+        CountingQueryService service = new CountingQueryService();
+        ThreadPoolQueryCache cache = new ThreadPoolQueryCache(new QueryCacheProperties(), service);
+        cache.queryThreadPoolList("app");
+        cache.queryThreadPoolList(null);
+        // 每个实例每个周期都发布运行数据变化，期间持续查询
+        for (int cycle = 1; cycle <= 1000; cycle++) {
+            for (String instanceId : new String[]{"i1", "i3"}) {
+                cache.onReport(new ThreadPoolReportEvent("app", instanceId, System.currentTimeMillis(),
+                        Collections.singletonList(running("app", instanceId, "p1", cycle)), null));
+            }
+            cache.queryThreadPoolList("app");
+            cache.queryThreadPoolList(null);
+        }
+        assertEquals(2, service.listLoads.get());
+        assertEquals("app/i1/p1=1000,app/i1/p2=0,app/i3/p1=1000", describe(cache.queryThreadPoolList("app")));
+
+        // 新实例按排序位置插入，实例内新增的线程池追加在已有数据之后，移除的线程池删除
+        cache.onReport(new ThreadPoolReportEvent("app", "i2", System.currentTimeMillis(),
+                Collections.singletonList(running("app", "i2", "p1", 1)), null));
+        cache.onReport(new ThreadPoolReportEvent("app", "i1", System.currentTimeMillis(),
+                Collections.singletonList(running("app", "i1", "p3", 1)), Collections.singletonList("p1")));
+        assertEquals("app/i1/p2=0,app/i1/p3=1,app/i2/p1=1,app/i3/p1=1000,other/i1/p1=0", describe(cache.queryThreadPoolList(null)));
+        assertEquals(2, service.listLoads.get());
+        assertEquals(2, cache.stats().get(0).getMissCount());
+    }
+
+    @Test
+    public void test_configInvalidatedOnlyWhenParametersChange() {
+        CountingQueryService service = new CountingQueryService();
+        ThreadPoolQueryCache cache = new ThreadPoolQueryCache(new QueryCacheProperties(), service);
+        assertEquals(1, cache.queryThreadPoolConfig("app", "p1").getCorePoolSize());
+
+        // 仅运行数据变化，配置缓存保留
+        ThreadPoolConfig running = pool("app", "p1", 1);
+        running.setActiveCount(5);
+        cache.onReport(changed(running));
+        cache.queryThreadPoolConfig("app", "p1");
+        assertEquals(1, service.configLoads.get());
+
+        service.corePoolSize = 4;
+        cache.onReport(changed(pool("app", "p1", 4)));
+        assertEquals(4, cache.queryThreadPoolConfig("app", "p1").getCorePoolSize());
+        assertEquals(2, service.configLoads.get());
+
+        // 管理端下发配置后立即失效
+        cache.invalidateConfig("app", "p1");
+        cache.queryThreadPoolConfig("app", "p1");
+        assertEquals(3, service.configLoads.get());
+        assertEquals(2, cache.stats().get(1).getInvalidationCount());
+    }
+
+    @Test
+    public void test_missingConfigCachedUntilReported() {
+        CountingQueryService service = new CountingQueryService();
+        ThreadPoolQueryCache cache = new ThreadPoolQueryCache(new QueryCacheProperties(), service);
+        assertNull(cache.queryThreadPoolConfig("app", "missing"));
+        assertNull(cache.queryThreadPoolConfig("app", "missing"));
+        assertEquals(1, service.configLoads.get());
+
+        cache.onReport(changed(pool("app", "missing", 1)));
+        cache.queryThreadPoolConfig("app", "missing");
+        assertEquals(2, service.configLoads.get());
+    }
+
+    @Test
+    public void test_maximumSizeEvicts() {
+        QueryCacheProperties properties = new QueryCacheProperties();
+        properties.setMaximumSize(2);
+        ThreadPoolQueryCache cache = new ThreadPoolQueryCache(properties, new CountingQueryService());
+        for (int i = 0; i < 5; i++) {
+            cache.queryThreadPoolConfig("app", "p" + i);
+        }
+        QueryCacheStats stats = cache.stats().get(1);
+        assertEquals(2, stats.getSize());
+        assertEquals(3, stats.getEvictionCount());
+    }
+
+}
@@ -0,0 +1,60 @@
+package com.cz.flashtp.admin.domain.metrics;
+
+import com.cz.flashtp.domain.entity.ThreadPoolConfig;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 指标环形缓冲测试
+ *
+ * @author Zjianru
+ */
+public class MetricsRingBufferTest {
+
+    private static ThreadPoolConfig sample(int activeCount, int queueSize) {
+        return ThreadPoolConfig.builder().activeCount(activeCount).queueSize(queueSize).build();
+    }
+
+    @Test
+    public void test_downsampleMinMaxAvg() {
+        MetricsRingBuffer buffer = new MetricsRingBuffer(100);
+        // 每 10ms 一个样本，activeCount 依次为 0..9
+        for (int i = 0; i < 10; i++) {
+            buffer.add(i * 10L, sample(i, 100 - i));
+        }
+        MetricsRange range = buffer.query(0, 100, 2, Arrays.asList(MetricType.ACTIVE_COUNT, MetricType.QUEUE_SIZE));
+        assertEquals(50, range.getBucketMillis());
+        assertArrayEquals(new long[]{0, 50}, range.getTimestamps());
+        MetricsRange.Aggregate active = range.getMetrics().get("activeCount");
+        assertArrayEquals(new float[]{0, 5}, active.getMin(), 0f);
+        assertArrayEquals(new float[]{4, 9}, active.getMax(), 0f);
+        assertArrayEquals(new float[]{2, 7}, active.getAvg(), 0f);
+        MetricsRange.Aggregate queue = range.getMetrics().get("queueSize");
+        assertArrayEquals(new float[]{96, 91}, queue.getMin(), 0f);
+    }
+
+    @Test
+    public void test_overwriteOldestAndSkipEmptyBuckets() {
+        MetricsRingBuffer buffer = new MetricsRingBuffer(4);
+        for (int i = 0; i < 10; i++) {
+            buffer.add(i * 10L, sample(i, 0));
+        }
+        // 只保留最近 4 个样本：60、70、80、90
+        MetricsRange all = buffer.query(0, 100, 10, Collections.singletonList(MetricType.ACTIVE_COUNT));
+        assertArrayEquals(new long[]{60, 70, 80, 90}, all.getTimestamps());
+        assertArrayEquals(new float[]{6, 7, 8, 9}, all.getMetrics().get("activeCount").getAvg(), 0f);
+        assertEquals(90, buffer.lastTimestamp());
+
+        // 区间外的样本不计入，回退的时间戳被丢弃
+        buffer.add(5, sample(100, 0));
+        MetricsRange partial = buffer.query(65, 85, 1, Collections.singletonList(MetricType.ACTIVE_COUNT));
+        assertArrayEquals(new long[]{65}, partial.getTimestamps());
+        assertArrayEquals(new float[]{7.5f}, partial.getMetrics().get("activeCount").getAvg(), 0f);
+    }
+
+}
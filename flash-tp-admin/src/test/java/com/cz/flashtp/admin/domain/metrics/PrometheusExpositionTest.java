@@ -0,0 +1,92 @@
+package com.cz.flashtp.admin.domain.metrics;
+
+import com.cz.flashtp.domain.entity.ThreadPoolConfig;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Prometheus 文本格式指标测试
+ *
+ * @author Zjianru
+ */
+public class PrometheusExpositionTest {
+
+    private static ThreadPoolConfig pool(String instanceId, String threadPoolName, int activeCount) {
+        return ThreadPoolConfig.builder().appName("app").instanceId(instanceId).threadPoolName(threadPoolName)
+                .corePoolSize(4).maximumPoolSize(8).activeCount(activeCount).queueCapacity(100).remainingCapacity(100)
+                .queueWaitP99Ms(1.5).build();
+    }
+
+    @Test
+    public void test_familiesGroupedAcrossSeries() {
+        PrometheusExposition exposition = new PrometheusExposition();
+        exposition.update(10_000, Arrays.asList(pool("i2", "p", 3), pool("i1", "p", 2)));
+        String text = new String(exposition.body(), StandardCharsets.UTF_8);
+
+        // 同一指标族的样本连续出现在 HELP/TYPE 之后，序列按应用、实例、线程池排序
+        assertTrue(text.contains("# TYPE flash_tp_pool_active gauge\n"
+                + "flash_tp_pool_active{app=\"app\",instance=\"i1\",pool=\"p\"} 2\n"
+                + "flash_tp_pool_active{app=\"app\",instance=\"i2\",pool=\"p\"} 3\n"));
+        assertTrue(text.contains("flash_tp_task_queue_wait_milliseconds{app=\"app\",instance=\"i1\",pool=\"p\",quantile=\"0.99\"} 1.5\n"));
+        assertTrue(text.contains("# TYPE flash_tp_tasks_submitted_total counter\n"));
+        assertTrue(text.contains("flash_tp_exposition_pools 2\n"));
+        assertTrue(text.contains("flash_tp_exposition_last_update_seconds 10.0\n"));
+        assertEquals(2, exposition.poolCount());
+        for (String line : text.split("\n")) {
+            assertTrue(line, line.startsWith("# ") || line.matches("[a-z_]+(\\{.*})? [^ ]+"));
+        }
+    }
+
+    @Test
+    public void test_removedSeriesDisappear() {
+        PrometheusExposition exposition = new PrometheusExposition();
+        exposition.update(1, Arrays.asList(pool("i1", "p", 1), pool("i2", "p", 1)));
+        exposition.update(2, Collections.singletonList(pool("i1", "p", 5)));
+        String text = new String(exposition.body(), StandardCharsets.UTF_8);
+        assertFalse(text.contains("instance=\"i2\""));
+        assertTrue(text.contains("flash_tp_pool_active{app=\"app\",instance=\"i1\",pool=\"p\"} 5\n"));
+        assertEquals(1, exposition.poolCount());
+    }
+
+    @Test
+    public void test_gzipCachedPerSnapshot() throws IOException {
+        PrometheusExposition exposition = new PrometheusExposition();
+        exposition.update(1, Collections.singletonList(pool("i1", "p", 1)));
+        byte[] gzip = exposition.gzipBody();
+        assertSame(gzip, exposition.gzipBody());
+        assertArrayEquals(exposition.body(), gunzip(gzip));
+        exposition.update(2, Collections.singletonList(pool("i1", "p", 2)));
+        assertArrayEquals(exposition.body(), gunzip(exposition.gzipBody()));
+    }
+
+    @Test
+    public void test_labelValuesEscaped() {
+        assertEquals("a\\\\b\\\"c\\nd", PrometheusExposition.escape("a\\b\"c\nd"));
+        assertSame("plain", PrometheusExposition.escape("plain"));
+        assertEquals("", PrometheusExposition.escape(null));
+    }
+
+    private static byte[] gunzip(byte[] data) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            for (int n; (n = in.read(buffer)) > 0; ) out.write(buffer, 0, n);
+            return out.toByteArray();
+        }
+    }
+
+}
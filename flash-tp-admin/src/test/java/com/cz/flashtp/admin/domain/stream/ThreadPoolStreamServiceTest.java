@@ -0,0 +1,188 @@
+package com.cz.flashtp.admin.domain.stream;
+
+import com.cz.flashtp.admin.config.StreamProperties;
+import com.cz.flashtp.domain.entity.ThreadPoolConfig;
+import com.cz.flashtp.domain.entity.ThreadPoolReportEvent;
+import org.junit.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 线程池数据推送测试
+ * 未启动推送线程，直接从连接中取出待推送的数据进行校验。
+ *
+ * @author Zjianru
+ */
+public class ThreadPoolStreamServiceTest {
+
+    private static ThreadPoolConfig pool(String appName, String instanceId, String threadPoolName, int activeCount) {
+        return ThreadPoolConfig.builder().appName(appName).instanceId(instanceId).threadPoolName(threadPoolName).activeCount(activeCount).build();
+    }
+
+    private static StreamClient client(String appName) {
+        return new StreamClient(new SseEmitter(), appName, System.currentTimeMillis());
+    }
+
+    @Test
+    public void test_snapshotThenCoalescedDelta() {
+        ThreadPoolStreamService service = new ThreadPoolStreamService(new StreamProperties());
+        service.reconcile(Arrays.asList(pool("app", "i1", "p1", 1), pool("app", "i1", "p2", 1)));
+        StreamClient client = client(null);
+        service.register(client);
+
+        ThreadPoolStreamDelta snapshot = client.drain();
+        assertTrue(snapshot.isSnapshot());
+        assertEquals(2, snapshot.getUpdated().size());
+        assertNull(client.drain());
+
+        // 两次推送之间同一线程池的多次变化只保留最新值
+        for (int i = 2; i <= 5; i++) {
+            service.onReport(new ThreadPoolReportEvent("app", "i1", i, Collections.singletonList(pool("app", "i1", "p1", i)), null));
+        }
+        service.onReport(new ThreadPoolReportEvent("app", "i1", 6, null, Collections.singletonList("p2")));
+        ThreadPoolStreamDelta delta = client.drain();
+        assertFalse(delta.isSnapshot());
+        assertEquals(1, delta.getUpdated().size());
+        assertEquals(5, delta.getUpdated().get(0).getActiveCount());
+        assertEquals(Collections.singletonList("app|i1|p2"), delta.getRemoved());
+        assertEquals(3, client.coalesced());
+    }
+
+    @Test
+    public void test_reconcileDispatchesOnlyChanges() {
+        ThreadPoolStreamService service = new ThreadPoolStreamService(new StreamProperties());
+        service.reconcile(Arrays.asList(pool("app", "i1", "p1", 1), pool("app", "i2", "p1", 1)));
+        StreamClient client = client(null);
+        service.register(client);
+        client.drain();
+
+        // i2 心跳过期，i1 数据未变化
+        service.reconcile(Collections.singletonList(pool("app", "i1", "p1", 1)));
+        ThreadPoolStreamDelta delta = client.drain();
+        assertTrue(delta.getUpdated().isEmpty());
+        assertEquals(Collections.singletonList("app|i2|p1"), delta.getRemoved());
+        assertNull(client.drain());
+    }
+
+    @Test
+    public void test_appFilter() {
+        ThreadPoolStreamService service = new ThreadPoolStreamService(new StreamProperties());
+        service.reconcile(Arrays.asList(pool("a", "i1", "p", 1), pool("b", "i1", "p", 1)));
+        StreamClient client = client("a");
+        service.register(client);
+        ThreadPoolStreamDelta snapshot = client.drain();
+        assertEquals(1, snapshot.getUpdated().size());
+        assertEquals("a", snapshot.getUpdated().get(0).getAppName());
+
+        service.onReport(new ThreadPoolReportEvent("b", "i1", 1, Collections.singletonList(pool("b", "i1", "p", 2)), null));
+        assertNull(client.drain());
+    }
+
+    @Test(timeout = 10000)
+    public void test_concurrentConnectsRespectMaxClients() throws Exception {
+        StreamProperties properties = new StreamProperties();
+        properties.setMaxClients(5);
+        ThreadPoolStreamService service = new ThreadPoolStreamService(properties);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger accepted = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                if (null != service.connect(null)) accepted.incrementAndGet();
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        assertEquals(5, accepted.get());
+        assertEquals(5, service.clientCount());
+    }
+
+    @Test(timeout = 10000)
+    public void test_slowClientDroppedAfterSendTimeout() throws InterruptedException {
+        StreamProperties properties = new StreamProperties();
+        properties.setSenderThreads(1);
+        properties.setFlushInterval(20);
+        properties.setSendTimeout(200);
+        ThreadPoolStreamService service = new ThreadPoolStreamService(properties);
+        service.reconcile(Collections.singletonList(pool("app", "i1", "p1", 1)));
+        service.start();
+        try {
+            BlockingEmitter blocked = new BlockingEmitter();
+            StreamClient slow = new StreamClient(blocked, null, System.currentTimeMillis());
+            assertTrue(service.register(slow));
+            assertTrue(blocked.entered.await(5, TimeUnit.SECONDS));
+
+            // 唯一的推送线程被慢客户端占用，超时后连接被关闭、推送线程被中断
+            RecordingEmitter emitter = new RecordingEmitter();
+            assertTrue(service.register(new StreamClient(emitter, null, System.currentTimeMillis())));
+            assertTrue(blocked.interrupted.await(5, TimeUnit.SECONDS));
+            assertTrue(emitter.sent.await(5, TimeUnit.SECONDS));
+            assertEquals(1, service.clientCount());
+        } finally {
+            service.stop();
+        }
+    }
+
+    @Test
+    public void test_removedBeforeSnapshotSentIsDropped() {
+        StreamClient client = client(null);
+        client.offer("app|i1|p1", pool("app", "i1", "p1", 1));
+        client.offer("app|i1|p1", null);
+        ThreadPoolStreamDelta snapshot = client.drain();
+        assertTrue(snapshot.isSnapshot());
+        assertTrue(snapshot.getUpdated().isEmpty());
+        assertTrue(snapshot.getRemoved().isEmpty());
+    }
+
+    /**
+     * 写入一直阻塞的连接，模拟不读取数据的慢客户端
+     */
+    private static final class BlockingEmitter extends SseEmitter {
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch interrupted = new CountDownLatch(1);
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            entered.countDown();
+            try {
+                new CountDownLatch(1).await();
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw new InterruptedIOException();
+            }
+        }
+    }
+
+    private static final class RecordingEmitter extends SseEmitter {
+        private final CountDownLatch sent = new CountDownLatch(1);
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            sent.countDown();
+        }
+    }
+
+}
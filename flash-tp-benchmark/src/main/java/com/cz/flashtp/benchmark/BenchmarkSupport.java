@@ -0,0 +1,118 @@
+package com.cz.flashtp.benchmark;
+
+import com.cz.flashtp.domain.entity.ThreadPoolConfig;
+import com.cz.flashtp.domain.executor.EagerThreadPoolExecutor;
+import com.cz.flashtp.domain.executor.FlashTpExecutor;
+import com.cz.flashtp.domain.queue.ResizableCapacityLinkedBlockingQueue;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基准公共构造
+ * 线程池参数与 demo 中的声明保持一致：有界可调整队列、CallerRunsPolicy。
+ *
+ * @author Zjianru
+ */
+public final class BenchmarkSupport {
+
+    /**
+     * 普通线程池
+     */
+    public static final String PLAIN = "plain";
+
+    /**
+     * 托管线程池
+     */
+    public static final String MANAGED = "managed";
+
+    /**
+     * 优先创建线程的托管线程池
+     */
+    public static final String EAGER = "eager";
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * 创建线程池
+     *
+     * @param type          {@link #PLAIN}、{@link #MANAGED} 或 {@link #EAGER}
+     * @param poolSize      核心与最大线程数
+     * @param queueCapacity 队列容量
+     * @return 线程池
+     */
+    public static ThreadPoolExecutor newExecutor(String type, int poolSize, int queueCapacity) {
+        return newExecutor(type, poolSize, poolSize, queueCapacity);
+    }
+
+    /**
+     * 创建线程池
+     *
+     * @param type            {@link #PLAIN}、{@link #MANAGED} 或 {@link #EAGER}
+     * @param corePoolSize    核心线程数
+     * @param maximumPoolSize 最大线程数
+     * @param queueCapacity   队列容量
+     * @return 线程池
+     */
+    public static ThreadPoolExecutor newExecutor(String type, int corePoolSize, int maximumPoolSize, int queueCapacity) {
+        ThreadPoolExecutor plain = new ThreadPoolExecutor(corePoolSize, maximumPoolSize, 60, TimeUnit.SECONDS,
+                new ResizableCapacityLinkedBlockingQueue<>(queueCapacity),
+                Executors.defaultThreadFactory(),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        if (PLAIN.equals(type)) return plain;
+        if (MANAGED.equals(type)) return FlashTpExecutor.from(plain);
+        if (EAGER.equals(type)) return EagerThreadPoolExecutor.from(plain);
+        throw new IllegalArgumentException("unknown executor type " + type);
+    }
+
+    public static void shutdown(ThreadPoolExecutor executor) throws InterruptedException {
+        if (null == executor) return;
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 典型的上报快照，数值取自 demo 压测时的典型值
+     * 编解码的大小与耗时只在基准模块中测量，各基准共用这一份数据，不在单元测试中另行复制
+     */
+    public static ThreadPoolConfig sampleConfig() {
+        return ThreadPoolConfig.builder()
+                .appName("flash-tp-demo")
+                .instanceId("10.0.0.12:24816")
+                .threadPoolName("threadPoolExecutor01")
+                .corePoolSize(20)
+                .maximumPoolSize(50)
+                .activeCount(17)
+                .poolSize(20)
+                .queueType("ResizableCapacityLinkedBlockingQueue")
+                .queueSize(312)
+                .remainingCapacity(4688)
+                .queueCapacity(5000)
+                .latencySampleCount(48211)
+                .queueWaitP50Ms(1.2)
+                .queueWaitP99Ms(35.7)
+                .queueWaitP999Ms(120.4)
+                .runTimeP50Ms(8.1)
+                .runTimeP99Ms(62.3)
+                .runTimeP999Ms(240.9)
+                .submittedTaskCount(12_884_901L)
+                .completedTaskCount(12_884_570L)
+                .failedTaskCount(31)
+                .rejectedTaskCount(19)
+                .tps(2410.55)
+                .rejectionRate(0.0004)
+                .sampleCount(201)
+                .activeCountMin(3)
+                .activeCountMax(20)
+                .activeCountAvg(14.61)
+                .poolSizeMin(20)
+                .poolSizeMax(20)
+                .poolSizeAvg(20)
+                .queueSizeMax(1870)
+                .queueSizeAvg(402.17)
+                .build();
+    }
+
+}
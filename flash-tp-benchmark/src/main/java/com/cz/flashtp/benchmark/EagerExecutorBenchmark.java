@@ -0,0 +1,83 @@
+package com.cz.flashtp.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * I/O 密集型任务下标准托管线程池与优先创建线程的托管线程池对比。
+ * 两者参数相同（核心线程数、最大线程数、有界队列），每次调用突发提交一批以休眠模拟 I/O 等待的任务并等待全部完成：
+ * 标准线程池在队列未满时线程数停留在核心线程数，任务排队串行等待；优先创建线程模式先扩容到最大线程数再排队。
+ * Throughput 按单个任务折算吞吐，SampleTime 给出整批完成耗时的分布（尾延迟）。
+ *
+ * @author Zjianru
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EagerExecutorBenchmark {
+
+    private static final int BATCH = 256;
+
+    @Param({BenchmarkSupport.MANAGED, BenchmarkSupport.EAGER})
+    public String executorType;
+
+    @Param({"4"})
+    public int corePoolSize;
+
+    @Param({"64"})
+    public int maximumPoolSize;
+
+    /**
+     * 单个任务模拟的 I/O 等待（单位：微秒）
+     */
+    @Param({"1000"})
+    public long ioMicros;
+
+    private ThreadPoolExecutor executor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        executor = BenchmarkSupport.newExecutor(executorType, corePoolSize, maximumPoolSize, BATCH * 4);
+        executor.prestartAllCoreThreads();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        BenchmarkSupport.shutdown(executor);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void burst() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(BATCH);
+        long ioNanos = TimeUnit.MICROSECONDS.toNanos(ioMicros);
+        for (int i = 0; i < BATCH; i++) {
+            executor.execute(() -> {
+                LockSupport.parkNanos(ioNanos);
+                done.countDown();
+            });
+        }
+        done.await();
+    }
+
+}
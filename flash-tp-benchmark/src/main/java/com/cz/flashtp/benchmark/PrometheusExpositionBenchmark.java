@@ -0,0 +1,131 @@
+package com.cz.flashtp.benchmark;
+
+import com.cz.flashtp.admin.domain.metrics.PrometheusExposition;
+import com.cz.flashtp.domain.entity.ThreadPoolConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 管理端 {@link PrometheusExposition} 基准
+ * 约 50000 条时间序列（40 个应用 × 3 个实例 × 10 个线程池），分别衡量采集时的全量渲染、10% 线程池变化时的增量渲染、
+ * 新快照的 gzip 压缩，以及抓取时复制预渲染响应体的耗时。实际序列数与响应体大小在初始化时输出到控制台。
+ *
+ * @author Zjianru
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PrometheusExpositionBenchmark {
+
+    private static final int APPS = 40;
+    private static final int INSTANCES = 3;
+    private static final int POOLS = 10;
+
+    private List<ThreadPoolConfig> fleet;
+    private List<ThreadPoolConfig> changed;
+    private PrometheusExposition exposition;
+    private byte[] sink;
+    private boolean flip;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fleet = fleet(0);
+        changed = fleet(1);
+        exposition = new PrometheusExposition();
+        exposition.update(System.currentTimeMillis(), fleet);
+        sink = new byte[exposition.body().length];
+        System.out.printf("%n[flash-tp] prometheus pools: %d, series: %d, body: %d bytes, gzip: %d bytes%n",
+                exposition.poolCount(), exposition.sampleCount(), exposition.body().length, exposition.gzipBody().length);
+    }
+
+    @Benchmark
+    public int fullRender() {
+        PrometheusExposition fresh = new PrometheusExposition();
+        fresh.update(System.currentTimeMillis(), fleet);
+        return fresh.body().length;
+    }
+
+    /**
+     * 在两批数据之间交替，每次更新有十分之一的线程池需要重新渲染
+     */
+    @Benchmark
+    public int incrementalRender() {
+        flip = !flip;
+        exposition.update(System.currentTimeMillis(), flip ? changed : fleet);
+        return exposition.body().length;
+    }
+
+    @Benchmark
+    public int gzip(FreshSnapshot fresh) {
+        return fresh.exposition.gzipBody().length;
+    }
+
+    /**
+     * 抓取只复制预渲染好的字节
+     */
+    @Benchmark
+    public int scrape() {
+        byte[] body = exposition.body();
+        if (sink.length < body.length) sink = new byte[body.length];
+        System.arraycopy(body, 0, sink, 0, body.length);
+        return body.length;
+    }
+
+    /**
+     * gzip 结果按快照缓存，每次调用前以相同数据生成新快照（不重新渲染序列）
+     */
+    @State(Scope.Thread)
+    public static class FreshSnapshot {
+
+        private final List<ThreadPoolConfig> fleet = fleet(0);
+        private final PrometheusExposition exposition = new PrometheusExposition();
+
+        @Setup(Level.Invocation)
+        public void update() {
+            exposition.update(System.currentTimeMillis(), fleet);
+        }
+    }
+
+    /**
+     * 生成一批上报数据，round 不为 0 时十分之一的线程池活跃线程数发生变化
+     */
+    private static List<ThreadPoolConfig> fleet(int round) {
+        List<ThreadPoolConfig> threadPools = new ArrayList<>(APPS * INSTANCES * POOLS);
+        int index = 0;
+        for (int app = 0; app < APPS; app++) {
+            for (int instance = 0; instance < INSTANCES; instance++) {
+                for (int pool = 0; pool < POOLS; pool++, index++) {
+                    threadPools.add(ThreadPoolConfig.builder()
+                            .appName("app-" + app)
+                            .instanceId("10.0." + app % 256 + "." + instance + ":8080")
+                            .threadPoolName("threadPoolExecutor" + pool)
+                            .corePoolSize(20).maximumPoolSize(50)
+                            .activeCount(index % 10 == 0 ? round + 7 : 7)
+                            .poolSize(20).queueType("ResizableCapacityLinkedBlockingQueue")
+                            .queueSize(12).remainingCapacity(4988).queueCapacity(5000)
+                            .submittedTaskCount(1_000_000L + index).completedTaskCount(999_000L + index)
+                            .tps(120.5).queueWaitP99Ms(3.25).runTimeP99Ms(40.5)
+                            .build());
+                }
+            }
+        }
+        return threadPools;
+    }
+
+}
@@ -0,0 +1,68 @@
+package com.cz.flashtp.benchmark;
+
+import com.cz.flashtp.domain.entity.ThreadPoolConfig;
+import com.cz.flashtp.domain.invoker.DefaultThreadPoolService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link DefaultThreadPoolService#queryThreadPoolList()} 基准，线程池数分别为 10 / 100 / 1000
+ *
+ * @author Zjianru
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QueryThreadPoolListBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int poolCount;
+
+    @Param({BenchmarkSupport.PLAIN, BenchmarkSupport.MANAGED})
+    public String executorType;
+
+    private Map<String, ThreadPoolExecutor> executors;
+    private DefaultThreadPoolService service;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        executors = new LinkedHashMap<>();
+        for (int i = 0; i < poolCount; i++) {
+            executors.put("pool-" + i, BenchmarkSupport.newExecutor(executorType, 2, 128));
+        }
+        service = new DefaultThreadPoolService("flash-tp-benchmark", "benchmark:1", executors);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        for (ThreadPoolExecutor executor : executors.values()) {
+            BenchmarkSupport.shutdown(executor);
+        }
+    }
+
+    @Benchmark
+    public List<ThreadPoolConfig> queryThreadPoolList() {
+        return service.queryThreadPoolList();
+    }
+
+}
@@ -0,0 +1,79 @@
+package com.cz.flashtp.benchmark;
+
+import com.cz.flashtp.domain.invoker.DefaultThreadPoolService;
+import com.cz.flashtp.domain.metrics.ThreadPoolSampler;
+import com.cz.flashtp.trigger.job.ThreadPoolDataReportJob;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 上报周期与高频采样基准，注册中心使用 {@link StubRegistry}，不依赖 Redis。
+ * report 衡量一个上报周期在上报线程上的开销（采集、合并采样窗口、提交），sample 衡量一次高频采样的开销。
+ *
+ * @author Zjianru
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReportCycleBenchmark {
+
+    @Param({"10", "100"})
+    public int poolCount;
+
+    private Map<String, ThreadPoolExecutor> executors;
+    private ThreadPoolSampler sampler;
+    private ThreadPoolDataReportJob job;
+    private StubRegistry registry;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        executors = new LinkedHashMap<>();
+        for (int i = 0; i < poolCount; i++) {
+            executors.put("pool-" + i, BenchmarkSupport.newExecutor(BenchmarkSupport.MANAGED, 2, 128));
+        }
+        DefaultThreadPoolService service = new DefaultThreadPoolService("flash-tp-benchmark", "benchmark:1", executors);
+        registry = new StubRegistry();
+        // 采样由基准方法驱动，不启动采样线程
+        sampler = new ThreadPoolSampler(executors, 0);
+        job = new ThreadPoolDataReportJob(service, registry, ThreadPoolDataReportJob.DEFAULT_REPORT_INTERVAL,
+                ThreadPoolDataReportJob.DEFAULT_REPORT_TIMEOUT, ThreadPoolDataReportJob.DEFAULT_BACKLOG_LIMIT, sampler);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        if (registry.cycles() == 0) throw new IllegalStateException("no report cycle executed");
+        for (ThreadPoolExecutor executor : executors.values()) {
+            BenchmarkSupport.shutdown(executor);
+        }
+    }
+
+    @Benchmark
+    public void report() {
+        job.execReportThreadPoolList();
+    }
+
+    @Benchmark
+    public void sample() {
+        sampler.sample();
+    }
+
+}
@@ -0,0 +1,62 @@
+package com.cz.flashtp.benchmark;
+
+import com.cz.flashtp.domain.entity.ThreadPoolConfig;
+import com.cz.flashtp.domain.entity.ThreadPoolConfigAck;
+import com.cz.flashtp.domain.entity.TuningDecision;
+import com.cz.flashtp.registry.Registry;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 离线基准使用的注册中心
+ * 不访问网络，只记录调用次数与上报的线程池数，上报立即成功，基准结果只反映 starter 自身的开销。
+ *
+ * @author Zjianru
+ */
+public class StubRegistry implements Registry {
+
+    private final AtomicLong cycles = new AtomicLong();
+    private final AtomicLong pools = new AtomicLong();
+
+    @Override
+    public void reportThreadPool(List<ThreadPoolConfig> threadPools) {
+        pools.addAndGet(threadPools.size());
+    }
+
+    @Override
+    public void reportThreadPoolConfigParameter(ThreadPoolConfig threadPoolConfig) {
+        pools.incrementAndGet();
+    }
+
+    @Override
+    public void reportThreadPoolCycle(List<ThreadPoolConfig> threadPools) {
+        cycles.incrementAndGet();
+        pools.addAndGet(threadPools.size());
+    }
+
+    @Override
+    public CompletableFuture<Void> reportThreadPoolCycleAsync(List<ThreadPoolConfig> threadPools, Duration timeout) {
+        reportThreadPoolCycle(threadPools);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public void reportTuningDecision(TuningDecision decision) {
+    }
+
+    @Override
+    public void reportConfigAck(ThreadPoolConfigAck ack) {
+    }
+
+    public long cycles() {
+        return cycles.get();
+    }
+
+    public long pools() {
+        return pools.get();
+    }
+
+}
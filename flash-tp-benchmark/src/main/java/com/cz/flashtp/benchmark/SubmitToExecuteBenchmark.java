@@ -0,0 +1,67 @@
+package com.cz.flashtp.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 提交到执行完成的开销基准，对比托管线程池与普通线程池。
+ * 每次调用提交一批空任务并等待全部执行完成，结果按单个任务折算；差值即托管线程池的耗时记录与计数开销。
+ *
+ * @author Zjianru
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SubmitToExecuteBenchmark {
+
+    private static final int BATCH = 1000;
+
+    @Param({BenchmarkSupport.PLAIN, BenchmarkSupport.MANAGED})
+    public String executorType;
+
+    @Param({"4"})
+    public int poolSize;
+
+    private ThreadPoolExecutor executor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        executor = BenchmarkSupport.newExecutor(executorType, poolSize, BATCH * 2);
+        executor.prestartAllCoreThreads();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        BenchmarkSupport.shutdown(executor);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void submitAndAwait() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            executor.execute(done::countDown);
+        }
+        done.await();
+    }
+
+}
@@ -0,0 +1,69 @@
+package com.cz.flashtp.benchmark;
+
+import com.cz.flashtp.domain.codec.FlashTpRedisCodec;
+import com.cz.flashtp.domain.entity.ThreadPoolConfig;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.redisson.client.codec.Codec;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ThreadPoolConfig} 编解码基准，对比当前默认的 JSON 与紧凑二进制编解码。
+ * 编码结果大小在初始化时输出到控制台；使用 {@code -prof gc} 可同时查看每次操作的分配字节数。
+ *
+ * @author Zjianru
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ThreadPoolConfigCodecBenchmark {
+
+    @Param({FlashTpRedisCodec.JSON, FlashTpRedisCodec.BINARY})
+    public String codecName;
+
+    private Codec codec;
+    private ThreadPoolConfig config;
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        codec = FlashTpRedisCodec.select(codecName);
+        config = BenchmarkSupport.sampleConfig();
+        ByteBuf buf = codec.getValueEncoder().encode(config);
+        encoded = new byte[buf.readableBytes()];
+        buf.readBytes(encoded);
+        buf.release();
+        System.out.printf("%n[flash-tp] codec %s: %d bytes%n", codecName, encoded.length);
+    }
+
+    @Benchmark
+    public int encode() throws IOException {
+        ByteBuf buf = codec.getValueEncoder().encode(config);
+        int size = buf.readableBytes();
+        buf.release();
+        return size;
+    }
+
+    @Benchmark
+    public Object decode() throws IOException {
+        return codec.getValueDecoder().decode(Unpooled.wrappedBuffer(encoded), null);
+    }
+
+}
@@ -0,0 +1,75 @@
+package com.cz.flashtp.benchmark;
+
+import com.cz.flashtp.domain.entity.ThreadPoolConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ThreadPoolConfig#getInstance(String, String, ThreadPoolExecutor)} 并发采集基准
+ * 4 个线程同时采集同一个线程池，后台线程持续提交短任务使工作线程保持忙碌。
+ * 普通线程池的 getActiveCount、getPoolSize 需要持有 mainLock，托管线程池读取计数器。
+ *
+ * @author Zjianru
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class ThreadPoolConfigSnapshotBenchmark {
+
+    @Param({BenchmarkSupport.PLAIN, BenchmarkSupport.MANAGED})
+    public String executorType;
+
+    private ThreadPoolExecutor executor;
+    private Thread feeder;
+    private volatile boolean running;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        executor = BenchmarkSupport.newExecutor(executorType, 8, 1024);
+        executor.prestartAllCoreThreads();
+        running = true;
+        feeder = new Thread(() -> {
+            while (running) {
+                try {
+                    executor.execute(Thread::onSpinWait);
+                } catch (Exception e) {
+                    return;
+                }
+            }
+        }, "benchmark-feeder");
+        feeder.setDaemon(true);
+        feeder.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        running = false;
+        feeder.join(TimeUnit.SECONDS.toMillis(5));
+        BenchmarkSupport.shutdown(executor);
+    }
+
+    @Benchmark
+    public ThreadPoolConfig getInstance() {
+        return ThreadPoolConfig.getInstance("flash-tp-benchmark", "pool", executor);
+    }
+
+}
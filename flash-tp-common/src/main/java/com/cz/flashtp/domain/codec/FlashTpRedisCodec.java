@@ -0,0 +1,129 @@
+package com.cz.flashtp.domain.codec;
+
+import com.cz.flashtp.domain.entity.ThreadPoolConfig;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import org.redisson.client.codec.BaseCodec;
+import org.redisson.client.codec.Codec;
+import org.redisson.client.protocol.Decoder;
+import org.redisson.client.protocol.Encoder;
+import org.redisson.codec.JsonJacksonCodec;
+
+/**
+ * Redisson 编解码器
+ * {@link ThreadPoolConfig} 写入时可选 {@link ThreadPoolConfigCodec} 紧凑二进制格式或 JSON，其余类型以及 Hash 的 field 交给后备编解码器（默认 {@link JsonJacksonCodec}）。
+ * 解码时按首字节区分格式，两种写入方式都能读取二进制与 JSON 数据。
+ * 切换时先把管理端与各应用实例都升级到本版本（仍使用 json，只写 JSON），再逐个改为 binary，期间管理端推送的二进制配置也能被 json 实例读取。
+ *
+ * @author Zjianru
+ */
+public class FlashTpRedisCodec extends BaseCodec {
+
+    /**
+     * 写入 JSON，与之前的默认配置格式相同
+     */
+    public static final String JSON = "json";
+
+    /**
+     * 线程池配置写入紧凑二进制格式
+     */
+    public static final String BINARY = "binary";
+
+    private static final ThreadLocal<byte[]> SCRATCH = ThreadLocal.withInitial(() -> new byte[512]);
+
+    private final Codec fallback;
+
+    /**
+     * 线程池配置是否写入二进制格式
+     */
+    private final boolean binaryWrites;
+
+    private final Encoder encoder;
+
+    private final Decoder<Object> decoder;
+
+    public FlashTpRedisCodec() {
+        this(JsonJacksonCodec.INSTANCE);
+    }
+
+    /**
+     * Redisson 按线程上下文类加载器复制编解码器时使用
+     */
+    public FlashTpRedisCodec(ClassLoader classLoader, FlashTpRedisCodec codec) {
+        this(BaseCodec.copy(classLoader, codec.fallback), codec.binaryWrites);
+    }
+
+    /**
+     * @param fallback 非线程池配置数据使用的编解码器
+     */
+    public FlashTpRedisCodec(Codec fallback) {
+        this(fallback, true);
+    }
+
+    /**
+     * @param fallback     非线程池配置数据使用的编解码器
+     * @param binaryWrites 线程池配置是否写入二进制格式，为 false 时写入 JSON、只读取二进制
+     */
+    public FlashTpRedisCodec(Codec fallback, boolean binaryWrites) {
+        this.fallback = fallback;
+        this.binaryWrites = binaryWrites;
+        this.encoder = in -> {
+            if (!binaryWrites || !(in instanceof ThreadPoolConfig)) return fallback.getValueEncoder().encode(in);
+            ThreadPoolConfigCodec.Output output = ThreadPoolConfigCodec.encodeReusable((ThreadPoolConfig) in);
+            ByteBuf out = ByteBufAllocator.DEFAULT.buffer(output.length());
+            out.writeBytes(output.array(), 0, output.length());
+            return out;
+        };
+        this.decoder = (buf, state) -> {
+            if (buf.readableBytes() == 0 || !ThreadPoolConfigCodec.isBinary(buf.getByte(buf.readerIndex()))) {
+                return fallback.getValueDecoder().decode(buf, state);
+            }
+            int length = buf.readableBytes();
+            byte[] scratch = SCRATCH.get();
+            if (scratch.length < length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+                SCRATCH.set(scratch);
+            }
+            buf.readBytes(scratch, 0, length);
+            return ThreadPoolConfigCodec.decode(scratch, 0, length);
+        };
+    }
+
+    /**
+     * 按名称选择编解码器
+     *
+     * @param name {@link #JSON} 或 {@link #BINARY}，为空时使用 JSON；两者都能读取二进制与 JSON 数据，只是写入格式不同
+     * @return 编解码器
+     */
+    public static Codec select(String name) {
+        if (null == name || name.isEmpty() || JSON.equalsIgnoreCase(name)) return new FlashTpRedisCodec(JsonJacksonCodec.INSTANCE, false);
+        if (BINARY.equalsIgnoreCase(name)) return new FlashTpRedisCodec();
+        throw new IllegalArgumentException("unknown flash-tp codec: " + name);
+    }
+
+    @Override
+    public Decoder<Object> getValueDecoder() {
+        return decoder;
+    }
+
+    @Override
+    public Encoder getValueEncoder() {
+        return encoder;
+    }
+
+    @Override
+    public Decoder<Object> getMapKeyDecoder() {
+        return fallback.getMapKeyDecoder();
+    }
+
+    @Override
+    public Encoder getMapKeyEncoder() {
+        return fallback.getMapKeyEncoder();
+    }
+
+    @Override
+    public ClassLoader getClassLoader() {
+        return fallback.getClassLoader();
+    }
+
+}
@@ -0,0 +1,543 @@
+package com.cz.flashtp.domain.codec;
+
+import com.cz.flashtp.domain.entity.ThreadPoolConfig;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 线程池配置紧凑二进制编解码
+ * 格式：魔数 {@link #MAGIC}、版本号 {@link #VERSION}，之后是若干字段，每个字段为 {@code 变长整数标签 + 值}，
+ * 标签 = 字段编号 << 3 | 线路类型：
+ * <ul>
+ *     <li>{@link #WIRE_VARINT}：整数，ZigZag 后按 7 位一组变长编码，小数值只占 1 个字节；布尔值按 0、1 编码；</li>
+ *     <li>{@link #WIRE_FIXED64}：浮点数，8 字节小端序；</li>
+ *     <li>{@link #WIRE_BYTES}：字符串，变长长度 + UTF-8 字节；整数数组，变长长度 + 逐个 ZigZag 变长整数。</li>
+ * </ul>
+ * 取默认值（0、null）的字段不写入，布尔包装类型为 null 时不写入，false 照常写入。与 JSON 相比不携带类名与字段名，报文通常只有 JSON 的几分之一。
+ * <p>
+ * 兼容规则：字段编号一经分配不再修改、不再复用；新增字段使用新编号，旧版本解码时按线路类型跳过未知字段，
+ * 新版本解码旧数据时缺失的字段保持默认值；只有无法兼容的格式变更才提升版本号，解码端拒绝高于自身的版本。
+ * <p>
+ * 编码使用线程本地的可复用缓冲区，除返回结果外不产生中间对象。
+ *
+ * @author Zjianru
+ */
+public final class ThreadPoolConfigCodec {
+
+    /**
+     * 魔数，不是合法的 UTF-8 首字节，与 JSON 文本可区分
+     */
+    public static final byte MAGIC = (byte) 0xFF;
+
+    /**
+     * 当前格式版本
+     */
+    public static final int VERSION = 1;
+
+    static final int WIRE_VARINT = 0;
+    static final int WIRE_FIXED64 = 1;
+    static final int WIRE_BYTES = 2;
+
+    private static final int APP_NAME = 1;
+    private static final int INSTANCE_ID = 2;
+    private static final int THREAD_POOL_NAME = 3;
+    private static final int CORE_POOL_SIZE = 4;
+    private static final int MAXIMUM_POOL_SIZE = 5;
+    private static final int ACTIVE_COUNT = 6;
+    private static final int POOL_SIZE = 7;
+    private static final int QUEUE_TYPE = 8;
+    private static final int QUEUE_SIZE = 9;
+    private static final int REMAINING_CAPACITY = 10;
+    private static final int QUEUE_CAPACITY = 11;
+    private static final int LATENCY_SAMPLE_COUNT = 12;
+    private static final int QUEUE_WAIT_P50_MS = 13;
+    private static final int QUEUE_WAIT_P99_MS = 14;
+    private static final int QUEUE_WAIT_P999_MS = 15;
+    private static final int RUN_TIME_P50_MS = 16;
+    private static final int RUN_TIME_P99_MS = 17;
+    private static final int RUN_TIME_P999_MS = 18;
+    private static final int SUBMITTED_TASK_COUNT = 19;
+    private static final int COMPLETED_TASK_COUNT = 20;
+    private static final int FAILED_TASK_COUNT = 21;
+    private static final int REJECTED_TASK_COUNT = 22;
+    private static final int TPS = 23;
+    private static final int REJECTION_RATE = 24;
+    private static final int SAMPLE_COUNT = 25;
+    private static final int ACTIVE_COUNT_MIN = 26;
+    private static final int ACTIVE_COUNT_MAX = 27;
+    private static final int ACTIVE_COUNT_AVG = 28;
+    private static final int POOL_SIZE_MIN = 29;
+    private static final int POOL_SIZE_MAX = 30;
+    private static final int POOL_SIZE_AVG = 31;
+    private static final int QUEUE_SIZE_MIN = 32;
+    private static final int QUEUE_SIZE_MAX = 33;
+    private static final int QUEUE_SIZE_AVG = 34;
+    private static final int LANE_COUNT = 35;
+    private static final int LANE_CAPACITY = 36;
+    private static final int LANE_DEPTHS = 37;
+    private static final int LANE_DEPTH_MAX = 38;
+    private static final int LANE_SKEW = 39;
+    private static final int HOT_LANE = 40;
+    private static final int HOT_KEY = 41;
+    private static final int POOL_TYPE = 42;
+    private static final int PARALLELISM = 43;
+    private static final int STEAL_COUNT = 44;
+    private static final int QUEUED_SUBMISSION_COUNT = 45;
+    private static final int RUNNING_THREAD_COUNT = 46;
+    private static final int SCHEDULE_LAG_P99_MS = 47;
+    private static final int SCHEDULE_LAG_MAX_MS = 48;
+    private static final int SPILL_DEPTH = 49;
+    private static final int SPILL_BYTES = 50;
+    private static final int SPILLED_TASK_COUNT = 51;
+    private static final int SPILL_DRAINED_TASK_COUNT = 52;
+    private static final int SPILL_FAILED_TASK_COUNT = 53;
+    private static final int SPILL_DRAIN_RATE = 54;
+    private static final int ADMISSION_LIMIT = 55;
+    private static final int ADMISSION_MIN_LIMIT = 56;
+    private static final int ADMISSION_MAX_LIMIT = 57;
+    private static final int ADMISSION_IN_FLIGHT = 58;
+    private static final int ADMISSION_TARGET_QUEUE_WAIT_MS = 59;
+    private static final int ADMISSION_REJECTED_COUNT = 60;
+    private static final int SLOW_TASK_THRESHOLD_MS = 61;
+    private static final int SLOW_TASK_COUNT = 62;
+    private static final int SLOW_TASK_RUNNING_COUNT = 63;
+    private static final int SLOW_TASK_MAX_RUN_MS = 64;
+    private static final int SLOW_TASK_STACKS = 65;
+    private static final int PARALLELISM_ADJUSTABLE = 66;
+
+    private static final ThreadLocal<Output> OUTPUT = ThreadLocal.withInitial(() -> new Output(256));
+
+    private ThreadPoolConfigCodec() {
+    }
+
+    /**
+     * 判断数据是否为本格式
+     *
+     * @param first 数据的第一个字节
+     * @return 是否为本格式
+     */
+    public static boolean isBinary(byte first) {
+        return first == MAGIC;
+    }
+
+    /**
+     * 编码为新的字节数组
+     *
+     * @param config 线程池配置
+     * @return 编码结果
+     */
+    public static byte[] encode(ThreadPoolConfig config) {
+        Output output = encodeReusable(config);
+        return Arrays.copyOf(output.buf, output.length);
+    }
+
+    /**
+     * 编码到当前线程的可复用缓冲区，返回的缓冲区在当前线程下一次编码前有效，调用方需立即读取
+     *
+     * @param config 线程池配置
+     * @return 编码结果
+     */
+    public static Output encodeReusable(ThreadPoolConfig config) {
+        Output out = OUTPUT.get();
+        out.length = 0;
+        out.writeByte(MAGIC);
+        out.writeByte(VERSION);
+        out.writeString(APP_NAME, config.getAppName());
+        out.writeString(INSTANCE_ID, config.getInstanceId());
+        out.writeString(THREAD_POOL_NAME, config.getThreadPoolName());
+        out.writeLong(CORE_POOL_SIZE, config.getCorePoolSize());
+        out.writeLong(MAXIMUM_POOL_SIZE, config.getMaximumPoolSize());
+        out.writeLong(ACTIVE_COUNT, config.getActiveCount());
+        out.writeLong(POOL_SIZE, config.getPoolSize());
+        out.writeString(QUEUE_TYPE, config.getQueueType());
+        out.writeLong(QUEUE_SIZE, config.getQueueSize());
+        out.writeLong(REMAINING_CAPACITY, config.getRemainingCapacity());
+        out.writeLong(QUEUE_CAPACITY, config.getQueueCapacity());
+        out.writeLong(LATENCY_SAMPLE_COUNT, config.getLatencySampleCount());
+        out.writeDouble(QUEUE_WAIT_P50_MS, config.getQueueWaitP50Ms());
+        out.writeDouble(QUEUE_WAIT_P99_MS, config.getQueueWaitP99Ms());
+        out.writeDouble(QUEUE_WAIT_P999_MS, config.getQueueWaitP999Ms());
+        out.writeDouble(RUN_TIME_P50_MS, config.getRunTimeP50Ms());
+        out.writeDouble(RUN_TIME_P99_MS, config.getRunTimeP99Ms());
+        out.writeDouble(RUN_TIME_P999_MS, config.getRunTimeP999Ms());
+        out.writeLong(SUBMITTED_TASK_COUNT, config.getSubmittedTaskCount());
+        out.writeLong(COMPLETED_TASK_COUNT, config.getCompletedTaskCount());
+        out.writeLong(FAILED_TASK_COUNT, config.getFailedTaskCount());
+        out.writeLong(REJECTED_TASK_COUNT, config.getRejectedTaskCount());
+        out.writeDouble(TPS, config.getTps());
+        out.writeDouble(REJECTION_RATE, config.getRejectionRate());
+        out.writeLong(SAMPLE_COUNT, config.getSampleCount());
+        out.writeLong(ACTIVE_COUNT_MIN, config.getActiveCountMin());
+        out.writeLong(ACTIVE_COUNT_MAX, config.getActiveCountMax());
+        out.writeDouble(ACTIVE_COUNT_AVG, config.getActiveCountAvg());
+        out.writeLong(POOL_SIZE_MIN, config.getPoolSizeMin());
+        out.writeLong(POOL_SIZE_MAX, config.getPoolSizeMax());
+        out.writeDouble(POOL_SIZE_AVG, config.getPoolSizeAvg());
+        out.writeLong(QUEUE_SIZE_MIN, config.getQueueSizeMin());
+        out.writeLong(QUEUE_SIZE_MAX, config.getQueueSizeMax());
+        out.writeDouble(QUEUE_SIZE_AVG, config.getQueueSizeAvg());
+        out.writeLong(LANE_COUNT, config.getLaneCount());
+        out.writeLong(LANE_CAPACITY, config.getLaneCapacity());
+        out.writeInts(LANE_DEPTHS, config.getLaneDepths());
+        out.writeLong(LANE_DEPTH_MAX, config.getLaneDepthMax());
+        out.writeDouble(LANE_SKEW, config.getLaneSkew());
+        out.writeLong(HOT_LANE, config.getHotLane());
+        out.writeString(HOT_KEY, config.getHotKey());
+        out.writeString(POOL_TYPE, config.getPoolType());
+        out.writeLong(PARALLELISM, config.getParallelism());
+        out.writeLong(STEAL_COUNT, config.getStealCount());
+        out.writeLong(QUEUED_SUBMISSION_COUNT, config.getQueuedSubmissionCount());
+        out.writeLong(RUNNING_THREAD_COUNT, config.getRunningThreadCount());
+        out.writeDouble(SCHEDULE_LAG_P99_MS, config.getScheduleLagP99Ms());
+        out.writeDouble(SCHEDULE_LAG_MAX_MS, config.getScheduleLagMaxMs());
+        out.writeLong(SPILL_DEPTH, config.getSpillDepth());
+        out.writeLong(SPILL_BYTES, config.getSpillBytes());
+        out.writeLong(SPILLED_TASK_COUNT, config.getSpilledTaskCount());
+        out.writeLong(SPILL_DRAINED_TASK_COUNT, config.getSpillDrainedTaskCount());
+        out.writeLong(SPILL_FAILED_TASK_COUNT, config.getSpillFailedTaskCount());
+        out.writeDouble(SPILL_DRAIN_RATE, config.getSpillDrainRate());
+        out.writeLong(ADMISSION_LIMIT, config.getAdmissionLimit());
+        out.writeLong(ADMISSION_MIN_LIMIT, config.getAdmissionMinLimit());
+        out.writeLong(ADMISSION_MAX_LIMIT, config.getAdmissionMaxLimit());
+        out.writeLong(ADMISSION_IN_FLIGHT, config.getAdmissionInFlight());
+        out.writeDouble(ADMISSION_TARGET_QUEUE_WAIT_MS, config.getAdmissionTargetQueueWaitMs());
+        out.writeLong(ADMISSION_REJECTED_COUNT, config.getAdmissionRejectedCount());
+        out.writeLong(SLOW_TASK_THRESHOLD_MS, config.getSlowTaskThresholdMs());
+        out.writeLong(SLOW_TASK_COUNT, config.getSlowTaskCount());
+        out.writeLong(SLOW_TASK_RUNNING_COUNT, config.getSlowTaskRunningCount());
+        out.writeLong(SLOW_TASK_MAX_RUN_MS, config.getSlowTaskMaxRunMs());
+        out.writeString(SLOW_TASK_STACKS, config.getSlowTaskStacks());
+        out.writeBoolean(PARALLELISM_ADJUSTABLE, config.getParallelismAdjustable());
+        return out;
+    }
+
+    public static ThreadPoolConfig decode(byte[] data) {
+        return decode(data, 0, data.length);
+    }
+
+    /**
+     * 解码
+     *
+     * @param data   数据
+     * @param offset 起始位置
+     * @param length 长度
+     * @return 线程池配置
+     * @throws IllegalArgumentException 魔数不匹配、版本不支持或数据被截断
+     */
+    public static ThreadPoolConfig decode(byte[] data, int offset, int length) {
+        Input in = new Input(data, offset, offset + length);
+        if (in.readByte() != MAGIC) throw new IllegalArgumentException("not a flash-tp binary ThreadPoolConfig");
+        int version = in.readByte() & 0xFF;
+        if (version > VERSION) throw new IllegalArgumentException("unsupported ThreadPoolConfig codec version " + version);
+        ThreadPoolConfig config = new ThreadPoolConfig();
+        while (in.hasRemaining()) {
+            int tag = (int) in.readVarint();
+            int field = tag >>> 3;
+            int wireType = tag & 0x7;
+            switch (field) {
+                case APP_NAME: config.setAppName(in.readString(wireType)); break;
+                case INSTANCE_ID: config.setInstanceId(in.readString(wireType)); break;
+                case THREAD_POOL_NAME: config.setThreadPoolName(in.readString(wireType)); break;
+                case CORE_POOL_SIZE: config.setCorePoolSize(in.readInt(wireType)); break;
+                case MAXIMUM_POOL_SIZE: config.setMaximumPoolSize(in.readInt(wireType)); break;
+                case ACTIVE_COUNT: config.setActiveCount(in.readInt(wireType)); break;
+                case POOL_SIZE: config.setPoolSize(in.readInt(wireType)); break;
+                case QUEUE_TYPE: config.setQueueType(in.readString(wireType)); break;
+                case QUEUE_SIZE: config.setQueueSize(in.readInt(wireType)); break;
+                case REMAINING_CAPACITY: config.setRemainingCapacity(in.readInt(wireType)); break;
+                case QUEUE_CAPACITY: config.setQueueCapacity(in.readInt(wireType)); break;
+                case LATENCY_SAMPLE_COUNT: config.setLatencySampleCount(in.readLong(wireType)); break;
+                case QUEUE_WAIT_P50_MS: config.setQueueWaitP50Ms(in.readDouble(wireType)); break;
+                case QUEUE_WAIT_P99_MS: config.setQueueWaitP99Ms(in.readDouble(wireType)); break;
+                case QUEUE_WAIT_P999_MS: config.setQueueWaitP999Ms(in.readDouble(wireType)); break;
+                case RUN_TIME_P50_MS: config.setRunTimeP50Ms(in.readDouble(wireType)); break;
+                case RUN_TIME_P99_MS: config.setRunTimeP99Ms(in.readDouble(wireType)); break;
+                case RUN_TIME_P999_MS: config.setRunTimeP999Ms(in.readDouble(wireType)); break;
+                case SUBMITTED_TASK_COUNT: config.setSubmittedTaskCount(in.readLong(wireType)); break;
+                case COMPLETED_TASK_COUNT: config.setCompletedTaskCount(in.readLong(wireType)); break;
+                case FAILED_TASK_COUNT: config.setFailedTaskCount(in.readLong(wireType)); break;
+                case REJECTED_TASK_COUNT: config.setRejectedTaskCount(in.readLong(wireType)); break;
+                case TPS: config.setTps(in.readDouble(wireType)); break;
+                case REJECTION_RATE: config.setRejectionRate(in.readDouble(wireType)); break;
+                case SAMPLE_COUNT: config.setSampleCount(in.readInt(wireType)); break;
+                case ACTIVE_COUNT_MIN: config.setActiveCountMin(in.readInt(wireType)); break;
+                case ACTIVE_COUNT_MAX: config.setActiveCountMax(in.readInt(wireType)); break;
+                case ACTIVE_COUNT_AVG: config.setActiveCountAvg(in.readDouble(wireType)); break;
+                case POOL_SIZE_MIN: config.setPoolSizeMin(in.readInt(wireType)); break;
+                case POOL_SIZE_MAX: config.setPoolSizeMax(in.readInt(wireType)); break;
+                case POOL_SIZE_AVG: config.setPoolSizeAvg(in.readDouble(wireType)); break;
+                case QUEUE_SIZE_MIN: config.setQueueSizeMin(in.readInt(wireType)); break;
+                case QUEUE_SIZE_MAX: config.setQueueSizeMax(in.readInt(wireType)); break;
+                case QUEUE_SIZE_AVG: config.setQueueSizeAvg(in.readDouble(wireType)); break;
+                case LANE_COUNT: config.setLaneCount(in.readInt(wireType)); break;
+                case LANE_CAPACITY: config.setLaneCapacity(in.readInt(wireType)); break;
+                case LANE_DEPTHS: config.setLaneDepths(in.readInts(wireType)); break;
+                case LANE_DEPTH_MAX: config.setLaneDepthMax(in.readInt(wireType)); break;
+                case LANE_SKEW: config.setLaneSkew(in.readDouble(wireType)); break;
+                case HOT_LANE: config.setHotLane(in.readInt(wireType)); break;
+                case HOT_KEY: config.setHotKey(in.readString(wireType)); break;
+                case POOL_TYPE: config.setPoolType(in.readString(wireType)); break;
+                case PARALLELISM: config.setParallelism(in.readInt(wireType)); break;
+                case STEAL_COUNT: config.setStealCount(in.readLong(wireType)); break;
+                case QUEUED_SUBMISSION_COUNT: config.setQueuedSubmissionCount(in.readInt(wireType)); break;
+                case RUNNING_THREAD_COUNT: config.setRunningThreadCount(in.readInt(wireType)); break;
+                case SCHEDULE_LAG_P99_MS: config.setScheduleLagP99Ms(in.readDouble(wireType)); break;
+                case SCHEDULE_LAG_MAX_MS: config.setScheduleLagMaxMs(in.readDouble(wireType)); break;
+                case SPILL_DEPTH: config.setSpillDepth(in.readLong(wireType)); break;
+                case SPILL_BYTES: config.setSpillBytes(in.readLong(wireType)); break;
+                case SPILLED_TASK_COUNT: config.setSpilledTaskCount(in.readLong(wireType)); break;
+                case SPILL_DRAINED_TASK_COUNT: config.setSpillDrainedTaskCount(in.readLong(wireType)); break;
+                case SPILL_FAILED_TASK_COUNT: config.setSpillFailedTaskCount(in.readLong(wireType)); break;
+                case SPILL_DRAIN_RATE: config.setSpillDrainRate(in.readDouble(wireType)); break;
+                case ADMISSION_LIMIT: config.setAdmissionLimit(in.readInt(wireType)); break;
+                case ADMISSION_MIN_LIMIT: config.setAdmissionMinLimit(in.readInt(wireType)); break;
+                case ADMISSION_MAX_LIMIT: config.setAdmissionMaxLimit(in.readInt(wireType)); break;
+                case ADMISSION_IN_FLIGHT: config.setAdmissionInFlight(in.readInt(wireType)); break;
+                case ADMISSION_TARGET_QUEUE_WAIT_MS: config.setAdmissionTargetQueueWaitMs(in.readDouble(wireType)); break;
+                case ADMISSION_REJECTED_COUNT: config.setAdmissionRejectedCount(in.readLong(wireType)); break;
+                case SLOW_TASK_THRESHOLD_MS: config.setSlowTaskThresholdMs(in.readLong(wireType)); break;
+                case SLOW_TASK_COUNT: config.setSlowTaskCount(in.readLong(wireType)); break;
+                case SLOW_TASK_RUNNING_COUNT: config.setSlowTaskRunningCount(in.readInt(wireType)); break;
+                case SLOW_TASK_MAX_RUN_MS: config.setSlowTaskMaxRunMs(in.readLong(wireType)); break;
+                case SLOW_TASK_STACKS: config.setSlowTaskStacks(in.readString(wireType)); break;
+                case PARALLELISM_ADJUSTABLE: config.setParallelismAdjustable(in.readLong(wireType) != 0); break;
+                default:
+                    // 新版本写入的未知字段
+                    in.skip(wireType);
+            }
+        }
+        return config;
+    }
+
+    /**
+     * 可复用的编码输出缓冲区
+     */
+    public static final class Output {
+
+        private byte[] buf;
+        private int length;
+
+        Output(int capacity) {
+            this.buf = new byte[capacity];
+        }
+
+        /**
+         * 底层数组，有效数据为 [0, length)
+         */
+        public byte[] array() {
+            return buf;
+        }
+
+        public int length() {
+            return length;
+        }
+
+        void writeByte(int value) {
+            ensure(1);
+            buf[length++] = (byte) value;
+        }
+
+        void writeVarint(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buf[length++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buf[length++] = (byte) value;
+        }
+
+        void writeTag(int field, int wireType) {
+            writeVarint((long) field << 3 | wireType);
+        }
+
+        void writeLong(int field, long value) {
+            if (value == 0) return;
+            writeTag(field, WIRE_VARINT);
+            // ZigZag，负数同样只占少量字节
+            writeVarint(zigZag(value));
+        }
+
+        void writeBoolean(int field, Boolean value) {
+            if (null == value) return;
+            writeTag(field, WIRE_VARINT);
+            writeVarint(zigZag(value ? 1 : 0));
+        }
+
+        void writeDouble(int field, double value) {
+            if (Double.doubleToRawLongBits(value) == 0L) return;
+            writeTag(field, WIRE_FIXED64);
+            long bits = Double.doubleToRawLongBits(value);
+            ensure(8);
+            for (int i = 0; i < 8; i++) {
+                buf[length++] = (byte) (bits >>> (i * 8));
+            }
+        }
+
+        void writeString(int field, String value) {
+            if (null == value) return;
+            writeTag(field, WIRE_BYTES);
+            int size = value.length();
+            if (isAscii(value, size)) {
+                // 常见的纯 ASCII 名称直接写入，不产生中间字节数组
+                writeVarint(size);
+                ensure(size);
+                for (int i = 0; i < size; i++) {
+                    buf[length++] = (byte) value.charAt(i);
+                }
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarint(bytes.length);
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buf, length, bytes.length);
+            length += bytes.length;
+        }
+
+        void writeInts(int field, int[] values) {
+            if (null == values) return;
+            writeTag(field, WIRE_BYTES);
+            // 长度前缀为变长整数，先计算编码后的字节数再写入
+            int size = 0;
+            for (int value : values) {
+                size += varintSize(zigZag(value));
+            }
+            writeVarint(size);
+            for (int value : values) {
+                writeVarint(zigZag(value));
+            }
+        }
+
+        private static long zigZag(long value) {
+            return (value << 1) ^ (value >> 63);
+        }
+
+        private static int varintSize(long value) {
+            int size = 1;
+            while ((value & ~0x7FL) != 0) {
+                value >>>= 7;
+                size++;
+            }
+            return size;
+        }
+
+        private static boolean isAscii(String value, int size) {
+            for (int i = 0; i < size; i++) {
+                if (value.charAt(i) >= 0x80) return false;
+            }
+            return true;
+        }
+
+        private void ensure(int extra) {
+            if (length + extra > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length * 2, length + extra));
+            }
+        }
+    }
+
+    /**
+     * 解码输入
+     */
+    private static final class Input {
+
+        private final byte[] buf;
+        private final int limit;
+        private int position;
+
+        Input(byte[] buf, int offset, int limit) {
+            if (offset < 0 || limit > buf.length || offset > limit) throw new IllegalArgumentException("invalid range");
+            this.buf = buf;
+            this.position = offset;
+            this.limit = limit;
+        }
+
+        boolean hasRemaining() {
+            return position < limit;
+        }
+
+        byte readByte() {
+            require(1);
+            return buf[position++];
+        }
+
+        long readVarint() {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = readByte();
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) return result;
+            }
+            throw new IllegalArgumentException("malformed varint");
+        }
+
+        long readLong(int wireType) {
+            expect(wireType, WIRE_VARINT);
+            long value = readVarint();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        int readInt(int wireType) {
+            return (int) readLong(wireType);
+        }
+
+        double readDouble(int wireType) {
+            expect(wireType, WIRE_FIXED64);
+            require(8);
+            long bits = 0;
+            for (int i = 0; i < 8; i++) {
+                bits |= (buf[position++] & 0xFFL) << (i * 8);
+            }
+            return Double.longBitsToDouble(bits);
+        }
+
+        String readString(int wireType) {
+            expect(wireType, WIRE_BYTES);
+            int size = readLength();
+            String value = new String(buf, position, size, StandardCharsets.UTF_8);
+            position += size;
+            return value;
+        }
+
+        int[] readInts(int wireType) {
+            expect(wireType, WIRE_BYTES);
+            int size = readLength();
+            int end = position + size;
+            int[] values = new int[8];
+            int count = 0;
+            while (position < end) {
+                long value = readVarint();
+                if (count == values.length) values = Arrays.copyOf(values, count * 2);
+                values[count++] = (int) ((value >>> 1) ^ -(value & 1));
+            }
+            if (position != end) throw new IllegalArgumentException("malformed packed ints");
+            return Arrays.copyOf(values, count);
+        }
+
+        void skip(int wireType) {
+            switch (wireType) {
+                case WIRE_VARINT: readVarint(); break;
+                case WIRE_FIXED64: require(8); position += 8; break;
+                case WIRE_BYTES:
+                    int size = readLength();
+                    position += size;
+                    break;
+                default: throw new IllegalArgumentException("unknown wire type " + wireType);
+            }
+        }
+
+        private int readLength() {
+            long size = readVarint();
+            if (size < 0 || size > limit - position) throw new IllegalArgumentException("truncated data");
+            return (int) size;
+        }
+
+        private void require(int size) {
+            if (limit - position < size) throw new IllegalArgumentException("truncated data");
+        }
+
+        private static void expect(int actual, int expected) {
+            if (actual != expected) throw new IllegalArgumentException("wire type " + actual + " != " + expected);
+        }
+    }
+
+}
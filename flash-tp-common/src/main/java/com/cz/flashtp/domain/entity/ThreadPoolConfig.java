@@ -22,6 +22,11 @@ public class ThreadPoolConfig {
      */
     private String appName;
 
+    /**
+     * 实例标识，默认 host:pid
+     */
+    private String instanceId;
+
     /**
      * 线程池名称
      */
@@ -62,7 +67,289 @@ public class ThreadPoolConfig {
      */
     private int remainingCapacity;
 
+    /**
+     * 队列容量，修改配置时大于 0 才会生效（要求线程池使用可调整容量的队列）
+     */
+    private int queueCapacity;
+
+    /**
+     * 统计窗口内完成的任务数（托管线程池）
+     */
+    private long latencySampleCount;
+
+    /**
+     * 排队耗时 P50（毫秒）
+     */
+    private double queueWaitP50Ms;
+
+    /**
+     * 排队耗时 P99（毫秒）
+     */
+    private double queueWaitP99Ms;
+
+    /**
+     * 排队耗时 P999（毫秒）
+     */
+    private double queueWaitP999Ms;
+
+    /**
+     * 执行耗时 P50（毫秒）
+     */
+    private double runTimeP50Ms;
+
+    /**
+     * 执行耗时 P99（毫秒）
+     */
+    private double runTimeP99Ms;
+
+    /**
+     * 执行耗时 P999（毫秒）
+     */
+    private double runTimeP999Ms;
+
+    /**
+     * 累计提交任务数，包含被拒绝的任务（托管线程池）
+     */
+    private long submittedTaskCount;
+
+    /**
+     * 累计执行完成任务数，包含执行异常的任务（托管线程池）
+     */
+    private long completedTaskCount;
+
+    /**
+     * 累计执行异常任务数（托管线程池）
+     */
+    private long failedTaskCount;
+
+    /**
+     * 累计被拒绝任务数（托管线程池）
+     */
+    private long rejectedTaskCount;
+
+    /**
+     * 统计窗口内每秒完成的任务数（托管线程池）
+     */
+    private double tps;
+
+    /**
+     * 统计窗口内的拒绝率，被拒绝任务数 / 提交任务数（托管线程池）
+     */
+    private double rejectionRate;
+
+    /**
+     * 上报窗口内的采样次数，以下窗口聚合值基于这些采样计算
+     */
+    private int sampleCount;
+
+    /**
+     * 上报窗口内活跃线程数的最小值
+     */
+    private int activeCountMin;
+
+    /**
+     * 上报窗口内活跃线程数的最大值
+     */
+    private int activeCountMax;
+
+    /**
+     * 上报窗口内活跃线程数的平均值
+     */
+    private double activeCountAvg;
+
+    /**
+     * 上报窗口内池中线程数的最小值
+     */
+    private int poolSizeMin;
+
+    /**
+     * 上报窗口内池中线程数的最大值
+     */
+    private int poolSizeMax;
+
+    /**
+     * 上报窗口内池中线程数的平均值
+     */
+    private double poolSizeAvg;
+
+    /**
+     * 上报窗口内队列深度的最小值
+     */
+    private int queueSizeMin;
+
+    /**
+     * 上报窗口内队列深度的最大值
+     */
+    private int queueSizeMax;
+
+    /**
+     * 上报窗口内队列深度的平均值
+     */
+    private double queueSizeAvg;
+
+    /**
+     * 有序线程池的通道数，非有序线程池为 0
+     */
+    private int laneCount;
+
+    /**
+     * 有序线程池单个通道的排队上限
+     */
+    private int laneCapacity;
+
+    /**
+     * 有序线程池各通道当前排队的任务数，下标为通道编号
+     */
+    private int[] laneDepths;
+
+    /**
+     * 有序线程池排队最多的通道的任务数
+     */
+    private int laneDepthMax;
+
+    /**
+     * 有序线程池统计窗口内提交最多的通道的提交数与各通道平均提交数之比，1 表示完全均匀
+     */
+    private double laneSkew;
+
+    /**
+     * 有序线程池统计窗口内提交最多的通道编号
+     */
+    private int hotLane;
+
+    /**
+     * 有序线程池提交最多的通道中占多数的 key（近似值），没有占多数的 key 时为空
+     */
+    private String hotKey;
+
+    /**
+     * 线程池类型：ThreadPoolExecutor、ScheduledThreadPoolExecutor 或 ForkJoinPool，旧版本客户端不上报时为空，按 ThreadPoolExecutor 处理
+     */
+    private String poolType;
+
+    /**
+     * ForkJoinPool 的目标并行度，其他类型为 0
+     */
+    private int parallelism;
+
+    /**
+     * ForkJoinPool 能否调整并行度（客户端运行在 JDK 19 及以上），为 false 时管理端禁用修改并拒绝调整请求；其他类型与旧版本客户端为空
+     */
+    private Boolean parallelismAdjustable;
+
+    /**
+     * ForkJoinPool 累计窃取的任务数（估算值）
+     */
+    private long stealCount;
+
+    /**
+     * ForkJoinPool 外部提交尚未执行的任务数
+     */
+    private int queuedSubmissionCount;
+
+    /**
+     * ForkJoinPool 未阻塞在 join 或其他同步等待上的工作线程数
+     */
+    private int runningThreadCount;
+
+    /**
+     * 定时线程池统计窗口内任务实际触发时间晚于计划时间的 P99（毫秒）
+     */
+    private double scheduleLagP99Ms;
+
+    /**
+     * 定时线程池统计窗口内任务触发延迟的最大值，以及当前已到期仍在排队的任务的最大延迟（毫秒），两者取大
+     */
+    private double scheduleLagMaxMs;
+
+    /**
+     * 溢出层中落盘等待回灌的任务数，未开启溢出层时为 0
+     */
+    private long spillDepth;
+
+    /**
+     * 溢出层中尚未执行完成的任务占用的磁盘字节数
+     */
+    private long spillBytes;
+
+    /**
+     * 累计落盘的任务数
+     */
+    private long spilledTaskCount;
+
+    /**
+     * 累计从溢出层回灌到内存队列的任务数
+     */
+    private long spillDrainedTaskCount;
+
+    /**
+     * 累计序列化或反序列化失败的溢出任务数
+     */
+    private long spillFailedTaskCount;
+
+    /**
+     * 统计窗口内每秒回灌的任务数
+     */
+    private double spillDrainRate;
+
+    /**
+     * 当前准入限额（允许同时在途的异步提交任务数），未使用异步提交时为 0；调整时作为只读字段忽略
+     */
+    private int admissionLimit;
+
+    /**
+     * 准入限额下限，调整时大于 0 才生效
+     */
+    private int admissionMinLimit;
+
+    /**
+     * 准入限额上限，调整时大于 0 才生效
+     */
+    private int admissionMaxLimit;
+
+    /**
+     * 已准入尚未执行完成的任务数
+     */
+    private int admissionInFlight;
+
+    /**
+     * 准入控制的排队耗时目标（单位：毫秒），调整时大于 0 才生效
+     */
+    private double admissionTargetQueueWaitMs;
+
+    /**
+     * 累计准入拒绝次数
+     */
+    private long admissionRejectedCount;
+
+    /**
+     * 慢任务执行耗时阈值（单位：毫秒），未开启慢任务检测时为 0；调整时大于 0 才生效
+     */
+    private long slowTaskThresholdMs;
+
+    /**
+     * 累计执行超过阈值的任务数
+     */
+    private long slowTaskCount;
+
+    /**
+     * 执行超过阈值且仍在执行的任务数
+     */
+    private int slowTaskRunningCount;
+
+    /**
+     * 仍在执行的慢任务中最长的已执行时间（单位：毫秒）
+     */
+    private long slowTaskMaxRunMs;
+
+    /**
+     * 最近的慢任务调用栈样本，每个样本以 "线程名" 执行时间 任务 开头，后接栈帧
+     */
+    private String slowTaskStacks;
+
     public static ThreadPoolConfig getInstance(String appName, String threadPoolName, ThreadPoolExecutor threadPool) {
+        int queueSize = threadPool.getQueue().size();
+        int remainingCapacity = threadPool.getQueue().remainingCapacity();
         return  ThreadPoolConfig.builder()
                 .appName(appName)
                 .threadPoolName(threadPoolName)
@@ -71,8 +358,9 @@ public class ThreadPoolConfig {
                 .activeCount(threadPool.getActiveCount())
                 .poolSize(threadPool.getPoolSize())
                 .queueType(threadPool.getQueue().getClass().getSimpleName())
-                .queueSize(threadPool.getQueue().size())
-                .remainingCapacity(threadPool.getQueue().remainingCapacity())
+                .queueSize(queueSize)
+                .remainingCapacity(remainingCapacity)
+                .queueCapacity((int) Math.min(Integer.MAX_VALUE, (long) queueSize + remainingCapacity))
                 .build();
     }
 
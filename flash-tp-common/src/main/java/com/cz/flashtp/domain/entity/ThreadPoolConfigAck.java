@@ -0,0 +1,55 @@
+package com.cz.flashtp.domain.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 线程池配置批量调整确认
+ * 实例应用 {@link ThreadPoolConfigBatch} 后回传，携带调整后实际生效的参数与本地耗时。
+ *
+ * @author Zjianru
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ThreadPoolConfigAck {
+    /**
+     * 批次标识
+     */
+    private String batchId;
+
+    /**
+     * 应用名称
+     */
+    private String appName;
+
+    /**
+     * 实例标识
+     */
+    private String instanceId;
+
+    /**
+     * 实例应用完成的时间（毫秒时间戳，实例时钟）
+     */
+    private long appliedTimestamp;
+
+    /**
+     * 实例内应用本批调整的耗时（单位：微秒），不含消息传输
+     */
+    private long applyMicros;
+
+    /**
+     * 调整后实际生效的线程池参数
+     */
+    private List<ThreadPoolConfig> applied;
+
+    /**
+     * 未能应用的线程池名称（实例中不存在或参数非法）
+     */
+    private List<String> rejected;
+}
@@ -0,0 +1,41 @@
+package com.cz.flashtp.domain.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 线程池配置批量调整
+ * 管理端按应用将多个线程池的调整合并为一条消息发布到该应用的调整主题，
+ * 各实例一次性应用后通过确认主题回传 {@link ThreadPoolConfigAck}。
+ *
+ * @author Zjianru
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ThreadPoolConfigBatch {
+    /**
+     * 批次标识，确认消息据此与批次对应
+     */
+    private String batchId;
+
+    /**
+     * 应用名称
+     */
+    private String appName;
+
+    /**
+     * 发布时间（毫秒时间戳，管理端时钟）
+     */
+    private long timestamp;
+
+    /**
+     * 需要调整的线程池配置，只使用线程池名称、核心线程数、最大线程数与队列容量
+     */
+    private List<ThreadPoolConfig> changes;
+}
@@ -0,0 +1,46 @@
+package com.cz.flashtp.domain.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 线程池上报变化通知
+ * 实例每个上报周期写入注册中心后，将本周期发生变化的线程池数据随同一管道发布到上报主题，
+ * 管理端订阅一次即可增量感知全部实例的变化，无需轮询 Redis。
+ *
+ * @author Zjianru
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ThreadPoolReportEvent {
+    /**
+     * 应用名称
+     */
+    private String appName;
+
+    /**
+     * 实例标识
+     */
+    private String instanceId;
+
+    /**
+     * 上报时间（毫秒时间戳）
+     */
+    private long timestamp;
+
+    /**
+     * 本周期发生变化的线程池数据
+     */
+    private List<ThreadPoolConfig> changed;
+
+    /**
+     * 本周期移除的线程池名称
+     */
+    private List<String> removed;
+}
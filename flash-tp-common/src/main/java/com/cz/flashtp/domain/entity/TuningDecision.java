@@ -0,0 +1,88 @@
+package com.cz.flashtp.domain.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 自动调优决策
+ * 记录自动调优控制器的一次调整（或 dry-run 模式下的建议调整），以及触发调整时的观测值，供管理端审计。
+ *
+ * @author Zjianru
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TuningDecision {
+    /**
+     * 应用名称
+     */
+    private String appName;
+
+    /**
+     * 实例标识
+     */
+    private String instanceId;
+
+    /**
+     * 线程池名称
+     */
+    private String threadPoolName;
+
+    /**
+     * 决策时间（毫秒时间戳）
+     */
+    private long timestamp;
+
+    /**
+     * 调整方向：INCREASE 加法扩容、DECREASE 乘法缩容
+     */
+    private String action;
+
+    /**
+     * 触发原因
+     */
+    private String reason;
+
+    /**
+     * 是否仅为建议（dry-run），未实际调整
+     */
+    private boolean dryRun;
+
+    /**
+     * 调整前核心线程数
+     */
+    private int previousCorePoolSize;
+
+    /**
+     * 调整前最大线程数
+     */
+    private int previousMaximumPoolSize;
+
+    /**
+     * 调整后核心线程数
+     */
+    private int corePoolSize;
+
+    /**
+     * 调整后最大线程数
+     */
+    private int maximumPoolSize;
+
+    /**
+     * 平滑后的排队耗时 P99（毫秒）
+     */
+    private double queueWaitP99Ms;
+
+    /**
+     * 平滑后的队列使用率
+     */
+    private double queueUtilization;
+
+    /**
+     * 平滑后的活跃线程数
+     */
+    private double activeCount;
+}
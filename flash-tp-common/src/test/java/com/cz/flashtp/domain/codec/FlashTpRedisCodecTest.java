@@ -0,0 +1,52 @@
+package com.cz.flashtp.domain.codec;
+
+import com.cz.flashtp.domain.entity.ThreadPoolConfig;
+import io.netty.buffer.ByteBuf;
+import org.junit.Test;
+import org.redisson.client.codec.Codec;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Redisson 编解码器混合部署测试
+ * 切换期间管理端与应用实例的写入方式不同，任一方写入的线程池配置都要能被另一方读取。
+ *
+ * @author Zjianru
+ */
+public class FlashTpRedisCodecTest {
+
+    private static ThreadPoolConfig config() {
+        return ThreadPoolConfig.builder()
+                .appName("flash-tp-demo")
+                .instanceId("10.0.0.12:24816")
+                .threadPoolName("threadPoolExecutor01")
+                .corePoolSize(20)
+                .maximumPoolSize(50)
+                .queueCapacity(5000)
+                .build();
+    }
+
+    @Test
+    public void test_jsonModeReadsBinaryPublish() throws IOException {
+        // 管理端已切换为 binary，推送的配置由仍使用 json 的实例读取
+        ByteBuf published = FlashTpRedisCodec.select(FlashTpRedisCodec.BINARY).getValueEncoder().encode(config());
+        assertTrue(ThreadPoolConfigCodec.isBinary(published.getByte(published.readerIndex())));
+        Codec json = FlashTpRedisCodec.select(FlashTpRedisCodec.JSON);
+        assertEquals(config(), json.getValueDecoder().decode(published, null));
+        published.release();
+    }
+
+    @Test
+    public void test_jsonModeWritesJson() throws IOException {
+        ByteBuf written = FlashTpRedisCodec.select(FlashTpRedisCodec.JSON).getValueEncoder().encode(config());
+        assertFalse(ThreadPoolConfigCodec.isBinary(written.getByte(written.readerIndex())));
+        Codec binary = FlashTpRedisCodec.select(FlashTpRedisCodec.BINARY);
+        assertEquals(config(), binary.getValueDecoder().decode(written, null));
+        written.release();
+    }
+
+}
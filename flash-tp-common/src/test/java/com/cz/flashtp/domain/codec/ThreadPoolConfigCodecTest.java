@@ -0,0 +1,146 @@
+package com.cz.flashtp.domain.codec;
+
+import com.cz.flashtp.domain.entity.ThreadPoolConfig;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 线程池配置二进制编解码测试
+ *
+ * @author Zjianru
+ */
+public class ThreadPoolConfigCodecTest {
+
+    /**
+     * 通过反射为每个字段设置不同的非默认值，新增字段未加入编解码时此用例失败
+     */
+    @Test
+    public void test_roundTripEveryField() throws IllegalAccessException {
+        ThreadPoolConfig config = new ThreadPoolConfig();
+        int seed = 1;
+        for (Field field : ThreadPoolConfig.class.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers())) continue;
+            field.setAccessible(true);
+            seed++;
+            Class<?> type = field.getType();
+            if (type == int.class) {
+                field.setInt(config, seed % 2 == 0 ? seed * 1000 : -seed);
+            } else if (type == long.class) {
+                field.setLong(config, seed % 2 == 0 ? Long.MAX_VALUE - seed : Long.MIN_VALUE + seed);
+            } else if (type == double.class) {
+                field.setDouble(config, seed + 0.125);
+            } else if (type == String.class) {
+                field.set(config, field.getName() + "-线程池-" + seed);
+            } else if (type == int[].class) {
+                field.set(config, new int[]{0, seed, -seed, Integer.MAX_VALUE, Integer.MIN_VALUE});
+            } else if (type == Boolean.class) {
+                field.set(config, seed % 2 == 0);
+            } else {
+                fail("unsupported field type " + type + " " + field.getName());
+            }
+        }
+        ThreadPoolConfig decoded = ThreadPoolConfigCodec.decode(ThreadPoolConfigCodec.encode(config));
+        assertEquals(config, decoded);
+    }
+
+    @Test
+    public void test_booleanFalseDistinctFromUnset() {
+        ThreadPoolConfig config = ThreadPoolConfig.builder().parallelismAdjustable(false).build();
+        assertEquals(Boolean.FALSE, ThreadPoolConfigCodec.decode(ThreadPoolConfigCodec.encode(config)).getParallelismAdjustable());
+        assertNull(ThreadPoolConfigCodec.decode(ThreadPoolConfigCodec.encode(new ThreadPoolConfig())).getParallelismAdjustable());
+    }
+
+    @Test
+    public void test_laneDepthsPacked() {
+        int[] depths = new int[256];
+        for (int i = 0; i < depths.length; i++) {
+            depths[i] = i % 100;
+        }
+        ThreadPoolConfig config = ThreadPoolConfig.builder().laneCount(depths.length).laneDepths(depths).build();
+        byte[] encoded = ThreadPoolConfigCodec.encode(config);
+        // 小深度每个通道只占 1 到 2 个字节
+        assertTrue(encoded.length < 2 + 3 + 3 + depths.length * 2);
+        assertArrayEquals(depths, ThreadPoolConfigCodec.decode(encoded).getLaneDepths());
+        // 空数组与未设置可区分
+        ThreadPoolConfig empty = ThreadPoolConfig.builder().laneDepths(new int[0]).build();
+        assertArrayEquals(new int[0], ThreadPoolConfigCodec.decode(ThreadPoolConfigCodec.encode(empty)).getLaneDepths());
+    }
+
+    @Test
+    public void test_defaultsOmitted() {
+        byte[] empty = ThreadPoolConfigCodec.encode(new ThreadPoolConfig());
+        assertArrayEquals(new byte[]{ThreadPoolConfigCodec.MAGIC, ThreadPoolConfigCodec.VERSION}, empty);
+        assertEquals(new ThreadPoolConfig(), ThreadPoolConfigCodec.decode(empty));
+
+        ThreadPoolConfig config = ThreadPoolConfig.builder().appName("app").threadPoolName("pool").corePoolSize(8).maximumPoolSize(16).build();
+        // 2 字节头 + 两个字符串各 2 字节标签长度 + 两个小整数各 2 字节
+        assertEquals(2 + 5 + 6 + 2 + 2, ThreadPoolConfigCodec.encode(config).length);
+    }
+
+    @Test
+    public void test_unknownFieldsSkipped() {
+        ThreadPoolConfig config = ThreadPoolConfig.builder().appName("app").corePoolSize(4).tps(12.5).build();
+        byte[] encoded = ThreadPoolConfigCodec.encode(config);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(encoded, 0, encoded.length);
+        // 模拟新版本追加的字段：编号 100，三种线路类型各一个
+        writeVarint(out, 100 << 3 | ThreadPoolConfigCodec.WIRE_VARINT);
+        writeVarint(out, 300);
+        writeVarint(out, 101 << 3 | ThreadPoolConfigCodec.WIRE_FIXED64);
+        out.write(new byte[8], 0, 8);
+        writeVarint(out, 102 << 3 | ThreadPoolConfigCodec.WIRE_BYTES);
+        writeVarint(out, 3);
+        out.write(new byte[]{1, 2, 3}, 0, 3);
+        assertEquals(config, ThreadPoolConfigCodec.decode(out.toByteArray()));
+    }
+
+    @Test
+    public void test_rejectsInvalidData() {
+        byte[] encoded = ThreadPoolConfigCodec.encode(ThreadPoolConfig.builder().appName("app").corePoolSize(4).build());
+        assertInvalid(Arrays.copyOf(encoded, encoded.length - 1));
+        assertInvalid(new byte[]{'{', '}'});
+        byte[] future = encoded.clone();
+        future[1] = ThreadPoolConfigCodec.VERSION + 1;
+        assertInvalid(future);
+    }
+
+    @Test
+    public void test_reusableBufferGrows() {
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < 1000; i++) name.append('x');
+        ThreadPoolConfig large = ThreadPoolConfig.builder().threadPoolName(name.toString()).build();
+        ThreadPoolConfigCodec.Output output = ThreadPoolConfigCodec.encodeReusable(large);
+        assertTrue(output.length() > 1000);
+        assertEquals(large, ThreadPoolConfigCodec.decode(output.array(), 0, output.length()));
+        ThreadPoolConfig small = ThreadPoolConfig.builder().threadPoolName("p").build();
+        assertEquals(small, ThreadPoolConfigCodec.decode(ThreadPoolConfigCodec.encode(small)));
+    }
+
+    private static void assertInvalid(byte[] data) {
+        try {
+            ThreadPoolConfigCodec.decode(data);
+            fail("expected IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+            // 预期
+        }
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+}
@@ -1,9 +1,11 @@
 package com.cz.flashtp.demo.config;
+import com.cz.flashtp.domain.queue.ResizableCapacityLinkedBlockingQueue;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.*;
 /**
@@ -30,6 +32,26 @@ public class DemoConfig {
         return getThreadPoolExecutor(properties);
     }
 
+    @Bean(value = "forkJoinPool01", destroyMethod = "shutdown")
+    public ForkJoinPool forkJoinPool01(DemoConfigProperties properties) {
+        return new ForkJoinPool(properties.getCorePoolSize());
+    }
+
+    @Bean(value = "scheduledExecutor01", destroyMethod = "shutdown")
+    public ScheduledThreadPoolExecutor scheduledExecutor01() {
+        return new ScheduledThreadPoolExecutor(2, Executors.defaultThreadFactory());
+    }
+
+    @Bean("asyncExecutor01")
+    public ThreadPoolTaskExecutor asyncExecutor01(DemoConfigProperties properties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getCorePoolSize());
+        executor.setMaxPoolSize(properties.getMaxPoolSize());
+        executor.setQueueCapacity(properties.getBlockQueueSize());
+        executor.setThreadNamePrefix("async-01-");
+        return executor;
+    }
+
     private static ThreadPoolExecutor getThreadPoolExecutor(DemoConfigProperties properties) {
         // 实例化策略
         RejectedExecutionHandler handler;
@@ -51,12 +73,12 @@ public class DemoConfig {
                 break;
         }
 
-        // 创建线程池
+        // 创建线程池，使用可调整容量的队列以支持运行期修改队列容量
         return new ThreadPoolExecutor(properties.getCorePoolSize(),
                 properties.getMaxPoolSize(),
                 properties.getKeepAliveTime(),
                 TimeUnit.SECONDS,
-                new LinkedBlockingQueue<>(properties.getBlockQueueSize()),
+                new ResizableCapacityLinkedBlockingQueue<>(properties.getBlockQueueSize()),
                 Executors.defaultThreadFactory(),
                 handler);
     }
@@ -1,35 +1,66 @@
 package com.cz.flashtp.config;
 
 import com.cz.flashtp.domain.DynamicThreadPoolService;
+import com.cz.flashtp.domain.adapter.ThreadPoolAdapter;
+import com.cz.flashtp.domain.adapter.web.JettyThreadPoolAdapter;
+import com.cz.flashtp.domain.adapter.web.TomcatThreadPoolAdapter;
+import com.cz.flashtp.domain.adapter.web.UndertowThreadPoolAdapter;
+import com.cz.flashtp.domain.codec.FlashTpRedisCodec;
 import com.cz.flashtp.domain.entity.ThreadPoolConfig;
+import com.cz.flashtp.domain.entity.ThreadPoolConfigBatch;
 import com.cz.flashtp.domain.invoker.DefaultThreadPoolService;
+import com.cz.flashtp.domain.metrics.ThreadPoolSampler;
+import com.cz.flashtp.domain.metrics.ThreadPoolSnapshotCache;
+import com.cz.flashtp.domain.snapshot.LocalConfigSnapshotStore;
+import com.cz.flashtp.domain.tuner.ThreadPoolAutoTuner;
 import com.cz.flashtp.domain.valobj.RegistryEnumVO;
 import com.cz.flashtp.registry.Registry;
 import com.cz.flashtp.registry.invoke.redis.RedisRegistry;
+import com.cz.flashtp.registry.invoke.redis.RedissonConnector;
+import com.cz.flashtp.trigger.endpoint.FlashTpEndpoint;
 import com.cz.flashtp.trigger.job.ThreadPoolDataReportJob;
 import com.cz.flashtp.trigger.listener.ThreadPoolConfigAdjustListener;
+import com.cz.flashtp.trigger.listener.WebServerThreadPoolRegistrar;
+import com.cz.flashtp.trigger.metrics.FlashTpMeterBinder;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang.StringUtils;
 import org.redisson.Redisson;
 import org.redisson.api.RTopic;
 import org.redisson.api.RedissonClient;
-import org.redisson.codec.JsonJacksonCodec;
 import org.redisson.config.Config;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.server.WebServer;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
 
 /**
  * flash-tp 自动配置信息
  * 动态线程池自动配置类，用于在Spring应用程序中配置和管理动态线程池。
  * 该类利用Spring Boot的自动配置能力，根据配置属性初始化并管理Redisson客户端，
  * 动态线程池服务，注册表和相关监听器。
+ * Redisson客户端由 {@link RedissonConnector} 在后台连接，依赖 Redis 的工作在连接成功后执行，Redis 缓慢或不可用时应用照常启动。
  *
  * @author Zjianru
  */
@@ -40,110 +71,461 @@ import java.util.concurrent.ThreadPoolExecutor;
 public class FlashTpAutoConfig {
 
     /**
-     * 初始化Redisson客户端，用于后续动态线程池的配置和管理。
+     * 创建Redisson客户端连接器，在守护线程上连接注册中心，连接失败时退避重试，不阻塞应用启动。
      *
      * @param properties 动态线程池的配置属性，包括Redis连接信息和线程池参数。
+     * @return Redisson客户端连接器。
+     */
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public RedissonConnector redissonConnector(FlashTpAutoConfigProperties properties) {
+        log.info("动态线程池，注册器（redis）开始连接。{} {}", properties.getHost(), properties.getPoolSize());
+        return new RedissonConnector(() -> wrapperRedisClient(properties), properties.getRetryInterval());
+    }
+
+    /**
+     * 暴露连接器建立的Redisson客户端，供业务注入使用。
+     * 延迟创建，flash-tp 自身不依赖该 Bean；被注入时在连接超时时间内等待连接成功，未连接则创建失败。客户端由连接器关闭。
+     *
+     * @param redissonConnector Redisson客户端连接器。
+     * @param properties        动态线程池的配置属性，用于获取连接超时时间。
      * @return Redisson客户端实例。
      */
-    @Bean
-    public RedissonClient redissonClient(FlashTpAutoConfigProperties properties) {
-        RedissonClient redissonClient = wrapperRedisClient(properties);
-        log.info("动态线程池，注册器（redis）链接初始化完成。{} {} {}", properties.getHost(), properties.getPoolSize(), !redissonClient.isShutdown());
+    @Bean(destroyMethod = "")
+    @Lazy
+    public RedissonClient redissonClient(RedissonConnector redissonConnector, FlashTpAutoConfigProperties properties) {
+        RedissonClient redissonClient = redissonConnector.await(properties.getConnectTimeout());
+        if (null == redissonClient) {
+            throw new IllegalStateException("注册中心（redis）在 " + properties.getConnectTimeout() + "ms 内未连接 " + properties.getHost() + ":" + properties.getPort());
+        }
         return redissonClient;
     }
 
+    /**
+     * 注册线程池托管增强，将普通线程池替换为可统计任务耗时的托管线程池。
+     * 声明为静态方法，避免提前实例化配置类。
+     *
+     * @return 线程池托管增强处理器。
+     */
+    @Bean
+    public static FlashTpExecutorBeanPostProcessor flashTpExecutorBeanPostProcessor() {
+        return new FlashTpExecutorBeanPostProcessor();
+    }
+
     /**
      * 创建动态线程池服务，用于管理应用中的线程池。
+     * 存在本地快照时先应用快照，再在注册中心连接成功后异步拉取配置对齐；
+     * 否则在超时时间内等待连接并同步拉取，超时后使用本地默认配置启动，连接成功后再异步对齐。
      *
-     * @param applicationContext  Spring应用上下文，用于获取应用名称。
-     * @param threadPoolExecutors 线程池执行器的映射，键为线程池名称，值为线程池实例。
-     * @param redissonClient      Redisson客户端，用于存储和获取线程池配置。
+     * @param applicationContext Spring应用上下文，用于获取应用名称与容器中的线程池。
+     * @param redissonConnector  Redisson客户端连接器，用于获取线程池配置。
+     * @param properties         动态线程池的配置属性，用于获取实例标识、配置拉取超时时间与本地快照设置。
      * @return 动态线程池服务实例。
      */
     @Bean
-    public DynamicThreadPoolService flashTpService(ApplicationContext applicationContext, Map<String, ThreadPoolExecutor> threadPoolExecutors, RedissonClient redissonClient) {
+    public DynamicThreadPoolService flashTpService(ApplicationContext applicationContext, RedissonConnector redissonConnector, FlashTpAutoConfigProperties properties) {
         String applicationName = getApplicationName(applicationContext);
-        if (StringUtils.isBlank(applicationName)) {
-            applicationName = "flash-tp-defaultApp";
-            log.warn("[flash-tp]==> applicationName is null and will given after process default application name");
-        }
+        Map<String, Object> threadPoolExecutors = getThreadPools(applicationContext);
         log.info("current get thread pool info is {}", threadPoolExecutors.keySet());
-        // 获取缓存数据，设置本地线程池配置
-        Set<String> keys = threadPoolExecutors.keySet();
-        for (String key : keys) {
-            ThreadPoolConfig config = redissonClient
-                    .<ThreadPoolConfig>getBucket(
-                            RegistryEnumVO.THREAD_POOL_CONFIG_PARAMETER_LIST_KEY.getKey()
-                                    + "_" + applicationName
-                                    + "_" + key)
-                    .get();
+        LocalConfigSnapshotStore snapshotStore = properties.isSnapshotEnabled()
+                ? new LocalConfigSnapshotStore(Paths.get(properties.getSnapshotDir()), applicationName)
+                : null;
+        DefaultThreadPoolService dynamicThreadPoolService = new DefaultThreadPoolService(applicationName, getInstanceId(properties), threadPoolExecutors, snapshotStore);
+        List<ThreadPoolConfig> localConfigs = null == snapshotStore ? Collections.emptyList() : snapshotStore.load();
+        if (localConfigs.isEmpty()) {
+            // 没有本地快照，获取缓存数据，设置本地线程池配置
+            long timeoutMillis = properties.getConfigFetchTimeout();
+            long start = System.nanoTime();
+            RedissonClient redissonClient = redissonConnector.await(timeoutMillis);
+            if (null == redissonClient) {
+                log.warn("[flash-tp]==> 注册中心（redis）{}ms 内未连接，使用本地默认配置启动，连接成功后再对齐", timeoutMillis);
+                restoreThreadPoolConfigAsync(dynamicThreadPoolService, redissonConnector, applicationName, threadPoolExecutors.keySet(), timeoutMillis);
+                return dynamicThreadPoolService;
+            }
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            restoreThreadPoolConfig(dynamicThreadPoolService, redissonClient, applicationName, threadPoolExecutors.keySet(), Math.max(1, timeoutMillis - elapsedMillis));
+            return dynamicThreadPoolService;
+        }
+        // 先应用本地快照，再异步与注册中心对齐，启动不等待 Redis
+        localConfigs.forEach(dynamicThreadPoolService::updateThreadPoolConfig);
+        log.info("[flash-tp]==> 已应用线程池配置本地快照 线程池数:{}", localConfigs.size());
+        restoreThreadPoolConfigAsync(dynamicThreadPoolService, redissonConnector, applicationName, threadPoolExecutors.keySet(), properties.getConfigFetchTimeout());
+        return dynamicThreadPoolService;
+    }
+
+    /**
+     * 注册中心连接成功后，在守护线程上恢复注册中心保存的线程池配置，不阻塞调用方。
+     *
+     * @param dynamicThreadPoolService 动态线程池服务
+     * @param redissonConnector        Redisson客户端连接器
+     * @param applicationName          应用名称
+     * @param threadPoolNames          线程池名称
+     * @param timeoutMillis            整体超时时间（毫秒）
+     */
+    private static void restoreThreadPoolConfigAsync(DynamicThreadPoolService dynamicThreadPoolService, RedissonConnector redissonConnector, String applicationName, Set<String> threadPoolNames, long timeoutMillis) {
+        redissonConnector.whenConnected(redissonClient -> {
+            Thread reconciler = new Thread(() -> restoreThreadPoolConfig(dynamicThreadPoolService, redissonClient, applicationName, threadPoolNames, timeoutMillis),
+                    "flash-tp-config-reconciler");
+            reconciler.setDaemon(true);
+            reconciler.start();
+        });
+    }
+
+    /**
+     * 启动时恢复注册中心保存的线程池配置。
+     * 全部线程池的配置通过一次批量读取（MGET）获取，并受整体超时时间约束；
+     * 超时或读取失败时不阻塞启动，线程池保持本地声明的参数。
+     *
+     * @param dynamicThreadPoolService 动态线程池服务
+     * @param redissonClient           Redisson客户端
+     * @param applicationName          应用名称
+     * @param threadPoolNames          线程池名称
+     * @param timeoutMillis            整体超时时间（毫秒）
+     */
+    private static void restoreThreadPoolConfig(DynamicThreadPoolService dynamicThreadPoolService, RedissonClient redissonClient, String applicationName, Set<String> threadPoolNames, long timeoutMillis) {
+        if (threadPoolNames.isEmpty()) return;
+        long start = System.nanoTime();
+        String[] keys = threadPoolNames.stream()
+                .map(threadPoolName -> RegistryEnumVO.THREAD_POOL_CONFIG_PARAMETER_LIST_KEY.getKey() + "_" + applicationName + "_" + threadPoolName)
+                .toArray(String[]::new);
+        CompletableFuture<Map<String, ThreadPoolConfig>> future = redissonClient.getBuckets().<ThreadPoolConfig>getAsync(keys).toCompletableFuture();
+        Map<String, ThreadPoolConfig> configs;
+        try {
+            configs = future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            log.warn("[flash-tp]==> 拉取线程池配置超时，使用本地默认配置启动 线程池数:{} 耗时:{}ms 超时时间:{}ms",
+                    keys.length, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), timeoutMillis);
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("[flash-tp]==> 拉取线程池配置被中断，使用本地默认配置启动");
+            return;
+        } catch (ExecutionException e) {
+            log.error("[flash-tp]==> 拉取线程池配置失败，使用本地默认配置启动 耗时:{}ms",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), e.getCause());
+            return;
+        }
+        int restored = 0;
+        for (ThreadPoolConfig config : configs.values()) {
             if (null == config) continue;
-            ThreadPoolExecutor threadPool = threadPoolExecutors.get(key);
-            threadPool.setCorePoolSize(config.getCorePoolSize());
-            threadPool.setMaximumPoolSize(config.getMaximumPoolSize());
+            // 与运行期调整走同一入口，线程数与队列容量一并恢复
+            dynamicThreadPoolService.updateThreadPoolConfig(config);
+            restored++;
         }
-        return new DefaultThreadPoolService(applicationName, threadPoolExecutors);
+        log.info("[flash-tp]==> 拉取线程池配置完成 线程池数:{} 恢复配置数:{} 耗时:{}ms",
+                keys.length, restored, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
     }
 
     /**
      * 创建注册表，用于存储和管理应用相关的元数据。
+     * 线程池运行数据按应用与实例分片存储，并以心跳方式续期；注册中心连接成功前的上报计为失败，由上报任务重试。
      *
-     * @param redissonClient Redisson客户端，用于存储注册表数据。
+     * @param applicationContext Spring应用上下文，用于获取应用名称。
+     * @param redissonConnector  Redisson客户端连接器，用于存储注册表数据。
+     * @param properties         动态线程池的配置属性，用于获取实例标识与心跳过期时间。
      * @return 注册表实例。
      */
     @Bean
-    public Registry redisRegistry(RedissonClient redissonClient) {
-        return new RedisRegistry(redissonClient);
+    public Registry redisRegistry(ApplicationContext applicationContext, RedissonConnector redissonConnector, FlashTpAutoConfigProperties properties) {
+        return new RedisRegistry(redissonConnector, getApplicationName(applicationContext), getInstanceId(properties), Duration.ofSeconds(properties.getHeartbeatTtl()));
+    }
+
+    /**
+     * 创建线程池高频采样器，在上报周期之间采样线程池的活跃线程数、池中线程数与队列深度。
+     *
+     * @param applicationContext Spring应用上下文，用于获取容器中的线程池。
+     * @param properties         动态线程池的配置属性，用于获取采样间隔。
+     * @return 线程池高频采样器实例。
+     */
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public ThreadPoolSampler threadPoolSampler(ApplicationContext applicationContext, FlashTpAutoConfigProperties properties) {
+        return new ThreadPoolSampler(getThreadPools(applicationContext), properties.getSampleInterval());
     }
 
     /**
      * 创建线程池数据报告任务，定期报告线程池的使用情况。
+     * 上报在 starter 自有的守护线程上执行，不依赖 Spring 的 {@code @Scheduled} 调度线程。
      *
      * @param dynamicThreadPoolService 动态线程池服务，用于获取线程池数据。
      * @param registry                 注册表，用于存储线程池数据。
+     * @param threadPoolSampler        线程池高频采样器，用于附带上报窗口内的聚合值。
+     * @param properties               动态线程池的配置属性，用于获取上报间隔、超时时间与积压上限。
      * @return 线程池数据报告任务实例。
      */
-    @Bean
-    public ThreadPoolDataReportJob threadPoolDataReportJob(DynamicThreadPoolService dynamicThreadPoolService, Registry registry) {
-        return new ThreadPoolDataReportJob(dynamicThreadPoolService, registry);
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public ThreadPoolDataReportJob threadPoolDataReportJob(DynamicThreadPoolService dynamicThreadPoolService, Registry registry,
+                                                           ThreadPoolSampler threadPoolSampler, FlashTpAutoConfigProperties properties) {
+        return new ThreadPoolDataReportJob(dynamicThreadPoolService, registry,
+                properties.getReportInterval(), properties.getReportTimeout(), properties.getReportBacklogLimit(), threadPoolSampler);
     }
 
     /**
      * 创建线程池配置调整监听器，用于监听并应用线程池配置的变更。
+     * 注册中心连接成功后订阅调整主题，同一主题上同时承载单个调整 {@link ThreadPoolConfig} 与批量调整 {@link ThreadPoolConfigBatch}，按消息类型分发。
      *
+     * @param applicationContext       Spring应用上下文，用于获取应用名称。
      * @param dynamicThreadPoolService 动态线程池服务，用于应用配置变更。
-     * @param registry                 注册表，用于存储配置数据。
+     * @param threadPoolDataReportJob  线程池数据报告任务，用于上报变更后的配置数据。
+     * @param registry                 注册表，用于回传批量调整确认。
+     * @param redissonConnector        Redisson客户端连接器，用于订阅调整主题。
+     * @param properties               动态线程池的配置属性，用于获取实例标识。
      * @return 线程池配置调整监听器实例。
      */
     @Bean
-    public ThreadPoolConfigAdjustListener threadPoolConfigAdjustListener(DynamicThreadPoolService dynamicThreadPoolService, Registry registry) {
-        return new ThreadPoolConfigAdjustListener(dynamicThreadPoolService, registry);
+    public ThreadPoolConfigAdjustListener threadPoolConfigAdjustListener(ApplicationContext applicationContext, DynamicThreadPoolService dynamicThreadPoolService,
+                                                                         ThreadPoolDataReportJob threadPoolDataReportJob, Registry registry,
+                                                                         RedissonConnector redissonConnector, FlashTpAutoConfigProperties properties) {
+        ThreadPoolConfigAdjustListener threadPoolConfigAdjustListener = new ThreadPoolConfigAdjustListener(dynamicThreadPoolService, threadPoolDataReportJob, registry,
+                getApplicationName(applicationContext), getInstanceId(properties));
+        String topicName = getTopicName(applicationContext);
+        redissonConnector.whenConnected(redissonClient -> {
+            RTopic topic = redissonClient.getTopic(topicName);
+            topic.addListener(ThreadPoolConfig.class, threadPoolConfigAdjustListener);
+            topic.addListener(ThreadPoolConfigBatch.class, threadPoolConfigAdjustListener::onBatch);
+            log.info("[flash-tp]==> 已订阅线程池配置调整主题 {}", topicName);
+        });
+        return threadPoolConfigAdjustListener;
     }
 
     /**
-     * 创建用于监听线程池配置调整的Redis主题，并订阅该主题。
+     * 创建线程池配置调整的Redis主题，供业务发布调整消息，订阅由 {@link ThreadPoolConfigAdjustListener} 在连接成功后完成。
+     * 延迟创建，被注入时等待注册中心连接。
      *
-     * @param applicationContext             Spring应用上下文，用于获取应用名称。
-     * @param redissonClient                 Redisson客户端，用于创建和管理Redis主题。
-     * @param threadPoolConfigAdjustListener 线程池配置调整监听器，用于处理配置变更事件。
+     * @param applicationContext Spring应用上下文，用于获取应用名称。
+     * @param redissonClient     Redisson客户端，用于创建Redis主题。
      * @return Redis主题实例。
      */
     @Bean(name = "dynamicThreadPoolRedisTopic")
-    public RTopic threadPoolConfigAdjustListener(ApplicationContext applicationContext, RedissonClient redissonClient, ThreadPoolConfigAdjustListener threadPoolConfigAdjustListener) {
-        RTopic topic = redissonClient.getTopic(RegistryEnumVO.DYNAMIC_THREAD_POOL_REDIS_TOPIC.getKey() + "_" + getApplicationName(applicationContext));
-        topic.addListener(ThreadPoolConfig.class, threadPoolConfigAdjustListener);
-        return topic;
+    @Lazy
+    public RTopic dynamicThreadPoolRedisTopic(ApplicationContext applicationContext, RedissonClient redissonClient) {
+        return redissonClient.getTopic(getTopicName(applicationContext));
+    }
+
+    /**
+     * 创建线程池自动调优控制器，仅在 flash-tp.auto-tune.enabled=true 时生效。
+     * 控制器在自身的守护线程上运行，随容器启动与关闭。
+     *
+     * @param dynamicThreadPoolService 动态线程池服务，提供线程池快照并执行调整。
+     * @param registry                 注册中心，用于上报调优决策。
+     * @param properties               动态线程池的配置属性，用于获取调优配置。
+     * @return 自动调优控制器。
+     */
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    @ConditionalOnProperty(prefix = "flash-tp.auto-tune", name = "enabled", havingValue = "true")
+    public ThreadPoolAutoTuner threadPoolAutoTuner(DynamicThreadPoolService dynamicThreadPoolService, Registry registry, FlashTpAutoConfigProperties properties) {
+        return new ThreadPoolAutoTuner(dynamicThreadPoolService, registry, properties.getAutoTune());
     }
 
 
+    /**
+     * 创建线程池快照缓存，Micrometer 指标与 actuator 端点共用，抓取频率不影响线程池与注册中心。
+     *
+     * @param dynamicThreadPoolService 动态线程池服务，用于采集线程池快照。
+     * @param properties               动态线程池的配置属性，用于获取快照有效期。
+     * @return 线程池快照缓存。
+     */
+    @Bean
+    public ThreadPoolSnapshotCache threadPoolSnapshotCache(DynamicThreadPoolService dynamicThreadPoolService, FlashTpAutoConfigProperties properties) {
+        return new ThreadPoolSnapshotCache(dynamicThreadPoolService, properties.getMetricsCacheTtl());
+    }
+
+    /**
+     * Micrometer 指标，仅在引入 micrometer-core 时生效，由 Spring Boot 绑定到容器中的 MeterRegistry。
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "io.micrometer.core.instrument.binder.MeterBinder")
+    static class FlashTpMetricsConfiguration {
+
+        /**
+         * 创建线程池指标绑定器。
+         *
+         * @param applicationContext      Spring应用上下文，用于获取应用名称与容器中的线程池。
+         * @param threadPoolSnapshotCache 线程池快照缓存，指标取值来源。
+         * @param threadPoolDataReportJob 线程池数据报告任务，用于暴露上报统计。
+         * @param registry                注册表，用于暴露上报流量统计。
+         * @return 线程池指标绑定器。
+         */
+        @Bean
+        public FlashTpMeterBinder flashTpMeterBinder(ApplicationContext applicationContext, ThreadPoolSnapshotCache threadPoolSnapshotCache,
+                                                     ThreadPoolDataReportJob threadPoolDataReportJob, Registry registry) {
+            return new FlashTpMeterBinder(getApplicationName(applicationContext), getThreadPools(applicationContext), threadPoolSnapshotCache, threadPoolDataReportJob, registry);
+        }
+    }
+
+    /**
+     * 内嵌 Tomcat 连接器工作线程池，仅在引入 Tomcat 时生效，服务器启动后注册。
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "org.apache.catalina.startup.Tomcat")
+    static class FlashTpTomcatConfiguration {
+
+        /**
+         * 创建 Tomcat 工作线程池注册器。
+         *
+         * @param applicationContext       Spring应用上下文，用于获取应用名称。
+         * @param dynamicThreadPoolService 动态线程池服务，用于注册线程池。
+         * @param threadPoolSampler        线程池高频采样器，用于注册线程池。
+         * @param threadPoolDataReportJob  线程池数据报告任务，注册后触发上报。
+         * @param redissonConnector        Redisson客户端连接器，用于恢复注册中心保存的配置。
+         * @param properties               动态线程池的配置属性，用于获取配置拉取超时时间。
+         * @return Tomcat 工作线程池注册器。
+         */
+        @Bean
+        public WebServerThreadPoolRegistrar tomcatThreadPoolRegistrar(ApplicationContext applicationContext, DynamicThreadPoolService dynamicThreadPoolService,
+                                                                      ThreadPoolSampler threadPoolSampler, ThreadPoolDataReportJob threadPoolDataReportJob,
+                                                                      RedissonConnector redissonConnector, FlashTpAutoConfigProperties properties) {
+            return webServerThreadPoolRegistrar(applicationContext, dynamicThreadPoolService, threadPoolSampler, threadPoolDataReportJob, redissonConnector, properties,
+                    TomcatThreadPoolAdapter::discover);
+        }
+    }
+
+    /**
+     * 内嵌 Jetty 线程池，仅在引入 Jetty 时生效，服务器启动后注册。
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "org.eclipse.jetty.server.Server")
+    static class FlashTpJettyConfiguration {
+
+        /**
+         * 创建 Jetty 线程池注册器。
+         *
+         * @param applicationContext       Spring应用上下文，用于获取应用名称。
+         * @param dynamicThreadPoolService 动态线程池服务，用于注册线程池。
+         * @param threadPoolSampler        线程池高频采样器，用于注册线程池。
+         * @param threadPoolDataReportJob  线程池数据报告任务，注册后触发上报。
+         * @param redissonConnector        Redisson客户端连接器，用于恢复注册中心保存的配置。
+         * @param properties               动态线程池的配置属性，用于获取配置拉取超时时间。
+         * @return Jetty 线程池注册器。
+         */
+        @Bean
+        public WebServerThreadPoolRegistrar jettyThreadPoolRegistrar(ApplicationContext applicationContext, DynamicThreadPoolService dynamicThreadPoolService,
+                                                                     ThreadPoolSampler threadPoolSampler, ThreadPoolDataReportJob threadPoolDataReportJob,
+                                                                     RedissonConnector redissonConnector, FlashTpAutoConfigProperties properties) {
+            return webServerThreadPoolRegistrar(applicationContext, dynamicThreadPoolService, threadPoolSampler, threadPoolDataReportJob, redissonConnector, properties,
+                    JettyThreadPoolAdapter::discover);
+        }
+    }
+
+    /**
+     * 内嵌 Undertow 工作线程池，仅在引入 Undertow 时生效，服务器启动后注册。
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "io.undertow.Undertow")
+    static class FlashTpUndertowConfiguration {
+
+        /**
+         * 创建 Undertow 工作线程池注册器。
+         *
+         * @param applicationContext       Spring应用上下文，用于获取应用名称。
+         * @param dynamicThreadPoolService 动态线程池服务，用于注册线程池。
+         * @param threadPoolSampler        线程池高频采样器，用于注册线程池。
+         * @param threadPoolDataReportJob  线程池数据报告任务，注册后触发上报。
+         * @param redissonConnector        Redisson客户端连接器，用于恢复注册中心保存的配置。
+         * @param properties               动态线程池的配置属性，用于获取配置拉取超时时间。
+         * @return Undertow 工作线程池注册器。
+         */
+        @Bean
+        public WebServerThreadPoolRegistrar undertowThreadPoolRegistrar(ApplicationContext applicationContext, DynamicThreadPoolService dynamicThreadPoolService,
+                                                                        ThreadPoolSampler threadPoolSampler, ThreadPoolDataReportJob threadPoolDataReportJob,
+                                                                        RedissonConnector redissonConnector, FlashTpAutoConfigProperties properties) {
+            return webServerThreadPoolRegistrar(applicationContext, dynamicThreadPoolService, threadPoolSampler, threadPoolDataReportJob, redissonConnector, properties,
+                    UndertowThreadPoolAdapter::discover);
+        }
+    }
+
+    /**
+     * 创建 Web 服务器工作线程池注册器，注册后在注册中心连接成功时异步恢复注册中心保存的配置。
+     */
+    private static WebServerThreadPoolRegistrar webServerThreadPoolRegistrar(ApplicationContext applicationContext, DynamicThreadPoolService dynamicThreadPoolService,
+                                                                             ThreadPoolSampler threadPoolSampler, ThreadPoolDataReportJob threadPoolDataReportJob,
+                                                                             RedissonConnector redissonConnector, FlashTpAutoConfigProperties properties,
+                                                                             Function<WebServer, Map<String, ThreadPoolAdapter>> discoverer) {
+        String applicationName = getApplicationName(applicationContext);
+        return new WebServerThreadPoolRegistrar(dynamicThreadPoolService, threadPoolSampler, threadPoolDataReportJob, discoverer,
+                threadPoolNames -> restoreThreadPoolConfigAsync(dynamicThreadPoolService, redissonConnector, applicationName, threadPoolNames, properties.getConfigFetchTimeout()));
+    }
+
+    /**
+     * actuator 端点，仅在引入 spring-boot-actuator 时生效，暴露方式由 management.endpoints 配置决定。
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "org.springframework.boot.actuate.endpoint.annotation.Endpoint")
+    static class FlashTpEndpointConfiguration {
+
+        /**
+         * 创建 flashtp 端点。
+         *
+         * @param applicationContext       Spring应用上下文，用于获取应用名称。
+         * @param dynamicThreadPoolService 动态线程池服务，用于调整线程池参数。
+         * @param threadPoolSnapshotCache  线程池快照缓存，用于读取线程池状态。
+         * @param threadPoolDataReportJob  线程池数据报告任务，调整后触发上报。
+         * @param registry                 注册表，用于暴露上报流量统计。
+         * @return flashtp 端点。
+         */
+        @Bean
+        public FlashTpEndpoint flashTpEndpoint(ApplicationContext applicationContext, DynamicThreadPoolService dynamicThreadPoolService,
+                                               ThreadPoolSnapshotCache threadPoolSnapshotCache, ThreadPoolDataReportJob threadPoolDataReportJob, Registry registry) {
+            return new FlashTpEndpoint(getApplicationName(applicationContext), dynamicThreadPoolService, threadPoolSnapshotCache, threadPoolDataReportJob, registry);
+        }
+    }
+
     /**
      * 获取应用名称，用于标识和区分不同的Spring应用程序。
+     * 未配置 spring.application.name 时使用默认应用名称，保证线程池服务、注册表与监听主题使用同一名称。
      *
      * @param applicationContext Spring应用上下文。
      * @return 应用名称。
      */
-    private String getApplicationName(ApplicationContext applicationContext) {
-        return applicationContext.getEnvironment().getProperty("spring.application.name");
+    private static String getApplicationName(ApplicationContext applicationContext) {
+        String applicationName = applicationContext.getEnvironment().getProperty("spring.application.name");
+        if (StringUtils.isBlank(applicationName)) {
+            log.warn("[flash-tp]==> applicationName is null and will given after process default application name");
+            return "flash-tp-defaultApp";
+        }
+        return applicationName;
+    }
+
+    /**
+     * 获取线程池配置调整主题名称。
+     *
+     * @param applicationContext Spring应用上下文。
+     * @return 主题名称。
+     */
+    private static String getTopicName(ApplicationContext applicationContext) {
+        return RegistryEnumVO.DYNAMIC_THREAD_POOL_REDIS_TOPIC.getKey() + "_" + getApplicationName(applicationContext);
+    }
+
+    /**
+     * 获取容器中受管的线程池：全部 {@link ExecutorService} Bean（ThreadPoolExecutor、ScheduledThreadPoolExecutor、ForkJoinPool，
+     * 其他类型的 ExecutorService 不受管）、{@link ThreadPoolTaskExecutor} Bean（包括 {@code @Async} 使用的 applicationTaskExecutor），
+     * 以及业务自行声明的 {@link ThreadPoolAdapter} Bean，同名时以适配器为准。内嵌 Web 服务器的工作线程池在服务器启动后另行注册。
+     *
+     * @param applicationContext Spring应用上下文。
+     * @return 线程池的映射，键为 Bean 名称。
+     */
+    private static Map<String, Object> getThreadPools(ApplicationContext applicationContext) {
+        Map<String, Object> threadPools = new LinkedHashMap<>(applicationContext.getBeansOfType(ExecutorService.class));
+        threadPools.putAll(applicationContext.getBeansOfType(ThreadPoolTaskExecutor.class));
+        threadPools.putAll(applicationContext.getBeansOfType(ThreadPoolAdapter.class));
+        return threadPools;
+    }
+
+    /**
+     * 获取实例标识，未配置时使用 host:pid。
+     *
+     * @param properties 动态线程池的配置属性。
+     * @return 实例标识。
+     */
+    private String getInstanceId(FlashTpAutoConfigProperties properties) {
+        if (StringUtils.isNotBlank(properties.getInstanceId())) return properties.getInstanceId();
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostAddress();
+        } catch (UnknownHostException e) {
+            log.warn("[flash-tp]==> 获取本机地址失败，使用 unknown-host 作为实例标识", e);
+            host = "unknown-host";
+        }
+        return host + ":" + ProcessHandle.current().pid();
     }
 
     /**
@@ -155,7 +537,8 @@ public class FlashTpAutoConfig {
     private RedissonClient wrapperRedisClient(FlashTpAutoConfigProperties properties) {
         Config config = new Config();
         // 根据需要可以设定编解码器；https://github.com/redisson/redisson/wiki/4.-%E6%95%B0%E6%8D%AE%E5%BA%8F%E5%88%97%E5%8C%96
-        config.setCodec(JsonJacksonCodec.INSTANCE);
+        // 默认 JSON，可选 binary：线程池配置使用紧凑二进制格式
+        config.setCodec(FlashTpRedisCodec.select(properties.getCodec()));
         config.useSingleServer()
                 .setAddress("redis://" + properties.getHost() + ":" + properties.getPort())
                 .setPassword(properties.getPassword())
@@ -1,8 +1,14 @@
 package com.cz.flashtp.config;
 
+import com.cz.flashtp.domain.spill.SpillSettings;
+import com.cz.flashtp.domain.tuner.AutoTuneSettings;
+import com.cz.flashtp.domain.watchdog.SlowTaskSettings;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.util.LinkedHashSet;
+import java.util.Set;
+
 /**
  * flashtp auto config enter
  *
@@ -35,4 +41,34 @@ public class FlashTpAutoConfigProperties {
     private int pingInterval = 0;
     /** 设置是否保持长连接，默认为true */
     private boolean keepAlive = true;
+    /** Redis 编解码方式：json（默认，写入 JSON）或 binary（线程池配置写入紧凑二进制格式）；两者都能读取两种格式，全部升级后再逐个切换为 binary */
+    private String codec = "json";
+    /** 实例标识，为空时使用 host:pid */
+    private String instanceId;
+    /** 实例心跳过期时间（单位：秒），超过该时间未上报的实例数据将被 Redis 清除，默认为60 */
+    private int heartbeatTtl = 60;
+    /** 启动时从注册中心拉取线程池配置的整体超时时间（单位：毫秒），超时后使用本地默认配置启动，默认为3000 */
+    private long configFetchTimeout = 3000;
+    /** 线程池数据上报间隔（单位：毫秒），默认为20000 */
+    private long reportInterval = 20000;
+    /** 单个上报周期的超时时间（单位：毫秒），超时后计为失败并在下一周期重试，默认为5000 */
+    private long reportTimeout = 5000;
+    /** 上报失败时本地积压的快照上限，超出时丢弃最旧的快照，默认为16 */
+    private int reportBacklogLimit = 16;
+    /** 线程池高频采样间隔（单位：毫秒），采样结果按上报窗口聚合为最小值、最大值与平均值，小于等于0时不采样，默认为100 */
+    private long sampleInterval = 100;
+    /** Micrometer 指标与 actuator 端点读取线程池快照的缓存有效期（单位：毫秒），默认为1000 */
+    private long metricsCacheTtl = 1000;
+    /** 是否启用线程池配置本地快照，默认为true */
+    private boolean snapshotEnabled = true;
+    /** 线程池配置本地快照目录，默认为 ${user.home}/.flash-tp */
+    private String snapshotDir = System.getProperty("user.home") + "/.flash-tp";
+    /** 使用优先创建线程模式（I/O 密集型）的线程池 Bean 名称：先创建线程到最大线程数再排队，默认为空 */
+    private Set<String> eagerPools = new LinkedHashSet<>();
+    /** 溢出层配置，前缀 flash-tp.spill：队列已满时可序列化的任务落盘，队列有空位时回灌；由后处理器从 Environment 绑定，这里用于配置元数据 */
+    private SpillSettings spill = new SpillSettings();
+    /** 慢任务检测配置，前缀 flash-tp.slow-task：任务执行超过阈值时计数并抓取工作线程调用栈；由后处理器从 Environment 绑定，这里用于配置元数据 */
+    private SlowTaskSettings slowTask = new SlowTaskSettings();
+    /** 自动调优配置，前缀 flash-tp.auto-tune */
+    private AutoTuneSettings autoTune = new AutoTuneSettings();
 }
@@ -0,0 +1,156 @@
+package com.cz.flashtp.config;
+
+import com.cz.flashtp.domain.executor.EagerThreadPoolExecutor;
+import com.cz.flashtp.domain.executor.FlashTpExecutor;
+import com.cz.flashtp.domain.executor.FlashTpScheduledExecutor;
+import com.cz.flashtp.domain.spill.SpillSegmentLog;
+import com.cz.flashtp.domain.spill.SpillSettings;
+import com.cz.flashtp.domain.spill.TaskSpill;
+import com.cz.flashtp.domain.watchdog.HashedTimingWheel;
+import com.cz.flashtp.domain.watchdog.SlowTaskDetector;
+import com.cz.flashtp.domain.watchdog.SlowTaskSettings;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 线程池托管增强
+ * 将容器中声明的普通 {@link ThreadPoolExecutor} 替换为 {@link FlashTpExecutor}，沿用原有的线程数、队列、线程工厂与拒绝策略。
+ * 仅处理类型恰好为 ThreadPoolExecutor 的 Bean，业务自定义的子类保持原样。
+ * 类型恰好为 ScheduledThreadPoolExecutor 的 Bean 替换为 {@link FlashTpScheduledExecutor}，用于记录定时任务的触发延迟。
+ * 名称在 flash-tp.eager-pools 中的线程池替换为 {@link EagerThreadPoolExecutor}（先创建线程到最大线程数再排队），队列替换为同容量的 EagerTaskQueue。
+ * 名称在 flash-tp.spill.pools 中的托管线程池开启溢出层，日志目录打开失败时记录日志并保持原有的拒绝行为。
+ * flash-tp.slow-task.enabled=true 时全部托管线程池开启慢任务检测，共用一个时间轮，容器关闭时停止。
+ * 后处理器先于配置属性 Bean 创建，配置直接从 {@link Environment} 绑定。
+ *
+ * @author Zjianru
+ */
+@Slf4j
+public class FlashTpExecutorBeanPostProcessor implements BeanPostProcessor, EnvironmentAware, DisposableBean {
+
+    /**
+     * 使用优先创建线程模式的线程池 Bean 名称
+     */
+    private Set<String> eagerPools = Collections.emptySet();
+
+    /**
+     * 溢出层配置
+     */
+    private SpillSettings spillSettings = new SpillSettings();
+
+    /**
+     * 慢任务检测配置
+     */
+    private SlowTaskSettings slowTaskSettings = new SlowTaskSettings();
+
+    /**
+     * 慢任务检测共用的时间轮，首个线程池开启检测时创建
+     */
+    private HashedTimingWheel timingWheel;
+
+    /**
+     * 应用名称，区分同一目录下不同应用的溢出日志
+     */
+    private String applicationName = "flash-tp-defaultApp";
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        Binder binder = Binder.get(environment);
+        this.eagerPools = binder.bind("flash-tp.eager-pools", Bindable.setOf(String.class)).orElse(Collections.emptySet());
+        this.spillSettings = binder.bind("flash-tp.spill", SpillSettings.class).orElseGet(SpillSettings::new);
+        this.slowTaskSettings = binder.bind("flash-tp.slow-task", SlowTaskSettings.class).orElseGet(SlowTaskSettings::new);
+        this.applicationName = environment.getProperty("spring.application.name", applicationName);
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        if (null != bean && bean.getClass() == ScheduledThreadPoolExecutor.class) return wrapScheduled((ScheduledThreadPoolExecutor) bean, beanName);
+        if (null == bean || bean.getClass() != ThreadPoolExecutor.class) return bean;
+        ThreadPoolExecutor source = (ThreadPoolExecutor) bean;
+        // 原线程池已有工作线程时替换会导致两个线程池争抢同一个队列，保持原样
+        if (source.isShutdown() || source.getPoolSize() > 0) {
+            log.warn("[flash-tp]==> 线程池已启动工作线程，跳过托管增强 beanName:{}", beanName);
+            return bean;
+        }
+        boolean eager = eagerPools.contains(beanName);
+        FlashTpExecutor executor = eager ? EagerThreadPoolExecutor.from(source) : FlashTpExecutor.from(source);
+        // 原线程池没有工作线程，关闭后不会消费队列中的任务
+        source.shutdown();
+        log.info("[flash-tp]==> 线程池托管增强完成 beanName:{} 模式:{}", beanName, eager ? "eager" : "standard");
+        if (spillSettings.getPools().contains(beanName)) enableSpill(executor, beanName);
+        if (slowTaskSettings.isEnabled()) enableSlowTaskDetector(executor, beanName);
+        return executor;
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (null != timingWheel) timingWheel.stop();
+    }
+
+    private synchronized void enableSlowTaskDetector(FlashTpExecutor executor, String beanName) {
+        long threshold = slowTaskSettings.getPools().getOrDefault(beanName, slowTaskSettings.getThreshold());
+        SlowTaskDetector detector;
+        try {
+            if (null == timingWheel) {
+                timingWheel = new HashedTimingWheel("flash-tp-slow-task-watchdog", slowTaskSettings.getTickDuration(), TimeUnit.MILLISECONDS,
+                        slowTaskSettings.getTicksPerWheel());
+            }
+            detector = new SlowTaskDetector(timingWheel, beanName, threshold, slowTaskSettings.getSampleLimit(), slowTaskSettings.getStackDepth());
+        } catch (IllegalArgumentException e) {
+            log.warn("[flash-tp]==> 慢任务检测配置非法，线程池不开启慢任务检测 beanName:{} 原因:{}", beanName, e.getMessage());
+            return;
+        }
+        executor.enableSlowTaskDetector(detector);
+        log.info("[flash-tp]==> 线程池已开启慢任务检测 beanName:{} 阈值:{}ms", beanName, threshold);
+    }
+
+    private void enableSpill(FlashTpExecutor executor, String beanName) {
+        Path directory = Paths.get(spillSettings.getDir(), fileName(applicationName), fileName(beanName));
+        TaskSpill taskSpill;
+        try {
+            taskSpill = new TaskSpill(new SpillSegmentLog(directory, spillSettings.getSegmentSize(), spillSettings.getMaxBytes()),
+                    spillSettings.getAllowedClasses());
+        } catch (RuntimeException e) {
+            log.warn("[flash-tp]==> 溢出日志打开失败，线程池不开启溢出层 beanName:{} directory:{}", beanName, directory, e);
+            return;
+        }
+        try {
+            executor.enableSpill(taskSpill);
+        } catch (IllegalStateException e) {
+            taskSpill.close();
+            log.warn("[flash-tp]==> 线程池不支持溢出层 beanName:{} 原因:{}", beanName, e.getMessage());
+            return;
+        }
+        log.info("[flash-tp]==> 线程池已开启溢出层 beanName:{} directory:{}", beanName, directory);
+    }
+
+    private static String fileName(String name) {
+        return name.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    private Object wrapScheduled(ScheduledThreadPoolExecutor source, String beanName) {
+        // 已提交的定时任务无法迁移到新线程池，保持原样
+        if (source.isShutdown() || source.getPoolSize() > 0 || !source.getQueue().isEmpty()) {
+            log.warn("[flash-tp]==> 定时线程池已提交任务，跳过托管增强 beanName:{}", beanName);
+            return source;
+        }
+        FlashTpScheduledExecutor executor = FlashTpScheduledExecutor.from(source);
+        source.shutdown();
+        log.info("[flash-tp]==> 定时线程池托管增强完成 beanName:{}", beanName);
+        return executor;
+    }
+
+}
@@ -2,6 +2,7 @@ package com.cz.flashtp.domain;
 
 import com.cz.flashtp.domain.entity.ThreadPoolConfig;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -34,4 +35,32 @@ public interface DynamicThreadPoolService {
      * @param threadPoolConfig 新的线程池配置。
      */
     void updateThreadPoolConfig(ThreadPoolConfig threadPoolConfig);
+
+    /**
+     * 批量更新线程池配置。
+     * 默认依次调用 {@link #updateThreadPoolConfig(ThreadPoolConfig)}，实现类可在一次加锁内完成全部调整并只持久化一次。
+     *
+     * @param threadPoolConfigs 新的线程池配置列表。
+     * @return 调整后实际生效的线程池配置，实例中不存在或参数非法的线程池不包含在内。
+     */
+    default List<ThreadPoolConfig> updateThreadPoolConfigs(List<ThreadPoolConfig> threadPoolConfigs) {
+        List<ThreadPoolConfig> applied = new ArrayList<>(threadPoolConfigs.size());
+        for (ThreadPoolConfig threadPoolConfig : threadPoolConfigs) {
+            updateThreadPoolConfig(threadPoolConfig);
+            applied.add(queryThreadPoolConfigByName(threadPoolConfig.getThreadPoolName()));
+        }
+        return applied;
+    }
+
+    /**
+     * 运行期注册线程池，用于容器启动后才创建的线程池（如内嵌 Web 服务器的工作线程池），同名时替换。
+     * 默认不支持运行期注册。
+     *
+     * @param threadPoolName 线程池名称。
+     * @param executor       线程池实例或线程池适配器。
+     * @return 注册成功时为 true，不支持运行期注册或线程池类型不受支持时为 false。
+     */
+    default boolean registerThreadPool(String threadPoolName, Object executor) {
+        return false;
+    }
 }
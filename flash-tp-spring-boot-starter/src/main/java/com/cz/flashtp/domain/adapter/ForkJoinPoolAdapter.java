@@ -0,0 +1,145 @@
+package com.cz.flashtp.domain.adapter;
+
+import com.cz.flashtp.domain.entity.ThreadPoolConfig;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * ForkJoinPool 适配器
+ * 上报并行度、窃取任务数、外部提交排队数与运行中线程数；核心线程数与最大线程数均按并行度上报，
+ * 队列深度为工作线程队列与外部提交队列中的任务数之和，队列不设上限。
+ * <p>
+ * 调整时取配置中的 parallelism，未指定时取核心线程数。{@code ForkJoinPool#setParallelism} 自 JDK 19 起提供，
+ * 这里按方法句柄查找：运行在更低版本的 JDK 上时只上报，不支持调整，快照中的 parallelismAdjustable 为 false，
+ * 管理端据此禁用修改并直接拒绝调整请求，批量调整的确认中该线程池列为未生效。
+ *
+ * @author Zjianru
+ */
+@Slf4j
+public class ForkJoinPoolAdapter implements ThreadPoolAdapter {
+
+    public static final String POOL_TYPE = "ForkJoinPool";
+
+    /**
+     * ForkJoinPool 支持的最大并行度
+     */
+    public static final int MAX_PARALLELISM = 0x7fff;
+
+    /**
+     * ForkJoinPool#setParallelism，当前 JDK 不支持时为 null
+     */
+    private static final MethodHandle SET_PARALLELISM = findSetParallelism();
+
+    private final ForkJoinPool forkJoinPool;
+
+    public ForkJoinPoolAdapter(ForkJoinPool forkJoinPool) {
+        this.forkJoinPool = forkJoinPool;
+    }
+
+    /**
+     * 当前 JDK 是否支持调整并行度
+     *
+     * @return 支持时为 true
+     */
+    public static boolean isParallelismAdjustable() {
+        return null != SET_PARALLELISM;
+    }
+
+    @Override
+    public String getPoolType() {
+        return POOL_TYPE;
+    }
+
+    @Override
+    public ForkJoinPool getExecutor() {
+        return forkJoinPool;
+    }
+
+    @Override
+    public int getActiveCount() {
+        return forkJoinPool.getActiveThreadCount();
+    }
+
+    @Override
+    public int getPoolSize() {
+        return forkJoinPool.getPoolSize();
+    }
+
+    @Override
+    public int getQueueSize() {
+        return (int) Math.min(Integer.MAX_VALUE, forkJoinPool.getQueuedTaskCount() + forkJoinPool.getQueuedSubmissionCount());
+    }
+
+    @Override
+    public ThreadPoolConfig snapshot(String applicationName, String threadPoolName) {
+        int parallelism = forkJoinPool.getParallelism();
+        int queueSize = getQueueSize();
+        return ThreadPoolConfig.builder()
+                .appName(applicationName)
+                .threadPoolName(threadPoolName)
+                .poolType(POOL_TYPE)
+                .corePoolSize(parallelism)
+                .maximumPoolSize(parallelism)
+                .activeCount(getActiveCount())
+                .poolSize(getPoolSize())
+                .queueType("WorkQueue")
+                .queueSize(queueSize)
+                .remainingCapacity(Integer.MAX_VALUE - queueSize)
+                .queueCapacity(Integer.MAX_VALUE)
+                .parallelism(parallelism)
+                .parallelismAdjustable(isParallelismAdjustable())
+                .stealCount(forkJoinPool.getStealCount())
+                .queuedSubmissionCount(forkJoinPool.getQueuedSubmissionCount())
+                .runningThreadCount(forkJoinPool.getRunningThreadCount())
+                .build();
+    }
+
+    /**
+     * 调整并行度
+     *
+     * @return 调整后实际生效的并行度（同时作为核心线程数与最大线程数），并行度非法或当前 JDK 不支持调整时为 null
+     */
+    @Override
+    public ThreadPoolConfig apply(ThreadPoolConfig threadPoolConfig) {
+        int parallelism = threadPoolConfig.getParallelism() > 0 ? threadPoolConfig.getParallelism() : threadPoolConfig.getCorePoolSize();
+        if (parallelism <= 0 || parallelism > MAX_PARALLELISM) {
+            log.warn("[flash-tp]==>updateThreadPoolConfig==>非法的并行度配置，忽略本次调整 线程名:{} 并行度:{}", threadPoolConfig.getThreadPoolName(), parallelism);
+            return null;
+        }
+        if (null == SET_PARALLELISM) {
+            log.warn("[flash-tp]==>updateThreadPoolConfig==>当前 JDK 不支持调整 ForkJoinPool 并行度（需要 JDK 19 及以上），忽略本次调整 线程名:{} 并行度:{}",
+                    threadPoolConfig.getThreadPoolName(), parallelism);
+            return null;
+        }
+        if (parallelism != forkJoinPool.getParallelism()) {
+            try {
+                int previous = (int) SET_PARALLELISM.invokeExact(forkJoinPool, parallelism);
+                log.info("[flash-tp]==>updateThreadPoolConfig==>ForkJoinPool 并行度已调整 线程名:{} {} -> {}", threadPoolConfig.getThreadPoolName(), previous, parallelism);
+            } catch (Throwable e) {
+                log.warn("[flash-tp]==>updateThreadPoolConfig==>调整 ForkJoinPool 并行度失败 线程名:{} 并行度:{}", threadPoolConfig.getThreadPoolName(), parallelism, e);
+                return null;
+            }
+        }
+        int applied = forkJoinPool.getParallelism();
+        return ThreadPoolConfig.builder()
+                .appName(threadPoolConfig.getAppName())
+                .threadPoolName(threadPoolConfig.getThreadPoolName())
+                .corePoolSize(applied)
+                .maximumPoolSize(applied)
+                .parallelism(applied)
+                .build();
+    }
+
+    private static MethodHandle findSetParallelism() {
+        try {
+            return MethodHandles.publicLookup().findVirtual(ForkJoinPool.class, "setParallelism", MethodType.methodType(int.class, int.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        }
+    }
+
+}
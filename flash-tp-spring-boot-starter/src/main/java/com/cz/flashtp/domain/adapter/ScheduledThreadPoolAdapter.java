@@ -0,0 +1,82 @@
+package com.cz.flashtp.domain.adapter;
+
+import com.cz.flashtp.domain.entity.ThreadPoolConfig;
+import com.cz.flashtp.domain.executor.FlashTpScheduledExecutor;
+import com.cz.flashtp.domain.metrics.ScheduleLagSnapshot;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ScheduledThreadPoolExecutor 适配器
+ * 定时线程池的线程数固定为核心线程数，队列无界：只调整核心线程数，最大线程数按核心线程数上报，忽略队列容量。
+ * <p>
+ * 触发延迟由两部分组成：托管定时线程池（{@link FlashTpScheduledExecutor}）记录的统计窗口内已触发任务的延迟分位，
+ * 以及队首已到期却仍未被取走的任务当前的延迟。后者对所有定时线程池可用，线程全部被占用、到期任务迟迟无法触发时也能立即反映。
+ *
+ * @author Zjianru
+ */
+@Slf4j
+public class ScheduledThreadPoolAdapter extends ThreadPoolExecutorAdapter {
+
+    public static final String POOL_TYPE = "ScheduledThreadPoolExecutor";
+
+    public ScheduledThreadPoolAdapter(ScheduledThreadPoolExecutor scheduledThreadPoolExecutor) {
+        super(scheduledThreadPoolExecutor);
+    }
+
+    @Override
+    public String getPoolType() {
+        return POOL_TYPE;
+    }
+
+    @Override
+    public ThreadPoolConfig snapshot(String applicationName, String threadPoolName) {
+        ThreadPoolConfig config = super.snapshot(applicationName, threadPoolName);
+        config.setMaximumPoolSize(threadPoolExecutor.getCorePoolSize());
+        double lagMaxMs = overdueMillis();
+        if (threadPoolExecutor instanceof FlashTpScheduledExecutor) {
+            ScheduleLagSnapshot lag = ((FlashTpScheduledExecutor) threadPoolExecutor).scheduleLagSnapshot();
+            config.setScheduleLagP99Ms(lag.getLagP99Ms());
+            lagMaxMs = Math.max(lagMaxMs, lag.getLagMaxMs());
+        }
+        config.setScheduleLagMaxMs(lagMaxMs);
+        return config;
+    }
+
+    /**
+     * 只调整核心线程数
+     *
+     * @return 调整后实际生效的核心线程数，最大线程数与核心线程数相同；核心线程数非法时为 null
+     */
+    @Override
+    public ThreadPoolConfig apply(ThreadPoolConfig threadPoolConfig) {
+        int corePoolSize = threadPoolConfig.getCorePoolSize();
+        if (corePoolSize <= 0) {
+            log.warn("[flash-tp]==>updateThreadPoolConfig==>非法的定时线程池核心线程数，忽略本次调整 线程名:{} 核心线程数:{}", threadPoolConfig.getThreadPoolName(), corePoolSize);
+            return null;
+        }
+        // 最大线程数默认不设上限，显式调小过时需先调大，否则 setCorePoolSize 会抛出 IllegalArgumentException
+        if (corePoolSize > threadPoolExecutor.getMaximumPoolSize()) threadPoolExecutor.setMaximumPoolSize(corePoolSize);
+        threadPoolExecutor.setCorePoolSize(corePoolSize);
+        return ThreadPoolConfig.builder()
+                .appName(threadPoolConfig.getAppName())
+                .threadPoolName(threadPoolConfig.getThreadPoolName())
+                .corePoolSize(threadPoolExecutor.getCorePoolSize())
+                .maximumPoolSize(threadPoolExecutor.getCorePoolSize())
+                .build();
+    }
+
+    /**
+     * 队首任务已到期的时长，队列按触发时间排序，队首即延迟最大的待触发任务；未到期或队列为空时为 0
+     */
+    private double overdueMillis() {
+        Runnable head = threadPoolExecutor.getQueue().peek();
+        if (!(head instanceof Delayed)) return 0D;
+        long overdue = -((Delayed) head).getDelay(TimeUnit.MICROSECONDS);
+        return overdue <= 0 ? 0D : overdue / 1000.0;
+    }
+
+}
@@ -0,0 +1,70 @@
+package com.cz.flashtp.domain.adapter;
+
+import com.cz.flashtp.domain.entity.ThreadPoolConfig;
+
+/**
+ * 线程池适配器
+ * 屏蔽不同线程池实现的差异，为动态线程池服务、采样器与指标提供统一的读取与调整入口。
+ * 内置 {@link ThreadPoolExecutorAdapter}、{@link ScheduledThreadPoolAdapter}、{@link ForkJoinPoolAdapter}、{@link ThreadPoolTaskExecutorAdapter}，
+ * 由 {@link ThreadPoolAdapters#adapt(Object)} 按线程池类型选择；内嵌 Web 服务器的工作线程池在服务器启动后发现并注册，
+ * 适配器位于 {@code com.cz.flashtp.domain.adapter.web}；其他线程池可以直接将适配器声明为 Bean 接入。
+ * <p>
+ * 实现类不应持有可变状态，同一个线程池可能被包装多次。
+ *
+ * @author Zjianru
+ */
+public interface ThreadPoolAdapter {
+
+    /**
+     * 线程池类型，对应上报数据中的 poolType
+     *
+     * @return 线程池类型
+     */
+    String getPoolType();
+
+    /**
+     * 被适配的线程池
+     *
+     * @return 线程池实例
+     */
+    Object getExecutor();
+
+    /**
+     * 正在执行任务的线程数
+     *
+     * @return 活跃线程数
+     */
+    int getActiveCount();
+
+    /**
+     * 池中线程数
+     *
+     * @return 池中线程数
+     */
+    int getPoolSize();
+
+    /**
+     * 排队等待执行的任务数
+     *
+     * @return 队列深度
+     */
+    int getQueueSize();
+
+    /**
+     * 采集线程池快照
+     *
+     * @param applicationName 应用名称
+     * @param threadPoolName  线程池名称
+     * @return 线程池配置信息，实例标识由调用方填充
+     */
+    ThreadPoolConfig snapshot(String applicationName, String threadPoolName);
+
+    /**
+     * 按配置调整线程池，配置中不适用于该类型的参数忽略
+     *
+     * @param threadPoolConfig 需要更新的线程池配置信息
+     * @return 调整后实际生效的参数，参数非法或不支持调整时为 null；实例标识由调用方填充
+     */
+    ThreadPoolConfig apply(ThreadPoolConfig threadPoolConfig);
+
+}
@@ -0,0 +1,61 @@
+package com.cz.flashtp.domain.adapter;
+
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * 线程池适配器选择
+ *
+ * @author Zjianru
+ */
+public final class ThreadPoolAdapters {
+
+    private ThreadPoolAdapters() {
+    }
+
+    /**
+     * 按线程池类型选择适配器，已经是适配器时原样返回；ThreadPoolTaskExecutor 按其内部线程池适配，尚未初始化时不受管
+     *
+     * @param executor 线程池
+     * @return 适配器，不支持的类型返回 null
+     */
+    public static ThreadPoolAdapter adapt(Object executor) {
+        if (executor instanceof ThreadPoolAdapter) return (ThreadPoolAdapter) executor;
+        if (executor instanceof ThreadPoolTaskExecutor) return adapt((ThreadPoolTaskExecutor) executor);
+        if (executor instanceof ScheduledThreadPoolExecutor) return new ScheduledThreadPoolAdapter((ScheduledThreadPoolExecutor) executor);
+        if (executor instanceof ThreadPoolExecutor) return new ThreadPoolExecutorAdapter((ThreadPoolExecutor) executor);
+        if (executor instanceof ForkJoinPool) return new ForkJoinPoolAdapter((ForkJoinPool) executor);
+        return null;
+    }
+
+    private static ThreadPoolAdapter adapt(ThreadPoolTaskExecutor executor) {
+        try {
+            return new ThreadPoolTaskExecutorAdapter(executor);
+        } catch (IllegalStateException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 为全部线程池选择适配器，保持原有顺序，不支持的类型跳过
+     *
+     * @param executors 线程池的映射，键为线程池名称
+     * @return 适配器的映射，键为线程池名称
+     */
+    public static Map<String, ThreadPoolAdapter> adapt(Map<String, ?> executors) {
+        if (null == executors || executors.isEmpty()) return Collections.emptyMap();
+        Map<String, ThreadPoolAdapter> adapters = new LinkedHashMap<>(executors.size() * 2);
+        executors.forEach((name, executor) -> {
+            ThreadPoolAdapter adapter = adapt(executor);
+            if (null != adapter) adapters.put(name, adapter);
+        });
+        return Collections.unmodifiableMap(adapters);
+    }
+
+}
@@ -0,0 +1,288 @@
+package com.cz.flashtp.domain.adapter;
+
+import com.cz.flashtp.domain.admission.AdmissionController;
+import com.cz.flashtp.domain.entity.ThreadPoolConfig;
+import com.cz.flashtp.domain.executor.FlashTpExecutor;
+import com.cz.flashtp.domain.executor.KeyedOrderedExecutor;
+import com.cz.flashtp.domain.metrics.AdmissionSnapshot;
+import com.cz.flashtp.domain.metrics.LaneSnapshot;
+import com.cz.flashtp.domain.metrics.LatencySnapshot;
+import com.cz.flashtp.domain.metrics.SlowTaskSnapshot;
+import com.cz.flashtp.domain.metrics.SpillSnapshot;
+import com.cz.flashtp.domain.metrics.TaskCountSnapshot;
+import com.cz.flashtp.domain.queue.ResizableCapacityLinkedBlockingQueue;
+import com.cz.flashtp.domain.watchdog.SlowTaskDetector;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * ThreadPoolExecutor 适配器
+ * 调整核心线程数、最大线程数与队列容量（队列为 {@link ResizableCapacityLinkedBlockingQueue} 时），
+ * 托管线程池额外上报任务耗时分位与任务计数（开启溢出层时包括落盘与回灌）、调整与上报异步提交的准入控制与慢任务阈值，有序线程池额外调整与上报通道。
+ *
+ * @author Zjianru
+ */
+@Slf4j
+public class ThreadPoolExecutorAdapter implements ThreadPoolAdapter {
+
+    public static final String POOL_TYPE = "ThreadPoolExecutor";
+
+    protected final ThreadPoolExecutor threadPoolExecutor;
+
+    public ThreadPoolExecutorAdapter(ThreadPoolExecutor threadPoolExecutor) {
+        this.threadPoolExecutor = threadPoolExecutor;
+    }
+
+    @Override
+    public String getPoolType() {
+        return POOL_TYPE;
+    }
+
+    @Override
+    public ThreadPoolExecutor getExecutor() {
+        return threadPoolExecutor;
+    }
+
+    @Override
+    public int getActiveCount() {
+        return threadPoolExecutor.getActiveCount();
+    }
+
+    @Override
+    public int getPoolSize() {
+        return threadPoolExecutor.getPoolSize();
+    }
+
+    @Override
+    public int getQueueSize() {
+        return threadPoolExecutor.getQueue().size();
+    }
+
+    /**
+     * 采集线程池快照，可调整容量的队列以其配置容量为准（缩容后队列深度可能暂时大于容量），
+     * 托管线程池额外附带统计窗口内的任务耗时分位与任务计数，活跃线程数、池中线程数均读取计数器，不持有线程池 mainLock。
+     */
+    @Override
+    public ThreadPoolConfig snapshot(String applicationName, String threadPoolName) {
+        ThreadPoolConfig config = ThreadPoolConfig.getInstance(applicationName, threadPoolName, threadPoolExecutor);
+        config.setPoolType(getPoolType());
+        BlockingQueue<Runnable> queue = threadPoolExecutor.getQueue();
+        if (queue instanceof ResizableCapacityLinkedBlockingQueue) {
+            config.setQueueCapacity(((ResizableCapacityLinkedBlockingQueue<Runnable>) queue).getCapacity());
+        }
+        if (threadPoolExecutor instanceof FlashTpExecutor) {
+            FlashTpExecutor executor = (FlashTpExecutor) threadPoolExecutor;
+            LatencySnapshot latency = executor.latencySnapshot();
+            config.setLatencySampleCount(latency.getSampleCount());
+            config.setQueueWaitP50Ms(latency.getQueueWaitP50Ms());
+            config.setQueueWaitP99Ms(latency.getQueueWaitP99Ms());
+            config.setQueueWaitP999Ms(latency.getQueueWaitP999Ms());
+            config.setRunTimeP50Ms(latency.getRunTimeP50Ms());
+            config.setRunTimeP99Ms(latency.getRunTimeP99Ms());
+            config.setRunTimeP999Ms(latency.getRunTimeP999Ms());
+            TaskCountSnapshot taskCount = executor.taskCountSnapshot();
+            config.setSubmittedTaskCount(taskCount.getSubmittedCount());
+            config.setCompletedTaskCount(taskCount.getCompletedCount());
+            config.setFailedTaskCount(taskCount.getFailedCount());
+            config.setRejectedTaskCount(taskCount.getRejectedCount());
+            config.setTps(taskCount.getTps());
+            config.setRejectionRate(taskCount.getRejectionRate());
+            SpillSnapshot spill = executor.spillSnapshot();
+            if (null != spill) {
+                config.setSpillDepth(spill.getDepth());
+                config.setSpillBytes(spill.getBytes());
+                config.setSpilledTaskCount(spill.getSpilledCount());
+                config.setSpillDrainedTaskCount(spill.getDrainedCount());
+                config.setSpillFailedTaskCount(spill.getFailedCount());
+                config.setSpillDrainRate(spill.getDrainRate());
+            }
+            AdmissionSnapshot admission = executor.admissionSnapshot();
+            if (null != admission) {
+                config.setAdmissionLimit(admission.getLimit());
+                config.setAdmissionMinLimit(admission.getMinLimit());
+                config.setAdmissionMaxLimit(admission.getMaxLimit());
+                config.setAdmissionInFlight(admission.getInFlight());
+                config.setAdmissionTargetQueueWaitMs(admission.getTargetQueueWaitMs());
+                config.setAdmissionRejectedCount(admission.getRejectedCount());
+            }
+            SlowTaskSnapshot slowTask = executor.slowTaskSnapshot();
+            if (null != slowTask) {
+                config.setSlowTaskThresholdMs(slowTask.getThresholdMs());
+                config.setSlowTaskCount(slowTask.getSlowCount());
+                config.setSlowTaskRunningCount(slowTask.getRunningCount());
+                config.setSlowTaskMaxRunMs(slowTask.getMaxRunMs());
+                config.setSlowTaskStacks(slowTask.getStacks());
+            }
+        }
+        if (threadPoolExecutor instanceof KeyedOrderedExecutor) {
+            // 有序线程池的排队发生在通道中，队列深度与容量按全部通道汇总
+            LaneSnapshot lanes = ((KeyedOrderedExecutor) threadPoolExecutor).laneSnapshot();
+            int queued = 0;
+            for (int depth : lanes.getLaneDepths()) {
+                queued += depth;
+            }
+            int capacity = (int) Math.min(Integer.MAX_VALUE, (long) lanes.getLaneCount() * lanes.getLaneCapacity());
+            config.setQueueSize(queued);
+            config.setQueueCapacity(capacity);
+            config.setRemainingCapacity(Math.max(0, capacity - queued));
+            config.setLaneCount(lanes.getLaneCount());
+            config.setLaneCapacity(lanes.getLaneCapacity());
+            config.setLaneDepths(lanes.getLaneDepths());
+            config.setLaneDepthMax(lanes.getLaneDepthMax());
+            config.setLaneSkew(lanes.getSkew());
+            config.setHotLane(lanes.getHotLane());
+            config.setHotKey(lanes.getHotKey());
+        }
+        return config;
+    }
+
+    /**
+     * 调整线程数与队列容量
+     *
+     * @return 调整后实际生效的核心线程数、最大线程数与队列容量（队列不支持调整时为 0）以及准入控制参数与慢任务阈值，参数非法时为 null
+     */
+    @Override
+    public ThreadPoolConfig apply(ThreadPoolConfig threadPoolConfig) {
+        int corePoolSize = threadPoolConfig.getCorePoolSize();
+        int maximumPoolSize = threadPoolConfig.getMaximumPoolSize();
+        if (corePoolSize < 0 || maximumPoolSize <= 0 || corePoolSize > maximumPoolSize) {
+            log.warn("[flash-tp]==>updateThreadPoolConfig==>非法的线程数配置，忽略本次调整 线程名:{} 核心线程数:{} 最大线程数:{}", threadPoolConfig.getThreadPoolName(), corePoolSize, maximumPoolSize);
+            return null;
+        }
+        int laneCount = threadPoolConfig.getLaneCount();
+        if (threadPoolExecutor instanceof KeyedOrderedExecutor
+                && (laneCount < 0 || laneCount > KeyedOrderedExecutor.MAX_LANE_COUNT || threadPoolConfig.getLaneCapacity() < 0)) {
+            log.warn("[flash-tp]==>updateThreadPoolConfig==>非法的通道配置，忽略本次调整 线程名:{} 通道数:{} 单通道排队上限:{}", threadPoolConfig.getThreadPoolName(), laneCount, threadPoolConfig.getLaneCapacity());
+            return null;
+        }
+        if (threadPoolConfig.getSlowTaskThresholdMs() < 0) {
+            log.warn("[flash-tp]==>updateThreadPoolConfig==>非法的慢任务阈值，忽略本次调整 线程名:{} 慢任务阈值:{}ms", threadPoolConfig.getThreadPoolName(), threadPoolConfig.getSlowTaskThresholdMs());
+            return null;
+        }
+        if (!validAdmission(threadPoolConfig)) {
+            log.warn("[flash-tp]==>updateThreadPoolConfig==>非法的准入控制配置，忽略本次调整 线程名:{} 准入限额下限:{} 准入限额上限:{} 排队耗时目标:{}ms", threadPoolConfig.getThreadPoolName(), threadPoolConfig.getAdmissionMinLimit(), threadPoolConfig.getAdmissionMaxLimit(), threadPoolConfig.getAdmissionTargetQueueWaitMs());
+            return null;
+        }
+        // 设置参数 「调整核心线程数和最大线程数」
+        setPoolSize(corePoolSize, maximumPoolSize);
+        // 有序线程池调整通道数与单通道排队上限，内部队列不设上限，忽略队列容量
+        if (threadPoolExecutor instanceof KeyedOrderedExecutor) {
+            return applyManaged(threadPoolConfig, applyLanes(threadPoolConfig, (KeyedOrderedExecutor) threadPoolExecutor));
+        }
+        // 设置参数 「调整队列容量」，未指定或队列不支持调整时跳过
+        BlockingQueue<Runnable> queue = threadPoolExecutor.getQueue();
+        boolean resizable = queue instanceof ResizableCapacityLinkedBlockingQueue;
+        if (threadPoolConfig.getQueueCapacity() > 0) {
+            if (resizable) {
+                ((ResizableCapacityLinkedBlockingQueue<Runnable>) queue).setCapacity(threadPoolConfig.getQueueCapacity());
+            } else {
+                log.warn("[flash-tp]==>updateThreadPoolConfig==>队列不支持调整容量 线程名:{} 队列类型:{}", threadPoolConfig.getThreadPoolName(), queue.getClass().getSimpleName());
+            }
+        }
+        return applyManaged(threadPoolConfig, ThreadPoolConfig.builder()
+                .appName(threadPoolConfig.getAppName())
+                .threadPoolName(threadPoolConfig.getThreadPoolName())
+                .corePoolSize(threadPoolExecutor.getCorePoolSize())
+                .maximumPoolSize(threadPoolExecutor.getMaximumPoolSize())
+                .queueCapacity(resizable ? ((ResizableCapacityLinkedBlockingQueue<Runnable>) queue).getCapacity() : 0)
+                .build());
+    }
+
+    /**
+     * 调整核心线程数与最大线程数
+     * 先扩后缩：新核心线程数大于当前最大线程数时需先调大最大线程数，否则 setCorePoolSize 会抛出 IllegalArgumentException
+     *
+     * @param corePoolSize    核心线程数
+     * @param maximumPoolSize 最大线程数
+     */
+    protected void setPoolSize(int corePoolSize, int maximumPoolSize) {
+        if (corePoolSize > threadPoolExecutor.getMaximumPoolSize()) {
+            threadPoolExecutor.setMaximumPoolSize(maximumPoolSize);
+            threadPoolExecutor.setCorePoolSize(corePoolSize);
+        } else {
+            threadPoolExecutor.setCorePoolSize(corePoolSize);
+            threadPoolExecutor.setMaximumPoolSize(maximumPoolSize);
+        }
+    }
+
+    /**
+     * 调整有序线程池的通道数与单通道排队上限，未指定（为 0）时保持不变
+     *
+     * @param threadPoolConfig 需要更新的线程池配置信息。
+     * @param executor         有序线程池
+     * @return 调整后实际生效的线程数、通道数与单通道排队上限
+     */
+    private ThreadPoolConfig applyLanes(ThreadPoolConfig threadPoolConfig, KeyedOrderedExecutor executor) {
+        if (threadPoolConfig.getLaneCount() > 0) executor.setLaneCount(threadPoolConfig.getLaneCount());
+        if (threadPoolConfig.getLaneCapacity() > 0) executor.setLaneCapacity(threadPoolConfig.getLaneCapacity());
+        return ThreadPoolConfig.builder()
+                .appName(threadPoolConfig.getAppName())
+                .threadPoolName(threadPoolConfig.getThreadPoolName())
+                .corePoolSize(executor.getCorePoolSize())
+                .maximumPoolSize(executor.getMaximumPoolSize())
+                .laneCount(executor.getLaneCount())
+                .laneCapacity(executor.getLaneCapacity())
+                .build();
+    }
+
+    /**
+     * 校验准入控制参数：未指定（为 0）的上下限沿用当前值，合并后需满足 1 <= 下限 <= 上限，排队耗时目标不能为负
+     */
+    private boolean validAdmission(ThreadPoolConfig threadPoolConfig) {
+        int minLimit = threadPoolConfig.getAdmissionMinLimit();
+        int maxLimit = threadPoolConfig.getAdmissionMaxLimit();
+        double target = threadPoolConfig.getAdmissionTargetQueueWaitMs();
+        if (minLimit < 0 || maxLimit < 0 || target < 0D || Double.isNaN(target)) return false;
+        if (minLimit == 0 && maxLimit == 0) return true;
+        // 非托管线程池不支持准入控制，交由 applyManaged 忽略
+        if (!(threadPoolExecutor instanceof FlashTpExecutor)) return true;
+        FlashTpExecutor executor = (FlashTpExecutor) threadPoolExecutor;
+        // 只读取当前值，校验不创建准入控制；尚未创建时按创建时的默认值合并
+        AdmissionSnapshot current = executor.admissionSnapshot();
+        int currentMin = null == current ? AdmissionController.DEFAULT_MIN_LIMIT : current.getMinLimit();
+        int currentMax = null == current ? executor.defaultAdmissionMaxLimit() : current.getMaxLimit();
+        return (minLimit > 0 ? minLimit : currentMin) <= (maxLimit > 0 ? maxLimit : currentMax);
+    }
+
+    /**
+     * 调整托管线程池的准入限额上下限与排队耗时目标、开启慢任务检测时的慢任务阈值，未指定（为 0）时保持不变；
+     * 准入控制已创建、慢任务检测已开启时在结果中带回生效的参数
+     *
+     * @param threadPoolConfig 需要更新的线程池配置信息。
+     * @param result           调整结果
+     * @return 调整结果
+     */
+    private ThreadPoolConfig applyManaged(ThreadPoolConfig threadPoolConfig, ThreadPoolConfig result) {
+        boolean requested = threadPoolConfig.getAdmissionMinLimit() > 0 || threadPoolConfig.getAdmissionMaxLimit() > 0
+                || threadPoolConfig.getAdmissionTargetQueueWaitMs() > 0D;
+        if (!(threadPoolExecutor instanceof FlashTpExecutor)) {
+            if (requested) log.warn("[flash-tp]==>updateThreadPoolConfig==>非托管线程池不支持准入控制 线程名:{}", threadPoolConfig.getThreadPoolName());
+            return result;
+        }
+        FlashTpExecutor executor = (FlashTpExecutor) threadPoolExecutor;
+        SlowTaskDetector detector = executor.getSlowTaskDetector();
+        if (null != detector) {
+            if (threadPoolConfig.getSlowTaskThresholdMs() > 0) detector.setThresholdMillis(threadPoolConfig.getSlowTaskThresholdMs());
+            result.setSlowTaskThresholdMs(detector.getThresholdMillis());
+        }
+        if (requested) {
+            AdmissionController controller = executor.admission();
+            AdmissionSnapshot current = controller.snapshot();
+            int minLimit = threadPoolConfig.getAdmissionMinLimit() > 0 ? threadPoolConfig.getAdmissionMinLimit() : current.getMinLimit();
+            int maxLimit = threadPoolConfig.getAdmissionMaxLimit() > 0 ? threadPoolConfig.getAdmissionMaxLimit() : current.getMaxLimit();
+            controller.setLimits(minLimit, maxLimit);
+            if (threadPoolConfig.getAdmissionTargetQueueWaitMs() > 0D) controller.setTargetQueueWaitMs(threadPoolConfig.getAdmissionTargetQueueWaitMs());
+        }
+        AdmissionSnapshot admission = executor.admissionSnapshot();
+        if (null != admission) {
+            result.setAdmissionLimit(admission.getLimit());
+            result.setAdmissionMinLimit(admission.getMinLimit());
+            result.setAdmissionMaxLimit(admission.getMaxLimit());
+            result.setAdmissionTargetQueueWaitMs(admission.getTargetQueueWaitMs());
+        }
+        return result;
+    }
+
+}
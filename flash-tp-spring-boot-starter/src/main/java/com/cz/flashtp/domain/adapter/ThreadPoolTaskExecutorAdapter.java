@@ -0,0 +1,46 @@
+package com.cz.flashtp.domain.adapter;
+
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Spring ThreadPoolTaskExecutor 适配器
+ * 读取与上报均基于其内部的 ThreadPoolExecutor；线程数通过 ThreadPoolTaskExecutor 自身的 setter 调整，
+ * 保持其记录的核心线程数与最大线程数与实际一致。内部队列在初始化时创建，队列容量不支持调整。
+ * <p>
+ * ThreadPoolTaskExecutor 不是 ExecutorService，也不经过托管增强，不上报任务耗时分位与任务计数。
+ *
+ * @author Zjianru
+ */
+public class ThreadPoolTaskExecutorAdapter extends ThreadPoolExecutorAdapter {
+
+    public static final String POOL_TYPE = "ThreadPoolTaskExecutor";
+
+    private final ThreadPoolTaskExecutor threadPoolTaskExecutor;
+
+    /**
+     * @param threadPoolTaskExecutor 已初始化的 ThreadPoolTaskExecutor
+     * @throws IllegalStateException ThreadPoolTaskExecutor 尚未初始化
+     */
+    public ThreadPoolTaskExecutorAdapter(ThreadPoolTaskExecutor threadPoolTaskExecutor) {
+        super(threadPoolTaskExecutor.getThreadPoolExecutor());
+        this.threadPoolTaskExecutor = threadPoolTaskExecutor;
+    }
+
+    @Override
+    public String getPoolType() {
+        return POOL_TYPE;
+    }
+
+    @Override
+    protected void setPoolSize(int corePoolSize, int maximumPoolSize) {
+        // 与父类相同的先扩后缩顺序，经由 ThreadPoolTaskExecutor 调整内部线程池
+        if (corePoolSize > threadPoolExecutor.getMaximumPoolSize()) {
+            threadPoolTaskExecutor.setMaxPoolSize(maximumPoolSize);
+            threadPoolTaskExecutor.setCorePoolSize(corePoolSize);
+        } else {
+            threadPoolTaskExecutor.setCorePoolSize(corePoolSize);
+            threadPoolTaskExecutor.setMaxPoolSize(maximumPoolSize);
+        }
+    }
+
+}
@@ -0,0 +1,131 @@
+package com.cz.flashtp.domain.adapter.web;
+
+import com.cz.flashtp.domain.adapter.ThreadPoolAdapter;
+import com.cz.flashtp.domain.entity.ThreadPoolConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.eclipse.jetty.util.thread.ThreadPool;
+import org.springframework.boot.web.embedded.jetty.JettyWebServer;
+import org.springframework.boot.web.server.WebServer;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * 内嵌 Jetty 线程池适配器
+ * Jetty 的请求处理、Acceptor 与 Selector 共用服务器的 {@link QueuedThreadPool}：核心线程数对应 minThreads，最大线程数对应 maxThreads，
+ * 活跃线程数为 busyThreads。任务队列不设上限，队列容量按 Integer.MAX_VALUE 上报，不支持调整。
+ * 最大线程数不足以容纳 Acceptor 与 Selector 时 Jetty 拒绝调整。
+ *
+ * @author Zjianru
+ */
+@Slf4j
+public class JettyThreadPoolAdapter implements ThreadPoolAdapter {
+
+    public static final String POOL_TYPE = "Jetty";
+
+    public static final String THREAD_POOL_NAME = "jetty";
+
+    private final QueuedThreadPool queuedThreadPool;
+
+    public JettyThreadPoolAdapter(QueuedThreadPool queuedThreadPool) {
+        this.queuedThreadPool = queuedThreadPool;
+    }
+
+    /**
+     * 发现内嵌 Jetty 服务器的线程池
+     *
+     * @param webServer 已启动的 Web 服务器
+     * @return 适配器的映射，键为线程池名称；不是 Jetty 或线程池不是 QueuedThreadPool 时为空
+     */
+    public static Map<String, ThreadPoolAdapter> discover(WebServer webServer) {
+        if (!(webServer instanceof JettyWebServer)) return Collections.emptyMap();
+        ThreadPool threadPool = ((JettyWebServer) webServer).getServer().getThreadPool();
+        if (!(threadPool instanceof QueuedThreadPool)) {
+            log.warn("[flash-tp]==> 不支持的 Jetty 线程池，跳过 线程池类型:{}", null == threadPool ? null : threadPool.getClass().getName());
+            return Collections.emptyMap();
+        }
+        return Collections.singletonMap(THREAD_POOL_NAME, new JettyThreadPoolAdapter((QueuedThreadPool) threadPool));
+    }
+
+    @Override
+    public String getPoolType() {
+        return POOL_TYPE;
+    }
+
+    @Override
+    public QueuedThreadPool getExecutor() {
+        return queuedThreadPool;
+    }
+
+    @Override
+    public int getActiveCount() {
+        return queuedThreadPool.getBusyThreads();
+    }
+
+    @Override
+    public int getPoolSize() {
+        return queuedThreadPool.getThreads();
+    }
+
+    @Override
+    public int getQueueSize() {
+        return queuedThreadPool.getQueueSize();
+    }
+
+    @Override
+    public ThreadPoolConfig snapshot(String applicationName, String threadPoolName) {
+        int queueSize = getQueueSize();
+        return ThreadPoolConfig.builder()
+                .appName(applicationName)
+                .threadPoolName(threadPoolName)
+                .poolType(POOL_TYPE)
+                .corePoolSize(queuedThreadPool.getMinThreads())
+                .maximumPoolSize(queuedThreadPool.getMaxThreads())
+                .activeCount(getActiveCount())
+                .poolSize(getPoolSize())
+                .queueType("BlockingArrayQueue")
+                .queueSize(queueSize)
+                .remainingCapacity(Integer.MAX_VALUE - queueSize)
+                .queueCapacity(Integer.MAX_VALUE)
+                .build();
+    }
+
+    /**
+     * 调整 minThreads 与 maxThreads，忽略队列容量
+     *
+     * @return 调整后实际生效的核心线程数与最大线程数，参数非法或 Jetty 拒绝调整时为 null
+     */
+    @Override
+    public ThreadPoolConfig apply(ThreadPoolConfig threadPoolConfig) {
+        int corePoolSize = threadPoolConfig.getCorePoolSize();
+        int maximumPoolSize = threadPoolConfig.getMaximumPoolSize();
+        if (corePoolSize < 0 || maximumPoolSize <= 0 || corePoolSize > maximumPoolSize) {
+            log.warn("[flash-tp]==>updateThreadPoolConfig==>非法的线程数配置，忽略本次调整 线程名:{} 核心线程数:{} 最大线程数:{}", threadPoolConfig.getThreadPoolName(), corePoolSize, maximumPoolSize);
+            return null;
+        }
+        try {
+            // Jetty 在 minThreads 大于 maxThreads 时会联动调整另一项，按先扩后缩的顺序设置避免中间状态
+            if (corePoolSize > queuedThreadPool.getMaxThreads()) {
+                queuedThreadPool.setMaxThreads(maximumPoolSize);
+                queuedThreadPool.setMinThreads(corePoolSize);
+            } else {
+                queuedThreadPool.setMinThreads(corePoolSize);
+                queuedThreadPool.setMaxThreads(maximumPoolSize);
+            }
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            log.warn("[flash-tp]==>updateThreadPoolConfig==>Jetty 拒绝调整线程数 线程名:{} 核心线程数:{} 最大线程数:{}", threadPoolConfig.getThreadPoolName(), corePoolSize, maximumPoolSize, e);
+            return null;
+        }
+        if (threadPoolConfig.getQueueCapacity() > 0) {
+            log.warn("[flash-tp]==>updateThreadPoolConfig==>队列不支持调整容量 线程名:{} 队列类型:{}", threadPoolConfig.getThreadPoolName(), "BlockingArrayQueue");
+        }
+        return ThreadPoolConfig.builder()
+                .appName(threadPoolConfig.getAppName())
+                .threadPoolName(threadPoolConfig.getThreadPoolName())
+                .corePoolSize(queuedThreadPool.getMinThreads())
+                .maximumPoolSize(queuedThreadPool.getMaxThreads())
+                .build();
+    }
+
+}
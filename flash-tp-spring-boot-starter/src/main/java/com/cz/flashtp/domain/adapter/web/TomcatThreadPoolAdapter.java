@@ -0,0 +1,157 @@
+package com.cz.flashtp.domain.adapter.web;
+
+import com.cz.flashtp.domain.adapter.ThreadPoolAdapter;
+import com.cz.flashtp.domain.adapter.ThreadPoolAdapters;
+import com.cz.flashtp.domain.entity.ThreadPoolConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.catalina.connector.Connector;
+import org.apache.coyote.AbstractProtocol;
+import org.apache.coyote.ProtocolHandler;
+import org.apache.tomcat.util.threads.ThreadPoolExecutor;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.server.WebServer;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+
+/**
+ * 内嵌 Tomcat 连接器工作线程池适配器
+ * 连接器内部线程池为 Tomcat 自有的 {@link ThreadPoolExecutor}：核心线程数对应 minSpareThreads，最大线程数对应 maxThreads。
+ * 调整经由协议处理器的 setter 完成，由端点转发给内部线程池，保持 server.tomcat.threads 相关参数与实际一致。
+ * 队列为 Tomcat 的 TaskQueue，线程数未达上限时优先创建线程，容量在启动时确定，不支持调整。
+ *
+ * @author Zjianru
+ */
+@Slf4j
+public class TomcatThreadPoolAdapter implements ThreadPoolAdapter {
+
+    public static final String POOL_TYPE = "Tomcat";
+
+    /**
+     * 第一个连接器的线程池名称，其他连接器追加端口号
+     */
+    public static final String THREAD_POOL_NAME = "tomcat";
+
+    private final AbstractProtocol<?> protocol;
+    private final ThreadPoolExecutor executor;
+
+    public TomcatThreadPoolAdapter(AbstractProtocol<?> protocol, ThreadPoolExecutor executor) {
+        this.protocol = protocol;
+        this.executor = executor;
+    }
+
+    /**
+     * 发现内嵌 Tomcat 各连接器的工作线程池，多个连接器共享同一个线程池时只注册一次
+     *
+     * @param webServer 已启动的 Web 服务器
+     * @return 适配器的映射，键为线程池名称；不是 Tomcat 时为空
+     */
+    public static Map<String, ThreadPoolAdapter> discover(WebServer webServer) {
+        if (!(webServer instanceof TomcatWebServer)) return Collections.emptyMap();
+        Map<String, ThreadPoolAdapter> adapters = new LinkedHashMap<>();
+        Set<Executor> discovered = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Connector connector : ((TomcatWebServer) webServer).getTomcat().getService().findConnectors()) {
+            ProtocolHandler protocolHandler = connector.getProtocolHandler();
+            Executor executor = protocolHandler.getExecutor();
+            if (null == executor || !discovered.add(executor)) continue;
+            ThreadPoolAdapter adapter = adapt(protocolHandler, executor);
+            if (null == adapter) {
+                log.warn("[flash-tp]==> 不支持的 Tomcat 连接器线程池，跳过 端口:{} 线程池类型:{}", connector.getPort(), executor.getClass().getName());
+                continue;
+            }
+            adapters.put(adapters.isEmpty() ? THREAD_POOL_NAME : THREAD_POOL_NAME + "-" + connector.getPort(), adapter);
+        }
+        return adapters;
+    }
+
+    private static ThreadPoolAdapter adapt(ProtocolHandler protocolHandler, Executor executor) {
+        if (executor instanceof ThreadPoolExecutor && protocolHandler instanceof AbstractProtocol) {
+            return new TomcatThreadPoolAdapter((AbstractProtocol<?>) protocolHandler, (ThreadPoolExecutor) executor);
+        }
+        // 连接器使用外部指定的 JDK 线程池时按其类型适配
+        return ThreadPoolAdapters.adapt(executor);
+    }
+
+    @Override
+    public String getPoolType() {
+        return POOL_TYPE;
+    }
+
+    @Override
+    public ThreadPoolExecutor getExecutor() {
+        return executor;
+    }
+
+    @Override
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    @Override
+    public int getPoolSize() {
+        return executor.getPoolSize();
+    }
+
+    @Override
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    @Override
+    public ThreadPoolConfig snapshot(String applicationName, String threadPoolName) {
+        BlockingQueue<Runnable> queue = executor.getQueue();
+        int queueSize = queue.size();
+        int remainingCapacity = queue.remainingCapacity();
+        return ThreadPoolConfig.builder()
+                .appName(applicationName)
+                .threadPoolName(threadPoolName)
+                .poolType(POOL_TYPE)
+                .corePoolSize(executor.getCorePoolSize())
+                .maximumPoolSize(executor.getMaximumPoolSize())
+                .activeCount(getActiveCount())
+                .poolSize(getPoolSize())
+                .queueType(queue.getClass().getSimpleName())
+                .queueSize(queueSize)
+                .remainingCapacity(remainingCapacity)
+                .queueCapacity((int) Math.min(Integer.MAX_VALUE, (long) queueSize + remainingCapacity))
+                .build();
+    }
+
+    /**
+     * 调整 minSpareThreads 与 maxThreads，忽略队列容量
+     *
+     * @return 调整后实际生效的核心线程数与最大线程数，参数非法时为 null
+     */
+    @Override
+    public ThreadPoolConfig apply(ThreadPoolConfig threadPoolConfig) {
+        int corePoolSize = threadPoolConfig.getCorePoolSize();
+        int maximumPoolSize = threadPoolConfig.getMaximumPoolSize();
+        if (corePoolSize < 0 || maximumPoolSize <= 0 || corePoolSize > maximumPoolSize) {
+            log.warn("[flash-tp]==>updateThreadPoolConfig==>非法的线程数配置，忽略本次调整 线程名:{} 核心线程数:{} 最大线程数:{}", threadPoolConfig.getThreadPoolName(), corePoolSize, maximumPoolSize);
+            return null;
+        }
+        // 先扩后缩：Tomcat 线程池与 JDK 相同，核心线程数大于最大线程数时抛出 IllegalArgumentException
+        if (corePoolSize > executor.getMaximumPoolSize()) {
+            protocol.setMaxThreads(maximumPoolSize);
+            protocol.setMinSpareThreads(corePoolSize);
+        } else {
+            protocol.setMinSpareThreads(corePoolSize);
+            protocol.setMaxThreads(maximumPoolSize);
+        }
+        if (threadPoolConfig.getQueueCapacity() > 0) {
+            log.warn("[flash-tp]==>updateThreadPoolConfig==>队列不支持调整容量 线程名:{} 队列类型:{}", threadPoolConfig.getThreadPoolName(), executor.getQueue().getClass().getSimpleName());
+        }
+        return ThreadPoolConfig.builder()
+                .appName(threadPoolConfig.getAppName())
+                .threadPoolName(threadPoolConfig.getThreadPoolName())
+                .corePoolSize(executor.getCorePoolSize())
+                .maximumPoolSize(executor.getMaximumPoolSize())
+                .build();
+    }
+
+}
@@ -0,0 +1,150 @@
+package com.cz.flashtp.domain.adapter.web;
+
+import com.cz.flashtp.domain.adapter.ThreadPoolAdapter;
+import com.cz.flashtp.domain.entity.ThreadPoolConfig;
+import io.undertow.Undertow;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.web.embedded.undertow.UndertowWebServer;
+import org.springframework.boot.web.server.WebServer;
+import org.springframework.util.ReflectionUtils;
+import org.xnio.Options;
+import org.xnio.XnioWorker;
+import org.xnio.management.XnioWorkerMXBean;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * 内嵌 Undertow 工作线程池适配器
+ * 请求在 XNIO Worker 的任务线程池中执行：核心线程数对应 WORKER_TASK_CORE_THREADS，最大线程数对应 WORKER_TASK_MAX_THREADS，
+ * 读取经由 {@link XnioWorkerMXBean}，调整经由 {@link XnioWorker#setOption}。任务队列不设上限，队列容量按 Integer.MAX_VALUE 上报，不支持调整。
+ *
+ * @author Zjianru
+ */
+@Slf4j
+public class UndertowThreadPoolAdapter implements ThreadPoolAdapter {
+
+    public static final String POOL_TYPE = "Undertow";
+
+    public static final String THREAD_POOL_NAME = "undertow";
+
+    /**
+     * UndertowWebServer 持有 Undertow 实例的字段，启动后才创建
+     */
+    private static final Field UNDERTOW_FIELD = findUndertowField();
+
+    private final XnioWorker worker;
+    private final XnioWorkerMXBean workerMXBean;
+
+    public UndertowThreadPoolAdapter(XnioWorker worker) {
+        this.worker = worker;
+        this.workerMXBean = worker.getMXBean();
+    }
+
+    /**
+     * 发现内嵌 Undertow 的 Worker 线程池
+     *
+     * @param webServer 已启动的 Web 服务器
+     * @return 适配器的映射，键为线程池名称；不是 Undertow 或尚未启动时为空
+     */
+    public static Map<String, ThreadPoolAdapter> discover(WebServer webServer) {
+        if (!(webServer instanceof UndertowWebServer) || null == UNDERTOW_FIELD) return Collections.emptyMap();
+        Undertow undertow = (Undertow) ReflectionUtils.getField(UNDERTOW_FIELD, webServer);
+        XnioWorker worker = null == undertow ? null : undertow.getWorker();
+        if (null == worker) return Collections.emptyMap();
+        return Collections.singletonMap(THREAD_POOL_NAME, new UndertowThreadPoolAdapter(worker));
+    }
+
+    @Override
+    public String getPoolType() {
+        return POOL_TYPE;
+    }
+
+    @Override
+    public XnioWorker getExecutor() {
+        return worker;
+    }
+
+    @Override
+    public int getActiveCount() {
+        return workerMXBean.getBusyWorkerThreadCount();
+    }
+
+    @Override
+    public int getPoolSize() {
+        return workerMXBean.getWorkerPoolSize();
+    }
+
+    @Override
+    public int getQueueSize() {
+        return workerMXBean.getWorkerQueueSize();
+    }
+
+    @Override
+    public ThreadPoolConfig snapshot(String applicationName, String threadPoolName) {
+        int queueSize = getQueueSize();
+        return ThreadPoolConfig.builder()
+                .appName(applicationName)
+                .threadPoolName(threadPoolName)
+                .poolType(POOL_TYPE)
+                .corePoolSize(workerMXBean.getCoreWorkerPoolSize())
+                .maximumPoolSize(workerMXBean.getMaxWorkerPoolSize())
+                .activeCount(getActiveCount())
+                .poolSize(getPoolSize())
+                .queueType("EnhancedQueueExecutor")
+                .queueSize(queueSize)
+                .remainingCapacity(Integer.MAX_VALUE - queueSize)
+                .queueCapacity(Integer.MAX_VALUE)
+                .build();
+    }
+
+    /**
+     * 调整 Worker 任务线程池的核心线程数与最大线程数，忽略队列容量
+     *
+     * @return 调整后实际生效的核心线程数与最大线程数，参数非法或 Worker 拒绝调整时为 null
+     */
+    @Override
+    public ThreadPoolConfig apply(ThreadPoolConfig threadPoolConfig) {
+        int corePoolSize = threadPoolConfig.getCorePoolSize();
+        int maximumPoolSize = threadPoolConfig.getMaximumPoolSize();
+        if (corePoolSize < 0 || maximumPoolSize <= 0 || corePoolSize > maximumPoolSize) {
+            log.warn("[flash-tp]==>updateThreadPoolConfig==>非法的线程数配置，忽略本次调整 线程名:{} 核心线程数:{} 最大线程数:{}", threadPoolConfig.getThreadPoolName(), corePoolSize, maximumPoolSize);
+            return null;
+        }
+        try {
+            // 先扩后缩，避免核心线程数短暂大于最大线程数
+            if (corePoolSize > workerMXBean.getMaxWorkerPoolSize()) {
+                worker.setOption(Options.WORKER_TASK_MAX_THREADS, maximumPoolSize);
+                worker.setOption(Options.WORKER_TASK_CORE_THREADS, corePoolSize);
+            } else {
+                worker.setOption(Options.WORKER_TASK_CORE_THREADS, corePoolSize);
+                worker.setOption(Options.WORKER_TASK_MAX_THREADS, maximumPoolSize);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            log.warn("[flash-tp]==>updateThreadPoolConfig==>Undertow 拒绝调整线程数 线程名:{} 核心线程数:{} 最大线程数:{}", threadPoolConfig.getThreadPoolName(), corePoolSize, maximumPoolSize, e);
+            return null;
+        }
+        if (threadPoolConfig.getQueueCapacity() > 0) {
+            log.warn("[flash-tp]==>updateThreadPoolConfig==>队列不支持调整容量 线程名:{} 队列类型:{}", threadPoolConfig.getThreadPoolName(), "EnhancedQueueExecutor");
+        }
+        return ThreadPoolConfig.builder()
+                .appName(threadPoolConfig.getAppName())
+                .threadPoolName(threadPoolConfig.getThreadPoolName())
+                .corePoolSize(workerMXBean.getCoreWorkerPoolSize())
+                .maximumPoolSize(workerMXBean.getMaxWorkerPoolSize())
+                .build();
+    }
+
+    private static Field findUndertowField() {
+        Field field = ReflectionUtils.findField(UndertowWebServer.class, "undertow");
+        if (null == field) {
+            log.warn("[flash-tp]==> 当前 Spring Boot 版本的 UndertowWebServer 未找到 undertow 字段，Undertow 线程池不受管");
+            return null;
+        }
+        ReflectionUtils.makeAccessible(field);
+        return field;
+    }
+
+}
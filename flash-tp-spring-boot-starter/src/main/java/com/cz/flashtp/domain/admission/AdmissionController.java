@@ -0,0 +1,344 @@
+package com.cz.flashtp.domain.admission;
+
+import com.cz.flashtp.domain.metrics.AdmissionSnapshot;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 自适应准入控制
+ * 限制同时在途（已准入、尚未执行完成）的任务数，限额根据已准入任务观测到的排队耗时自适应调整：
+ * <ul>
+ *     <li>统计周期内平均排队耗时超过目标时按 目标 / 观测值 的梯度收缩，单次最多减半（gradient）；</li>
+ *     <li>排队耗时低于目标且周期内在途任务数达到限额时，按 sqrt(限额) 加法扩大（Vegas 的排队余量）；</li>
+ *     <li>限额始终在 [下限, 上限] 之间，下限等于上限时即为固定限额。</li>
+ * </ul>
+ * 达到限额的提交在调用线程上限时等待，超时后快速失败并给出建议的重试间隔：按已准入任务的平均耗时与超出限额的任务数估算。
+ *
+ * @author Zjianru
+ */
+@Slf4j
+public class AdmissionController {
+
+    /**
+     * 默认限额下限
+     */
+    public static final int DEFAULT_MIN_LIMIT = 1;
+
+    /**
+     * 默认排队耗时目标（单位：毫秒）
+     */
+    public static final double DEFAULT_TARGET_QUEUE_WAIT_MS = 50D;
+
+    /**
+     * 限额调整周期
+     */
+    private static final long UPDATE_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    /**
+     * 单个周期内调整限额所需的最少样本数
+     */
+    private static final int MIN_SAMPLES = 8;
+
+    /**
+     * 建议重试间隔的上限（单位：毫秒）
+     */
+    private static final long MAX_RETRY_AFTER_MILLIS = 60_000L;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * 以下字段只在锁内修改，limit 与 inFlight 可在锁外读取用于上报
+     */
+    private volatile double limit;
+    private volatile int inFlight;
+    private int minLimit;
+    private int maxLimit;
+    private long targetQueueWaitNanos;
+
+    /**
+     * 当前统计周期：开始时间、样本数、排队耗时之和、在途任务数峰值
+     */
+    private long windowStart = System.nanoTime();
+    private int windowSamples;
+    private long windowQueueWaitNanos;
+    private int windowMaxInFlight;
+
+    /**
+     * 已准入任务从准入到执行完成的平均耗时（指数平滑），用于估算重试间隔
+     */
+    private double averageLatencyNanos;
+
+    /**
+     * @param initialLimit      初始限额
+     * @param minLimit          限额下限，至少为 1
+     * @param maxLimit          限额上限
+     * @param targetQueueWaitMs 排队耗时目标（单位：毫秒）
+     */
+    public AdmissionController(int initialLimit, int minLimit, int maxLimit, double targetQueueWaitMs) {
+        checkLimits(minLimit, maxLimit);
+        checkTarget(targetQueueWaitMs);
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.targetQueueWaitNanos = toNanos(targetQueueWaitMs);
+    }
+
+    /**
+     * 在限时内获取一个准入名额
+     *
+     * @param timeout 最长等待时间，小于等于 0 时不等待
+     * @param unit    时间单位
+     * @return 是否准入；等待超时或等待期间被中断时为 false，中断标记保留，拒绝次数由调用方经 {@link #reject(String)} 计入
+     */
+    public boolean tryAcquire(long timeout, TimeUnit unit) {
+        long nanos = unit.toNanos(timeout);
+        lock.lock();
+        try {
+            while (inFlight >= effectiveLimit()) {
+                if (nanos <= 0L) return false;
+                nanos = available.awaitNanos(nanos);
+            }
+            inFlight++;
+            if (inFlight > windowMaxInFlight) windowMaxInFlight = inFlight;
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 归还准入名额，记录排队耗时样本并按周期调整限额
+     *
+     * @param queueWaitNanos 排队耗时，小于 0 表示任务未执行（被拒绝或已取消），不计入样本
+     * @param latencyNanos   从准入到执行完成的耗时
+     */
+    public void release(long queueWaitNanos, long latencyNanos) {
+        lock.lock();
+        try {
+            inFlight--;
+            if (queueWaitNanos >= 0L) {
+                windowSamples++;
+                windowQueueWaitNanos += queueWaitNanos;
+                averageLatencyNanos = averageLatencyNanos <= 0D ? latencyNanos : averageLatencyNanos * 0.9D + latencyNanos * 0.1D;
+                long now = System.nanoTime();
+                if (now - windowStart >= UPDATE_INTERVAL_NANOS && windowSamples >= MIN_SAMPLES) update(now);
+            }
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 以当前状态构造准入拒绝异常，并计入拒绝次数
+     *
+     * @param message 异常信息
+     * @return 准入拒绝异常
+     */
+    public AdmissionRejectedException reject(String message) {
+        rejected.increment();
+        return rejection(message);
+    }
+
+    /**
+     * 包装准入后的任务，执行完成（或被拒绝）后归还名额并完成 future
+     *
+     * @param task   原始任务
+     * @param future 返回给调用方的 future
+     * @return 包装后的任务
+     */
+    public <T> AdmittedTask<T> wrap(Callable<T> task, CompletableFuture<T> future) {
+        return new AdmittedTask<>(this, task, future);
+    }
+
+    /**
+     * 调整限额上下限，当前限额随之收敛到新的范围内
+     *
+     * @param minLimit 限额下限
+     * @param maxLimit 限额上限
+     */
+    public void setLimits(int minLimit, int maxLimit) {
+        checkLimits(minLimit, maxLimit);
+        lock.lock();
+        try {
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+            this.limit = Math.max(minLimit, Math.min(maxLimit, limit));
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 调整排队耗时目标
+     *
+     * @param targetQueueWaitMs 排队耗时目标（单位：毫秒）
+     */
+    public void setTargetQueueWaitMs(double targetQueueWaitMs) {
+        checkTarget(targetQueueWaitMs);
+        lock.lock();
+        try {
+            this.targetQueueWaitNanos = toNanos(targetQueueWaitMs);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getLimit() {
+        return effectiveLimit();
+    }
+
+    public int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * 获取当前限额、在途任务数与累计拒绝次数
+     *
+     * @return 准入控制快照
+     */
+    public AdmissionSnapshot snapshot() {
+        lock.lock();
+        try {
+            return new AdmissionSnapshot(effectiveLimit(), minLimit, maxLimit, inFlight, targetQueueWaitNanos / 1_000_000D, rejected.sum());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 按统计周期内的平均排队耗时调整限额，调用方持有锁
+     */
+    private void update(long now) {
+        double averageQueueWait = (double) windowQueueWaitNanos / windowSamples;
+        double next = limit;
+        if (averageQueueWait > targetQueueWaitNanos) {
+            next = limit * Math.max(0.5D, targetQueueWaitNanos / averageQueueWait);
+        } else if (windowMaxInFlight >= effectiveLimit()) {
+            next = limit + Math.sqrt(limit);
+        }
+        next = Math.max(minLimit, Math.min(maxLimit, next));
+        if ((int) next != effectiveLimit()) {
+            log.debug("[flash-tp]==> 准入限额调整 {} -> {} 平均排队耗时:{}ms", effectiveLimit(), (int) next, averageQueueWait / 1_000_000D);
+        }
+        if (next > limit) available.signalAll();
+        limit = next;
+        windowStart = now;
+        windowSamples = 0;
+        windowQueueWaitNanos = 0L;
+        windowMaxInFlight = inFlight;
+    }
+
+    /**
+     * 建议的重试间隔：超出限额的任务数 / 限额 × 平均耗时，尚无样本时取排队耗时目标
+     */
+    private AdmissionRejectedException rejection(String message) {
+        int currentLimit = effectiveLimit();
+        double latency = averageLatencyNanos > 0D ? averageLatencyNanos : targetQueueWaitNanos;
+        double excess = Math.max(1, inFlight - currentLimit + 1);
+        long retryAfterMillis = (long) Math.ceil(latency * excess / currentLimit / 1_000_000D);
+        retryAfterMillis = Math.max(1L, Math.min(MAX_RETRY_AFTER_MILLIS, retryAfterMillis));
+        return new AdmissionRejectedException(message + ", limit " + currentLimit + ", inFlight " + inFlight, retryAfterMillis);
+    }
+
+    private int effectiveLimit() {
+        return Math.max(1, (int) limit);
+    }
+
+    private static void checkLimits(int minLimit, int maxLimit) {
+        if (minLimit < 1 || minLimit > maxLimit) throw new IllegalArgumentException("admission limits must satisfy 1 <= min <= max");
+    }
+
+    private static void checkTarget(double targetQueueWaitMs) {
+        if (!(targetQueueWaitMs > 0D)) throw new IllegalArgumentException("targetQueueWaitMs must be positive");
+    }
+
+    private static long toNanos(double millis) {
+        return (long) (millis * 1_000_000D);
+    }
+
+    /**
+     * 已准入的任务
+     * 执行前 future 已被取消时跳过执行；执行完成后先归还名额再完成 future，调用方观察到完成时名额已释放。
+     * 执行与拒绝只有先发生的一方生效，名额只归还一次：例如 shutdownNow 返回的任务已被拒绝，调用方再执行时直接跳过。
+     */
+    public static final class AdmittedTask<T> implements Runnable {
+        private final AdmissionController controller;
+        private final Callable<T> task;
+        private final CompletableFuture<T> future;
+        private final long admittedNanos = System.nanoTime();
+        private final AtomicBoolean settled = new AtomicBoolean();
+
+        /**
+         * 执行结果是否为异常，由工作线程写入并读取
+         */
+        private boolean failed;
+
+        AdmittedTask(AdmissionController controller, Callable<T> task, CompletableFuture<T> future) {
+            this.controller = controller;
+            this.task = task;
+            this.future = future;
+        }
+
+        @Override
+        public void run() {
+            if (!settled.compareAndSet(false, true)) return;
+            long start = System.nanoTime();
+            if (future.isDone()) {
+                controller.release(-1L, 0L);
+                return;
+            }
+            T result = null;
+            Throwable failure = null;
+            try {
+                result = task.call();
+            } catch (Throwable t) {
+                failure = t;
+            }
+            controller.release(start - admittedNanos, System.nanoTime() - admittedNanos);
+            if (null == failure) {
+                future.complete(result);
+            } else {
+                failed = true;
+                future.completeExceptionally(failure);
+            }
+        }
+
+        /**
+         * 准入后未能执行（被线程池拒绝、被丢弃或被 shutdownNow 取出）：归还名额，future 以拒绝异常完成
+         *
+         * @param shutdown 线程池是否已关闭，关闭时以 RejectedExecutionException 完成，否则以带重试间隔的准入拒绝完成
+         */
+        public void reject(boolean shutdown) {
+            if (!settled.compareAndSet(false, true)) return;
+            controller.release(-1L, 0L);
+            future.completeExceptionally(shutdown
+                    ? new RejectedExecutionException("executor has been shut down")
+                    : controller.reject("rejected by executor after admission"));
+        }
+
+        public boolean isFailed() {
+            return failed;
+        }
+
+        @Override
+        public String toString() {
+            return task.toString();
+        }
+    }
+
+}
@@ -0,0 +1,29 @@
+package com.cz.flashtp.domain.admission;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 准入拒绝
+ * 线程池已达到准入限额且等待超时，或准入后仍被线程池拒绝时返回，附带建议的重试间隔，调用方据此退避而不是立即重试。
+ *
+ * @author Zjianru
+ */
+public class AdmissionRejectedException extends RejectedExecutionException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 建议的重试间隔（单位：毫秒）
+     */
+    private final long retryAfterMillis;
+
+    public AdmissionRejectedException(String message, long retryAfterMillis) {
+        super(message);
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+
+}
@@ -0,0 +1,80 @@
+package com.cz.flashtp.domain.executor;
+
+import com.cz.flashtp.domain.queue.EagerTaskQueue;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 优先创建线程的托管线程池（I/O 密集型）
+ * 提交顺序为：核心线程 -> 创建线程直到最大线程数 -> 排队 -> 拒绝策略，与标准线程池「先排队、队列满后才扩容」相反，
+ * 适合任务大部分时间在等待 I/O、线程数比队列更便宜的场景。
+ * <p>
+ * 必须使用 {@link EagerTaskQueue}，队列根据 {@link #getSubmittedCount()} 与线程数判断是否需要先创建线程。
+ * 并发提交时可能出现队列拒绝入队而线程池已达到最大线程数的情况，此时在拒绝前以 {@link EagerTaskQueue#force(Object)} 再入队一次，
+ * 入队失败才交给拒绝策略并计入拒绝次数。
+ * <p>
+ * 其余行为与 {@link FlashTpExecutor} 一致：核心线程数、最大线程数与队列容量可由动态线程池服务在运行期调整，耗时与计数照常统计。
+ *
+ * @author Zjianru
+ */
+public class EagerThreadPoolExecutor extends FlashTpExecutor {
+
+    public EagerThreadPoolExecutor(int corePoolSize,
+                                   int maximumPoolSize,
+                                   long keepAliveTime,
+                                   TimeUnit unit,
+                                   EagerTaskQueue<Runnable> workQueue,
+                                   ThreadFactory threadFactory,
+                                   RejectedExecutionHandler handler) {
+        super(corePoolSize, maximumPoolSize, keepAliveTime, unit, workQueue, threadFactory, handler);
+        workQueue.bind(this);
+    }
+
+    /**
+     * 以已有线程池的参数创建优先创建线程的托管线程池，队列替换为同容量的 {@link EagerTaskQueue}，原队列中尚未执行的任务一并转移。
+     * 调用方需保证原线程池尚未创建工作线程。
+     *
+     * @param source 原线程池
+     * @return 优先创建线程的托管线程池
+     */
+    public static EagerThreadPoolExecutor from(ThreadPoolExecutor source) {
+        BlockingQueue<Runnable> queue = source.getQueue();
+        long capacity = (long) queue.size() + queue.remainingCapacity();
+        EagerTaskQueue<Runnable> eagerQueue = new EagerTaskQueue<>((int) Math.max(1, Math.min(Integer.MAX_VALUE, capacity)));
+        queue.drainTo(eagerQueue);
+        EagerThreadPoolExecutor executor = new EagerThreadPoolExecutor(
+                source.getCorePoolSize(),
+                source.getMaximumPoolSize(),
+                source.getKeepAliveTime(TimeUnit.NANOSECONDS),
+                TimeUnit.NANOSECONDS,
+                eagerQueue,
+                source.getThreadFactory(),
+                source.getRejectedExecutionHandler());
+        executor.allowCoreThreadTimeOut(source.allowsCoreThreadTimeOut());
+        return executor;
+    }
+
+    /**
+     * 拒绝前再尝试入队一次，线程池已关闭或队列已满时才真正拒绝
+     */
+    @Override
+    protected boolean beforeReject(Runnable task) {
+        return !isShutdown() && ((EagerTaskQueue<Runnable>) getQueue()).force(task);
+    }
+
+    /**
+     * 已提交尚未完成的任务数（排队中 + 执行中），不含正在提交的任务。
+     * 由队列深度与活跃线程数推算，不单独计数，拒绝策略（如 DiscardOldestPolicy）丢弃的任务不会造成计数泄漏；
+     * 任务从队列取出到开始执行之间会短暂少算，个别提交可能排队而不是创建线程，等待下一个空闲线程执行。
+     *
+     * @return 任务数
+     */
+    public int getSubmittedCount() {
+        return getActiveCount() + getQueue().size();
+    }
+
+}
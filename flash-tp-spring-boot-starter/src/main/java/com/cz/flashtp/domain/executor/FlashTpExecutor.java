@@ -0,0 +1,698 @@
+package com.cz.flashtp.domain.executor;
+
+import com.cz.flashtp.domain.admission.AdmissionController;
+import com.cz.flashtp.domain.metrics.AdmissionSnapshot;
+import com.cz.flashtp.domain.metrics.LatencySnapshot;
+import com.cz.flashtp.domain.metrics.SlowTaskSnapshot;
+import com.cz.flashtp.domain.metrics.SpillSnapshot;
+import com.cz.flashtp.domain.metrics.TaskCountSnapshot;
+import com.cz.flashtp.domain.metrics.TaskCounter;
+import com.cz.flashtp.domain.metrics.TaskLatencyRecorder;
+import com.cz.flashtp.domain.spill.SpillSegmentLog;
+import com.cz.flashtp.domain.spill.TaskSpill;
+import com.cz.flashtp.domain.watchdog.SlowTaskDetector;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * flash-tp 托管线程池
+ * 在 {@link ThreadPoolExecutor} 的基础上，为每个任务记录提交、开始、结束三个时间点，
+ * 统计排队耗时与执行耗时的分位值。业务侧声明的普通 ThreadPoolExecutor 会在注册时被替换为该类型，对业务代码零侵入。
+ * <p>
+ * 提交、完成、失败、拒绝次数以及活跃线程数、存活线程数由 {@link TaskCounter} 自行维护，
+ * {@link #getActiveCount()}、{@link #getPoolSize()}、{@link #getCompletedTaskCount()}、{@link #getTaskCount()}
+ * 直接读取计数器，不再持有 ThreadPoolExecutor 的 mainLock，避免监控采集与工作线程创建相互竞争。
+ * <p>
+ * 提交的任务会被包装为 {@link TimedTask}，因此 {@link #getQueue()} 中的元素是包装后的对象；
+ * {@link #remove(Runnable)} 已做兼容，可直接传入原始任务。
+ * <p>
+ * 开启溢出层（{@link #enableSpill(TaskSpill)}）后，队列已满的可序列化任务先写入磁盘日志，不计入拒绝次数；
+ * 工作线程取出任务与执行完成时，若队列有空位则从溢出层按写入顺序回灌，回灌的任务执行完成后在日志中确认。
+ * 溢出层仍有积压时，新提交的可序列化任务先触发回灌，仍有积压则直接落盘排在末尾，溢出层整体保持先进先出。
+ * 线程池关闭后不再回灌，磁盘上尚未执行完成的任务（含 shutdownNow 返回的回灌任务）在下次启动开启溢出层时重放。
+ * <p>
+ * {@link #submitAsync(Callable, long, TimeUnit)} 提供带准入控制的异步提交：在途任务数达到自适应限额时在调用线程上限时等待，
+ * 超时后返回以 {@link com.cz.flashtp.domain.admission.AdmissionRejectedException} 完成的 future，附带建议的重试间隔，
+ * 上游据此平滑降载，而不是在队列打满后才被拒绝策略硬拒绝。已准入但未执行的任务（被拒绝、被 DiscardOldestPolicy 丢弃、被 shutdownNow 取出）
+ * 同样归还名额并以拒绝异常完成 future。
+ * <p>
+ * 开启慢任务检测（{@link #enableSlowTaskDetector(SlowTaskDetector)}）后，任务开始执行时在时间轮上登记、执行完成时取消，
+ * 执行超过阈值的任务计入慢任务并抓取工作线程的调用栈。
+ *
+ * @author Zjianru
+ */
+@Slf4j
+public class FlashTpExecutor extends ThreadPoolExecutor {
+
+    /**
+     * 单次回灌的任务数上限，避免单个工作线程在回灌上停留过久
+     */
+    private static final int DRAIN_BATCH = 16;
+
+    /**
+     * 任务耗时记录器
+     */
+    private final TaskLatencyRecorder latencyRecorder = new TaskLatencyRecorder();
+
+    /**
+     * 任务计数器
+     */
+    private final TaskCounter taskCounter = new TaskCounter();
+
+    /**
+     * 溢出层，未开启时为 null
+     */
+    private volatile TaskSpill taskSpill;
+
+    /**
+     * 回灌锁，取回与重新提交需在同一线程内连续完成才能保持落盘顺序，其他线程拿不到锁时跳过本次回灌
+     */
+    private final ReentrantLock drainLock = new ReentrantLock();
+
+    /**
+     * 准入控制，首次异步提交时创建
+     */
+    private volatile AdmissionController admissionController;
+
+    /**
+     * 慢任务检测，未开启时为 null
+     */
+    private volatile SlowTaskDetector slowTaskDetector;
+
+    public FlashTpExecutor(int corePoolSize,
+                           int maximumPoolSize,
+                           long keepAliveTime,
+                           TimeUnit unit,
+                           BlockingQueue<Runnable> workQueue,
+                           ThreadFactory threadFactory,
+                           RejectedExecutionHandler handler) {
+        super(corePoolSize, maximumPoolSize, keepAliveTime, unit, workQueue, threadFactory, handler);
+        // 父类构造器直接赋值字段，不经过 setter，这里统一包装一次
+        super.setThreadFactory(new CountingThreadFactory(threadFactory, taskCounter));
+        super.setRejectedExecutionHandler(new CountingRejectedExecutionHandler(handler, taskCounter));
+    }
+
+    /**
+     * 以已有线程池的参数（包括同一个队列实例）创建托管线程池。
+     * 调用方需保证原线程池尚未创建工作线程，否则两个线程池会争抢同一个队列。
+     *
+     * @param source 原线程池
+     * @return 托管线程池
+     */
+    public static FlashTpExecutor from(ThreadPoolExecutor source) {
+        FlashTpExecutor executor = new FlashTpExecutor(
+                source.getCorePoolSize(),
+                source.getMaximumPoolSize(),
+                source.getKeepAliveTime(TimeUnit.NANOSECONDS),
+                TimeUnit.NANOSECONDS,
+                source.getQueue(),
+                source.getThreadFactory(),
+                source.getRejectedExecutionHandler());
+        executor.allowCoreThreadTimeOut(source.allowsCoreThreadTimeOut());
+        return executor;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        Objects.requireNonNull(command);
+        taskCounter.onSubmit();
+        if (spillBehind(command)) return;
+        super.execute(new TimedTask(command));
+    }
+
+    @Override
+    protected void beforeExecute(Thread t, Runnable r) {
+        super.beforeExecute(t, r);
+        taskCounter.onStart();
+        if (r instanceof TimedTask) {
+            TimedTask task = (TimedTask) r;
+            long now = System.nanoTime();
+            task.startNanos = now;
+            latencyRecorder.recordQueueWait(now - task.submitNanos);
+            SlowTaskDetector detector = slowTaskDetector;
+            if (null != detector) task.watch = detector.onStart(t, task.task);
+        }
+        // 取出任务后队列空出位置
+        drainSpill();
+    }
+
+    @Override
+    protected void afterExecute(Runnable r, Throwable t) {
+        Runnable task = r;
+        if (r instanceof TimedTask) {
+            TimedTask timed = (TimedTask) r;
+            latencyRecorder.recordRunTime(System.nanoTime() - timed.startNanos);
+            task = timed.task;
+            if (null != timed.watch) {
+                timed.watch.finish();
+                timed.watch = null;
+            }
+        }
+        taskCounter.onFinish(null != t || failedInFuture(task)
+                || task instanceof AdmissionController.AdmittedTask && ((AdmissionController.AdmittedTask<?>) task).isFailed());
+        TaskSpill spill = taskSpill;
+        if (null != spill && r instanceof TimedTask && null != ((TimedTask) r).spillRecord) {
+            spill.ack(((TimedTask) r).spillRecord);
+        }
+        super.afterExecute(r, t);
+        drainSpill();
+    }
+
+    /**
+     * 队列中尚未执行的异步提交任务以 RejectedExecutionException 完成并归还准入名额，返回的列表中仍包含这些任务，再次执行时直接跳过
+     */
+    @Override
+    public List<Runnable> shutdownNow() {
+        List<Runnable> drained = super.shutdownNow();
+        for (Runnable r : drained) {
+            rejectAdmitted(r, true);
+        }
+        return drained;
+    }
+
+    /**
+     * 线程池终止后关闭溢出日志
+     */
+    @Override
+    protected void terminated() {
+        super.terminated();
+        TaskSpill spill = taskSpill;
+        if (null != spill) spill.close();
+    }
+
+    /**
+     * 开启溢出层：队列已满时可序列化的任务写入磁盘日志，队列有空位时回灌。
+     * 日志中上次未执行完成的任务计入提交次数并立即开始回灌。
+     * 有序线程池的任务需按通道顺序执行，SynchronousQueue 没有空位可供回灌，均不支持开启。
+     *
+     * @param taskSpill 溢出层
+     */
+    public void enableSpill(TaskSpill taskSpill) {
+        Objects.requireNonNull(taskSpill);
+        if (getQueue() instanceof SynchronousQueue) throw new IllegalStateException("spill requires a queue with capacity");
+        if (null != this.taskSpill) throw new IllegalStateException("spill already enabled");
+        this.taskSpill = taskSpill;
+        long recovered = taskSpill.depth();
+        if (recovered > 0) {
+            taskCounter.onSubmit(recovered);
+            log.info("[flash-tp]==> 开始回灌上次未执行完成的溢出任务 任务数:{}", recovered);
+        }
+        drainSpill();
+    }
+
+    /**
+     * 获取溢出层计数与统计窗口内的回灌速率
+     *
+     * @return 溢出层快照，未开启时为 null
+     */
+    public SpillSnapshot spillSnapshot() {
+        TaskSpill spill = taskSpill;
+        return null == spill ? null : spill.snapshot();
+    }
+
+    /**
+     * 带准入控制的异步提交，未准入时立即失败
+     *
+     * @param task 任务
+     * @return 任务结果，未准入时以 AdmissionRejectedException 完成
+     */
+    public <T> CompletableFuture<T> submitAsync(Callable<T> task) {
+        return submitAsync(task, 0L, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 带准入控制的异步提交：在途任务数达到准入限额时在调用线程上等待名额，超时后以带重试间隔的
+     * AdmissionRejectedException 完成；准入后仍被线程池拒绝时同样以拒绝异常完成，不交给拒绝策略。
+     * 任务执行前取消 future 会跳过执行并归还名额。
+     *
+     * @param task    任务
+     * @param timeout 等待准入的最长时间，小于等于 0 时不等待
+     * @param unit    时间单位
+     * @return 任务结果
+     */
+    public <T> CompletableFuture<T> submitAsync(Callable<T> task, long timeout, TimeUnit unit) {
+        Objects.requireNonNull(task);
+        CompletableFuture<T> future = new CompletableFuture<>();
+        AdmissionController controller = admission();
+        if (isShutdown()) {
+            future.completeExceptionally(new RejectedExecutionException("executor has been shut down"));
+        } else if (!controller.tryAcquire(timeout, unit)) {
+            future.completeExceptionally(controller.reject("admission limit reached"));
+        } else {
+            AdmissionController.AdmittedTask<T> admitted = controller.wrap(task, future);
+            try {
+                execute(admitted);
+            } catch (RejectedExecutionException e) {
+                // 子类在进入线程池之前直接拒绝（如有序线程池已关闭），同样归还名额并以拒绝异常完成
+                admitted.reject(isShutdown());
+            }
+        }
+        return future;
+    }
+
+    /**
+     * 带准入控制的异步提交，未准入时立即失败
+     *
+     * @param task 任务
+     * @return 任务完成时完成的 future
+     */
+    public CompletableFuture<Void> submitAsync(Runnable task) {
+        return submitAsync(task, 0L, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 带准入控制的异步提交，见 {@link #submitAsync(Callable, long, TimeUnit)}
+     *
+     * @param task    任务
+     * @param timeout 等待准入的最长时间，小于等于 0 时不等待
+     * @param unit    时间单位
+     * @return 任务完成时完成的 future
+     */
+    public CompletableFuture<Void> submitAsync(Runnable task, long timeout, TimeUnit unit) {
+        Objects.requireNonNull(task);
+        return submitAsync(() -> {
+            task.run();
+            return null;
+        }, timeout, unit);
+    }
+
+    /**
+     * 获取准入控制，首次调用时创建：初始限额为最大线程数，上限为最大线程数与队列容量之和
+     *
+     * @return 准入控制
+     */
+    public AdmissionController admission() {
+        AdmissionController controller = admissionController;
+        if (null != controller) return controller;
+        synchronized (this) {
+            if (null == admissionController) {
+                admissionController = new AdmissionController(getMaximumPoolSize(), AdmissionController.DEFAULT_MIN_LIMIT,
+                        defaultAdmissionMaxLimit(), AdmissionController.DEFAULT_TARGET_QUEUE_WAIT_MS);
+            }
+            return admissionController;
+        }
+    }
+
+    /**
+     * 准入控制创建时的默认限额上限：最大线程数与队列容量之和
+     *
+     * @return 默认限额上限
+     */
+    public int defaultAdmissionMaxLimit() {
+        BlockingQueue<Runnable> queue = getQueue();
+        long capacity = (long) getMaximumPoolSize() + queue.size() + queue.remainingCapacity();
+        return (int) Math.max(1L, Math.min(Integer.MAX_VALUE, capacity));
+    }
+
+    /**
+     * 获取准入限额、在途任务数与准入拒绝次数
+     *
+     * @return 准入控制快照，尚未使用过异步提交时为 null
+     */
+    public AdmissionSnapshot admissionSnapshot() {
+        AdmissionController controller = admissionController;
+        return null == controller ? null : controller.snapshot();
+    }
+
+    /**
+     * 开启慢任务检测，对之后开始执行的任务生效
+     *
+     * @param slowTaskDetector 慢任务检测
+     */
+    public void enableSlowTaskDetector(SlowTaskDetector slowTaskDetector) {
+        Objects.requireNonNull(slowTaskDetector);
+        if (null != this.slowTaskDetector) throw new IllegalStateException("slow task detector already enabled");
+        this.slowTaskDetector = slowTaskDetector;
+    }
+
+    /**
+     * 获取慢任务检测，未开启时为 null
+     */
+    public SlowTaskDetector getSlowTaskDetector() {
+        return slowTaskDetector;
+    }
+
+    /**
+     * 获取慢任务计数、仍在执行的慢任务与调用栈样本
+     *
+     * @return 慢任务快照，未开启时为 null
+     */
+    public SlowTaskSnapshot slowTaskSnapshot() {
+        SlowTaskDetector detector = slowTaskDetector;
+        return null == detector ? null : detector.snapshot();
+    }
+
+    /**
+     * 队列有空位时从溢出层回灌任务，回灌的任务已计入提交次数，不重复计数。
+     * 正在回灌的线程会一直回灌到队列填满或达到单次上限，跳过的线程不会错过回灌时机。
+     */
+    private void drainSpill() {
+        TaskSpill spill = taskSpill;
+        if (null == spill || spill.depth() == 0 || !drainLock.tryLock()) return;
+        try {
+            BlockingQueue<Runnable> queue = getQueue();
+            for (int i = 0; i < DRAIN_BATCH && !isShutdown() && queue.remainingCapacity() > 0; i++) {
+                TaskSpill.SpilledTask spilled = spill.poll();
+                if (null == spilled) return;
+                TimedTask task = new TimedTask(spilled.getTask());
+                task.spillRecord = spilled.getRecord();
+                super.execute(task);
+            }
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    /**
+     * 溢出层仍有积压时，可序列化的新任务排在溢出层末尾，而不是越过落盘的任务直接进入队列。
+     * 先回灌一批腾出溢出层，回灌后仍有积压（队列已满或其他线程正在回灌）再写入溢出层；
+     * 不可序列化的任务、线程池已关闭或落盘失败时照常提交。
+     *
+     * @param command 原始任务
+     * @return 任务是否已落盘
+     */
+    private boolean spillBehind(Runnable command) {
+        TaskSpill spill = taskSpill;
+        if (null == spill || spill.depth() == 0 || isShutdown() || !(command instanceof Serializable)) return false;
+        drainSpill();
+        return spill.depth() > 0 && !isShutdown() && spill.spill(command);
+    }
+
+    /**
+     * 队列已满时写入溢出层，返回 true 表示任务已落盘，不计入拒绝次数，也不交给拒绝策略。
+     * 线程池关闭后新提交的任务照常拒绝；回灌的任务再次被拒绝时重新落盘，线程池已关闭或落盘失败时保留原记录，留待下次启动重放。
+     *
+     * @param r 即将被拒绝的任务（包装后的任务）
+     * @return 任务是否已落盘
+     */
+    private boolean spill(Runnable r) {
+        TaskSpill spill = taskSpill;
+        if (null == spill || !(r instanceof TimedTask)) return false;
+        TimedTask task = (TimedTask) r;
+        SpillSegmentLog.Record record = task.spillRecord;
+        if (null == record) return !isShutdown() && spill.spill(task.task);
+        if (!isShutdown() && spill.spill(task.task)) {
+            spill.ack(record);
+        } else {
+            log.warn("[flash-tp]==> 回灌任务被拒绝，保留在溢出日志中待下次启动重放 任务:{}", task);
+        }
+        return true;
+    }
+
+    /**
+     * 包装的是异步提交的任务时归还名额并以拒绝异常完成 future
+     *
+     * @param r        包装后的任务，可为 null
+     * @param shutdown 线程池是否已关闭
+     * @return 是否为异步提交的任务
+     */
+    private static boolean rejectAdmitted(Runnable r, boolean shutdown) {
+        if (!(r instanceof TimedTask) || !(((TimedTask) r).task instanceof AdmissionController.AdmittedTask)) return false;
+        ((AdmissionController.AdmittedTask<?>) ((TimedTask) r).task).reject(shutdown);
+        return true;
+    }
+
+    /**
+     * submit 提交的任务会被 FutureTask 吞掉异常，需通过已完成的 Future 判断是否执行失败
+     */
+    private static boolean failedInFuture(Runnable task) {
+        if (!(task instanceof Future)) return false;
+        Future<?> future = (Future<?>) task;
+        if (!future.isDone() || future.isCancelled()) return false;
+        try {
+            future.get();
+            return false;
+        } catch (ExecutionException e) {
+            return true;
+        } catch (CancellationException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * 提交已包装的任务，不重复计入提交次数，供同包的线程池在提交时间点自行包装与计数
+     *
+     * @param task 包装后的任务
+     */
+    void executeTimed(TimedTask task) {
+        super.execute(task);
+    }
+
+    /**
+     * 在当前线程直接执行已包装的任务，耗时与计数照常记录；任务异常只计入失败次数，不向外抛出
+     *
+     * @param task 包装后的任务
+     */
+    void runTimed(TimedTask task) {
+        beforeExecute(Thread.currentThread(), task);
+        Throwable thrown = null;
+        try {
+            task.run();
+        } catch (Throwable t) {
+            thrown = t;
+        } finally {
+            afterExecute(task, thrown);
+        }
+    }
+
+    void countSubmit() {
+        taskCounter.onSubmit();
+    }
+
+    void countReject() {
+        taskCounter.onReject();
+    }
+
+    /**
+     * 拒绝前的补救，返回 true 表示任务已被接收，不计入拒绝次数，也不交给拒绝策略。默认不补救。
+     *
+     * @param task 即将被拒绝的任务（包装后的任务）
+     * @return 任务是否已被接收
+     */
+    protected boolean beforeReject(Runnable task) {
+        return false;
+    }
+
+    /**
+     * 正在执行任务的线程数，读取计数器，不持有 mainLock
+     */
+    @Override
+    public int getActiveCount() {
+        return taskCounter.activeCount();
+    }
+
+    /**
+     * 存活的工作线程数，读取计数器，不持有 mainLock
+     */
+    @Override
+    public int getPoolSize() {
+        return taskCounter.threadCount();
+    }
+
+    /**
+     * 已执行完成的任务数（包含执行异常），读取计数器，不持有 mainLock
+     */
+    @Override
+    public long getCompletedTaskCount() {
+        return taskCounter.completedCount();
+    }
+
+    /**
+     * 已接收的任务数（提交数 - 拒绝数），读取计数器，不持有 mainLock
+     */
+    @Override
+    public long getTaskCount() {
+        return taskCounter.submittedCount() - taskCounter.rejectedCount();
+    }
+
+    /**
+     * 包装线程工厂以统计存活线程数。
+     * 注意不能覆写 getThreadFactory：父类创建工作线程时通过该方法获取线程工厂。
+     */
+    @Override
+    public void setThreadFactory(ThreadFactory threadFactory) {
+        super.setThreadFactory(new CountingThreadFactory(Objects.requireNonNull(threadFactory), taskCounter));
+    }
+
+    @Override
+    public void setRejectedExecutionHandler(RejectedExecutionHandler handler) {
+        super.setRejectedExecutionHandler(new CountingRejectedExecutionHandler(Objects.requireNonNull(handler), taskCounter));
+    }
+
+    /**
+     * 返回业务设置的原始拒绝策略
+     */
+    @Override
+    public RejectedExecutionHandler getRejectedExecutionHandler() {
+        RejectedExecutionHandler handler = super.getRejectedExecutionHandler();
+        return handler instanceof CountingRejectedExecutionHandler ? ((CountingRejectedExecutionHandler) handler).delegate : handler;
+    }
+
+    /**
+     * 移除队列中尚未执行的任务，兼容传入原始任务或包装后的任务
+     *
+     * @param task 需要移除的任务
+     * @return 是否移除成功
+     */
+    @Override
+    public boolean remove(Runnable task) {
+        if (!(task instanceof TimedTask)) {
+            for (Runnable queued : getQueue()) {
+                if (queued instanceof TimedTask && ((TimedTask) queued).task == task) {
+                    return super.remove(queued);
+                }
+            }
+        }
+        return super.remove(task);
+    }
+
+    /**
+     * 获取统计窗口内的任务耗时分位
+     *
+     * @return 耗时分位快照
+     */
+    public LatencySnapshot latencySnapshot() {
+        return latencyRecorder.snapshot();
+    }
+
+    /**
+     * 获取任务计数与统计窗口内的 TPS、拒绝率
+     *
+     * @return 任务计数快照
+     */
+    public TaskCountSnapshot taskCountSnapshot() {
+        return taskCounter.snapshot();
+    }
+
+    /**
+     * 统计存活工作线程数的线程工厂
+     */
+    private static final class CountingThreadFactory implements ThreadFactory {
+        private final ThreadFactory delegate;
+        private final TaskCounter counter;
+
+        CountingThreadFactory(ThreadFactory delegate, TaskCounter counter) {
+            this.delegate = delegate;
+            this.counter = counter;
+        }
+
+        @Override
+        public Thread newThread(Runnable worker) {
+            return delegate.newThread(() -> {
+                counter.onThreadStart();
+                try {
+                    worker.run();
+                } finally {
+                    counter.onThreadExit();
+                }
+            });
+        }
+    }
+
+    /**
+     * 统计拒绝次数的拒绝策略
+     */
+    private static final class CountingRejectedExecutionHandler implements RejectedExecutionHandler {
+        private final RejectedExecutionHandler delegate;
+        private final TaskCounter counter;
+
+        CountingRejectedExecutionHandler(RejectedExecutionHandler delegate, TaskCounter counter) {
+            this.delegate = delegate;
+            this.counter = counter;
+        }
+
+        @Override
+        public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+            if (executor instanceof FlashTpExecutor) {
+                FlashTpExecutor flashTpExecutor = (FlashTpExecutor) executor;
+                if (flashTpExecutor.beforeReject(r) || flashTpExecutor.spill(r)) return;
+            }
+            counter.onReject();
+            // 异步提交的任务以拒绝异常完成 future，调用方从 future 上感知拒绝
+            if (rejectAdmitted(r, executor.isShutdown())) return;
+            if (delegate instanceof DiscardOldestPolicy && executor instanceof FlashTpExecutor && r instanceof TimedTask) {
+                // 与 DiscardOldestPolicy 相同：丢弃队首任务后重新提交，被丢弃的异步提交任务归还名额，重新提交时不再重复包装与计数
+                if (!executor.isShutdown()) {
+                    rejectAdmitted(executor.getQueue().poll(), false);
+                    ((FlashTpExecutor) executor).executeTimed((TimedTask) r);
+                }
+                return;
+            }
+            delegate.rejectedExecution(r, executor);
+        }
+    }
+
+    /**
+     * 带时间戳的任务包装
+     */
+    public static final class TimedTask implements Runnable {
+
+        /**
+         * 原始任务
+         */
+        private final Runnable task;
+
+        /**
+         * 提交时间
+         */
+        private final long submitNanos = System.nanoTime();
+
+        /**
+         * 开始执行时间，由工作线程写入并读取
+         */
+        private long startNanos;
+
+        /**
+         * 同包线程池附加在任务上的上下文，如有序线程池的通道
+         */
+        Object attachment;
+
+        /**
+         * 从溢出层回灌的任务对应的日志记录，执行完成后确认
+         */
+        SpillSegmentLog.Record spillRecord;
+
+        /**
+         * 慢任务检测的登记，由工作线程写入并读取
+         */
+        SlowTaskDetector.Watch watch;
+
+        TimedTask(Runnable task) {
+            this.task = task;
+        }
+
+        public Runnable getTask() {
+            return task;
+        }
+
+        @Override
+        public void run() {
+            task.run();
+        }
+
+        @Override
+        public String toString() {
+            return task.toString();
+        }
+    }
+
+}
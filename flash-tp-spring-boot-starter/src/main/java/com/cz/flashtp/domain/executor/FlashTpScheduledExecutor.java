@@ -0,0 +1,137 @@
+package com.cz.flashtp.domain.executor;
+
+import com.cz.flashtp.domain.metrics.ScheduleLagRecorder;
+import com.cz.flashtp.domain.metrics.ScheduleLagSnapshot;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.RunnableScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * flash-tp 托管定时线程池
+ * 在 {@link ScheduledThreadPoolExecutor} 的基础上记录每次触发的延迟：任务开始执行时距计划触发时间已过去多久。
+ * 线程数不足或任务执行过久时，到期任务只能在队列中等待，延迟会持续升高。
+ * <p>
+ * 通过 {@link #decorateTask} 将任务包装为 {@link LagTrackingTask}，schedule 系列方法返回的 Future 即包装后的对象，
+ * 周期任务每次触发都会记录一次。包装后的任务不是 JDK 内部的 ScheduledFutureTask，取消时由包装对象自行按
+ * removeOnCancel 策略从队列中移除。
+ *
+ * @author Zjianru
+ */
+public class FlashTpScheduledExecutor extends ScheduledThreadPoolExecutor {
+
+    /**
+     * 触发延迟记录器
+     */
+    private final ScheduleLagRecorder lagRecorder = new ScheduleLagRecorder();
+
+    public FlashTpScheduledExecutor(int corePoolSize, ThreadFactory threadFactory, RejectedExecutionHandler handler) {
+        super(corePoolSize, threadFactory, handler);
+    }
+
+    /**
+     * 以已有定时线程池的参数创建托管定时线程池，调用方需保证原线程池尚未提交任务。
+     *
+     * @param source 原定时线程池
+     * @return 托管定时线程池
+     */
+    public static FlashTpScheduledExecutor from(ScheduledThreadPoolExecutor source) {
+        FlashTpScheduledExecutor executor = new FlashTpScheduledExecutor(source.getCorePoolSize(), source.getThreadFactory(), source.getRejectedExecutionHandler());
+        executor.setMaximumPoolSize(source.getMaximumPoolSize());
+        executor.setKeepAliveTime(source.getKeepAliveTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+        executor.allowCoreThreadTimeOut(source.allowsCoreThreadTimeOut());
+        executor.setContinueExistingPeriodicTasksAfterShutdownPolicy(source.getContinueExistingPeriodicTasksAfterShutdownPolicy());
+        executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(source.getExecuteExistingDelayedTasksAfterShutdownPolicy());
+        executor.setRemoveOnCancelPolicy(source.getRemoveOnCancelPolicy());
+        return executor;
+    }
+
+    @Override
+    protected <V> RunnableScheduledFuture<V> decorateTask(Runnable runnable, RunnableScheduledFuture<V> task) {
+        return new LagTrackingTask<>(task);
+    }
+
+    @Override
+    protected <V> RunnableScheduledFuture<V> decorateTask(Callable<V> callable, RunnableScheduledFuture<V> task) {
+        return new LagTrackingTask<>(task);
+    }
+
+    /**
+     * 获取统计窗口内的触发延迟快照
+     *
+     * @return 触发延迟快照
+     */
+    public ScheduleLagSnapshot scheduleLagSnapshot() {
+        return lagRecorder.snapshot();
+    }
+
+    /**
+     * 记录触发延迟的任务包装，除 run 与 cancel 外全部委托给原任务
+     */
+    private final class LagTrackingTask<V> implements RunnableScheduledFuture<V> {
+
+        private final RunnableScheduledFuture<V> task;
+
+        private LagTrackingTask(RunnableScheduledFuture<V> task) {
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            // 周期任务在 run 结束时才计算下一次触发时间，此时的剩余延迟即本次触发的延迟（取反）
+            if (!task.isCancelled()) lagRecorder.record(-task.getDelay(TimeUnit.NANOSECONDS));
+            task.run();
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = task.cancel(mayInterruptIfRunning);
+            if (cancelled && getRemoveOnCancelPolicy()) remove(this);
+            return cancelled;
+        }
+
+        @Override
+        public boolean isPeriodic() {
+            return task.isPeriodic();
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return task.getDelay(unit);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            // 同为包装任务时比较原任务，保留相同触发时间下按提交顺序执行的语义
+            if (other instanceof LagTrackingTask) return task.compareTo(((LagTrackingTask<?>) other).task);
+            return task.compareTo(other);
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return task.isCancelled();
+        }
+
+        @Override
+        public boolean isDone() {
+            return task.isDone();
+        }
+
+        @Override
+        public V get() throws InterruptedException, ExecutionException {
+            return task.get();
+        }
+
+        @Override
+        public V get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+            return task.get(timeout, unit);
+        }
+    }
+
+}
@@ -0,0 +1,428 @@
+package com.cz.flashtp.domain.executor;
+
+import com.cz.flashtp.domain.metrics.LaneSnapshot;
+import com.cz.flashtp.domain.metrics.TaskLatencyRecorder;
+import com.cz.flashtp.domain.spill.TaskSpill;
+
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 按 key 有序的托管线程池
+ * 任务按 key 的哈希分配到固定数量的串行通道，同一通道同一时刻只有一个任务交给工作线程，因此同一 key 的任务按提交顺序执行；
+ * 不同通道共享同一组工作线程并行执行，不需要为每个 key 创建线程。
+ * 通道每次只交出一个任务，执行完成后再交出下一个，热点通道不会长期占用工作线程。
+ * <p>
+ * 参数与调整：
+ * <ul>
+ *     <li>工作线程数即核心线程数（与最大线程数相同），内部队列只存放各通道交出的任务，最多每个通道一个，不设上限；</li>
+ *     <li>通道数 {@link #setLaneCount(int)}：调整后新提交的任务按新的通道数分配，旧通道中已提交的任务全部执行完成后新通道才开始执行，调整期间同一 key 仍然有序；</li>
+ *     <li>单通道排队上限 {@link #setLaneCapacity(int)}：通道已满时直接拒绝并计入拒绝次数，不交给拒绝策略（CallerRunsPolicy 等会破坏顺序）。</li>
+ * </ul>
+ * 未指定 key 的任务（{@link #execute(Runnable)}、{@link #submit(Callable)} 等）以任务对象本身为 key，不保证相互之间的顺序。
+ * <p>
+ * 线程池关闭后，通道中已提交的任务由交出上一个任务的线程按顺序直接执行完毕，新提交的任务被拒绝。
+ * 任务的排队耗时从提交到通道时开始计算，包含在通道中等待的时间。
+ *
+ * @author Zjianru
+ */
+public class KeyedOrderedExecutor extends FlashTpExecutor {
+
+    /**
+     * 通道数上限
+     */
+    public static final int MAX_LANE_COUNT = 65536;
+
+    /**
+     * 上报的热点 key 最大长度
+     */
+    private static final int HOT_KEY_MAX_LENGTH = 64;
+
+    /**
+     * 通道数调整锁
+     */
+    private final Object resizeLock = new Object();
+
+    /**
+     * 当前接收新任务的通道组
+     */
+    private volatile LaneGroup group;
+
+    /**
+     * 单个通道的排队上限
+     */
+    private volatile int laneCapacity;
+
+    /**
+     * 通道倾斜统计窗口
+     */
+    private final long windowNanos = TimeUnit.MILLISECONDS.toNanos(TaskLatencyRecorder.DEFAULT_WINDOW_MILLIS);
+
+    /**
+     * 窗口基线对应的通道组与各通道累计提交数（末位为时间），仅在 laneSnapshot 中访问
+     */
+    private LaneGroup windowGroup;
+    private long[] previous;
+    private long[] current;
+
+    /**
+     * @param workers       工作线程数
+     * @param laneCount     通道数，1 ~ {@value #MAX_LANE_COUNT}
+     * @param laneCapacity  单个通道的排队上限
+     * @param threadFactory 线程工厂
+     */
+    public KeyedOrderedExecutor(int workers, int laneCount, int laneCapacity, ThreadFactory threadFactory) {
+        super(workers, workers, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), threadFactory, new AbortPolicy());
+        checkLaneCount(laneCount);
+        checkLaneCapacity(laneCapacity);
+        this.laneCapacity = laneCapacity;
+        this.group = new LaneGroup(laneCount, true);
+    }
+
+    /**
+     * 按 key 提交任务，同一 key 的任务按提交顺序执行
+     *
+     * @param key  顺序 key，不能为空
+     * @param task 任务
+     * @throws RejectedExecutionException 线程池已关闭或通道已满
+     */
+    public void execute(Object key, Runnable task) {
+        Objects.requireNonNull(key);
+        TimedTask timed = new TimedTask(Objects.requireNonNull(task));
+        countSubmit();
+        if (isShutdown()) {
+            countReject();
+            throw new RejectedExecutionException("KeyedOrderedExecutor has been shut down");
+        }
+        for (;;) {
+            LaneGroup laneGroup = group;
+            Lane lane = laneGroup.lanes[indexFor(key, laneGroup.lanes.length)];
+            boolean start = false;
+            synchronized (lane) {
+                // 通道组已被替换，按新的通道数重新分配
+                if (laneGroup.retired) continue;
+                if (lane.tasks.size() >= laneCapacity) {
+                    countReject();
+                    throw new RejectedExecutionException("lane " + lane.index + " is full, capacity " + laneCapacity);
+                }
+                lane.record(key);
+                timed.attachment = lane;
+                if (!lane.scheduled && lane.tasks.isEmpty()) laneGroup.busy.incrementAndGet();
+                if (!lane.scheduled && !lane.blocked) {
+                    lane.scheduled = true;
+                    start = true;
+                } else {
+                    lane.tasks.add(timed);
+                }
+            }
+            if (start) drive(lane, timed);
+            return;
+        }
+    }
+
+    /**
+     * 按 key 提交任务，同一 key 的任务按提交顺序执行
+     *
+     * @param key  顺序 key，不能为空
+     * @param task 任务
+     * @param <T>  结果类型
+     * @return 任务结果
+     * @throws RejectedExecutionException 线程池已关闭或通道已满
+     */
+    public <T> Future<T> submit(Object key, Callable<T> task) {
+        RunnableFuture<T> future = newTaskFor(Objects.requireNonNull(task));
+        execute(key, future);
+        return future;
+    }
+
+    /**
+     * 未指定 key 的任务以任务对象本身为 key，同样受通道排队上限约束
+     */
+    @Override
+    public void execute(Runnable command) {
+        execute(command, command);
+    }
+
+    /**
+     * 调整通道数，旧通道中已提交的任务全部执行完成后新通道才开始执行
+     *
+     * @param laneCount 通道数，1 ~ {@value #MAX_LANE_COUNT}
+     */
+    public void setLaneCount(int laneCount) {
+        checkLaneCount(laneCount);
+        synchronized (resizeLock) {
+            LaneGroup old = group;
+            if (old.lanes.length == laneCount) return;
+            LaneGroup next = new LaneGroup(laneCount, false);
+            old.successor = next;
+            group = next;
+            old.retired = true;
+            // 等待已进入旧通道的提交完成，此后旧通道组不再接收任务
+            for (Lane lane : old.lanes) {
+                synchronized (lane) {
+                    // 仅用于等待持有通道锁的提交完成
+                }
+            }
+            if (old.busy.get() == 0 && old.released.get()) next.release();
+        }
+    }
+
+    public int getLaneCount() {
+        return group.lanes.length;
+    }
+
+    /**
+     * 调整单个通道的排队上限，调小后已排队的任务不丢弃，降到上限以下后才接收新任务
+     *
+     * @param laneCapacity 单个通道的排队上限
+     */
+    public void setLaneCapacity(int laneCapacity) {
+        checkLaneCapacity(laneCapacity);
+        this.laneCapacity = laneCapacity;
+    }
+
+    public int getLaneCapacity() {
+        return laneCapacity;
+    }
+
+    /**
+     * 获取通道深度与统计窗口内的提交倾斜，只统计当前通道组，通道数调整后旧通道中尚未执行的任务不计入深度
+     *
+     * @return 通道快照
+     */
+    public synchronized LaneSnapshot laneSnapshot() {
+        LaneGroup laneGroup = group;
+        Lane[] lanes = laneGroup.lanes;
+        int count = lanes.length;
+        int[] depths = new int[count];
+        long[] sample = new long[count + 1];
+        int depthMax = 0;
+        for (int i = 0; i < count; i++) {
+            synchronized (lanes[i]) {
+                depths[i] = lanes[i].tasks.size();
+                sample[i] = lanes[i].submitted;
+            }
+            depthMax = Math.max(depthMax, depths[i]);
+        }
+        long now = System.nanoTime();
+        sample[count] = now;
+        if (windowGroup != laneGroup) {
+            // 通道数调整后重新建立基线
+            windowGroup = laneGroup;
+            previous = null;
+            current = sample;
+        } else if (now - current[count] >= windowNanos) {
+            previous = current;
+            current = sample;
+        }
+        long[] base = null == previous ? current : previous;
+        long total = 0;
+        long max = 0;
+        int hotLane = 0;
+        for (int i = 0; i < count; i++) {
+            long delta = sample[i] - base[i];
+            total += delta;
+            if (delta > max) {
+                max = delta;
+                hotLane = i;
+            }
+        }
+        double skew = total <= 0 ? 0D : max * (double) count / total;
+        String hotKey = null;
+        if (total > 0) {
+            Lane lane = lanes[hotLane];
+            synchronized (lane) {
+                if (lane.votes > 0) hotKey = String.valueOf(lane.candidate);
+            }
+            if (null != hotKey && hotKey.length() > HOT_KEY_MAX_LENGTH) hotKey = hotKey.substring(0, HOT_KEY_MAX_LENGTH);
+        }
+        return new LaneSnapshot(count, laneCapacity, depths, depthMax, skew, hotLane, hotKey);
+    }
+
+    /**
+     * 通道交出的任务执行完成后交出同一通道的下一个任务
+     */
+    @Override
+    protected void afterExecute(Runnable r, Throwable t) {
+        super.afterExecute(r, t);
+        if (r instanceof TimedTask && ((TimedTask) r).attachment instanceof Lane) {
+            Lane lane = (Lane) ((TimedTask) r).attachment;
+            drive(lane, lane.next());
+        }
+    }
+
+    /**
+     * 落盘回灌会打乱同一键的执行顺序，有序线程池不支持溢出层
+     */
+    @Override
+    public void enableSpill(TaskSpill taskSpill) {
+        throw new IllegalStateException("keyed ordered executor does not support spill");
+    }
+
+    /**
+     * 线程池关闭后通道交出的任务被拒绝：标记退回，由交出任务的线程直接执行，不计入拒绝次数
+     */
+    @Override
+    protected boolean beforeReject(Runnable task) {
+        if (!(task instanceof TimedTask) || !(((TimedTask) task).attachment instanceof Lane)) return false;
+        ((TimedTask) task).attachment = null;
+        return true;
+    }
+
+    /**
+     * 依次交出通道中的任务：正常情况下交给工作线程后返回，由其执行完成后继续；线程池已关闭时在当前线程按顺序执行剩余任务
+     */
+    private void drive(Lane lane, TimedTask task) {
+        while (null != task) {
+            if (!isShutdown()) {
+                executeTimed(task);
+                if (null != task.attachment) return;
+            }
+            // 直接执行的任务不再触发 afterExecute 中的交接
+            task.attachment = null;
+            runTimed(task);
+            task = lane.next();
+        }
+    }
+
+    private static int indexFor(Object key, int laneCount) {
+        int h = key.hashCode();
+        return Math.floorMod(h ^ (h >>> 16), laneCount);
+    }
+
+    private static void checkLaneCount(int laneCount) {
+        if (laneCount < 1 || laneCount > MAX_LANE_COUNT) throw new IllegalArgumentException("laneCount must be in [1, " + MAX_LANE_COUNT + "]");
+    }
+
+    private static void checkLaneCapacity(int laneCapacity) {
+        if (laneCapacity < 1) throw new IllegalArgumentException("laneCapacity must be positive");
+    }
+
+    /**
+     * 一组通道，对应一次通道数设置。
+     * 被替换（retired）后不再接收任务，其中的任务全部执行完成且自身已放行时放行下一组。
+     */
+    private final class LaneGroup {
+
+        final Lane[] lanes;
+
+        /**
+         * 有任务排队或正在执行的通道数
+         */
+        final AtomicInteger busy = new AtomicInteger();
+
+        /**
+         * 是否已放行，未放行的通道组只接收任务不执行
+         */
+        final AtomicBoolean released;
+
+        volatile boolean retired;
+
+        volatile LaneGroup successor;
+
+        LaneGroup(int laneCount, boolean released) {
+            this.released = new AtomicBoolean(released);
+            this.lanes = new Lane[laneCount];
+            for (int i = 0; i < laneCount; i++) {
+                lanes[i] = new Lane(this, i, !released);
+            }
+        }
+
+        void release() {
+            if (!released.compareAndSet(false, true)) return;
+            for (Lane lane : lanes) {
+                TimedTask first = null;
+                synchronized (lane) {
+                    lane.blocked = false;
+                    if (!lane.scheduled) {
+                        first = lane.tasks.poll();
+                        if (null != first) lane.scheduled = true;
+                    }
+                }
+                if (null != first) drive(lane, first);
+            }
+            if (retired && busy.get() == 0) successor.release();
+        }
+
+        void onLaneIdle() {
+            if (busy.decrementAndGet() == 0 && retired && released.get()) successor.release();
+        }
+    }
+
+    /**
+     * 串行通道，字段均在通道锁内访问
+     */
+    private static final class Lane {
+
+        final LaneGroup group;
+
+        final int index;
+
+        /**
+         * 尚未交出的任务
+         */
+        final ArrayDeque<TimedTask> tasks = new ArrayDeque<>();
+
+        /**
+         * 是否有任务已交出且尚未执行完成
+         */
+        boolean scheduled;
+
+        /**
+         * 所属通道组尚未放行
+         */
+        boolean blocked;
+
+        /**
+         * 累计提交数
+         */
+        long submitted;
+
+        /**
+         * 多数派投票（Boyer-Moore）候选 key 与票数，用于近似找出通道中的热点 key
+         */
+        Object candidate;
+        long votes;
+
+        Lane(LaneGroup group, int index, boolean blocked) {
+            this.group = group;
+            this.index = index;
+            this.blocked = blocked;
+        }
+
+        void record(Object key) {
+            submitted++;
+            if (votes == 0) {
+                candidate = key;
+                votes = 1;
+            } else if (Objects.equals(candidate, key)) {
+                votes++;
+            } else {
+                votes--;
+            }
+        }
+
+        /**
+         * 取出下一个任务，没有任务时通道转为空闲并返回 null
+         */
+        TimedTask next() {
+            synchronized (this) {
+                TimedTask task = tasks.poll();
+                if (null != task) return task;
+                scheduled = false;
+            }
+            group.onLaneIdle();
+            return null;
+        }
+    }
+
+}
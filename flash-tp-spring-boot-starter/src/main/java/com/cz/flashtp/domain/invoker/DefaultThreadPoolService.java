@@ -2,14 +2,17 @@ package com.cz.flashtp.domain.invoker;
 
 import com.alibaba.fastjson2.JSON;
 import com.cz.flashtp.domain.DynamicThreadPoolService;
+import com.cz.flashtp.domain.adapter.ThreadPoolAdapter;
+import com.cz.flashtp.domain.adapter.ThreadPoolAdapters;
 import com.cz.flashtp.domain.entity.ThreadPoolConfig;
+import com.cz.flashtp.domain.snapshot.LocalConfigSnapshotStore;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.concurrent.ThreadPoolExecutor;
 
 /**
  * 默认的线程池服务
@@ -24,17 +27,41 @@ public class DefaultThreadPoolService implements DynamicThreadPoolService {
      * 通过提供线程池的查询和配置更新功能，支持动态调整线程池参数。
      */
     private final String applicationName;
-    private final Map<String, ThreadPoolExecutor> threadPoolExecutorMap;
+    private final String instanceId;
+    /**
+     * 受管线程池，运行期注册时整体替换，读取无需加锁
+     */
+    private volatile Map<String, ThreadPoolAdapter> threadPoolAdapterMap;
+
+    /**
+     * 线程池配置本地快照，为空时不持久化
+     */
+    private final LocalConfigSnapshotStore snapshotStore;
 
     /**
      * 构造函数初始化DefaultThreadPoolService。
      *
      * @param applicationName       应用程序名称，用于标识线程池所属的应用。
-     * @param threadPoolExecutorMap 线程池执行器的映射，键为线程池名称，值为ThreadPoolExecutor实例。
+     * @param instanceId            实例标识，用于区分同一应用的不同实例。
+     * @param threadPoolExecutorMap 线程池的映射，键为线程池名称，值为线程池实例或 {@link ThreadPoolAdapter}，不支持的类型忽略。
+     */
+    public DefaultThreadPoolService(String applicationName, String instanceId, Map<String, ?> threadPoolExecutorMap) {
+        this(applicationName, instanceId, threadPoolExecutorMap, null);
+    }
+
+    /**
+     * 构造函数初始化DefaultThreadPoolService，每次调整生效后将线程池参数写入本地快照。
+     *
+     * @param applicationName       应用程序名称，用于标识线程池所属的应用。
+     * @param instanceId            实例标识，用于区分同一应用的不同实例。
+     * @param threadPoolExecutorMap 线程池的映射，键为线程池名称，值为线程池实例或 {@link ThreadPoolAdapter}，不支持的类型忽略。
+     * @param snapshotStore         线程池配置本地快照，可为空。
      */
-    public DefaultThreadPoolService(String applicationName, Map<String, ThreadPoolExecutor> threadPoolExecutorMap) {
+    public DefaultThreadPoolService(String applicationName, String instanceId, Map<String, ?> threadPoolExecutorMap, LocalConfigSnapshotStore snapshotStore) {
         this.applicationName = applicationName;
-        this.threadPoolExecutorMap = threadPoolExecutorMap;
+        this.instanceId = instanceId;
+        this.threadPoolAdapterMap = ThreadPoolAdapters.adapt(threadPoolExecutorMap);
+        this.snapshotStore = snapshotStore;
     }
 
     /**
@@ -44,15 +71,13 @@ public class DefaultThreadPoolService implements DynamicThreadPoolService {
      */
     @Override
     public List<ThreadPoolConfig> queryThreadPoolList() {
-        // 获取线程池名称的集合
-        Set<String> threadPoolBeanNames = threadPoolExecutorMap.keySet();
-        List<ThreadPoolConfig> threadPools = new ArrayList<>(threadPoolBeanNames.size());
+        List<ThreadPoolConfig> threadPools = new ArrayList<>(threadPoolAdapterMap.size());
         // 遍历每个线程池，获取其配置信息
-        for (String beanName : threadPoolBeanNames) {
-            ThreadPoolExecutor threadPoolExecutor = threadPoolExecutorMap.get(beanName);
-            ThreadPoolConfig config = ThreadPoolConfig.getInstance(applicationName, beanName, threadPoolExecutor);
-            // 日志记录线程池配置信息
-            log.debug("[flash-tp]==>queryThreadPoolList==>动态线程池，配置查询 应用名:{} 线程名:{} 池化配置:{}", applicationName, beanName, JSON.toJSONString(config));
+        for (Map.Entry<String, ThreadPoolAdapter> entry : threadPoolAdapterMap.entrySet()) {
+            String beanName = entry.getKey();
+            ThreadPoolConfig config = snapshot(beanName, entry.getValue());
+            // 日志记录线程池配置信息，未开启 debug 时不做序列化
+            if (log.isDebugEnabled()) log.debug("[flash-tp]==>queryThreadPoolList==>动态线程池，配置查询 应用名:{} 线程名:{} 池化配置:{}", applicationName, beanName, JSON.toJSONString(config));
             threadPools.add(config);
         }
         return threadPools;
@@ -66,28 +91,105 @@ public class DefaultThreadPoolService implements DynamicThreadPoolService {
      */
     @Override
     public ThreadPoolConfig queryThreadPoolConfigByName(String threadPoolName) {
-        ThreadPoolExecutor threadPoolExecutor = threadPoolExecutorMap.get(threadPoolName);
-        if (null == threadPoolExecutor) return ThreadPoolConfig.getInstance(applicationName, threadPoolName);
+        ThreadPoolAdapter adapter = threadPoolAdapterMap.get(threadPoolName);
+        if (null == adapter) {
+            ThreadPoolConfig config = ThreadPoolConfig.getInstance(applicationName, threadPoolName);
+            config.setInstanceId(instanceId);
+            return config;
+        }
         // 线程池配置数据
-        ThreadPoolConfig config = ThreadPoolConfig.getInstance(applicationName, threadPoolName, threadPoolExecutor);
-        // 日志记录线程池配置信息
-        log.debug("[flash-tp]==>queryThreadPoolConfigByName==>动态线程池，配置查询 应用名:{} 线程名:{} 池化配置:{}", applicationName, threadPoolName, JSON.toJSONString(config));
+        ThreadPoolConfig config = snapshot(threadPoolName, adapter);
+        // 日志记录线程池配置信息，未开启 debug 时不做序列化
+        if (log.isDebugEnabled()) log.debug("[flash-tp]==>queryThreadPoolConfigByName==>动态线程池，配置查询 应用名:{} 线程名:{} 池化配置:{}", applicationName, threadPoolName, JSON.toJSONString(config));
         return config;
     }
 
     /**
      * 更新线程池的配置。
+     * 方法加锁串行执行，保证线程数与队列容量作为一次整体调整生效；调整期间生产者与消费者无需停止。
+     * 调整生效后将线程池实际参数写入本地快照。
      *
      * @param threadPoolConfig 需要更新的线程池配置信息。
      */
     @Override
-    public void updateThreadPoolConfig(ThreadPoolConfig threadPoolConfig) {
-        if (null == threadPoolConfig || !applicationName.equals(threadPoolConfig.getAppName())) return;
-        ThreadPoolExecutor threadPoolExecutor = threadPoolExecutorMap.get(threadPoolConfig.getThreadPoolName());
-        if (null == threadPoolExecutor) return;
-        // 设置参数 「调整核心线程数和最大线程数」
-        threadPoolExecutor.setCorePoolSize(threadPoolConfig.getCorePoolSize());
-        threadPoolExecutor.setMaximumPoolSize(threadPoolConfig.getMaximumPoolSize());
+    public synchronized void updateThreadPoolConfig(ThreadPoolConfig threadPoolConfig) {
+        ThreadPoolConfig applied = apply(threadPoolConfig);
+        if (null != applied && null != snapshotStore) {
+            snapshotStore.save(applied.getThreadPoolName(), applied.getCorePoolSize(), applied.getMaximumPoolSize(), applied.getQueueCapacity());
+        }
+    }
+
+    /**
+     * 批量更新线程池的配置。
+     * 在同一把锁内依次调整，全部调整完成后只写一次本地快照。
+     *
+     * @param threadPoolConfigs 需要更新的线程池配置信息列表。
+     * @return 调整后实际生效的核心线程数、最大线程数与队列容量（队列不支持调整时为 0），实例中不存在或参数非法的线程池不包含在内。
+     */
+    @Override
+    public synchronized List<ThreadPoolConfig> updateThreadPoolConfigs(List<ThreadPoolConfig> threadPoolConfigs) {
+        List<ThreadPoolConfig> applied = new ArrayList<>(threadPoolConfigs.size());
+        for (ThreadPoolConfig threadPoolConfig : threadPoolConfigs) {
+            ThreadPoolConfig config = apply(threadPoolConfig);
+            if (null != config) applied.add(config);
+        }
+        if (!applied.isEmpty() && null != snapshotStore) snapshotStore.saveAll(applied);
+        return applied;
+    }
+
+    /**
+     * 运行期注册线程池，同名时替换。
+     * 本地快照中存在该线程池的参数时立即应用，注册中心保存的配置由调用方另行拉取。
+     *
+     * @param threadPoolName 线程池名称。
+     * @param executor       线程池实例或线程池适配器。
+     * @return 注册成功时为 true，线程池类型不受支持时为 false。
+     */
+    @Override
+    public synchronized boolean registerThreadPool(String threadPoolName, Object executor) {
+        ThreadPoolAdapter adapter = ThreadPoolAdapters.adapt(executor);
+        if (null == adapter) return false;
+        Map<String, ThreadPoolAdapter> next = new LinkedHashMap<>(threadPoolAdapterMap);
+        next.put(threadPoolName, adapter);
+        threadPoolAdapterMap = Collections.unmodifiableMap(next);
+        log.info("[flash-tp]==>registerThreadPool==>动态线程池，运行期注册 应用名:{} 线程名:{} 线程池类型:{}", applicationName, threadPoolName, adapter.getPoolType());
+        if (null != snapshotStore) {
+            for (ThreadPoolConfig config : snapshotStore.load()) {
+                if (threadPoolName.equals(config.getThreadPoolName())) apply(config);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 按线程池类型调整单个线程池
+     *
+     * @param threadPoolConfig 需要更新的线程池配置信息。
+     * @return 调整后实际生效的参数，线程池不存在或参数非法时为 null
+     */
+    private ThreadPoolConfig apply(ThreadPoolConfig threadPoolConfig) {
+        if (null == threadPoolConfig || !applicationName.equals(threadPoolConfig.getAppName())) return null;
+        ThreadPoolAdapter adapter = threadPoolAdapterMap.get(threadPoolConfig.getThreadPoolName());
+        if (null == adapter) return null;
+        ThreadPoolConfig applied = adapter.apply(threadPoolConfig);
+        if (null != applied) {
+            applied.setAppName(applicationName);
+            applied.setInstanceId(instanceId);
+        }
+        return applied;
+    }
+
+    /**
+     * 采集线程池快照
+     *
+     * @param threadPoolName 线程池名称
+     * @param adapter        线程池适配器
+     * @return 线程池配置信息
+     */
+    private ThreadPoolConfig snapshot(String threadPoolName, ThreadPoolAdapter adapter) {
+        ThreadPoolConfig config = adapter.snapshot(applicationName, threadPoolName);
+        config.setInstanceId(instanceId);
+        return config;
     }
 
 }
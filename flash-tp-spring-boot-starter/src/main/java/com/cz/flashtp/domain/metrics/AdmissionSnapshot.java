@@ -0,0 +1,45 @@
+package com.cz.flashtp.domain.metrics;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 准入控制快照
+ *
+ * @author Zjianru
+ */
+@Getter
+@AllArgsConstructor
+public class AdmissionSnapshot {
+
+    /**
+     * 当前准入限额（允许同时在途的任务数）
+     */
+    private final int limit;
+
+    /**
+     * 准入限额下限
+     */
+    private final int minLimit;
+
+    /**
+     * 准入限额上限
+     */
+    private final int maxLimit;
+
+    /**
+     * 已准入尚未执行完成的任务数
+     */
+    private final int inFlight;
+
+    /**
+     * 排队耗时目标（毫秒）
+     */
+    private final double targetQueueWaitMs;
+
+    /**
+     * 累计准入拒绝次数（等待超时与准入后被线程池拒绝）
+     */
+    private final long rejectedCount;
+
+}
@@ -0,0 +1,50 @@
+package com.cz.flashtp.domain.metrics;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 有序线程池通道快照
+ *
+ * @author Zjianru
+ */
+@Getter
+@AllArgsConstructor
+public class LaneSnapshot {
+
+    /**
+     * 通道数
+     */
+    private final int laneCount;
+
+    /**
+     * 单个通道的排队上限
+     */
+    private final int laneCapacity;
+
+    /**
+     * 各通道当前排队的任务数，下标为通道编号
+     */
+    private final int[] laneDepths;
+
+    /**
+     * 排队最多的通道的任务数
+     */
+    private final int laneDepthMax;
+
+    /**
+     * 统计窗口内提交最多的通道的提交数与各通道平均提交数之比，没有提交时为 0
+     */
+    private final double skew;
+
+    /**
+     * 统计窗口内提交最多的通道编号
+     */
+    private final int hotLane;
+
+    /**
+     * 提交最多的通道中占多数的 key，没有占多数的 key 时为 null
+     */
+    private final String hotKey;
+
+}
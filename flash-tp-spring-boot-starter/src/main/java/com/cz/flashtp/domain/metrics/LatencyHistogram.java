@@ -0,0 +1,186 @@
+package com.cz.flashtp.domain.metrics;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 耗时直方图
+ * 参考 HdrHistogram 的对数-线性分桶：以微秒为单位，每个 2 的幂区间再均分为 16 个子桶，相对误差不超过 1/16，
+ * 可覆盖 0 ~ 2^36 微秒（约 19 小时），超出部分计入最后一个桶。
+ * <p>
+ * 写入路径无锁：每个线程持有独立的 {@link Recorder}，只有所属线程会写入，读取方通过 opaque 读取合并所有记录器。
+ * 线程退出后其记录器会在下一次 {@link #snapshot()} 时折叠进汇总数组并移除，避免线程频繁回收导致的内存泄漏。
+ *
+ * @author Zjianru
+ */
+public class LatencyHistogram {
+
+    /**
+     * 每个 2 的幂区间的子桶位数
+     */
+    private static final int SUB_BUCKET_BITS = 4;
+
+    /**
+     * 每个 2 的幂区间的子桶数
+     */
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * 可记录的最大值（微秒）
+     */
+    private static final long MAX_VALUE = (1L << 36) - 1;
+
+    /**
+     * 桶数量
+     */
+    public static final int BUCKET_COUNT = indexOf(MAX_VALUE) + 1;
+
+    private static final VarHandle COUNTS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    /**
+     * 当前线程的记录器
+     */
+    private final ThreadLocal<Recorder> recorder = ThreadLocal.withInitial(this::newRecorder);
+
+    /**
+     * 全部存活的记录器
+     */
+    private final ConcurrentLinkedQueue<Recorder> recorders = new ConcurrentLinkedQueue<>();
+
+    /**
+     * 已退出线程的累计计数，仅在 snapshot 中访问
+     */
+    private final long[] retired = new long[BUCKET_COUNT];
+
+    /**
+     * 记录一次耗时
+     *
+     * @param nanos 耗时（纳秒）
+     */
+    public void record(long nanos) {
+        recorder.get().record(indexOf(TimeUnit.NANOSECONDS.toMicros(Math.max(0L, nanos))));
+    }
+
+    /**
+     * 合并所有线程的记录，返回自创建以来的累计计数
+     *
+     * @return 每个桶的累计计数
+     */
+    public synchronized long[] snapshot() {
+        long[] merged = retired.clone();
+        for (Iterator<Recorder> iterator = recorders.iterator(); iterator.hasNext(); ) {
+            Recorder r = iterator.next();
+            Thread owner = r.owner.get();
+            boolean dead = null == owner || !owner.isAlive();
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                long c = (long) COUNTS.getOpaque(r.counts, i);
+                merged[i] += c;
+                // 线程已退出，计数不会再变化，折叠进汇总数组
+                if (dead) retired[i] += c;
+            }
+            if (dead) iterator.remove();
+        }
+        return merged;
+    }
+
+    /**
+     * 计算区间计数 current - baseline
+     *
+     * @param current  当前累计计数
+     * @param baseline 基线累计计数，为空时视为全 0
+     * @return 区间计数
+     */
+    public static long[] delta(long[] current, long[] baseline) {
+        if (null == baseline) return current.clone();
+        long[] delta = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            delta[i] = current[i] - baseline[i];
+        }
+        return delta;
+    }
+
+    /**
+     * 计算分位值
+     *
+     * @param counts     每个桶的计数
+     * @param percentile 分位，取值 (0, 100]
+     * @return 分位值（微秒），无样本时返回 0
+     */
+    public static long valueAtPercentile(long[] counts, double percentile) {
+        long total = 0;
+        for (long c : counts) {
+            total += c;
+        }
+        if (total == 0) return 0L;
+        long rank = Math.max(1L, (long) Math.ceil(percentile / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) return highestEquivalentValue(i);
+        }
+        return highestEquivalentValue(counts.length - 1);
+    }
+
+    /**
+     * 求和
+     *
+     * @param counts 每个桶的计数
+     * @return 样本数
+     */
+    public static long totalCount(long[] counts) {
+        long total = 0;
+        for (long c : counts) {
+            total += c;
+        }
+        return total;
+    }
+
+    /**
+     * 数值所在的桶下标
+     */
+    static int indexOf(long micros) {
+        long v = Math.min(micros, MAX_VALUE);
+        if (v < (SUB_BUCKET_COUNT << 1)) return (int) v;
+        int exponent = 63 - Long.numberOfLeadingZeros(v);
+        int shift = exponent - SUB_BUCKET_BITS;
+        return (shift << SUB_BUCKET_BITS) + (int) (v >>> shift);
+    }
+
+    /**
+     * 桶内可表示的最大值，与 HdrHistogram 一致，分位值向上取整保证不低估
+     */
+    static long highestEquivalentValue(int index) {
+        if (index < (SUB_BUCKET_COUNT << 1)) return index;
+        int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        long top = (index & (SUB_BUCKET_COUNT - 1)) | SUB_BUCKET_COUNT;
+        return ((top + 1) << shift) - 1;
+    }
+
+    private Recorder newRecorder() {
+        Recorder r = new Recorder(Thread.currentThread());
+        recorders.add(r);
+        return r;
+    }
+
+    /**
+     * 单线程记录器，仅所属线程写入
+     */
+    private static final class Recorder {
+        private final WeakReference<Thread> owner;
+        private final long[] counts = new long[BUCKET_COUNT];
+
+        Recorder(Thread owner) {
+            this.owner = new WeakReference<>(owner);
+        }
+
+        void record(int index) {
+            // 单写者：普通读 + opaque 写即可，读方不会看到撕裂的 long
+            COUNTS.setOpaque(counts, index, counts[index] + 1);
+        }
+    }
+
+}
@@ -0,0 +1,50 @@
+package com.cz.flashtp.domain.metrics;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 任务耗时分位快照，单位毫秒
+ *
+ * @author Zjianru
+ */
+@Getter
+@AllArgsConstructor
+public class LatencySnapshot {
+
+    /**
+     * 统计窗口内完成的任务数
+     */
+    private final long sampleCount;
+
+    /**
+     * 排队耗时 P50
+     */
+    private final double queueWaitP50Ms;
+
+    /**
+     * 排队耗时 P99
+     */
+    private final double queueWaitP99Ms;
+
+    /**
+     * 排队耗时 P999
+     */
+    private final double queueWaitP999Ms;
+
+    /**
+     * 执行耗时 P50
+     */
+    private final double runTimeP50Ms;
+
+    /**
+     * 执行耗时 P99
+     */
+    private final double runTimeP99Ms;
+
+    /**
+     * 执行耗时 P999
+     */
+    private final double runTimeP999Ms;
+
+}
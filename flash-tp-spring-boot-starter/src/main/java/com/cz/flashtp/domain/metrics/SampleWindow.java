@@ -0,0 +1,118 @@
+package com.cz.flashtp.domain.metrics;
+
+import com.cz.flashtp.domain.entity.ThreadPoolConfig;
+
+/**
+ * 上报窗口内的采样聚合
+ * 累计活跃线程数、池中线程数、队列深度的最小值、最大值与总和，取出时写入 {@link ThreadPoolConfig} 并重置，
+ * 每个线程池只保留三组定长计数，采样频率不影响内存占用。
+ *
+ * @author Zjianru
+ */
+public class SampleWindow {
+
+    private int count;
+    private final Gauge active = new Gauge();
+    private final Gauge poolSize = new Gauge();
+    private final Gauge queueSize = new Gauge();
+
+    /**
+     * 记录一次采样
+     *
+     * @param activeCount 活跃线程数
+     * @param poolSize    池中线程数
+     * @param queueSize   队列深度
+     */
+    public synchronized void record(int activeCount, int poolSize, int queueSize) {
+        count++;
+        this.active.add(activeCount);
+        this.poolSize.add(poolSize);
+        this.queueSize.add(queueSize);
+    }
+
+    /**
+     * 将窗口聚合值写入线程池配置并开始新的窗口
+     *
+     * @param config 线程池配置
+     */
+    public synchronized void drainTo(ThreadPoolConfig config) {
+        config.setSampleCount(count);
+        if (count > 0) {
+            config.setActiveCountMin(active.min);
+            config.setActiveCountMax(active.max);
+            config.setActiveCountAvg(active.avg(count));
+            config.setPoolSizeMin(poolSize.min);
+            config.setPoolSizeMax(poolSize.max);
+            config.setPoolSizeAvg(poolSize.avg(count));
+            config.setQueueSizeMin(queueSize.min);
+            config.setQueueSizeMax(queueSize.max);
+            config.setQueueSizeAvg(queueSize.avg(count));
+        }
+        count = 0;
+        active.reset();
+        poolSize.reset();
+        queueSize.reset();
+    }
+
+    /**
+     * 将较早窗口的聚合值并入较新的窗口，用于多个未上报的快照合并为一个时保留其间的峰值
+     *
+     * @param target  较新的线程池配置，合并结果写入此对象
+     * @param earlier 较早的线程池配置
+     */
+    public static void merge(ThreadPoolConfig target, ThreadPoolConfig earlier) {
+        int earlierCount = earlier.getSampleCount();
+        if (earlierCount <= 0) return;
+        int targetCount = target.getSampleCount();
+        if (targetCount <= 0) {
+            target.setSampleCount(earlierCount);
+            target.setActiveCountMin(earlier.getActiveCountMin());
+            target.setActiveCountMax(earlier.getActiveCountMax());
+            target.setActiveCountAvg(earlier.getActiveCountAvg());
+            target.setPoolSizeMin(earlier.getPoolSizeMin());
+            target.setPoolSizeMax(earlier.getPoolSizeMax());
+            target.setPoolSizeAvg(earlier.getPoolSizeAvg());
+            target.setQueueSizeMin(earlier.getQueueSizeMin());
+            target.setQueueSizeMax(earlier.getQueueSizeMax());
+            target.setQueueSizeAvg(earlier.getQueueSizeAvg());
+            return;
+        }
+        int total = targetCount + earlierCount;
+        target.setSampleCount(total);
+        target.setActiveCountMin(Math.min(target.getActiveCountMin(), earlier.getActiveCountMin()));
+        target.setActiveCountMax(Math.max(target.getActiveCountMax(), earlier.getActiveCountMax()));
+        target.setActiveCountAvg((target.getActiveCountAvg() * targetCount + earlier.getActiveCountAvg() * earlierCount) / total);
+        target.setPoolSizeMin(Math.min(target.getPoolSizeMin(), earlier.getPoolSizeMin()));
+        target.setPoolSizeMax(Math.max(target.getPoolSizeMax(), earlier.getPoolSizeMax()));
+        target.setPoolSizeAvg((target.getPoolSizeAvg() * targetCount + earlier.getPoolSizeAvg() * earlierCount) / total);
+        target.setQueueSizeMin(Math.min(target.getQueueSizeMin(), earlier.getQueueSizeMin()));
+        target.setQueueSizeMax(Math.max(target.getQueueSizeMax(), earlier.getQueueSizeMax()));
+        target.setQueueSizeAvg((target.getQueueSizeAvg() * targetCount + earlier.getQueueSizeAvg() * earlierCount) / total);
+    }
+
+    /**
+     * 单个指标的最小值、最大值与总和
+     */
+    private static final class Gauge {
+        private int min = Integer.MAX_VALUE;
+        private int max = Integer.MIN_VALUE;
+        private long sum;
+
+        void add(int value) {
+            if (value < min) min = value;
+            if (value > max) max = value;
+            sum += value;
+        }
+
+        double avg(int count) {
+            return Math.round((double) sum / count * 100) / 100D;
+        }
+
+        void reset() {
+            min = Integer.MAX_VALUE;
+            max = Integer.MIN_VALUE;
+            sum = 0;
+        }
+    }
+
+}
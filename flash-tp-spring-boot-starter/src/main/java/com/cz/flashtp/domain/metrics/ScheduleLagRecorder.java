@@ -0,0 +1,67 @@
+package com.cz.flashtp.domain.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 定时任务触发延迟记录器
+ * 记录定时任务实际开始执行的时间晚于计划触发时间的差值，周期任务每次触发各记录一次。
+ * <p>
+ * 与 {@link TaskLatencyRecorder} 相同，按前后两个基线轮换的滑动窗口计算，
+ * 快照反映的是最近 [window, 2 * window) 时间内触发的任务。
+ *
+ * @author Zjianru
+ */
+public class ScheduleLagRecorder {
+
+    private final LatencyHistogram lag = new LatencyHistogram();
+    private final long windowNanos;
+
+    /**
+     * 窗口基线，仅在 snapshot 中访问
+     */
+    private long[] previous;
+    private long[] current;
+    private long rolledAt = System.nanoTime();
+
+    public ScheduleLagRecorder() {
+        this(TaskLatencyRecorder.DEFAULT_WINDOW_MILLIS);
+    }
+
+    public ScheduleLagRecorder(long windowMillis) {
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+    }
+
+    /**
+     * 记录一次触发延迟，提前触发（负值）按 0 记录
+     *
+     * @param nanos 延迟（纳秒）
+     */
+    public void record(long nanos) {
+        lag.record(nanos);
+    }
+
+    /**
+     * 获取窗口内的触发延迟快照
+     *
+     * @return 触发延迟快照
+     */
+    public synchronized ScheduleLagSnapshot snapshot() {
+        long[] now = lag.snapshot();
+        long nowNanos = System.nanoTime();
+        if (nowNanos - rolledAt >= windowNanos) {
+            previous = current;
+            current = now;
+            rolledAt = nowNanos;
+        }
+        long[] window = LatencyHistogram.delta(now, previous);
+        return new ScheduleLagSnapshot(
+                LatencyHistogram.totalCount(window),
+                toMillis(LatencyHistogram.valueAtPercentile(window, 99)),
+                toMillis(LatencyHistogram.valueAtPercentile(window, 100)));
+    }
+
+    private static double toMillis(long micros) {
+        return micros / 1000.0;
+    }
+
+}
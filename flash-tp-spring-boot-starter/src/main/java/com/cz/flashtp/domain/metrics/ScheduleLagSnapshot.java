@@ -0,0 +1,30 @@
+package com.cz.flashtp.domain.metrics;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 定时任务触发延迟快照，单位毫秒
+ *
+ * @author Zjianru
+ */
+@Getter
+@AllArgsConstructor
+public class ScheduleLagSnapshot {
+
+    /**
+     * 统计窗口内触发的任务次数
+     */
+    private final long sampleCount;
+
+    /**
+     * 触发延迟 P99
+     */
+    private final double lagP99Ms;
+
+    /**
+     * 触发延迟最大值
+     */
+    private final double lagMaxMs;
+
+}
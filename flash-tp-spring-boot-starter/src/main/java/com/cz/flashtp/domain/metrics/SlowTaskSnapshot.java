@@ -0,0 +1,40 @@
+package com.cz.flashtp.domain.metrics;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 慢任务快照
+ *
+ * @author Zjianru
+ */
+@Getter
+@AllArgsConstructor
+public class SlowTaskSnapshot {
+
+    /**
+     * 执行耗时阈值（毫秒）
+     */
+    private final long thresholdMs;
+
+    /**
+     * 累计执行超过阈值的任务数
+     */
+    private final long slowCount;
+
+    /**
+     * 执行超过阈值且仍在执行的任务数
+     */
+    private final int runningCount;
+
+    /**
+     * 仍在执行的慢任务中最长的已执行时间（毫秒）
+     */
+    private final long maxRunMs;
+
+    /**
+     * 最近的慢任务调用栈样本，没有样本时为 null
+     */
+    private final String stacks;
+
+}
@@ -0,0 +1,45 @@
+package com.cz.flashtp.domain.metrics;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 溢出层快照
+ *
+ * @author Zjianru
+ */
+@Getter
+@AllArgsConstructor
+public class SpillSnapshot {
+
+    /**
+     * 落盘等待回灌的任务数
+     */
+    private final long depth;
+
+    /**
+     * 尚未确认执行完成的任务占用的磁盘字节数（含已回灌到内存队列、尚未执行完成的任务）
+     */
+    private final long bytes;
+
+    /**
+     * 累计落盘任务数
+     */
+    private final long spilledCount;
+
+    /**
+     * 累计回灌任务数
+     */
+    private final long drainedCount;
+
+    /**
+     * 累计序列化或反序列化失败的任务数，序列化失败的任务交给拒绝策略，反序列化失败的任务丢弃
+     */
+    private final long failedCount;
+
+    /**
+     * 统计窗口内每秒回灌的任务数
+     */
+    private final double drainRate;
+
+}
@@ -0,0 +1,45 @@
+package com.cz.flashtp.domain.metrics;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 任务计数快照
+ *
+ * @author Zjianru
+ */
+@Getter
+@AllArgsConstructor
+public class TaskCountSnapshot {
+
+    /**
+     * 累计提交任务数（包含被拒绝的任务）
+     */
+    private final long submittedCount;
+
+    /**
+     * 累计执行完成任务数（包含执行异常的任务）
+     */
+    private final long completedCount;
+
+    /**
+     * 累计执行异常任务数
+     */
+    private final long failedCount;
+
+    /**
+     * 累计被拒绝任务数
+     */
+    private final long rejectedCount;
+
+    /**
+     * 统计窗口内每秒完成的任务数
+     */
+    private final double tps;
+
+    /**
+     * 统计窗口内被拒绝任务占提交任务的比例
+     */
+    private final double rejectionRate;
+
+}
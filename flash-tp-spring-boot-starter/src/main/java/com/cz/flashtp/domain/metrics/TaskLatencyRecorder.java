@@ -0,0 +1,92 @@
+package com.cz.flashtp.domain.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 任务耗时记录器
+ * 分别记录任务的排队耗时（提交 -> 开始执行）与执行耗时（开始执行 -> 执行结束）。
+ * <p>
+ * 分位值按滑动窗口计算：维护前后两个基线，每经过一个窗口周期轮换一次，
+ * 快照反映的是最近 [window, 2 * window) 时间内完成的任务，不受查询频率影响。
+ *
+ * @author Zjianru
+ */
+public class TaskLatencyRecorder {
+
+    /**
+     * 默认统计窗口，与上报周期一致
+     */
+    public static final long DEFAULT_WINDOW_MILLIS = 20_000L;
+
+    private final LatencyHistogram queueWait = new LatencyHistogram();
+    private final LatencyHistogram runTime = new LatencyHistogram();
+    private final long windowNanos;
+
+    /**
+     * 窗口基线，仅在 snapshot 中访问
+     */
+    private long[] queueWaitPrevious;
+    private long[] queueWaitCurrent;
+    private long[] runTimePrevious;
+    private long[] runTimeCurrent;
+    private long rolledAt = System.nanoTime();
+
+    public TaskLatencyRecorder() {
+        this(DEFAULT_WINDOW_MILLIS);
+    }
+
+    public TaskLatencyRecorder(long windowMillis) {
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+    }
+
+    /**
+     * 记录排队耗时
+     *
+     * @param nanos 耗时（纳秒）
+     */
+    public void recordQueueWait(long nanos) {
+        queueWait.record(nanos);
+    }
+
+    /**
+     * 记录执行耗时
+     *
+     * @param nanos 耗时（纳秒）
+     */
+    public void recordRunTime(long nanos) {
+        runTime.record(nanos);
+    }
+
+    /**
+     * 获取窗口内的耗时分位快照
+     *
+     * @return 耗时分位快照
+     */
+    public synchronized LatencySnapshot snapshot() {
+        long[] queueWaitNow = queueWait.snapshot();
+        long[] runTimeNow = runTime.snapshot();
+        long now = System.nanoTime();
+        if (now - rolledAt >= windowNanos) {
+            queueWaitPrevious = queueWaitCurrent;
+            runTimePrevious = runTimeCurrent;
+            queueWaitCurrent = queueWaitNow;
+            runTimeCurrent = runTimeNow;
+            rolledAt = now;
+        }
+        long[] queueWaitWindow = LatencyHistogram.delta(queueWaitNow, queueWaitPrevious);
+        long[] runTimeWindow = LatencyHistogram.delta(runTimeNow, runTimePrevious);
+        return new LatencySnapshot(
+                LatencyHistogram.totalCount(runTimeWindow),
+                toMillis(LatencyHistogram.valueAtPercentile(queueWaitWindow, 50)),
+                toMillis(LatencyHistogram.valueAtPercentile(queueWaitWindow, 99)),
+                toMillis(LatencyHistogram.valueAtPercentile(queueWaitWindow, 99.9)),
+                toMillis(LatencyHistogram.valueAtPercentile(runTimeWindow, 50)),
+                toMillis(LatencyHistogram.valueAtPercentile(runTimeWindow, 99)),
+                toMillis(LatencyHistogram.valueAtPercentile(runTimeWindow, 99.9)));
+    }
+
+    private static double toMillis(long micros) {
+        return micros / 1000.0;
+    }
+
+}
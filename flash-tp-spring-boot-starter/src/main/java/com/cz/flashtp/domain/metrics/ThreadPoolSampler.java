@@ -0,0 +1,119 @@
+package com.cz.flashtp.domain.metrics;
+
+import com.cz.flashtp.domain.adapter.ThreadPoolAdapter;
+import com.cz.flashtp.domain.adapter.ThreadPoolAdapters;
+import com.cz.flashtp.domain.entity.ThreadPoolConfig;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 线程池高频采样器
+ * 在独立的守护线程 {@code flash-tp-sampler} 上按 sampleInterval 采样全部线程池的活跃线程数、池中线程数与队列深度，
+ * 聚合到每个线程池的 {@link SampleWindow} 中；上报时取出窗口的最小值、最大值与平均值随快照一起上报，
+ * 上报周期之间持续数秒的突发也能在管理端看到，而注册中心的写入频率不变。
+ * <p>
+ * 托管线程池的活跃线程数与池中线程数读取计数器，不持有线程池 mainLock；普通线程池的这两个方法需要获取 mainLock，
+ * 采样间隔不宜过小。
+ *
+ * @author Zjianru
+ */
+@Slf4j
+public class ThreadPoolSampler {
+
+    /**
+     * 默认采样间隔（单位：毫秒）
+     */
+    public static final long DEFAULT_SAMPLE_INTERVAL = 100;
+
+    private volatile Map<String, ThreadPoolAdapter> threadPoolAdapterMap;
+    private final long sampleInterval;
+    private final Map<String, SampleWindow> windows = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * @param threadPoolExecutorMap 线程池的映射，键为线程池名称，值为线程池实例或 {@link ThreadPoolAdapter}
+     * @param sampleInterval        采样间隔（单位：毫秒），小于等于 0 时不启动采样，窗口只包含上报时的快照
+     */
+    public ThreadPoolSampler(Map<String, ?> threadPoolExecutorMap, long sampleInterval) {
+        this.threadPoolAdapterMap = ThreadPoolAdapters.adapt(threadPoolExecutorMap);
+        this.sampleInterval = sampleInterval;
+    }
+
+    /**
+     * 运行期注册线程池，同名时替换，下一次采样生效
+     *
+     * @param threadPoolName 线程池名称
+     * @param executor       线程池实例或 {@link ThreadPoolAdapter}
+     * @return 注册成功时为 true，线程池类型不受支持时为 false
+     */
+    public synchronized boolean register(String threadPoolName, Object executor) {
+        ThreadPoolAdapter adapter = ThreadPoolAdapters.adapt(executor);
+        if (null == adapter) return false;
+        Map<String, ThreadPoolAdapter> next = new LinkedHashMap<>(threadPoolAdapterMap);
+        next.put(threadPoolName, adapter);
+        threadPoolAdapterMap = Collections.unmodifiableMap(next);
+        return true;
+    }
+
+    public synchronized void start() {
+        if (null != scheduler || sampleInterval <= 0) return;
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "flash-tp-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(() -> {
+            try {
+                sample();
+            } catch (Exception e) {
+                log.error("[flash-tp]==> 线程池采样失败", e);
+            }
+        }, sampleInterval, sampleInterval, TimeUnit.MILLISECONDS);
+        log.info("[flash-tp]==> 线程池采样已启动 间隔:{}ms 线程池数:{}", sampleInterval, threadPoolAdapterMap.size());
+    }
+
+    public synchronized void stop() {
+        if (null == scheduler) return;
+        scheduler.shutdownNow();
+        scheduler = null;
+    }
+
+    /**
+     * 采样一次全部线程池
+     */
+    public void sample() {
+        for (Map.Entry<String, ThreadPoolAdapter> entry : threadPoolAdapterMap.entrySet()) {
+            ThreadPoolAdapter adapter = entry.getValue();
+            window(entry.getKey()).record(adapter.getActiveCount(), adapter.getPoolSize(), adapter.getQueueSize());
+        }
+    }
+
+    /**
+     * 将各线程池当前窗口的聚合值写入上报快照并开始新的窗口，快照本身的取值也计入窗口，
+     * 保证窗口最小值不大于、最大值不小于快照值。
+     *
+     * @param configs 本周期采集到的线程池快照
+     */
+    public void drainTo(List<ThreadPoolConfig> configs) {
+        for (ThreadPoolConfig config : configs) {
+            SampleWindow window = window(config.getThreadPoolName());
+            window.record(config.getActiveCount(), config.getPoolSize(), config.getQueueSize());
+            window.drainTo(config);
+        }
+        windows.keySet().retainAll(threadPoolAdapterMap.keySet());
+    }
+
+    private SampleWindow window(String threadPoolName) {
+        return windows.computeIfAbsent(threadPoolName, k -> new SampleWindow());
+    }
+
+}
@@ -0,0 +1,123 @@
+package com.cz.flashtp.domain.metrics;
+
+import com.cz.flashtp.domain.DynamicThreadPoolService;
+import com.cz.flashtp.domain.entity.ThreadPoolConfig;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+/**
+ * 线程池快照缓存
+ * 为 Micrometer 指标与 actuator 端点提供线程池快照，快照在 ttl 内复用：
+ * 一次抓取中同一线程池的多个指标只采集一次，抓取频率再高也不会放大对线程池的访问。
+ * <p>
+ * 快照过期后由第一个读取的线程刷新，刷新期间其他线程直接读取旧快照，不阻塞、不排队；
+ * 首次读取或调整线程池参数后的读取同步刷新，保证能看到最新的配置。
+ *
+ * @author Zjianru
+ */
+@Slf4j
+public class ThreadPoolSnapshotCache {
+
+    /**
+     * 默认快照有效期（单位：毫秒）
+     */
+    public static final long DEFAULT_TTL = 1000;
+
+    private final DynamicThreadPoolService dynamicThreadPoolService;
+    private final long ttlMillis;
+    private final LongSupplier clock;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    /**
+     * 当前快照，整体替换，读取无锁
+     */
+    private volatile Snapshot snapshot;
+
+    /**
+     * @param dynamicThreadPoolService 动态线程池服务，用于采集线程池快照
+     * @param ttlMillis                快照有效期（单位：毫秒），小于等于 0 时每次读取都重新采集
+     */
+    public ThreadPoolSnapshotCache(DynamicThreadPoolService dynamicThreadPoolService, long ttlMillis) {
+        this(dynamicThreadPoolService, ttlMillis, System::currentTimeMillis);
+    }
+
+    public ThreadPoolSnapshotCache(DynamicThreadPoolService dynamicThreadPoolService, long ttlMillis, LongSupplier clock) {
+        this.dynamicThreadPoolService = dynamicThreadPoolService;
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * 获取全部线程池快照
+     *
+     * @return 线程池快照，按线程池名称保持注册顺序，不可修改
+     */
+    public Collection<ThreadPoolConfig> all() {
+        return current().configs.values();
+    }
+
+    /**
+     * 获取指定线程池的快照
+     *
+     * @param threadPoolName 线程池名称
+     * @return 线程池快照，线程池不存在时为 null
+     */
+    public ThreadPoolConfig get(String threadPoolName) {
+        return current().configs.get(threadPoolName);
+    }
+
+    /**
+     * 使快照失效，下次读取时同步刷新，用于线程池参数调整之后
+     */
+    public void invalidate() {
+        snapshot = null;
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        long now = clock.getAsLong();
+        if (null != current && now - current.takenAt < ttlMillis) return current;
+        if (null != current && !refreshing.compareAndSet(false, true)) {
+            // 其他线程正在刷新，直接使用旧快照
+            return current;
+        }
+        try {
+            Snapshot refreshed = refresh(now);
+            snapshot = refreshed;
+            return refreshed;
+        } catch (RuntimeException e) {
+            if (null == current) throw e;
+            log.warn("[flash-tp]==> 刷新线程池快照失败，继续使用旧快照", e);
+            return current;
+        } finally {
+            if (null != current) refreshing.set(false);
+        }
+    }
+
+    private Snapshot refresh(long now) {
+        List<ThreadPoolConfig> configs = dynamicThreadPoolService.queryThreadPoolList();
+        Map<String, ThreadPoolConfig> byName = new LinkedHashMap<>(configs.size() * 2);
+        for (ThreadPoolConfig config : configs) {
+            byName.put(config.getThreadPoolName(), config);
+        }
+        return new Snapshot(now, Collections.unmodifiableMap(byName));
+    }
+
+    private static final class Snapshot {
+        private final long takenAt;
+        private final Map<String, ThreadPoolConfig> configs;
+
+        Snapshot(long takenAt, Map<String, ThreadPoolConfig> configs) {
+            this.takenAt = takenAt;
+            this.configs = configs;
+        }
+    }
+
+}
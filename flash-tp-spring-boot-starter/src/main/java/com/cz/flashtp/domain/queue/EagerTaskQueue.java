@@ -0,0 +1,83 @@
+package com.cz.flashtp.domain.queue;
+
+import com.cz.flashtp.domain.executor.EagerThreadPoolExecutor;
+
+/**
+ * 优先创建线程的任务队列
+ * 标准 {@link java.util.concurrent.ThreadPoolExecutor} 只有在队列已满时才会创建核心线程以外的线程，
+ * 对 I/O 密集型线程池意味着大量任务排队而线程数始终停留在核心线程数。
+ * 该队列与 {@link EagerThreadPoolExecutor} 配合使用，{@link #offer(Object)} 在线程数未达到最大线程数且没有空闲线程时返回 false，
+ * 使线程池先创建新线程；线程数达到最大线程数后才真正入队，队列满后按拒绝策略处理。
+ * <p>
+ * 继承 {@link ResizableCapacityLinkedBlockingQueue}，队列容量同样可以在运行期调整。
+ * 未绑定线程池时行为与父类一致。
+ *
+ * @param <E> 元素类型
+ * @author Zjianru
+ */
+public class EagerTaskQueue<E> extends ResizableCapacityLinkedBlockingQueue<E> {
+
+    /**
+     * 绑定的线程池，由 {@link EagerThreadPoolExecutor} 构造时设置
+     */
+    private volatile EagerThreadPoolExecutor executor;
+
+    /**
+     * 创建容量为 {@link Integer#MAX_VALUE} 的队列
+     */
+    public EagerTaskQueue() {
+        super();
+    }
+
+    /**
+     * 创建指定容量的队列
+     *
+     * @param capacity 队列容量，必须大于 0
+     */
+    public EagerTaskQueue(int capacity) {
+        super(capacity);
+    }
+
+    /**
+     * 绑定线程池，一个队列只能绑定一个线程池
+     *
+     * @param executor 线程池
+     */
+    public void bind(EagerThreadPoolExecutor executor) {
+        if (null != this.executor && this.executor != executor) {
+            throw new IllegalStateException("EagerTaskQueue is already bound to another executor");
+        }
+        this.executor = executor;
+    }
+
+    /**
+     * 入队，线程数未达到最大线程数且没有空闲线程时返回 false，交给线程池创建新线程。
+     * 线程池 execute 只在核心线程已满后才调用该方法。
+     *
+     * @param e 任务
+     * @return 是否入队
+     */
+    @Override
+    public boolean offer(E e) {
+        EagerThreadPoolExecutor executor = this.executor;
+        if (null == executor) return super.offer(e);
+        int poolSize = executor.getPoolSize();
+        // 已达到最大线程数，只能排队
+        if (poolSize >= executor.getMaximumPoolSize()) return super.offer(e);
+        // 有空闲线程（已提交未完成的任务数小于线程数），排队即可被立即取走
+        if (executor.getSubmittedCount() < poolSize) return super.offer(e);
+        // 先创建线程
+        return false;
+    }
+
+    /**
+     * 跳过创建线程的判断直接入队，用于线程池创建线程失败（并发下已达到最大线程数）后的补救，仍受队列容量约束
+     *
+     * @param e 任务
+     * @return 是否入队
+     */
+    public boolean force(E e) {
+        return super.offer(e);
+    }
+
+}
@@ -0,0 +1,523 @@
+package com.cz.flashtp.domain.queue;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 可动态调整容量的阻塞队列
+ * 结构与 {@link java.util.concurrent.LinkedBlockingQueue} 一致，采用 putLock / takeLock 双锁，生产者与消费者互不阻塞。
+ * 区别在于容量 {@code capacity} 可通过 {@link #setCapacity(int)} 在运行期修改：
+ * <ul>
+ *     <li>扩容：立即唤醒所有因队列已满而阻塞的生产者</li>
+ *     <li>缩容：已入队的任务不会被丢弃，队列深度可暂时大于新容量，此时新的入队请求失败（offer）或阻塞（put），直到消费者将深度降到新容量以下</li>
+ * </ul>
+ * 迭代器基于调用时刻的快照，不会抛出 {@link java.util.ConcurrentModificationException}。
+ *
+ * @param <E> 元素类型
+ * @author Zjianru
+ */
+public class ResizableCapacityLinkedBlockingQueue<E> extends AbstractQueue<E> implements BlockingQueue<E> {
+
+    /**
+     * 链表节点
+     */
+    static class Node<E> {
+        E item;
+        Node<E> next;
+
+        Node(E item) {
+            this.item = item;
+        }
+    }
+
+    /**
+     * 队列容量，运行期可调整
+     */
+    private volatile int capacity;
+
+    /**
+     * 当前元素数量
+     */
+    private final AtomicInteger count = new AtomicInteger();
+
+    /**
+     * 头节点，head.item 恒为 null
+     */
+    private Node<E> head;
+
+    /**
+     * 尾节点，last.next 恒为 null
+     */
+    private Node<E> last;
+
+    /**
+     * 出队锁，take / poll 等方法持有
+     */
+    private final ReentrantLock takeLock = new ReentrantLock();
+
+    /**
+     * 队列非空条件
+     */
+    private final Condition notEmpty = takeLock.newCondition();
+
+    /**
+     * 入队锁，put / offer 等方法持有
+     */
+    private final ReentrantLock putLock = new ReentrantLock();
+
+    /**
+     * 队列未满条件
+     */
+    private final Condition notFull = putLock.newCondition();
+
+    /**
+     * 创建容量为 {@link Integer#MAX_VALUE} 的队列
+     */
+    public ResizableCapacityLinkedBlockingQueue() {
+        this(Integer.MAX_VALUE);
+    }
+
+    /**
+     * 创建指定容量的队列
+     *
+     * @param capacity 队列容量，必须大于 0
+     */
+    public ResizableCapacityLinkedBlockingQueue(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        this.capacity = capacity;
+        last = head = new Node<>(null);
+    }
+
+    /**
+     * 获取当前队列容量
+     *
+     * @return 队列容量
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * 调整队列容量，生产者与消费者无需停止。
+     * 持有 putLock 完成修改，保证与所有入队操作之间的原子性；若调整后仍有剩余空间，唤醒全部等待中的生产者。
+     *
+     * @param newCapacity 新的队列容量，必须大于 0
+     */
+    public void setCapacity(int newCapacity) {
+        if (newCapacity <= 0) throw new IllegalArgumentException("capacity must be positive: " + newCapacity);
+        final ReentrantLock putLock = this.putLock;
+        putLock.lock();
+        try {
+            this.capacity = newCapacity;
+            // 与出队线程的 "先减 count 再读 capacity" 构成对称，二者至少有一方能观察到对方的写入，不会丢失唤醒
+            if (count.get() < newCapacity) notFull.signalAll();
+        } finally {
+            putLock.unlock();
+        }
+    }
+
+    /**
+     * 唤醒等待中的消费者，仅由 put / offer 调用
+     */
+    private void signalNotEmpty() {
+        final ReentrantLock takeLock = this.takeLock;
+        takeLock.lock();
+        try {
+            notEmpty.signal();
+        } finally {
+            takeLock.unlock();
+        }
+    }
+
+    /**
+     * 唤醒等待中的生产者，仅由 take / poll 调用
+     */
+    private void signalNotFull() {
+        final ReentrantLock putLock = this.putLock;
+        putLock.lock();
+        try {
+            notFull.signal();
+        } finally {
+            putLock.unlock();
+        }
+    }
+
+    /**
+     * 出队后是否从 "已满" 变为 "未满"。缩容后深度可能大于容量，因此不能像 LinkedBlockingQueue 一样只判断相等。
+     *
+     * @param before  出队前的元素数量
+     * @param removed 本次出队的元素数量
+     * @return 是否需要唤醒生产者
+     */
+    private boolean becameNotFull(int before, int removed) {
+        int cap = capacity;
+        return before >= cap && before - removed < cap;
+    }
+
+    private void enqueue(Node<E> node) {
+        last = last.next = node;
+    }
+
+    private E dequeue() {
+        Node<E> h = head;
+        Node<E> first = h.next;
+        // help GC
+        h.next = h;
+        head = first;
+        E x = first.item;
+        first.item = null;
+        return x;
+    }
+
+    private void fullyLock() {
+        putLock.lock();
+        takeLock.lock();
+    }
+
+    private void fullyUnlock() {
+        takeLock.unlock();
+        putLock.unlock();
+    }
+
+    @Override
+    public int size() {
+        return count.get();
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return Math.max(0, capacity - count.get());
+    }
+
+    @Override
+    public void put(E e) throws InterruptedException {
+        Objects.requireNonNull(e);
+        final int c;
+        final Node<E> node = new Node<>(e);
+        final ReentrantLock putLock = this.putLock;
+        final AtomicInteger count = this.count;
+        putLock.lockInterruptibly();
+        try {
+            while (count.get() >= capacity) {
+                notFull.await();
+            }
+            enqueue(node);
+            c = count.getAndIncrement();
+            if (c + 1 < capacity) notFull.signal();
+        } finally {
+            putLock.unlock();
+        }
+        if (c == 0) signalNotEmpty();
+    }
+
+    @Override
+    public boolean offer(E e, long timeout, TimeUnit unit) throws InterruptedException {
+        Objects.requireNonNull(e);
+        long nanos = unit.toNanos(timeout);
+        final int c;
+        final ReentrantLock putLock = this.putLock;
+        final AtomicInteger count = this.count;
+        putLock.lockInterruptibly();
+        try {
+            while (count.get() >= capacity) {
+                if (nanos <= 0L) return false;
+                nanos = notFull.awaitNanos(nanos);
+            }
+            enqueue(new Node<>(e));
+            c = count.getAndIncrement();
+            if (c + 1 < capacity) notFull.signal();
+        } finally {
+            putLock.unlock();
+        }
+        if (c == 0) signalNotEmpty();
+        return true;
+    }
+
+    @Override
+    public boolean offer(E e) {
+        Objects.requireNonNull(e);
+        final AtomicInteger count = this.count;
+        if (count.get() >= capacity) return false;
+        final int c;
+        final Node<E> node = new Node<>(e);
+        final ReentrantLock putLock = this.putLock;
+        putLock.lock();
+        try {
+            if (count.get() >= capacity) return false;
+            enqueue(node);
+            c = count.getAndIncrement();
+            if (c + 1 < capacity) notFull.signal();
+        } finally {
+            putLock.unlock();
+        }
+        if (c == 0) signalNotEmpty();
+        return true;
+    }
+
+    @Override
+    public E take() throws InterruptedException {
+        final E x;
+        final int c;
+        final AtomicInteger count = this.count;
+        final ReentrantLock takeLock = this.takeLock;
+        takeLock.lockInterruptibly();
+        try {
+            while (count.get() == 0) {
+                notEmpty.await();
+            }
+            x = dequeue();
+            c = count.getAndDecrement();
+            if (c > 1) notEmpty.signal();
+        } finally {
+            takeLock.unlock();
+        }
+        if (becameNotFull(c, 1)) signalNotFull();
+        return x;
+    }
+
+    @Override
+    public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+        final E x;
+        final int c;
+        long nanos = unit.toNanos(timeout);
+        final AtomicInteger count = this.count;
+        final ReentrantLock takeLock = this.takeLock;
+        takeLock.lockInterruptibly();
+        try {
+            while (count.get() == 0) {
+                if (nanos <= 0L) return null;
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            x = dequeue();
+            c = count.getAndDecrement();
+            if (c > 1) notEmpty.signal();
+        } finally {
+            takeLock.unlock();
+        }
+        if (becameNotFull(c, 1)) signalNotFull();
+        return x;
+    }
+
+    @Override
+    public E poll() {
+        final AtomicInteger count = this.count;
+        if (count.get() == 0) return null;
+        final E x;
+        final int c;
+        final ReentrantLock takeLock = this.takeLock;
+        takeLock.lock();
+        try {
+            if (count.get() == 0) return null;
+            x = dequeue();
+            c = count.getAndDecrement();
+            if (c > 1) notEmpty.signal();
+        } finally {
+            takeLock.unlock();
+        }
+        if (becameNotFull(c, 1)) signalNotFull();
+        return x;
+    }
+
+    @Override
+    public E peek() {
+        if (count.get() == 0) return null;
+        final ReentrantLock takeLock = this.takeLock;
+        takeLock.lock();
+        try {
+            Node<E> first = head.next;
+            return first == null ? null : first.item;
+        } finally {
+            takeLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (o == null) return false;
+        fullyLock();
+        try {
+            for (Node<E> pred = head, p = pred.next; p != null; pred = p, p = p.next) {
+                if (o.equals(p.item)) {
+                    unlink(p, pred);
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            fullyUnlock();
+        }
+    }
+
+    /**
+     * 摘除节点 p，调用方需持有全部锁
+     */
+    private void unlink(Node<E> p, Node<E> pred) {
+        p.item = null;
+        pred.next = p.next;
+        if (last == p) last = pred;
+        int c = count.getAndDecrement();
+        if (becameNotFull(c, 1)) notFull.signal();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (o == null) return false;
+        fullyLock();
+        try {
+            for (Node<E> p = head.next; p != null; p = p.next) {
+                if (o.equals(p.item)) return true;
+            }
+            return false;
+        } finally {
+            fullyUnlock();
+        }
+    }
+
+    @Override
+    public Object[] toArray() {
+        fullyLock();
+        try {
+            Object[] a = new Object[count.get()];
+            int k = 0;
+            for (Node<E> p = head.next; p != null; p = p.next) {
+                a[k++] = p.item;
+            }
+            return a;
+        } finally {
+            fullyUnlock();
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T[] toArray(T[] a) {
+        fullyLock();
+        try {
+            int size = count.get();
+            if (a.length < size) {
+                a = (T[]) java.lang.reflect.Array.newInstance(a.getClass().getComponentType(), size);
+            }
+            int k = 0;
+            for (Node<E> p = head.next; p != null; p = p.next) {
+                a[k++] = (T) p.item;
+            }
+            if (a.length > k) a[k] = null;
+            return a;
+        } finally {
+            fullyUnlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        fullyLock();
+        try {
+            for (Node<E> p, h = head; (p = h.next) != null; h = p) {
+                h.next = h;
+                p.item = null;
+            }
+            head = last;
+            int c = count.getAndSet(0);
+            if (becameNotFull(c, c)) notFull.signalAll();
+        } finally {
+            fullyUnlock();
+        }
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> c, int maxElements) {
+        Objects.requireNonNull(c);
+        if (c == this) throw new IllegalArgumentException();
+        if (maxElements <= 0) return 0;
+        boolean signalNotFull = false;
+        final ReentrantLock takeLock = this.takeLock;
+        takeLock.lock();
+        try {
+            int n = Math.min(maxElements, count.get());
+            int i = 0;
+            try {
+                while (i < n) {
+                    c.add(dequeue());
+                    i++;
+                }
+                return n;
+            } finally {
+                // 即使 c.add 抛出异常，也要保持 count 与链表一致
+                if (i > 0) {
+                    int before = count.getAndAdd(-i);
+                    signalNotFull = becameNotFull(before, i);
+                }
+            }
+        } finally {
+            takeLock.unlock();
+            if (signalNotFull) signalNotFull();
+        }
+    }
+
+    /**
+     * 返回基于当前快照的迭代器。
+     * {@link Iterator#remove()} 会按 equals 语义从队列中移除对应元素，供 ThreadPoolExecutor#purge 等场景使用。
+     *
+     * @return 快照迭代器
+     */
+    @Override
+    public Iterator<E> iterator() {
+        List<E> snapshot = new ArrayList<>(count.get());
+        fullyLock();
+        try {
+            for (Node<E> p = head.next; p != null; p = p.next) {
+                snapshot.add(p.item);
+            }
+        } finally {
+            fullyUnlock();
+        }
+        return new SnapshotIterator(snapshot);
+    }
+
+    /**
+     * 快照迭代器
+     */
+    private class SnapshotIterator implements Iterator<E> {
+        private final List<E> snapshot;
+        private int cursor;
+        private E lastRet;
+
+        SnapshotIterator(List<E> snapshot) {
+            this.snapshot = snapshot;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return cursor < snapshot.size();
+        }
+
+        @Override
+        public E next() {
+            if (cursor >= snapshot.size()) throw new NoSuchElementException();
+            return lastRet = snapshot.get(cursor++);
+        }
+
+        @Override
+        public void remove() {
+            if (lastRet == null) throw new IllegalStateException();
+            ResizableCapacityLinkedBlockingQueue.this.remove(lastRet);
+            lastRet = null;
+        }
+    }
+
+}
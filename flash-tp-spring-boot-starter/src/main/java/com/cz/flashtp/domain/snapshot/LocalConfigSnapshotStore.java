@@ -0,0 +1,226 @@
+package com.cz.flashtp.domain.snapshot;
+
+import com.cz.flashtp.domain.entity.ThreadPoolConfig;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.zip.CRC32;
+
+/**
+ * 线程池配置本地快照
+ * 将最近一次生效的线程池参数（核心线程数、最大线程数、队列容量）保存在本地磁盘，
+ * 启动时无需等待 Redis 即可恢复调优后的线程池参数。
+ * <p>
+ * 文件格式（大端序）：
+ * <pre>
+ * magic(int) | version(short) | appName(UTF) | count(int) | [threadPoolName(UTF) | core(int) | max(int) | queueCapacity(int)] * count | crc32(long)
+ * </pre>
+ * 写入时先写同目录临时文件并刷盘，再以原子移动替换正式文件，进程崩溃不会留下半个文件；
+ * 读取时校验魔数、版本、应用名称与 CRC，任何一项不符都视为无快照。
+ *
+ * @author Zjianru
+ */
+@Slf4j
+public class LocalConfigSnapshotStore {
+
+    /**
+     * 文件魔数 "FTPS"
+     */
+    static final int MAGIC = 0x46545053;
+
+    /**
+     * 文件格式版本
+     */
+    static final short VERSION = 1;
+
+    private final Path file;
+    private final String applicationName;
+
+    /**
+     * 已写入文件的线程池参数，键为线程池名称
+     */
+    private final Map<String, ThreadPoolConfig> persisted = new LinkedHashMap<>();
+
+    /**
+     * @param directory       快照目录
+     * @param applicationName 应用名称，同一目录下不同应用的快照互不影响
+     */
+    public LocalConfigSnapshotStore(Path directory, String applicationName) {
+        this.file = directory.resolve(applicationName.replaceAll("[^A-Za-z0-9._-]", "_") + ".snapshot");
+        this.applicationName = applicationName;
+    }
+
+    /**
+     * 读取快照，文件不存在或校验失败时返回空列表
+     *
+     * @return 线程池参数列表
+     */
+    public synchronized List<ThreadPoolConfig> load() {
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(file);
+        } catch (NoSuchFileException e) {
+            return Collections.emptyList();
+        } catch (IOException e) {
+            log.warn("[flash-tp]==> 读取线程池配置本地快照失败 file:{}", file, e);
+            return Collections.emptyList();
+        }
+        List<ThreadPoolConfig> configs = decode(bytes, applicationName);
+        if (null == configs) {
+            log.warn("[flash-tp]==> 线程池配置本地快照校验失败，忽略该快照 file:{}", file);
+            return Collections.emptyList();
+        }
+        persisted.clear();
+        for (ThreadPoolConfig config : configs) {
+            persisted.put(config.getThreadPoolName(), config);
+        }
+        return configs;
+    }
+
+    /**
+     * 记录一个线程池最新生效的参数，与已保存的参数一致时不写文件。
+     * 写入失败只记录日志，不影响线程池调整。
+     *
+     * @param threadPoolName  线程池名称
+     * @param corePoolSize    核心线程数
+     * @param maximumPoolSize 最大线程数
+     * @param queueCapacity   队列容量，队列不支持调整时为 0
+     */
+    public synchronized void save(String threadPoolName, int corePoolSize, int maximumPoolSize, int queueCapacity) {
+        saveAll(Collections.singletonList(ThreadPoolConfig.builder()
+                .threadPoolName(threadPoolName)
+                .corePoolSize(corePoolSize)
+                .maximumPoolSize(maximumPoolSize)
+                .queueCapacity(queueCapacity)
+                .build()));
+    }
+
+    /**
+     * 记录多个线程池最新生效的参数，只写一次文件；全部与已保存的参数一致时不写文件。
+     * 写入失败只记录日志，不影响线程池调整。
+     *
+     * @param configs 线程池参数，只使用线程池名称、核心线程数、最大线程数与队列容量（队列不支持调整时为 0）
+     */
+    public synchronized void saveAll(List<ThreadPoolConfig> configs) {
+        Map<String, ThreadPoolConfig> next = null;
+        for (ThreadPoolConfig entry : configs) {
+            ThreadPoolConfig current = persisted.get(entry.getThreadPoolName());
+            if (null != current
+                    && current.getCorePoolSize() == entry.getCorePoolSize()
+                    && current.getMaximumPoolSize() == entry.getMaximumPoolSize()
+                    && current.getQueueCapacity() == entry.getQueueCapacity()) continue;
+            if (null == next) next = new LinkedHashMap<>(persisted);
+            next.put(entry.getThreadPoolName(), ThreadPoolConfig.builder()
+                    .appName(applicationName)
+                    .threadPoolName(entry.getThreadPoolName())
+                    .corePoolSize(entry.getCorePoolSize())
+                    .maximumPoolSize(entry.getMaximumPoolSize())
+                    .queueCapacity(entry.getQueueCapacity())
+                    .build());
+        }
+        if (null == next) return;
+        try {
+            write(encode(applicationName, next.values()));
+            persisted.clear();
+            persisted.putAll(next);
+        } catch (IOException e) {
+            log.warn("[flash-tp]==> 写入线程池配置本地快照失败 file:{}", file, e);
+        }
+    }
+
+    /**
+     * 先写临时文件并刷盘，再原子替换正式文件
+     */
+    private void write(byte[] bytes) throws IOException {
+        Files.createDirectories(file.getParent());
+        Path tmp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.wrap(bytes);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            try {
+                Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    static byte[] encode(String applicationName, Iterable<ThreadPoolConfig> configs) throws IOException {
+        List<ThreadPoolConfig> entries = new ArrayList<>();
+        configs.forEach(entries::add);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + entries.size() * 48);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeUTF(applicationName);
+        out.writeInt(entries.size());
+        for (ThreadPoolConfig config : entries) {
+            out.writeUTF(config.getThreadPoolName());
+            out.writeInt(config.getCorePoolSize());
+            out.writeInt(config.getMaximumPoolSize());
+            out.writeInt(config.getQueueCapacity());
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+        out.writeLong(crc.getValue());
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * 解码快照，校验失败返回 null
+     */
+    static List<ThreadPoolConfig> decode(byte[] bytes, String applicationName) {
+        if (bytes.length < Long.BYTES) return null;
+        int bodyLength = bytes.length - Long.BYTES;
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bodyLength);
+        if (crc.getValue() != ByteBuffer.wrap(bytes, bodyLength, Long.BYTES).getLong()) return null;
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 0, bodyLength));
+            if (in.readInt() != MAGIC || in.readShort() != VERSION) return null;
+            if (!Objects.equals(applicationName, in.readUTF())) return null;
+            int count = in.readInt();
+            if (count < 0) return null;
+            List<ThreadPoolConfig> configs = new ArrayList<>(Math.min(count, 1024));
+            for (int i = 0; i < count; i++) {
+                configs.add(ThreadPoolConfig.builder()
+                        .appName(applicationName)
+                        .threadPoolName(in.readUTF())
+                        .corePoolSize(in.readInt())
+                        .maximumPoolSize(in.readInt())
+                        .queueCapacity(in.readInt())
+                        .build());
+            }
+            return in.available() == 0 ? configs : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,447 @@
+package com.cz.flashtp.domain.spill;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * 内存映射的追加写分段日志
+ * 日志由若干固定大小的分段文件组成，文件名为递增的分段序号，每个分段整体映射到内存，写满后切换到下一个分段。
+ * <p>
+ * 记录格式（大端序，按 4 字节对齐）：
+ * <pre>
+ * length(int) | crc32(int) | payload(length bytes)
+ * </pre>
+ * 分段创建时全部为 0，length 为 0 表示分段中已写入的数据到此为止。追加时先写 payload 与 crc，最后写 length 作为提交标记；
+ * 记录被确认消费后 length 改写为负数，消费标记同样写在映射内存中，不需要单独的检查点文件。
+ * 分段中的记录全部确认且读取位置已越过该分段时删除分段文件。
+ * <p>
+ * 崩溃恢复：打开时按序号扫描全部分段，length 为正且 CRC 校验通过的记录视为未消费，重新进入待读取状态；
+ * 最后一个分段中第一条 length 越界或 CRC 不符的记录视为写入一半的尾部，从该位置截断，之后的追加覆盖写入。
+ * 因此已读取但尚未确认的记录在崩溃后会重放一次（至少一次）。
+ * 进程崩溃（如 kill -9、OOM）时映射内存中的数据由操作系统写回，不会丢失；掉电或内核崩溃只保证切换分段与关闭时刷盘之前的记录。
+ * <p>
+ * 追加与读取都在同一把锁内完成，只在内存队列已满的慢路径上使用。
+ *
+ * @author Zjianru
+ */
+@Slf4j
+public class SpillSegmentLog implements Closeable {
+
+    /**
+     * 记录头：length + crc32
+     */
+    static final int HEADER_SIZE = 8;
+
+    /**
+     * 分段文件后缀
+     */
+    static final String SEGMENT_SUFFIX = ".spill";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final long maxBytes;
+
+    /**
+     * 仍在磁盘上的分段，按序号递增，队首为读取分段，队尾为写入分段
+     */
+    private final Deque<Segment> segments = new ArrayDeque<>();
+
+    private Segment readSegment;
+    private int readPosition;
+    private int writePosition;
+
+    /**
+     * 待读取的记录数，只在锁内修改，可在锁外读取
+     */
+    private volatile long depth;
+
+    /**
+     * 已读取尚未确认的记录数
+     */
+    private long inFlight;
+
+    /**
+     * 未确认记录（待读取 + 已读取未确认）占用的字节数，含记录头与对齐
+     */
+    private long bytes;
+
+    private boolean closed;
+
+    /**
+     * 打开日志目录，恢复上次未消费的记录
+     *
+     * @param directory   日志目录，不存在时创建
+     * @param segmentSize 分段大小（字节），已存在的分段保持原有大小
+     * @param maxBytes    未确认记录占用字节数的上限，超过时拒绝追加
+     */
+    public SpillSegmentLog(Path directory, int segmentSize, long maxBytes) {
+        if (segmentSize <= HEADER_SIZE || maxBytes <= 0) {
+            throw new IllegalArgumentException("segmentSize " + segmentSize + ", maxBytes " + maxBytes);
+        }
+        this.directory = directory;
+        this.segmentSize = align(segmentSize);
+        this.maxBytes = maxBytes;
+        try {
+            Files.createDirectories(directory);
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("open spill log failed: " + directory, e);
+        }
+    }
+
+    /**
+     * 追加一条记录
+     *
+     * @param payload 记录内容
+     * @return 是否写入成功；日志已关闭、记录大于分段、超过字节上限或磁盘写入失败时为 false
+     */
+    public synchronized boolean append(byte[] payload) {
+        if (closed) return false;
+        int recordSize = align(HEADER_SIZE + payload.length);
+        if (recordSize > segmentSize || bytes + recordSize > maxBytes) return false;
+        Segment segment = segments.peekLast();
+        if (null == segment || writePosition + recordSize > segment.capacity()) {
+            try {
+                segment = roll();
+            } catch (IOException e) {
+                log.warn("[flash-tp]==> 溢出日志创建分段失败 directory:{}", directory, e);
+                return false;
+            }
+        }
+        MappedByteBuffer buffer = segment.buffer;
+        buffer.put(writePosition + HEADER_SIZE, payload);
+        buffer.putInt(writePosition + 4, crc(payload));
+        // 最后写入 length，作为记录的提交标记
+        buffer.putInt(writePosition, payload.length);
+        segment.unacked++;
+        writePosition += recordSize;
+        depth++;
+        bytes += recordSize;
+        return true;
+    }
+
+    /**
+     * 按追加顺序读取下一条记录，读取后需调用 {@link #ack(Record)} 确认，未确认的记录在重新打开日志时重放
+     *
+     * @return 记录，没有待读取的记录时为 null
+     */
+    public synchronized Record poll() {
+        while (!closed && depth > 0) {
+            Segment segment = readSegment;
+            MappedByteBuffer buffer = segment.buffer;
+            int length = readPosition + HEADER_SIZE <= segment.capacity() ? buffer.getInt(readPosition) : 0;
+            if (length > 0) {
+                byte[] payload = new byte[length];
+                buffer.get(readPosition + HEADER_SIZE, payload);
+                Record record = new Record(segment, readPosition, payload);
+                readPosition += align(HEADER_SIZE + length);
+                depth--;
+                inFlight++;
+                return record;
+            }
+            if (length < 0) {
+                readPosition += align(HEADER_SIZE - length);
+                continue;
+            }
+            // 分段读完，切换到下一个分段
+            Segment next = nextSegment(segment);
+            if (null == next) return null;
+            readSegment = next;
+            readPosition = 0;
+            deleteIfDone(segment);
+        }
+        return null;
+    }
+
+    /**
+     * 确认记录已消费，重复确认无副作用
+     *
+     * @param record 已读取的记录
+     */
+    public synchronized void ack(Record record) {
+        Segment segment = record.segment;
+        if (closed || segment.deleted || segment.buffer.getInt(record.position) <= 0) return;
+        segment.buffer.putInt(record.position, -record.payload.length);
+        segment.unacked--;
+        inFlight--;
+        bytes -= align(HEADER_SIZE + record.payload.length);
+        deleteIfDone(segment);
+    }
+
+    /**
+     * 待读取的记录数，不加锁，供工作线程快速判断是否需要回灌
+     */
+    public long depth() {
+        return depth;
+    }
+
+    /**
+     * 已读取尚未确认的记录数
+     */
+    public synchronized long inFlight() {
+        return inFlight;
+    }
+
+    /**
+     * 未确认记录占用的字节数
+     */
+    public synchronized long bytes() {
+        return bytes;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * 刷盘并关闭日志，未确认的记录保留在磁盘上，下次打开时重放
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) return;
+        closed = true;
+        for (Segment segment : segments) {
+            segment.buffer.force();
+        }
+        segments.clear();
+        readSegment = null;
+    }
+
+    /**
+     * 扫描已有分段，恢复读取位置、写入位置与未确认记录
+     */
+    private void recover() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            for (Path file : stream) {
+                if (null != parseIndex(file)) files.add(file);
+            }
+        }
+        files.sort((a, b) -> Long.compare(parseIndex(a), parseIndex(b)));
+        for (Path file : files) {
+            segments.addLast(map(file, parseIndex(file), Math.max(Files.size(file), 1L)));
+        }
+        Segment last = segments.peekLast();
+        for (Segment segment : new ArrayList<>(segments)) {
+            int position = scan(segment, segment == last);
+            if (segment == last) writePosition = position;
+        }
+        // 读取位置为第一条未消费的记录，没有时为写入位置
+        readSegment = segments.peekFirst();
+        readPosition = 0;
+        for (Segment segment : segments) {
+            readSegment = segment;
+            if (segment.unacked > 0) break;
+        }
+        if (null != readSegment && readSegment.unacked == 0) readPosition = readSegment == last ? writePosition : 0;
+        else if (null != readSegment) readPosition = firstUnacked(readSegment);
+        // 已全部消费的历史分段直接删除
+        for (Segment segment : new ArrayList<>(segments)) {
+            if (segment != readSegment && segment != last && segment.unacked == 0) delete(segment);
+        }
+        if (depth > 0) {
+            log.info("[flash-tp]==> 溢出日志恢复未消费的任务 directory:{} 任务数:{} 字节数:{}", directory, depth, bytes);
+        }
+    }
+
+    /**
+     * 扫描分段中的记录，统计未消费的记录
+     *
+     * @param segment 分段
+     * @param last    是否为最后一个分段，是则截断写入一半的尾部
+     * @return 已写入数据的结束位置
+     */
+    private int scan(Segment segment, boolean last) {
+        MappedByteBuffer buffer = segment.buffer;
+        int capacity = segment.capacity();
+        int position = 0;
+        while (position + HEADER_SIZE <= capacity) {
+            int length = buffer.getInt(position);
+            if (length == 0) break;
+            int payloadLength = length > 0 ? length : -length;
+            if (payloadLength < 0 || payloadLength > capacity - position - HEADER_SIZE) {
+                truncate(segment, position, last);
+                break;
+            }
+            int recordSize = align(HEADER_SIZE + payloadLength);
+            if (length > 0) {
+                byte[] payload = new byte[payloadLength];
+                buffer.get(position + HEADER_SIZE, payload);
+                if (crc(payload) != buffer.getInt(position + 4)) {
+                    truncate(segment, position, last);
+                    break;
+                }
+                segment.unacked++;
+                depth++;
+                bytes += recordSize;
+            }
+            position += recordSize;
+        }
+        return position;
+    }
+
+    /**
+     * 从指定位置起清零，读取到该位置时视为分段结束
+     */
+    private void truncate(Segment segment, int position, boolean last) {
+        if (last) {
+            log.warn("[flash-tp]==> 溢出日志尾部记录不完整，截断 file:{} position:{}", segment.file, position);
+        } else {
+            // 只有最后一个分段在写入，历史分段损坏只能放弃剩余部分
+            log.warn("[flash-tp]==> 溢出日志分段损坏，忽略剩余记录 file:{} position:{}", segment.file, position);
+        }
+        MappedByteBuffer buffer = segment.buffer;
+        for (int i = position; i < segment.capacity(); i++) {
+            buffer.put(i, (byte) 0);
+        }
+    }
+
+    private int firstUnacked(Segment segment) {
+        int position = 0;
+        while (position + HEADER_SIZE <= segment.capacity()) {
+            int length = segment.buffer.getInt(position);
+            if (length >= 0) return position;
+            position += align(HEADER_SIZE - length);
+        }
+        return position;
+    }
+
+    private Segment roll() throws IOException {
+        Segment last = segments.peekLast();
+        if (null != last) last.buffer.force();
+        long index = null == last ? 0L : last.index + 1;
+        Segment segment = map(directory.resolve(String.format("%020d%s", index, SEGMENT_SUFFIX)), index, segmentSize);
+        segments.addLast(segment);
+        writePosition = 0;
+        if (null == readSegment) {
+            readSegment = segment;
+            readPosition = 0;
+        }
+        return segment;
+    }
+
+    private Segment nextSegment(Segment segment) {
+        boolean found = false;
+        for (Segment candidate : segments) {
+            if (found) return candidate;
+            found = candidate == segment;
+        }
+        return null;
+    }
+
+    /**
+     * 读取位置已越过且记录全部确认的分段删除文件
+     */
+    private void deleteIfDone(Segment segment) {
+        if (segment.unacked > 0 || segment == readSegment || segment == segments.peekLast()) return;
+        delete(segment);
+    }
+
+    private void delete(Segment segment) {
+        segments.remove(segment);
+        segment.deleted = true;
+        try {
+            Files.deleteIfExists(segment.file);
+        } catch (IOException e) {
+            log.warn("[flash-tp]==> 溢出日志删除分段失败 file:{}", segment.file, e);
+        }
+    }
+
+    private static Segment map(Path file, long index, long size) throws IOException {
+        // 映射建立后即可关闭通道，映射在缓冲区被回收前一直有效；READ_WRITE 映射超出文件大小时会扩展文件并以 0 填充
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return new Segment(file, index, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        }
+    }
+
+    private static Long parseIndex(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static int crc(byte[] payload) {
+        CRC32 crc32 = new CRC32();
+        crc32.update(payload);
+        return (int) crc32.getValue();
+    }
+
+    private static int align(int size) {
+        return (size + 3) & ~3;
+    }
+
+    /**
+     * 分段文件列表，测试用
+     */
+    synchronized List<Path> segmentFiles() {
+        List<Path> files = new ArrayList<>();
+        for (Segment segment : segments) {
+            files.add(segment.file);
+        }
+        return Collections.unmodifiableList(files);
+    }
+
+    /**
+     * 分段文件
+     */
+    private static final class Segment {
+        private final Path file;
+        private final long index;
+        private final MappedByteBuffer buffer;
+
+        /**
+         * 已写入尚未确认的记录数
+         */
+        private int unacked;
+
+        private boolean deleted;
+
+        Segment(Path file, long index, MappedByteBuffer buffer) {
+            this.file = file;
+            this.index = index;
+            this.buffer = buffer;
+        }
+
+        int capacity() {
+            return buffer.capacity();
+        }
+    }
+
+    /**
+     * 已读取的记录
+     */
+    public static final class Record {
+        private final Segment segment;
+        private final int position;
+        private final byte[] payload;
+
+        Record(Segment segment, int position, byte[] payload) {
+            this.segment = segment;
+            this.position = position;
+            this.payload = payload;
+        }
+
+        public byte[] getPayload() {
+            return payload;
+        }
+    }
+
+}
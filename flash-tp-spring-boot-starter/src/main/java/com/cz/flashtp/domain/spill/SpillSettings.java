@@ -0,0 +1,26 @@
+package com.cz.flashtp.domain.spill;
+
+import lombok.Data;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * 溢出层配置
+ * 每个线程池使用独立的日志目录：{dir}/{应用名称}/{线程池 Bean 名称}，重启后按同一目录恢复未执行完成的任务。
+ *
+ * @author Zjianru
+ */
+@Data
+public class SpillSettings {
+    /** 开启溢出层的线程池 Bean 名称，默认为空 */
+    private Set<String> pools = new LinkedHashSet<>();
+    /** 溢出日志根目录，默认为 ${user.home}/.flash-tp/spill */
+    private String dir = System.getProperty("user.home") + "/.flash-tp/spill";
+    /** 单个分段文件大小（单位：字节），默认为64MB */
+    private int segmentSize = 64 * 1024 * 1024;
+    /** 单个线程池未执行完成的落盘任务占用的字节数上限，超过时交给拒绝策略，默认为1GB */
+    private long maxBytes = 1024L * 1024 * 1024;
+    /** 重放落盘任务时允许反序列化的类名前缀（如 com.example.task.），默认为空：只允许 JDK 基础类型与本次运行内落盘过的类型 */
+    private Set<String> allowedClasses = new LinkedHashSet<>();
+}
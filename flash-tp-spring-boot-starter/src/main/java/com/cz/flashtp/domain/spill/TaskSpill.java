@@ -0,0 +1,281 @@
+package com.cz.flashtp.domain.spill;
+
+import com.cz.flashtp.domain.metrics.SpillSnapshot;
+import com.cz.flashtp.domain.metrics.TaskLatencyRecorder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 任务溢出层
+ * 托管线程池内存队列已满时，实现了 {@link Serializable} 的任务以 Java 序列化写入 {@link SpillSegmentLog}，
+ * 工作线程在队列有空位时按写入顺序取回（回灌），任务执行完成后确认，确认前进程崩溃的任务在下次启动时重放（至少一次）。
+ * <p>
+ * 只有直接以 execute 提交、且任务本身可序列化的任务会落盘；submit 返回的 FutureTask、普通 lambda 不可序列化，照常交给拒绝策略。
+ * 反序列化使用每个流独立的 {@link ObjectInputFilter}，只允许以下类型，其余类型（包括 jdk.serialFilter 未覆盖的反序列化利用链）一律拒绝：
+ * <ul>
+ *     <li>基本类型及其数组、字符串、包装类型与常用集合等 JDK 基础类型；</li>
+ *     <li>本进程落盘时序列化过的类型（落盘时自动登记，只在本次运行内有效）；</li>
+ *     <li>配置的允许类名前缀，重启后重放的任务只能通过前缀放行，如 {@code com.example.task.}。</li>
+ * </ul>
+ * 同时限制对象图深度、引用数、数组长度与字节数。被拒绝的记录按无法反序列化处理，确认丢弃。日志目录仍应只对当前应用可写。
+ * 回灌速率采用与 {@link TaskLatencyRecorder} 相同的双基线滑动窗口计算。
+ *
+ * @author Zjianru
+ */
+@Slf4j
+public class TaskSpill implements Closeable {
+
+    /**
+     * 反序列化对象图的最大深度
+     */
+    static final long MAX_DEPTH = 32;
+
+    /**
+     * 反序列化的最大引用数
+     */
+    static final long MAX_REFERENCES = 100_000;
+
+    /**
+     * 反序列化的最大数组长度
+     */
+    static final long MAX_ARRAY_LENGTH = 1 << 20;
+
+    /**
+     * 反序列化读取的最大字节数
+     */
+    static final long MAX_STREAM_BYTES = 16 * 1024 * 1024;
+
+    /**
+     * 始终允许的 JDK 基础类型；Object 与 Map.Entry 只会作为集合内部数组的元素类型出现
+     */
+    private static final Set<String> BASE_CLASSES = new HashSet<>(Arrays.asList(
+            "java.lang.Object", "java.util.Map$Entry", "java.lang.String", "java.lang.Boolean", "java.lang.Byte", "java.lang.Character", "java.lang.Short",
+            "java.lang.Integer", "java.lang.Long", "java.lang.Float", "java.lang.Double", "java.lang.Number", "java.lang.Enum",
+            "java.math.BigInteger", "java.math.BigDecimal", "java.util.Date", "java.util.UUID",
+            "java.util.ArrayList", "java.util.LinkedList", "java.util.HashMap", "java.util.LinkedHashMap", "java.util.TreeMap",
+            "java.util.HashSet", "java.util.LinkedHashSet", "java.util.TreeSet", "java.util.ArrayDeque", "java.time.Ser"));
+
+    private final SpillSegmentLog segmentLog;
+
+    /**
+     * 配置的允许类名前缀
+     */
+    private final Set<String> allowedPrefixes;
+
+    /**
+     * 本进程落盘时序列化过的类型
+     */
+    private final Set<String> registeredClasses = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder spilled = new LongAdder();
+    private final LongAdder drained = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final long windowNanos;
+
+    /**
+     * 窗口基线，仅在 snapshot 中访问，依次为 drained、时间
+     */
+    private long[] previous;
+    private long[] current;
+
+    public TaskSpill(SpillSegmentLog segmentLog) {
+        this(segmentLog, Collections.emptySet());
+    }
+
+    /**
+     * @param segmentLog     溢出日志
+     * @param allowedClasses 反序列化允许的类名前缀，为空时只允许基础类型与本进程落盘时登记的类型
+     */
+    public TaskSpill(SpillSegmentLog segmentLog, Collection<String> allowedClasses) {
+        this(segmentLog, allowedClasses, TaskLatencyRecorder.DEFAULT_WINDOW_MILLIS);
+    }
+
+    public TaskSpill(SpillSegmentLog segmentLog, Collection<String> allowedClasses, long windowMillis) {
+        this.segmentLog = segmentLog;
+        this.allowedPrefixes = new LinkedHashSet<>(allowedClasses);
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.current = new long[]{0L, System.nanoTime()};
+    }
+
+    /**
+     * 任务落盘
+     *
+     * @param task 原始任务
+     * @return 是否落盘成功；任务不可序列化、序列化失败或超过日志上限时为 false
+     */
+    public boolean spill(Runnable task) {
+        if (!(task instanceof Serializable)) return false;
+        byte[] payload;
+        try {
+            payload = serialize(task);
+        } catch (IOException e) {
+            failed.increment();
+            log.warn("[flash-tp]==> 溢出任务序列化失败 任务类型:{}", task.getClass().getName(), e);
+            return false;
+        }
+        if (!segmentLog.append(payload)) return false;
+        spilled.increment();
+        return true;
+    }
+
+    /**
+     * 按落盘顺序取回下一个任务，无法反序列化的任务记录日志后确认丢弃，避免每次启动反复重放
+     *
+     * @return 取回的任务，没有落盘任务时为 null
+     */
+    public SpilledTask poll() {
+        SpillSegmentLog.Record record;
+        while (null != (record = segmentLog.poll())) {
+            try {
+                Runnable task = (Runnable) deserialize(record.getPayload());
+                drained.increment();
+                return new SpilledTask(task, record);
+            } catch (InvalidClassException e) {
+                failed.increment();
+                segmentLog.ack(record);
+                log.error("[flash-tp]==> 溢出任务未通过反序列化过滤，丢弃该任务 directory:{} 字节数:{} 原因:{}", segmentLog.getDirectory(), record.getPayload().length, e.getMessage());
+            } catch (IOException | ClassNotFoundException | ClassCastException e) {
+                failed.increment();
+                segmentLog.ack(record);
+                log.error("[flash-tp]==> 溢出任务反序列化失败，丢弃该任务 directory:{} 字节数:{}", segmentLog.getDirectory(), record.getPayload().length, e);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 确认取回的任务已执行完成
+     *
+     * @param record 任务对应的日志记录
+     */
+    public void ack(SpillSegmentLog.Record record) {
+        segmentLog.ack(record);
+    }
+
+    /**
+     * 落盘等待回灌的任务数
+     */
+    public long depth() {
+        return segmentLog.depth();
+    }
+
+    /**
+     * 获取溢出层计数与统计窗口内的回灌速率
+     *
+     * @return 溢出层快照
+     */
+    public synchronized SpillSnapshot snapshot() {
+        long now = System.nanoTime();
+        long[] sample = {drained.sum(), now};
+        if (now - current[1] >= windowNanos) {
+            previous = current;
+            current = sample;
+        }
+        long[] base = null == previous ? current : previous;
+        long elapsedNanos = now - base[1];
+        double drainRate = elapsedNanos <= 0 ? 0D : (sample[0] - base[0]) * 1_000_000_000D / elapsedNanos;
+        return new SpillSnapshot(segmentLog.depth(), segmentLog.bytes(), spilled.sum(), sample[0], failed.sum(), drainRate);
+    }
+
+    /**
+     * 关闭日志，未执行完成的任务保留在磁盘上，下次启动时重放
+     */
+    @Override
+    public void close() {
+        segmentLog.close();
+    }
+
+    private byte[] serialize(Object task) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (ObjectOutputStream out = new RegisteringOutputStream(bytes)) {
+            out.writeObject(task);
+        }
+        return bytes.toByteArray();
+    }
+
+    private Object deserialize(byte[] payload) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(payload))) {
+            in.setObjectInputFilter(this::checkInput);
+            return in.readObject();
+        }
+    }
+
+    /**
+     * 反序列化过滤：先校验对象图规模，再按允许列表校验类型，数组按元素类型校验
+     */
+    private ObjectInputFilter.Status checkInput(ObjectInputFilter.FilterInfo info) {
+        if (info.depth() > MAX_DEPTH || info.references() > MAX_REFERENCES
+                || info.arrayLength() > MAX_ARRAY_LENGTH || info.streamBytes() > MAX_STREAM_BYTES) {
+            return ObjectInputFilter.Status.REJECTED;
+        }
+        Class<?> type = info.serialClass();
+        if (null == type) return ObjectInputFilter.Status.UNDECIDED;
+        while (type.isArray()) type = type.getComponentType();
+        if (type.isPrimitive() || allowed(type.getName())) return ObjectInputFilter.Status.ALLOWED;
+        return ObjectInputFilter.Status.REJECTED;
+    }
+
+    private boolean allowed(String className) {
+        if (BASE_CLASSES.contains(className) || registeredClasses.contains(className)) return true;
+        for (String prefix : allowedPrefixes) {
+            if (className.startsWith(prefix)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * 序列化时登记对象图中出现的每个类型
+     */
+    private final class RegisteringOutputStream extends ObjectOutputStream {
+
+        RegisteringOutputStream(OutputStream out) throws IOException {
+            super(out);
+        }
+
+        @Override
+        protected void annotateClass(Class<?> cl) {
+            registeredClasses.add(cl.getName());
+        }
+    }
+
+    /**
+     * 取回的任务及其日志记录
+     */
+    public static final class SpilledTask {
+        private final Runnable task;
+        private final SpillSegmentLog.Record record;
+
+        SpilledTask(Runnable task, SpillSegmentLog.Record record) {
+            this.task = task;
+            this.record = record;
+        }
+
+        public Runnable getTask() {
+            return task;
+        }
+
+        public SpillSegmentLog.Record getRecord() {
+            return record;
+        }
+    }
+
+}
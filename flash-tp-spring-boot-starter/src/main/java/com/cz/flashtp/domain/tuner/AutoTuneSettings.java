@@ -0,0 +1,59 @@
+package com.cz.flashtp.domain.tuner;
+
+import lombok.Data;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 自动调优配置
+ * 默认冷却时间大于统计窗口（20 秒），保证下一次决策能观测到上一次调整的效果。
+ *
+ * @author Zjianru
+ */
+@Data
+public class AutoTuneSettings {
+    /** 是否开启自动调优，默认为false */
+    private boolean enabled;
+    /** 仅输出调优建议，不实际调整线程池，默认为false */
+    private boolean dryRun;
+    /** 决策间隔（单位：毫秒），默认为5000 */
+    private long interval = 5000;
+    /** 同一线程池两次调整的最小间隔（单位：毫秒），默认为30000 */
+    private long cooldown = 30000;
+    /** 连续多少次观测满足条件才调整，用于抑制抖动，默认为2 */
+    private int requiredStreak = 2;
+    /** 观测值指数平滑系数，取值 (0, 1]，越小越平滑，默认为0.5 */
+    private double smoothing = 0.5;
+    /** 排队耗时 P99 目标（单位：毫秒），超过即视为过载，默认为100 */
+    private double targetQueueWaitMs = 100;
+    /** 队列使用率高水位，超过即视为过载，默认为0.5 */
+    private double queueHighWatermark = 0.5;
+    /** 活跃线程数 / 核心线程数 的低水位，队列为空且低于该值时缩容，默认为0.7；需小于 0.8，与缩容后保留的 1.25 倍余量配合避免振荡 */
+    private double busyLowWatermark = 0.7;
+    /** 加法扩容步长，默认为2 */
+    private int increaseStep = 2;
+    /** 乘法缩容系数，取值 (0, 1)，默认为0.75 */
+    private double decreaseFactor = 0.75;
+    /** 执行耗时 P99 上限（单位：毫秒），超过说明下游拥塞，乘法缩容而不是继续扩容，0 表示不启用 */
+    private double runTimeLimitMs = 0;
+    /** 核心线程数下限，默认为1 */
+    private int minPoolSize = 1;
+    /** 核心线程数与最大线程数上限，默认为64 */
+    private int maxPoolSize = 64;
+    /** 按线程池名称覆盖上下限或关闭调优 */
+    private Map<String, PoolBounds> pools = new HashMap<>();
+
+    /**
+     * 单个线程池的调优范围
+     */
+    @Data
+    public static class PoolBounds {
+        /** 是否参与自动调优，默认为true */
+        private boolean enabled = true;
+        /** 核心线程数下限，为 0 时使用全局配置 */
+        private int minPoolSize;
+        /** 核心线程数与最大线程数上限，为 0 时使用全局配置 */
+        private int maxPoolSize;
+    }
+}
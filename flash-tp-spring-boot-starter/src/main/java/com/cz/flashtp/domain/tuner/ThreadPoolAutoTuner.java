@@ -0,0 +1,276 @@
+package com.cz.flashtp.domain.tuner;
+
+import com.cz.flashtp.domain.DynamicThreadPoolService;
+import com.cz.flashtp.domain.adapter.ThreadPoolExecutorAdapter;
+import com.cz.flashtp.domain.adapter.ThreadPoolTaskExecutorAdapter;
+import com.cz.flashtp.domain.entity.ThreadPoolConfig;
+import com.cz.flashtp.domain.entity.TuningDecision;
+import com.cz.flashtp.registry.Registry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * 线程池自动调优控制器
+ * 以 {@link DynamicThreadPoolService#queryThreadPoolList()} 的快照为输入，按 AIMD 策略闭环调整核心线程数与最大线程数：
+ * <ul>
+ *     <li>过载（排队耗时 P99 的平滑值与当前值都超过目标、队列使用率的平滑值与当前值都超过高水位，或出现拒绝）时加法扩容 increaseStep 个线程；</li>
+ *     <li>空闲（队列为空且活跃线程占比低于低水位）时按 decreaseFactor 乘法缩容，且不低于平滑后活跃线程数的 1.25 倍；</li>
+ *     <li>配置了执行耗时上限且执行耗时 P99 超限时，说明下游已拥塞，继续加线程只会加剧拥塞，改为乘法缩容。</li>
+ * </ul>
+ * 只调优 ThreadPoolExecutor 类型的线程池。
+ * 队列积压正在消化且预计在冷却时间内清空时保持不变，避免为已经消化中的历史积压过量扩容。
+ * 观测值先做指数平滑，再要求连续 requiredStreak 次满足条件，并且距离上一次调整超过冷却时间才会动作；
+ * 调整时保持最大线程数与核心线程数的差值不变，两者都限制在 [minPoolSize, maxPoolSize] 内；最大线程数原本就超过 maxPoolSize 时保持不变；
+ * 核心线程数原本就高于 maxPoolSize 时不再扩容、低于 minPoolSize 时不再缩容，保留人工设置的值。
+ * 每次决策（包括 dry-run 模式下的建议）都通过 {@link Registry#reportTuningDecision(TuningDecision)} 上报。
+ * <p>
+ * 决策逻辑 {@link #tune()} 不依赖真实时间，时钟由构造参数传入，便于确定性仿真；{@link #start()} 在独立的守护线程上周期执行。
+ *
+ * @author Zjianru
+ */
+@Slf4j
+public class ThreadPoolAutoTuner {
+
+    public static final String INCREASE = "INCREASE";
+    public static final String DECREASE = "DECREASE";
+
+    private final DynamicThreadPoolService dynamicThreadPoolService;
+    private final Registry registry;
+    private final AutoTuneSettings settings;
+    private final LongSupplier clock;
+
+    /**
+     * 各线程池的控制状态，仅在调优线程中访问
+     */
+    private final Map<String, PoolState> states = new HashMap<>();
+
+    private ScheduledExecutorService scheduler;
+
+    public ThreadPoolAutoTuner(DynamicThreadPoolService dynamicThreadPoolService, Registry registry, AutoTuneSettings settings) {
+        this(dynamicThreadPoolService, registry, settings, System::currentTimeMillis);
+    }
+
+    /**
+     * @param dynamicThreadPoolService 动态线程池服务
+     * @param registry                 注册中心，用于上报调优决策
+     * @param settings                 调优配置
+     * @param clock                    毫秒时钟
+     */
+    public ThreadPoolAutoTuner(DynamicThreadPoolService dynamicThreadPoolService, Registry registry, AutoTuneSettings settings, LongSupplier clock) {
+        this.dynamicThreadPoolService = dynamicThreadPoolService;
+        this.registry = registry;
+        this.settings = settings;
+        this.clock = clock;
+    }
+
+    /**
+     * 在独立的守护线程上按 interval 周期执行调优，不占用 Spring 的调度线程
+     */
+    public synchronized void start() {
+        if (null != scheduler) return;
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "flash-tp-auto-tuner");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                tune();
+            } catch (Exception e) {
+                log.error("[flash-tp]==> 自动调优执行失败", e);
+            }
+        }, settings.getInterval(), settings.getInterval(), TimeUnit.MILLISECONDS);
+        log.info("[flash-tp]==> 自动调优已启动 间隔:{}ms 冷却:{}ms dryRun:{}", settings.getInterval(), settings.getCooldown(), settings.isDryRun());
+    }
+
+    public synchronized void stop() {
+        if (null == scheduler) return;
+        scheduler.shutdownNow();
+        scheduler = null;
+    }
+
+    /**
+     * 执行一次调优决策
+     *
+     * @return 本次产生的决策
+     */
+    public List<TuningDecision> tune() {
+        long now = clock.getAsLong();
+        List<ThreadPoolConfig> threadPools = dynamicThreadPoolService.queryThreadPoolList();
+        List<TuningDecision> decisions = new ArrayList<>();
+        Set<String> alive = new HashSet<>();
+        for (ThreadPoolConfig config : threadPools) {
+            alive.add(config.getThreadPoolName());
+            // 只调优 ThreadPoolExecutor 语义的线程池；定时线程池、ForkJoinPool 与 Web 服务器工作线程池的排队语义不同，不参与调优
+            if (null != config.getPoolType() && !ThreadPoolExecutorAdapter.POOL_TYPE.equals(config.getPoolType())
+                    && !ThreadPoolTaskExecutorAdapter.POOL_TYPE.equals(config.getPoolType())) continue;
+            AutoTuneSettings.PoolBounds bounds = settings.getPools().get(config.getThreadPoolName());
+            if (null != bounds && !bounds.isEnabled()) continue;
+            PoolState state = states.computeIfAbsent(config.getThreadPoolName(), k -> new PoolState());
+            TuningDecision decision = decide(config, state, bounds, now);
+            if (null == decision) continue;
+            decisions.add(decision);
+            apply(config, decision);
+        }
+        states.keySet().retainAll(alive);
+        return decisions;
+    }
+
+    private TuningDecision decide(ThreadPoolConfig config, PoolState state, AutoTuneSettings.PoolBounds bounds, long now) {
+        int capacity = config.getQueueSize() + config.getRemainingCapacity();
+        double utilization = capacity <= 0 ? 0D : (double) config.getQueueSize() / capacity;
+        state.observe(settings.getSmoothing(), config.getQueueWaitP99Ms(), utilization, config.getActiveCount());
+        // 积压正在消化且预计在冷却时间内清空时不再扩容，避免为历史积压过量扩容
+        boolean draining = isDraining(state, config.getQueueSize(), now);
+        state.lastQueueSize = config.getQueueSize();
+        state.lastObserveMillis = now;
+
+        int core = config.getCorePoolSize();
+        String action = null;
+        String reason = null;
+        boolean congested = settings.getRunTimeLimitMs() > 0 && config.getRunTimeP99Ms() > settings.getRunTimeLimitMs();
+        if (congested) {
+            action = DECREASE;
+            reason = "runTimeP99Ms " + config.getRunTimeP99Ms() + " > " + settings.getRunTimeLimitMs();
+        } else if (config.getRejectionRate() > 0) {
+            action = INCREASE;
+            reason = "rejectionRate " + round(config.getRejectionRate()) + " > 0";
+        } else if (draining) {
+            // 保持不变
+        } else if (state.queueWait > settings.getTargetQueueWaitMs() && config.getQueueWaitP99Ms() > settings.getTargetQueueWaitMs()) {
+            action = INCREASE;
+            reason = "queueWaitP99Ms " + round(state.queueWait) + " > " + settings.getTargetQueueWaitMs();
+        } else if (state.utilization > settings.getQueueHighWatermark() && utilization > settings.getQueueHighWatermark()) {
+            action = INCREASE;
+            reason = "queueUtilization " + round(state.utilization) + " > " + settings.getQueueHighWatermark();
+        } else if (config.getQueueSize() == 0
+                && state.utilization < 0.01
+                && state.queueWait < settings.getTargetQueueWaitMs() / 2
+                && state.active < core * settings.getBusyLowWatermark()) {
+            action = DECREASE;
+            reason = "activeCount " + round(state.active) + " < " + settings.getBusyLowWatermark() + " * corePoolSize " + core;
+        }
+
+        // 迟滞：方向改变时重新计数
+        if (null == action || !action.equals(state.lastSignal)) state.streak = 0;
+        state.lastSignal = action;
+        if (null == action) return null;
+        if (++state.streak < settings.getRequiredStreak()) return null;
+        if (now - state.lastChangeMillis < settings.getCooldown()) return null;
+
+        int min = null != bounds && bounds.getMinPoolSize() > 0 ? bounds.getMinPoolSize() : settings.getMinPoolSize();
+        int max = null != bounds && bounds.getMaxPoolSize() > 0 ? bounds.getMaxPoolSize() : settings.getMaxPoolSize();
+        // 核心线程数已由人工设置在上下限之外时，不朝越界方向调整，也不被压回区间
+        if (INCREASE.equals(action) && core > max || DECREASE.equals(action) && core < min) return null;
+        int targetCore;
+        if (INCREASE.equals(action)) {
+            targetCore = core + Math.max(1, settings.getIncreaseStep());
+        } else {
+            targetCore = (int) Math.floor(core * settings.getDecreaseFactor());
+            // 空闲缩容时保留余量，避免缩容后立即过载来回振荡
+            if (!congested) targetCore = Math.max(targetCore, (int) Math.ceil(state.active * 1.25));
+        }
+        targetCore = clamp(targetCore, min, max);
+        int currentMax = config.getMaximumPoolSize();
+        // 最大线程数已由人工设置在上限之上时保持不变，上限只约束调优带来的变化
+        int targetMax = currentMax > max ? currentMax : clamp(currentMax + (targetCore - core), targetCore, max);
+        if (targetCore == core && targetMax == currentMax) return null;
+
+        state.lastChangeMillis = now;
+        state.streak = 0;
+        return TuningDecision.builder()
+                .appName(config.getAppName())
+                .instanceId(config.getInstanceId())
+                .threadPoolName(config.getThreadPoolName())
+                .timestamp(now)
+                .action(action)
+                .reason(reason)
+                .dryRun(settings.isDryRun())
+                .previousCorePoolSize(core)
+                .previousMaximumPoolSize(config.getMaximumPoolSize())
+                .corePoolSize(targetCore)
+                .maximumPoolSize(targetMax)
+                .queueWaitP99Ms(state.queueWait)
+                .queueUtilization(state.utilization)
+                .activeCount(state.active)
+                .build();
+    }
+
+    private void apply(ThreadPoolConfig config, TuningDecision decision) {
+        log.info("[flash-tp]==> 自动调优{} 线程名:{} 方向:{} 原因:{} 核心线程数:{}->{} 最大线程数:{}->{}",
+                decision.isDryRun() ? "建议" : "", decision.getThreadPoolName(), decision.getAction(), decision.getReason(),
+                decision.getPreviousCorePoolSize(), decision.getCorePoolSize(),
+                decision.getPreviousMaximumPoolSize(), decision.getMaximumPoolSize());
+        if (!decision.isDryRun()) {
+            // 队列容量传 0，保持不变
+            ThreadPoolConfig update = ThreadPoolConfig.builder()
+                    .appName(config.getAppName())
+                    .threadPoolName(config.getThreadPoolName())
+                    .corePoolSize(decision.getCorePoolSize())
+                    .maximumPoolSize(decision.getMaximumPoolSize())
+                    .build();
+            dynamicThreadPoolService.updateThreadPoolConfig(update);
+        }
+        try {
+            registry.reportTuningDecision(decision);
+        } catch (Exception e) {
+            log.warn("[flash-tp]==> 上报自动调优决策失败 线程名:{}", decision.getThreadPoolName(), e);
+        }
+    }
+
+    /**
+     * 队列深度在下降，且按当前消化速度可在冷却时间内清空
+     */
+    private boolean isDraining(PoolState state, int queueSize, long now) {
+        if (state.lastObserveMillis == Long.MIN_VALUE || queueSize >= state.lastQueueSize) return false;
+        double drainPerMilli = (double) (state.lastQueueSize - queueSize) / Math.max(1L, now - state.lastObserveMillis);
+        return queueSize / drainPerMilli <= settings.getCooldown();
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100D;
+    }
+
+    /**
+     * 单个线程池的控制状态
+     */
+    private static final class PoolState {
+        private double queueWait;
+        private double utilization;
+        private double active;
+        private boolean initialized;
+        private String lastSignal;
+        private int streak;
+        private long lastChangeMillis = Long.MIN_VALUE / 2;
+        private int lastQueueSize;
+        private long lastObserveMillis = Long.MIN_VALUE;
+
+        void observe(double alpha, double queueWait, double utilization, double active) {
+            if (!initialized) {
+                this.queueWait = queueWait;
+                this.utilization = utilization;
+                this.active = active;
+                initialized = true;
+                return;
+            }
+            this.queueWait += alpha * (queueWait - this.queueWait);
+            this.utilization += alpha * (utilization - this.utilization);
+            this.active += alpha * (active - this.active);
+        }
+    }
+
+}
@@ -12,8 +12,11 @@ import lombok.Setter;
 @Getter
 public enum RegistryEnumVO {
 
-    THREAD_POOL_CONFIG_LIST_KEY("THREAD_POOL_CONFIG_LIST_KEY", "池化配置列表"),
+    THREAD_POOL_INSTANCE_KEY("THREAD_POOL_INSTANCE_KEY", "实例池化配置列表，按应用与实例分片，带心跳过期"),
     THREAD_POOL_CONFIG_PARAMETER_LIST_KEY("THREAD_POOL_CONFIG_PARAMETER_LIST_KEY", "池化配置参数"),
+    THREAD_POOL_TUNING_DECISION_KEY("THREAD_POOL_TUNING_DECISION_KEY", "自动调优决策记录"),
+    THREAD_POOL_REPORT_TOPIC("THREAD_POOL_REPORT_TOPIC", "线程池上报变化通知主题，所有应用共用"),
+    THREAD_POOL_CONFIG_ACK_TOPIC("THREAD_POOL_CONFIG_ACK_TOPIC", "线程池配置批量调整确认主题，所有应用共用"),
     DYNAMIC_THREAD_POOL_REDIS_TOPIC("DYNAMIC_THREAD_POOL_REDIS_TOPIC", "动态线程池监听主题配置");
 
     private final String key;
@@ -0,0 +1,280 @@
+package com.cz.flashtp.domain.watchdog;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 哈希时间轮
+ * 环形数组的每个槽位是一个双向链表，单个守护线程每 tickDuration 推进一格，到期的定时任务在该线程上执行。
+ * <ul>
+ *     <li>{@link #schedule(TimerTask, long, TimeUnit)} 只把定时任务放入无锁队列，由时间轮线程在下一格开始时挂到对应槽位，O(1)；</li>
+ *     <li>{@link Timeout#cancel()} 只做一次 CAS 并放入取消队列，由时间轮线程从槽位链表中摘除，O(1)，取消的任务不会滞留到到期时刻；</li>
+ *     <li>超过一圈的延迟记录剩余圈数，每转过一圈减一，轮子大小与延迟上限无关。</li>
+ * </ul>
+ * 到期精度为一格，定时任务应尽快返回，耗时操作会推迟同一时间轮上其他任务的到期。时间轮线程在首次调度时启动。
+ *
+ * @author Zjianru
+ */
+@Slf4j
+public class HashedTimingWheel {
+
+    private static final int STATE_INIT = 0;
+    private static final int STATE_STARTED = 1;
+    private static final int STATE_STOPPED = 2;
+
+    /**
+     * 每格处理的新增定时任务上限，避免突发的大量调度阻塞推进
+     */
+    private static final int MAX_TRANSFER_PER_TICK = 100_000;
+
+    private final String threadName;
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final long startNanos = System.nanoTime();
+
+    private final Queue<Timeout> pending = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger state = new AtomicInteger(STATE_INIT);
+
+    private volatile Thread worker;
+
+    /**
+     * 已推进的格数，仅由时间轮线程访问
+     */
+    private long tick;
+
+    /**
+     * @param threadName    时间轮线程名称
+     * @param tickDuration  每格时长
+     * @param unit          时间单位
+     * @param ticksPerWheel 每圈格数，向上取整为 2 的幂
+     */
+    public HashedTimingWheel(String threadName, long tickDuration, TimeUnit unit, int ticksPerWheel) {
+        if (tickDuration <= 0) throw new IllegalArgumentException("tickDuration must be positive");
+        if (ticksPerWheel < 1 || ticksPerWheel > 1 << 20) throw new IllegalArgumentException("ticksPerWheel must be in [1, 2^20]");
+        this.threadName = threadName;
+        this.tickNanos = Math.max(1L, unit.toNanos(tickDuration));
+        int size = 1;
+        while (size < ticksPerWheel) size <<= 1;
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * 调度一个定时任务
+     *
+     * @param task  到期时在时间轮线程上执行的任务
+     * @param delay 延迟
+     * @param unit  时间单位
+     * @return 定时任务句柄，可用于取消；时间轮已停止时返回已取消的句柄，调用方（如工作线程）不因停止顺序而失败
+     */
+    public Timeout schedule(TimerTask task, long delay, TimeUnit unit) {
+        if (null == task) throw new NullPointerException("task");
+        Timeout timeout = new Timeout(this, task, System.nanoTime() - startNanos + Math.max(0L, unit.toNanos(delay)));
+        if (state.get() == STATE_STOPPED) {
+            timeout.state.set(Timeout.CANCELLED);
+            return timeout;
+        }
+        start();
+        pending.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * 停止时间轮，尚未到期的定时任务不再执行
+     */
+    public void stop() {
+        if (state.getAndSet(STATE_STOPPED) == STATE_STOPPED) return;
+        Thread thread = worker;
+        if (null != thread) thread.interrupt();
+    }
+
+    private void start() {
+        if (state.get() != STATE_INIT || !state.compareAndSet(STATE_INIT, STATE_STARTED)) return;
+        Thread thread = new Thread(this::run, threadName);
+        thread.setDaemon(true);
+        worker = thread;
+        thread.start();
+    }
+
+    private void run() {
+        while (state.get() == STATE_STARTED) {
+            if (!waitForNextTick()) break;
+            removeCancelled();
+            transferPending();
+            wheel[(int) (tick & mask)].expire();
+            tick++;
+        }
+    }
+
+    /**
+     * 等待到当前格的结束时刻，此时该格内到期的任务均已到期
+     *
+     * @return 是否继续推进，时间轮停止时为 false
+     */
+    private boolean waitForNextTick() {
+        long deadline = tickNanos * (tick + 1);
+        for (;;) {
+            long sleepNanos = deadline - (System.nanoTime() - startNanos);
+            if (sleepNanos <= 0) return true;
+            try {
+                TimeUnit.NANOSECONDS.sleep(sleepNanos);
+            } catch (InterruptedException e) {
+                if (state.get() == STATE_STOPPED) return false;
+            }
+        }
+    }
+
+    private void removeCancelled() {
+        for (Timeout timeout; null != (timeout = cancelled.poll()); ) {
+            if (null != timeout.bucket) timeout.bucket.remove(timeout);
+        }
+    }
+
+    private void transferPending() {
+        for (int i = 0; i < MAX_TRANSFER_PER_TICK; i++) {
+            Timeout timeout = pending.poll();
+            if (null == timeout) return;
+            if (timeout.state.get() == Timeout.CANCELLED) continue;
+            long calculated = timeout.deadline / tickNanos;
+            timeout.remainingRounds = (calculated - tick) / wheel.length;
+            // 已经过期的任务放在当前格，本格即执行
+            long ticks = Math.max(calculated, tick);
+            wheel[(int) (ticks & mask)].add(timeout);
+        }
+    }
+
+    /**
+     * 到期时执行的任务
+     */
+    @FunctionalInterface
+    public interface TimerTask {
+
+        /**
+         * @param timeout 到期的定时任务句柄
+         */
+        void run(Timeout timeout);
+    }
+
+    /**
+     * 定时任务句柄
+     */
+    public static final class Timeout {
+        private static final int PENDING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final HashedTimingWheel timingWheel;
+        private final TimerTask task;
+
+        /**
+         * 相对时间轮启动时刻的到期时间
+         */
+        private final long deadline;
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+
+        /**
+         * 以下字段仅由时间轮线程访问
+         */
+        private long remainingRounds;
+        private Timeout next;
+        private Timeout prev;
+        private Bucket bucket;
+
+        Timeout(HashedTimingWheel timingWheel, TimerTask task, long deadline) {
+            this.timingWheel = timingWheel;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        public TimerTask task() {
+            return task;
+        }
+
+        /**
+         * 取消尚未到期的定时任务
+         *
+         * @return 是否取消成功，已到期或已取消时为 false
+         */
+        public boolean cancel() {
+            if (!state.compareAndSet(PENDING, CANCELLED)) return false;
+            timingWheel.cancelled.add(this);
+            return true;
+        }
+
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state.get() == EXPIRED;
+        }
+
+        private void expire() {
+            if (!state.compareAndSet(PENDING, EXPIRED)) return;
+            try {
+                task.run(this);
+            } catch (Throwable t) {
+                log.warn("[flash-tp]==> 时间轮定时任务执行异常 任务:{}", task, t);
+            }
+        }
+    }
+
+    /**
+     * 槽位，双向链表，仅由时间轮线程访问
+     */
+    private static final class Bucket {
+        private Timeout head;
+        private Timeout tail;
+
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            if (null == head) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        /**
+         * 执行本格到期的任务，未到圈数的任务剩余圈数减一
+         */
+        void expire() {
+            Timeout timeout = head;
+            while (null != timeout) {
+                Timeout next = timeout.next;
+                if (timeout.remainingRounds <= 0) {
+                    remove(timeout);
+                    timeout.expire();
+                } else if (timeout.isCancelled()) {
+                    remove(timeout);
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+
+        void remove(Timeout timeout) {
+            if (timeout.bucket != this) return;
+            if (null != timeout.prev) timeout.prev.next = timeout.next;
+            if (null != timeout.next) timeout.next.prev = timeout.prev;
+            if (timeout == head) head = timeout.next;
+            if (timeout == tail) tail = timeout.prev;
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+    }
+
+}
@@ -0,0 +1,193 @@
+package com.cz.flashtp.domain.watchdog;
+
+import com.cz.flashtp.domain.metrics.SlowTaskSnapshot;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 慢任务检测
+ * 任务开始执行时在共享的 {@link HashedTimingWheel} 上登记一个阈值后到期的定时任务，执行完成时取消，登记与取消均为 O(1)，不为每个任务创建定时线程。
+ * 定时任务到期说明任务执行超过阈值：计入慢任务次数，抓取执行该任务的工作线程的调用栈作为样本，任务执行完成前计入仍在执行的慢任务数。
+ * 调用栈在时间轮线程上抓取，任务恰好在到期与抓取之间完成时，样本可能是工作线程的下一个任务或空闲等待。
+ *
+ * @author Zjianru
+ */
+@Slf4j
+public class SlowTaskDetector {
+
+    private static final int RUNNING = 0;
+    private static final int SLOW = 1;
+    private static final int DONE = 2;
+
+    /**
+     * 任务描述的最大长度
+     */
+    private static final int TASK_NAME_MAX_LENGTH = 128;
+
+    private final HashedTimingWheel timingWheel;
+    private final String threadPoolName;
+    private final int sampleLimit;
+    private final int stackDepth;
+
+    private volatile long thresholdMillis;
+
+    private final LongAdder slowCount = new LongAdder();
+
+    /**
+     * 仍在执行的慢任务
+     */
+    private final Set<Watch> running = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 最近的调用栈样本，新样本在队首
+     */
+    private final Deque<String> samples = new ArrayDeque<>();
+
+    /**
+     * @param timingWheel     共享的时间轮
+     * @param threadPoolName  线程池名称，用于日志
+     * @param thresholdMillis 执行耗时阈值（单位：毫秒）
+     * @param sampleLimit     保留的调用栈样本数
+     * @param stackDepth      每个样本保留的栈帧数
+     */
+    public SlowTaskDetector(HashedTimingWheel timingWheel, String threadPoolName, long thresholdMillis, int sampleLimit, int stackDepth) {
+        checkThreshold(thresholdMillis);
+        if (sampleLimit < 0 || stackDepth < 1) throw new IllegalArgumentException("sampleLimit must be >= 0 and stackDepth must be positive");
+        this.timingWheel = timingWheel;
+        this.threadPoolName = threadPoolName;
+        this.thresholdMillis = thresholdMillis;
+        this.sampleLimit = sampleLimit;
+        this.stackDepth = stackDepth;
+    }
+
+    /**
+     * 任务开始执行时登记
+     *
+     * @param worker 执行任务的工作线程
+     * @param task   任务
+     * @return 登记句柄，任务执行完成时调用 {@link Watch#finish()}
+     */
+    public Watch onStart(Thread worker, Runnable task) {
+        Watch watch = new Watch(worker, task);
+        watch.timeout = timingWheel.schedule(watch, thresholdMillis, TimeUnit.MILLISECONDS);
+        return watch;
+    }
+
+    public long getThresholdMillis() {
+        return thresholdMillis;
+    }
+
+    /**
+     * 调整执行耗时阈值，对之后开始执行的任务生效
+     *
+     * @param thresholdMillis 执行耗时阈值（单位：毫秒）
+     */
+    public void setThresholdMillis(long thresholdMillis) {
+        checkThreshold(thresholdMillis);
+        this.thresholdMillis = thresholdMillis;
+    }
+
+    /**
+     * 获取慢任务计数、仍在执行的慢任务及其最长执行时间与最近的调用栈样本
+     *
+     * @return 慢任务快照
+     */
+    public SlowTaskSnapshot snapshot() {
+        long now = System.nanoTime();
+        int count = 0;
+        long maxRunNanos = 0L;
+        for (Watch watch : running) {
+            count++;
+            maxRunNanos = Math.max(maxRunNanos, now - watch.startNanos);
+        }
+        String stacks;
+        synchronized (samples) {
+            stacks = samples.isEmpty() ? null : String.join("\n", samples);
+        }
+        return new SlowTaskSnapshot(thresholdMillis, slowCount.sum(), count, TimeUnit.NANOSECONDS.toMillis(maxRunNanos), stacks);
+    }
+
+    /**
+     * 在时间轮线程上抓取调用栈
+     */
+    private void onSlow(Watch watch) {
+        slowCount.increment();
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - watch.startNanos);
+        StackTraceElement[] stack = watch.worker.getStackTrace();
+        StringBuilder sample = new StringBuilder(256)
+                .append('"').append(watch.worker.getName()).append("\" ").append(elapsed).append("ms ").append(taskName(watch.task)).append('\n');
+        for (int i = 0; i < stack.length && i < stackDepth; i++) {
+            sample.append("\tat ").append(stack[i]).append('\n');
+        }
+        if (stack.length > stackDepth) sample.append("\t...\n");
+        if (sampleLimit > 0) {
+            synchronized (samples) {
+                samples.addFirst(sample.toString());
+                while (samples.size() > sampleLimit) samples.removeLast();
+            }
+        }
+        log.warn("[flash-tp]==> 任务执行超过阈值 线程池:{} 阈值:{}ms 已执行:{}ms\n{}", threadPoolName, thresholdMillis, elapsed, sample);
+    }
+
+    private static String taskName(Runnable task) {
+        String name = String.valueOf(task);
+        return name.length() > TASK_NAME_MAX_LENGTH ? name.substring(0, TASK_NAME_MAX_LENGTH) : name;
+    }
+
+    private static void checkThreshold(long thresholdMillis) {
+        if (thresholdMillis <= 0) throw new IllegalArgumentException("thresholdMillis must be positive");
+    }
+
+    /**
+     * 正在执行的任务的登记
+     * 状态由执行完成（工作线程）与到期（时间轮线程）竞争：先进入仍在执行的集合再标记为慢任务，执行完成时据此从集合中移除。
+     */
+    public final class Watch implements HashedTimingWheel.TimerTask {
+        private final Thread worker;
+        private final Runnable task;
+        private final long startNanos = System.nanoTime();
+        private final AtomicInteger state = new AtomicInteger(RUNNING);
+        private volatile HashedTimingWheel.Timeout timeout;
+
+        Watch(Thread worker, Runnable task) {
+            this.worker = worker;
+            this.task = task;
+        }
+
+        @Override
+        public void run(HashedTimingWheel.Timeout expired) {
+            running.add(this);
+            if (!state.compareAndSet(RUNNING, SLOW)) {
+                running.remove(this);
+                return;
+            }
+            onSlow(this);
+        }
+
+        /**
+         * 任务执行完成，取消定时任务；已判定为慢任务时移出仍在执行的集合
+         */
+        public void finish() {
+            int previous = state.getAndSet(DONE);
+            if (previous == RUNNING) {
+                HashedTimingWheel.Timeout registered = timeout;
+                if (null != registered) registered.cancel();
+            } else if (previous == SLOW) {
+                running.remove(this);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return taskName(task);
+        }
+    }
+
+}
@@ -0,0 +1,30 @@
+package com.cz.flashtp.domain.watchdog;
+
+import lombok.Data;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 慢任务检测配置
+ * 开启后全部托管线程池共用一个时间轮，到期精度为一格（tickDuration），阈值超过一圈（tickDuration × ticksPerWheel）时按圈数计算。
+ *
+ * @author Zjianru
+ */
+@Data
+public class SlowTaskSettings {
+    /** 是否开启慢任务检测，默认为false */
+    private boolean enabled;
+    /** 执行耗时阈值（单位：毫秒），默认为10000 */
+    private long threshold = 10000;
+    /** 按线程池 Bean 名称覆盖执行耗时阈值（单位：毫秒） */
+    private Map<String, Long> pools = new LinkedHashMap<>();
+    /** 时间轮每格时长（单位：毫秒），默认为100 */
+    private long tickDuration = 100;
+    /** 时间轮每圈格数，向上取整为 2 的幂，默认为512 */
+    private int ticksPerWheel = 512;
+    /** 每个线程池保留的调用栈样本数，默认为3 */
+    private int sampleLimit = 3;
+    /** 每个调用栈样本保留的栈帧数，默认为32 */
+    private int stackDepth = 32;
+}
@@ -1,8 +1,12 @@
 package com.cz.flashtp.registry;
 
 import com.cz.flashtp.domain.entity.ThreadPoolConfig;
+import com.cz.flashtp.domain.entity.ThreadPoolConfigAck;
+import com.cz.flashtp.domain.entity.TuningDecision;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 注册中心接口
@@ -30,4 +34,50 @@ public interface Registry {
      *                         ThreadPoolConfig对象包含线程池的所有配置参数，如核心线程数、最大线程数等。
      */
     void reportThreadPoolConfigParameter(ThreadPoolConfig threadPoolConfig);
+
+    /**
+     * 上报一个周期内的全部线程池数据。
+     * 默认依次调用 {@link #reportThreadPool(List)} 与 {@link #reportThreadPoolConfigParameter(ThreadPoolConfig)}，
+     * 实现类可将一个周期的写入合并为一次批量提交，并跳过未发生变化的线程池。
+     *
+     * @param threadPools 当前周期采集到的线程池配置列表。
+     */
+    default void reportThreadPoolCycle(List<ThreadPoolConfig> threadPools) {
+        reportThreadPool(threadPools);
+        for (ThreadPoolConfig threadPoolConfig : threadPools) {
+            reportThreadPoolConfigParameter(threadPoolConfig);
+        }
+    }
+
+    /**
+     * 异步上报一个周期内的全部线程池数据，调用线程不等待网络 I/O。
+     * 默认在调用线程上同步执行 {@link #reportThreadPoolCycle(List)}，实现类可基于异步客户端实现并在超时后失败。
+     *
+     * @param threadPools 当前周期采集到的线程池配置列表。
+     * @param timeout     本周期的超时时间。
+     * @return 上报结果，失败时以异常完成。
+     */
+    default CompletableFuture<Void> reportThreadPoolCycleAsync(List<ThreadPoolConfig> threadPools, Duration timeout) {
+        try {
+            reportThreadPoolCycle(threadPools);
+            return CompletableFuture.completedFuture(null);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * 上报一次自动调优决策，供管理端审计。
+     *
+     * @param decision 调优决策，dry-run 模式下为未实际执行的建议。
+     */
+    void reportTuningDecision(TuningDecision decision);
+
+    /**
+     * 回传一次线程池配置批量调整的确认，供管理端汇总各实例的生效情况。
+     * 在配置调整监听线程上调用，实现类不应等待网络 I/O。
+     *
+     * @param ack 批量调整确认，包含实际生效的参数与本地耗时。
+     */
+    void reportConfigAck(ThreadPoolConfigAck ack);
 }
@@ -0,0 +1,58 @@
+package com.cz.flashtp.registry;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 注册中心上报统计
+ * 记录最近一个周期与累计的网络往返次数、命令数、写入字节数，用于评估上报对注册中心的压力。
+ *
+ * @author Zjianru
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class ReportStatistics {
+
+    /**
+     * 累计上报周期数
+     */
+    private final long cycles;
+
+    /**
+     * 累计网络往返次数
+     */
+    private final long roundTrips;
+
+    /**
+     * 累计写命令数
+     */
+    private final long commands;
+
+    /**
+     * 累计写入字节数（编码后的值大小）
+     */
+    private final long bytes;
+
+    /**
+     * 累计因未变化而跳过的线程池数
+     */
+    private final long skippedPools;
+
+    /**
+     * 最近一个周期的网络往返次数
+     */
+    private final long lastRoundTrips;
+
+    /**
+     * 最近一个周期的写命令数
+     */
+    private final long lastCommands;
+
+    /**
+     * 最近一个周期的写入字节数
+     */
+    private final long lastBytes;
+
+}
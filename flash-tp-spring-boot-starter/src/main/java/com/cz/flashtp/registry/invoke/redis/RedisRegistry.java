@@ -1,52 +1,165 @@
 package com.cz.flashtp.registry.invoke.redis;
 
 import com.cz.flashtp.domain.entity.ThreadPoolConfig;
+import com.cz.flashtp.domain.entity.ThreadPoolConfigAck;
+import com.cz.flashtp.domain.entity.ThreadPoolReportEvent;
+import com.cz.flashtp.domain.entity.TuningDecision;
 import com.cz.flashtp.domain.valobj.RegistryEnumVO;
 import com.cz.flashtp.registry.Registry;
+import com.cz.flashtp.registry.ReportStatistics;
+import io.netty.buffer.ByteBuf;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.BatchOptions;
+import org.redisson.api.RBatch;
 import org.redisson.api.RBucket;
-import org.redisson.api.RList;
+import org.redisson.api.RFuture;
+import org.redisson.api.RListAsync;
+import org.redisson.api.RMapAsync;
 import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.Codec;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Redis 注册中心实现
  * RedisRegistry类实现了Registry接口，用于使用Redisson客户端将线程池配置信息报告给Redis。
  * 该类的主要作用是提供方法来存储和更新线程池配置以及线程池配置参数。
+ * <p>
+ * 周期上报 {@link #reportThreadPoolCycle(List)} 将一个周期内的全部写入放入同一个 {@link RBatch} 管道提交，
+ * 只占用一次网络往返；并与上一次成功上报的数据比对，未变化的线程池与线程池参数不再重复写入。
+ * <p>
+ * 运行数据按应用与实例分片，每个实例独占一个 Hash：{@code THREAD_POOL_INSTANCE_KEY_{appName}_{instanceId}}，
+ * field 为线程池名称。各实例只写自己的 Hash，互不覆盖；每个周期续期一次过期时间作为心跳，
+ * 实例下线后停止续期，Hash 在心跳过期后由 Redis 自动清理。
+ * <p>
+ * 运行数据发生变化的周期，在同一管道中向 {@code THREAD_POOL_REPORT_TOPIC} 发布 {@link ThreadPoolReportEvent}，
+ * 只包含变化与移除的线程池，管理端据此向看板推送增量。
  *
  * @author Zjianru
  */
+@Slf4j
 public class RedisRegistry implements Registry {
 
+    /**
+     * 线程池参数的缓存时间
+     */
+    private static final Duration PARAMETER_TTL = Duration.ofDays(30);
+
+    /**
+     * 线程池参数即使没有变化，也按此间隔重新写入一次，防止 Redis 数据丢失后无法恢复
+     */
+    private static final long PARAMETER_REFRESH_NANOS = Duration.ofHours(1).toNanos();
+
+    /**
+     * 每个应用保留的自动调优决策条数
+     */
+    private static final int TUNING_DECISION_LIMIT = 1000;
+
+    /**
+     * 自动调优决策的缓存时间
+     */
+    private static final Duration TUNING_DECISION_TTL = Duration.ofDays(7);
+
     /**
      * Redisson客户端，用于与Redis进行交互。
      */
-    private final RedissonClient redissonClient;
+    private final RedissonConnector redissonConnector;
+
+    /**
+     * 应用名称与实例标识，用于上报变化通知
+     */
+    private final String applicationName;
+    private final String instanceId;
+
+    /**
+     * 当前实例的运行数据 Hash 键
+     */
+    private final String instanceKey;
+
+    /**
+     * 心跳过期时间
+     */
+    private final Duration heartbeatTtl;
+
+    /**
+     * 上一次成功写入实例 Hash 的线程池数据，由对象锁保护
+     */
+    private final Map<String, ThreadPoolConfig> lastReportedSnapshots = new HashMap<>();
+
+    /**
+     * 上一次成功上报的线程池参数与写入时间，由对象锁保护
+     */
+    private final Map<String, ThreadPoolConfig> lastReportedParameters = new HashMap<>();
+    private final Map<String, Long> lastParameterWriteNanos = new HashMap<>();
+
+    /**
+     * 上报统计
+     */
+    private final AtomicLong cycles = new AtomicLong();
+    private final AtomicLong roundTrips = new AtomicLong();
+    private final AtomicLong commands = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+    private final AtomicLong skippedPools = new AtomicLong();
+    private volatile long lastRoundTrips;
+    private volatile long lastCommands;
+    private volatile long lastBytes;
 
     /**
      * 构造函数，初始化RedisRegistry实例。
      *
-     * @param redissonClient Redisson客户端实例，用于后续操作Redis。
+     * @param redissonClient  Redisson客户端实例，用于后续操作Redis。
+     * @param applicationName 应用名称
+     * @param instanceId      实例标识
+     * @param heartbeatTtl    心跳过期时间，实例停止上报超过该时间后其运行数据被清理
+     */
+    public RedisRegistry(RedissonClient redissonClient, String applicationName, String instanceId, Duration heartbeatTtl) {
+        this(RedissonConnector.of(redissonClient), applicationName, instanceId, heartbeatTtl);
+    }
+
+    /**
+     * 构造函数，客户端由连接器异步建立，连接成功前的上报以 {@link IllegalStateException} 失败，由调用方按失败处理。
+     *
+     * @param redissonConnector Redisson 客户端连接器
+     * @param applicationName   应用名称
+     * @param instanceId        实例标识
+     * @param heartbeatTtl      心跳过期时间，实例停止上报超过该时间后其运行数据被清理
      */
-    public RedisRegistry(RedissonClient redissonClient) {
-        this.redissonClient = redissonClient;
+    public RedisRegistry(RedissonConnector redissonConnector, String applicationName, String instanceId, Duration heartbeatTtl) {
+        this.redissonConnector = redissonConnector;
+        this.applicationName = applicationName;
+        this.instanceId = instanceId;
+        this.instanceKey = instanceKey(applicationName, instanceId);
+        this.heartbeatTtl = heartbeatTtl;
     }
 
     /**
      * 将线程池配置信息报告给Redis。
-     * 该方法首先清除已有的线程池配置列表，然后将新的线程池配置列表全部添加进去。
+     * 该方法整体重写当前实例的 Hash：先删除再全部写入，并设置心跳过期时间，不影响其他实例的数据。
      *
      * @param threadPools 线程池配置列表，包含多个ThreadPoolConfig实例。
      */
     @Override
-    public void reportThreadPool(List<ThreadPoolConfig> threadPools) {
-        // 获取线程池配置列表的Redis键
-        RList<ThreadPoolConfig> list = redissonClient.getList(RegistryEnumVO.THREAD_POOL_CONFIG_LIST_KEY.getKey());
-        // 清除当前列表中的所有元素
-        list.delete();
-        // 将新的线程池配置列表添加到Redis中
-        list.addAll(threadPools);
+    public synchronized void reportThreadPool(List<ThreadPoolConfig> threadPools) {
+        Map<String, ThreadPoolConfig> entries = toEntries(threadPools);
+        RBatch batch = redissonClient().createBatch(BatchOptions.defaults());
+        RMapAsync<String, ThreadPoolConfig> map = batch.getMap(instanceKey);
+        map.deleteAsync();
+        if (!entries.isEmpty()) {
+            map.putAllAsync(entries);
+            map.expireAsync(heartbeatTtl);
+        }
+        batch.execute();
+        lastReportedSnapshots.clear();
+        lastReportedSnapshots.putAll(entries);
     }
 
     /**
@@ -57,17 +170,255 @@ public class RedisRegistry implements Registry {
      */
     @Override
     public void reportThreadPoolConfigParameter(ThreadPoolConfig threadPoolConfig) {
-        // 构建唯一的键名，包含线程池配置参数的列表键前缀和线程池的名称与应用名称
-        String cacheKey = RegistryEnumVO.THREAD_POOL_CONFIG_PARAMETER_LIST_KEY.getKey()
+        // 获取对应的Redis键的Bucket对象
+        RBucket<ThreadPoolConfig> bucket = redissonClient().getBucket(parameterKey(threadPoolConfig));
+        // 将线程池配置参数存储到Redis中，并设置过期时间为30天
+        bucket.set(threadPoolConfig, PARAMETER_TTL);
+    }
+
+    /**
+     * 以管道方式上报一个周期的数据，只写入发生变化的部分。
+     * 每个周期都会续期实例 Hash 作为心跳；续期结果表明 Hash 已不存在（过期或被清理）时，清空比对基线，下一周期全量写入。
+     * 提交失败时不更新比对基线，下一周期会重新写入。
+     *
+     * @param threadPools 当前周期采集到的线程池配置列表。
+     */
+    @Override
+    public synchronized void reportThreadPoolCycle(List<ThreadPoolConfig> threadPools) {
+        CyclePlan plan = plan(threadPools, BatchOptions.defaults());
+        // 一次管道提交，异常向上抛出，基线保持不变
+        plan.batch.execute();
+        commit(plan);
+    }
+
+    /**
+     * 异步上报一个周期的数据，写入内容与 {@link #reportThreadPoolCycle(List)} 相同。
+     * 管道以 {@link RBatch#executeAsync()} 提交，响应超时即失败且不重试，调用线程不等待网络 I/O；
+     * 提交成功后在回调中更新比对基线。
+     *
+     * @param threadPools 当前周期采集到的线程池配置列表。
+     * @param timeout     本周期的响应超时时间。
+     * @return 上报结果
+     */
+    @Override
+    public CompletableFuture<Void> reportThreadPoolCycleAsync(List<ThreadPoolConfig> threadPools, Duration timeout) {
+        CyclePlan plan;
+        synchronized (this) {
+            plan = plan(threadPools, BatchOptions.defaults()
+                    .responseTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
+                    .retryAttempts(0));
+        }
+        return plan.batch.executeAsync().toCompletableFuture().thenAccept(result -> commit(plan));
+    }
+
+    /**
+     * 与比对基线对比，生成本周期的管道命令
+     */
+    private CyclePlan plan(List<ThreadPoolConfig> threadPools, BatchOptions options) {
+        CyclePlan plan = new CyclePlan();
+        plan.nanos = System.nanoTime();
+        RedissonClient redissonClient = redissonClient();
+        plan.batch = redissonClient.createBatch(options);
+        Codec codec = redissonClient.getConfig().getCodec();
+
+        // 先续期，返回 false 说明实例 Hash 已不存在
+        RMapAsync<String, ThreadPoolConfig> map = plan.batch.getMap(instanceKey);
+        plan.alive = map.expireAsync(heartbeatTtl);
+        plan.commands++;
+
+        plan.poolCount = threadPools.size();
+        Map<String, ThreadPoolConfig> entries = toEntries(threadPools);
+        plan.entryCount = entries.size();
+        for (Map.Entry<String, ThreadPoolConfig> entry : entries.entrySet()) {
+            if (entry.getValue().equals(lastReportedSnapshots.get(entry.getKey()))) continue;
+            plan.changedSnapshots.put(entry.getKey(), entry.getValue());
+            plan.bytes += encodedSize(codec, entry.getValue());
+        }
+        for (String threadPoolName : lastReportedSnapshots.keySet()) {
+            if (!entries.containsKey(threadPoolName)) plan.removedPools.add(threadPoolName);
+        }
+        if (!plan.changedSnapshots.isEmpty()) {
+            map.putAllAsync(plan.changedSnapshots);
+            plan.commands++;
+        }
+        if (!plan.removedPools.isEmpty()) {
+            map.fastRemoveAsync(plan.removedPools.toArray(new String[0]));
+            plan.commands++;
+        }
+        if (!plan.changedSnapshots.isEmpty() || !plan.removedPools.isEmpty()) {
+            // Hash 不存在时首个续期不生效，写入后再续期一次
+            map.expireAsync(heartbeatTtl);
+            plan.commands++;
+            // 写入之后发布变化通知，订阅方收到通知时 Hash 中已是新数据
+            plan.batch.getTopic(RegistryEnumVO.THREAD_POOL_REPORT_TOPIC.getKey()).publishAsync(new ThreadPoolReportEvent(applicationName, instanceId,
+                    System.currentTimeMillis(), new ArrayList<>(plan.changedSnapshots.values()), new ArrayList<>(plan.removedPools)));
+            plan.commands++;
+        }
+
+        for (ThreadPoolConfig threadPoolConfig : threadPools) {
+            String cacheKey = parameterKey(threadPoolConfig);
+            Long lastWrite = lastParameterWriteNanos.get(cacheKey);
+            boolean expired = null == lastWrite || plan.nanos - lastWrite >= PARAMETER_REFRESH_NANOS;
+            if (!expired && sameParameters(lastReportedParameters.get(cacheKey), threadPoolConfig)) continue;
+            plan.batch.<ThreadPoolConfig>getBucket(cacheKey).setAsync(threadPoolConfig, PARAMETER_TTL);
+            plan.changedParameters.add(threadPoolConfig);
+            plan.commands++;
+            plan.bytes += encodedSize(codec, threadPoolConfig);
+        }
+        return plan;
+    }
+
+    /**
+     * 提交成功，更新比对基线与统计
+     */
+    private synchronized void commit(CyclePlan plan) {
+        lastReportedSnapshots.putAll(plan.changedSnapshots);
+        plan.removedPools.forEach(lastReportedSnapshots::remove);
+        boolean missing = !Boolean.TRUE.equals(plan.alive.getNow());
+        if (missing && plan.changedSnapshots.size() < plan.entryCount) {
+            // 本周期只写入了部分线程池，其余线程池需在下一周期补写
+            lastReportedSnapshots.clear();
+            log.warn("[flash-tp] ==> 动态线程池，实例运行数据已过期，下一周期全量上报 key:{}", instanceKey);
+        }
+        for (ThreadPoolConfig threadPoolConfig : plan.changedParameters) {
+            String cacheKey = parameterKey(threadPoolConfig);
+            lastReportedParameters.put(cacheKey, threadPoolConfig);
+            lastParameterWriteNanos.put(cacheKey, plan.nanos);
+        }
+
+        cycles.incrementAndGet();
+        roundTrips.incrementAndGet();
+        commands.addAndGet(plan.commands);
+        bytes.addAndGet(plan.bytes);
+        skippedPools.addAndGet(plan.entryCount - plan.changedSnapshots.size());
+        lastRoundTrips = 1;
+        lastCommands = plan.commands;
+        lastBytes = plan.bytes;
+        log.debug("[flash-tp] ==> 动态线程池，周期上报完成 线程池数:{} 写命令数:{} 写入字节数:{} 运行数据变化:{} 移除:{} 参数变化:{}",
+                plan.poolCount, plan.commands, plan.bytes, plan.changedSnapshots.size(), plan.removedPools.size(), plan.changedParameters.size());
+    }
+
+    /**
+     * 追加自动调优决策，每个应用只保留最近 {@value #TUNING_DECISION_LIMIT} 条。
+     *
+     * @param decision 调优决策
+     */
+    @Override
+    public void reportTuningDecision(TuningDecision decision) {
+        RBatch batch = redissonClient().createBatch(BatchOptions.defaults());
+        RListAsync<TuningDecision> list = batch.getList(RegistryEnumVO.THREAD_POOL_TUNING_DECISION_KEY.getKey() + "_" + decision.getAppName());
+        list.addAsync(decision);
+        list.trimAsync(-TUNING_DECISION_LIMIT, -1);
+        list.expireAsync(TUNING_DECISION_TTL);
+        batch.execute();
+    }
+
+    /**
+     * 发布批量调整确认，异步提交，不阻塞配置调整监听线程。
+     *
+     * @param ack 批量调整确认
+     */
+    @Override
+    public void reportConfigAck(ThreadPoolConfigAck ack) {
+        redissonClient().getTopic(RegistryEnumVO.THREAD_POOL_CONFIG_ACK_TOPIC.getKey()).publishAsync(ack);
+    }
+
+    /**
+     * 获取上报统计
+     *
+     * @return 上报统计
+     */
+    public ReportStatistics getReportStatistics() {
+        return new ReportStatistics(cycles.get(), roundTrips.get(), commands.get(), bytes.get(), skippedPools.get(),
+                lastRoundTrips, lastCommands, lastBytes);
+    }
+
+    /**
+     * 获取已连接的客户端
+     */
+    private RedissonClient redissonClient() {
+        RedissonClient redissonClient = redissonConnector.client();
+        if (null == redissonClient) throw new IllegalStateException("注册中心（redis）尚未连接");
+        return redissonClient;
+    }
+
+    /**
+     * 实例运行数据 Hash 的键名
+     */
+    private static String instanceKey(String applicationName, String instanceId) {
+        return RegistryEnumVO.THREAD_POOL_INSTANCE_KEY.getKey()
+                + "_"
+                + applicationName
+                + "_"
+                + instanceId;
+    }
+
+    /**
+     * 以线程池名称为 field 组织 Hash 数据，保持采集顺序
+     */
+    private static Map<String, ThreadPoolConfig> toEntries(List<ThreadPoolConfig> threadPools) {
+        Map<String, ThreadPoolConfig> entries = new LinkedHashMap<>();
+        for (ThreadPoolConfig threadPoolConfig : threadPools) {
+            entries.put(threadPoolConfig.getThreadPoolName(), threadPoolConfig);
+        }
+        return entries;
+    }
+
+    /**
+     * 构建唯一的键名，包含线程池配置参数的列表键前缀和线程池的名称与应用名称
+     */
+    private static String parameterKey(ThreadPoolConfig threadPoolConfig) {
+        return RegistryEnumVO.THREAD_POOL_CONFIG_PARAMETER_LIST_KEY.getKey()
                 + "_"
                 + threadPoolConfig.getAppName()
                 + "_"
                 + threadPoolConfig.getThreadPoolName();
-        // 获取对应的Redis键的Bucket对象
-        RBucket<ThreadPoolConfig> bucket = redissonClient.getBucket(cacheKey);
-        // 将线程池配置参数存储到Redis中，并设置过期时间为30天
-        bucket.set(threadPoolConfig, Duration.ofDays(30));
     }
 
-}
+    /**
+     * 可调整的参数是否一致，运行指标的变化不触发参数写入
+     */
+    private static boolean sameParameters(ThreadPoolConfig last, ThreadPoolConfig current) {
+        return null != last
+                && Objects.equals(last.getAppName(), current.getAppName())
+                && Objects.equals(last.getThreadPoolName(), current.getThreadPoolName())
+                && last.getCorePoolSize() == current.getCorePoolSize()
+                && last.getMaximumPoolSize() == current.getMaximumPoolSize()
+                && last.getQueueCapacity() == current.getQueueCapacity();
+    }
 
+    /**
+     * 按客户端编解码器计算写入大小，统计失败不影响上报
+     */
+    private static long encodedSize(Codec codec, Object value) {
+        if (null == codec) return 0L;
+        try {
+            ByteBuf buf = codec.getValueEncoder().encode(value);
+            try {
+                return buf.readableBytes();
+            } finally {
+                buf.release();
+            }
+        } catch (Exception e) {
+            log.debug("[flash-tp] ==> 动态线程池，统计写入字节数失败", e);
+            return 0L;
+        }
+    }
+
+    /**
+     * 一个上报周期的管道命令与待更新的基线
+     */
+    private static final class CyclePlan {
+        private RBatch batch;
+        private RFuture<Boolean> alive;
+        private long nanos;
+        private int poolCount;
+        private int entryCount;
+        private long commands;
+        private long bytes;
+        private final Map<String, ThreadPoolConfig> changedSnapshots = new LinkedHashMap<>();
+        private final List<String> removedPools = new ArrayList<>();
+        private final List<ThreadPoolConfig> changedParameters = new ArrayList<>();
+    }
+
+}
@@ -0,0 +1,147 @@
+package com.cz.flashtp.registry.invoke.redis;
+
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RedissonClient;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Redisson 客户端异步连接器
+ * {@code Redisson.create} 会同步建立连接，Redis 不可达时阻塞到连接超时后抛出异常。
+ * 连接器在独立的守护线程上创建客户端，失败后按退避间隔（从 retryInterval 开始逐次翻倍，最长 60 秒）重试，直到连接成功或连接器停止；
+ * 依赖 Redis 的启动工作（配置对齐、订阅调整主题）通过 {@link #whenConnected(Consumer)} 在连接成功后执行，应用启动不等待 Redis。
+ *
+ * @author Zjianru
+ */
+@Slf4j
+public class RedissonConnector {
+
+    /**
+     * 重试间隔上限（单位：毫秒）
+     */
+    private static final long MAX_RETRY_INTERVAL = 60_000;
+
+    private final Supplier<RedissonClient> factory;
+    private final long retryInterval;
+    private final CompletableFuture<RedissonClient> connected = new CompletableFuture<>();
+
+    private Thread connector;
+    private volatile boolean stopped;
+
+    /**
+     * @param factory       客户端创建方法，连接失败时抛出异常
+     * @param retryInterval 首次重试间隔（单位：毫秒）
+     */
+    public RedissonConnector(Supplier<RedissonClient> factory, long retryInterval) {
+        this.factory = factory;
+        this.retryInterval = Math.max(1, retryInterval);
+    }
+
+    /**
+     * 包装已连接的客户端
+     *
+     * @param redissonClient Redisson客户端
+     * @return 已连接的连接器
+     */
+    public static RedissonConnector of(RedissonClient redissonClient) {
+        RedissonConnector connector = new RedissonConnector(() -> redissonClient, 1);
+        connector.connected.complete(redissonClient);
+        return connector;
+    }
+
+    /**
+     * 在守护线程上开始连接，重复调用无效
+     */
+    public synchronized void start() {
+        if (null != connector || connected.isDone()) return;
+        connector = new Thread(this::connect, "flash-tp-redis-connector");
+        connector.setDaemon(true);
+        connector.start();
+    }
+
+    /**
+     * 停止连接并关闭客户端，尚未执行的连接回调不再执行
+     */
+    public synchronized void stop() {
+        stopped = true;
+        if (null != connector) connector.interrupt();
+        RedissonClient redissonClient = connected.getNow(null);
+        if (null != redissonClient) {
+            redissonClient.shutdown();
+        } else {
+            connected.completeExceptionally(new IllegalStateException("连接器已停止"));
+        }
+    }
+
+    /**
+     * 获取已连接的客户端
+     *
+     * @return Redisson客户端，尚未连接时为 null
+     */
+    public RedissonClient client() {
+        return connected.isCompletedExceptionally() ? null : connected.getNow(null);
+    }
+
+    /**
+     * 等待连接成功
+     *
+     * @param timeoutMillis 最长等待时间（单位：毫秒）
+     * @return Redisson客户端，超时、被中断或连接器已停止时为 null
+     */
+    public RedissonClient await(long timeoutMillis) {
+        try {
+            return connected.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException | TimeoutException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 连接成功后执行，已连接时在调用线程上立即执行，否则在连接线程上执行；连接器停止前未连接则不执行
+     *
+     * @param action 使用客户端的操作
+     */
+    public void whenConnected(Consumer<RedissonClient> action) {
+        connected.thenAccept(redissonClient -> {
+            try {
+                action.accept(redissonClient);
+            } catch (Exception e) {
+                log.error("[flash-tp]==> 注册中心连接回调执行失败", e);
+            }
+        });
+    }
+
+    private void connect() {
+        long interval = retryInterval;
+        for (int attempt = 1; !stopped; attempt++) {
+            RedissonClient redissonClient;
+            try {
+                redissonClient = factory.get();
+            } catch (Exception e) {
+                log.warn("[flash-tp]==> 注册中心（redis）连接失败，{}ms 后重试 第{}次 原因:{}", interval, attempt, e.getMessage());
+                try {
+                    Thread.sleep(interval);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+                interval = Math.min(interval * 2, MAX_RETRY_INTERVAL);
+                continue;
+            }
+            // 连接期间已停止时连接结果已标记失败，关闭刚创建的客户端
+            if (!connected.complete(redissonClient)) {
+                redissonClient.shutdown();
+                return;
+            }
+            log.info("[flash-tp]==> 注册中心（redis）连接成功 第{}次", attempt);
+            return;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.cz.flashtp.trigger.endpoint;
+
+import com.cz.flashtp.domain.DynamicThreadPoolService;
+import com.cz.flashtp.domain.entity.ThreadPoolConfig;
+import com.cz.flashtp.domain.metrics.ThreadPoolSnapshotCache;
+import com.cz.flashtp.registry.Registry;
+import com.cz.flashtp.registry.invoke.redis.RedisRegistry;
+import com.cz.flashtp.trigger.job.ThreadPoolDataReportJob;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * flash-tp actuator 端点
+ * 在本机读取线程池状态并调整线程池参数，不经过 Redis 与管理端：
+ * <ul>
+ *     <li>GET /actuator/flashtp：全部线程池快照、上报任务与注册中心统计</li>
+ *     <li>GET /actuator/flashtp/{threadPoolName}：单个线程池快照</li>
+ *     <li>POST /actuator/flashtp/{threadPoolName}：调整线程数与队列容量，未传的参数保持不变</li>
+ * </ul>
+ * 读取走 {@link ThreadPoolSnapshotCache}；调整与 Redis 主题下发的调整走同一入口，生效后立即触发一次上报，管理端随之看到新的参数。
+ * 端点默认不对外暴露，需通过 management.endpoints.web.exposure.include 开启，写操作应配合访问控制使用。
+ *
+ * @author Zjianru
+ */
+@Slf4j
+@Endpoint(id = "flashtp")
+public class FlashTpEndpoint {
+
+    private final String applicationName;
+    private final DynamicThreadPoolService dynamicThreadPoolService;
+    private final ThreadPoolSnapshotCache snapshotCache;
+    private final ThreadPoolDataReportJob threadPoolDataReportJob;
+    private final Registry registry;
+
+    /**
+     * @param applicationName          应用名称
+     * @param dynamicThreadPoolService 动态线程池服务，用于调整线程池参数
+     * @param snapshotCache            线程池快照缓存
+     * @param threadPoolDataReportJob  上报任务，调整后触发上报
+     * @param registry                 注册中心，为 {@link RedisRegistry} 时附带上报流量统计
+     */
+    public FlashTpEndpoint(String applicationName, DynamicThreadPoolService dynamicThreadPoolService, ThreadPoolSnapshotCache snapshotCache,
+                           ThreadPoolDataReportJob threadPoolDataReportJob, Registry registry) {
+        this.applicationName = applicationName;
+        this.dynamicThreadPoolService = dynamicThreadPoolService;
+        this.snapshotCache = snapshotCache;
+        this.threadPoolDataReportJob = threadPoolDataReportJob;
+        this.registry = registry;
+    }
+
+    /**
+     * 查询全部线程池快照与上报统计
+     *
+     * @return 应用名、线程池快照、上报任务统计与注册中心统计
+     */
+    @ReadOperation
+    public Map<String, Object> threadPools() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("appName", applicationName);
+        result.put("threadPools", new ArrayList<>(snapshotCache.all()));
+        result.put("reporter", threadPoolDataReportJob.statistics());
+        if (registry instanceof RedisRegistry) result.put("registry", ((RedisRegistry) registry).getReportStatistics());
+        return result;
+    }
+
+    /**
+     * 查询单个线程池快照
+     *
+     * @param threadPoolName 线程池名称
+     * @return 线程池快照，线程池不存在时返回 null（响应 404）
+     */
+    @ReadOperation
+    public ThreadPoolConfig threadPool(@Selector String threadPoolName) {
+        return snapshotCache.get(threadPoolName);
+    }
+
+    /**
+     * 调整线程池参数，未传的参数保持当前值
+     *
+     * @param threadPoolName  线程池名称
+     * @param corePoolSize    核心线程数
+     * @param maximumPoolSize 最大线程数
+     * @param queueCapacity   队列容量，仅可调整容量的队列生效
+     * @return 调整后的线程池快照，线程池不存在时返回 null（响应 404）
+     */
+    @WriteOperation
+    public ThreadPoolConfig resize(@Selector String threadPoolName, @Nullable Integer corePoolSize,
+                                   @Nullable Integer maximumPoolSize, @Nullable Integer queueCapacity) {
+        if (null == snapshotCache.get(threadPoolName)) return null;
+        // 直接读取线程池而非缓存，以当前实际参数为基准合并
+        ThreadPoolConfig current = dynamicThreadPoolService.queryThreadPoolConfigByName(threadPoolName);
+        int core = null == corePoolSize ? current.getCorePoolSize() : corePoolSize;
+        int max = null == maximumPoolSize ? current.getMaximumPoolSize() : maximumPoolSize;
+        if (core < 0 || max <= 0 || core > max) {
+            throw new InvalidEndpointRequestException("非法的线程数配置 核心线程数:" + core + " 最大线程数:" + max, "invalid pool size");
+        }
+        if (null != queueCapacity && queueCapacity <= 0) {
+            throw new InvalidEndpointRequestException("非法的队列容量:" + queueCapacity, "invalid queue capacity");
+        }
+        ThreadPoolConfig needChange = ThreadPoolConfig.getInstance(applicationName, threadPoolName);
+        needChange.setCorePoolSize(core);
+        needChange.setMaximumPoolSize(max);
+        needChange.setQueueCapacity(null == queueCapacity ? 0 : queueCapacity);
+        log.info("[flash-tp]==> actuator 调整线程池配置 线程池名称:{} 核心线程数:{} 最大线程数:{} 队列容量:{}", threadPoolName, core, max, queueCapacity);
+        dynamicThreadPoolService.updateThreadPoolConfig(needChange);
+        snapshotCache.invalidate();
+        threadPoolDataReportJob.reportNow();
+        return snapshotCache.get(threadPoolName);
+    }
+
+}
@@ -0,0 +1,83 @@
+package com.cz.flashtp.trigger.job;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 上报任务统计
+ * 记录上报任务自身的成功、失败、超时、跳过次数与上报延迟，用于判断注册中心是否拖慢了数据上报。
+ *
+ * @author Zjianru
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class ReporterStatistics {
+
+    /**
+     * 累计执行周期数
+     */
+    private final long cycles;
+
+    /**
+     * 累计上报成功次数
+     */
+    private final long succeeded;
+
+    /**
+     * 累计上报失败次数（不含超时）
+     */
+    private final long failed;
+
+    /**
+     * 累计上报超时次数
+     */
+    private final long timedOut;
+
+    /**
+     * 累计因上一次上报未完成而跳过的周期数
+     */
+    private final long skipped;
+
+    /**
+     * 累计因积压队列已满而丢弃的快照数
+     */
+    private final long dropped;
+
+    /**
+     * 累计被更新快照覆盖而合并的快照数
+     */
+    private final long coalesced;
+
+    /**
+     * 当前积压的快照数
+     */
+    private final int backlog;
+
+    /**
+     * 是否有上报正在进行
+     */
+    private final boolean inFlight;
+
+    /**
+     * 最近一次成功上报的延迟：从最旧的未上报快照采集到上报完成的时间（单位：毫秒）
+     */
+    private final long lastLagMillis;
+
+    /**
+     * 最大上报延迟（单位：毫秒）
+     */
+    private final long maxLagMillis;
+
+    /**
+     * 最近一次上报的耗时（单位：毫秒）
+     */
+    private final long lastDurationMillis;
+
+    /**
+     * 最近一次成功上报的时间戳，0 表示尚未成功
+     */
+    private final long lastSuccessMillis;
+
+}
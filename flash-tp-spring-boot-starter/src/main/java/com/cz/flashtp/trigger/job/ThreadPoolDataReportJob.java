@@ -1,24 +1,66 @@
 package com.cz.flashtp.trigger.job;
 
-import com.alibaba.fastjson2.JSON;
 import com.cz.flashtp.domain.DynamicThreadPoolService;
 import com.cz.flashtp.domain.entity.ThreadPoolConfig;
+import com.cz.flashtp.domain.metrics.SampleWindow;
+import com.cz.flashtp.domain.metrics.ThreadPoolSampler;
 import com.cz.flashtp.registry.Registry;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Scheduled;
 
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
 
 /**
  * 线程池数据上报任务
  * 动态线程池数据报告任务类。
  * 该类负责定时获取动态线程池的配置信息，并将这些信息上报到注册中心。
+ * <p>
+ * 上报在 starter 自有的守护线程 {@code flash-tp-reporter} 上按固定频率执行，不占用 Spring 的 {@code @Scheduled} 调度线程，
+ * 注册中心阻塞时不会影响应用自身的定时任务。网络 I/O 通过 {@link Registry#reportThreadPoolCycleAsync(List, Duration)} 异步提交，
+ * 每个周期有独立的超时时间：
+ * <ul>
+ *     <li>每个周期先采集快照放入本地积压队列，队列有上限，超出时丢弃最旧的快照；</li>
+ *     <li>上一次上报仍未完成时跳过本周期的提交，快照留在积压队列中；</li>
+ *     <li>提交时只上报最新的快照，较旧的快照已被覆盖，合并丢弃；失败或超时后快照放回队列，下一周期重试。</li>
+ * </ul>
+ * 配置了 {@link ThreadPoolSampler} 时，每个快照附带上一周期以来高频采样的最小值、最大值与平均值，
+ * 快照合并时窗口聚合值一并合并，峰值不会因跳过或失败的周期而丢失。
+ * 上报延迟与失败次数通过 {@link #statistics()} 获取。
  *
  * @author Zjianru
  */
 @Slf4j
 public class ThreadPoolDataReportJob {
 
+    /**
+     * 默认上报间隔（单位：毫秒）
+     */
+    public static final long DEFAULT_REPORT_INTERVAL = 20_000;
+
+    /**
+     * 默认单周期超时时间（单位：毫秒）
+     */
+    public static final long DEFAULT_REPORT_TIMEOUT = 5_000;
+
+    /**
+     * 默认积压队列上限
+     */
+    public static final int DEFAULT_BACKLOG_LIMIT = 16;
+
     /**
      * 动态线程池服务，用于获取线程池配置信息。
      */
@@ -30,36 +72,262 @@ public class ThreadPoolDataReportJob {
     private final Registry registry;
 
     /**
-     * 构造函数，初始化动态线程池服务和注册中心。
+     * 高频采样器，为空时不附带窗口聚合值
+     */
+    private final ThreadPoolSampler sampler;
+
+    private final long reportInterval;
+    private final Duration reportTimeout;
+    private final int backlogLimit;
+    private final LongSupplier clock;
+
+    /**
+     * 待上报的快照，最旧的在队首，由对象锁保护
+     */
+    private final Deque<PendingReport> backlog = new ArrayDeque<>();
+
+    /**
+     * 是否有上报正在进行
+     */
+    private final AtomicBoolean inFlight = new AtomicBoolean();
+
+    /**
+     * 上报统计
+     */
+    private final AtomicLong cycles = new AtomicLong();
+    private final AtomicLong succeeded = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private volatile long lastLagMillis;
+    private volatile long maxLagMillis;
+    private volatile long lastDurationMillis;
+    private volatile long lastSuccessMillis;
+
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * 构造函数，初始化动态线程池服务和注册中心，使用默认的上报间隔、超时时间与积压上限。
      *
      * @param dynamicThreadPoolService 动态线程池服务
      * @param registry                 注册中心
      */
     public ThreadPoolDataReportJob(DynamicThreadPoolService dynamicThreadPoolService, Registry registry) {
+        this(dynamicThreadPoolService, registry, DEFAULT_REPORT_INTERVAL, DEFAULT_REPORT_TIMEOUT, DEFAULT_BACKLOG_LIMIT, null);
+    }
+
+    public ThreadPoolDataReportJob(DynamicThreadPoolService dynamicThreadPoolService, Registry registry,
+                                   long reportInterval, long reportTimeout, int backlogLimit, ThreadPoolSampler sampler) {
+        this(dynamicThreadPoolService, registry, reportInterval, reportTimeout, backlogLimit, sampler, System::currentTimeMillis);
+    }
+
+    /**
+     * @param dynamicThreadPoolService 动态线程池服务
+     * @param registry                 注册中心
+     * @param reportInterval           上报间隔（单位：毫秒）
+     * @param reportTimeout            单周期超时时间（单位：毫秒）
+     * @param backlogLimit             积压队列上限
+     * @param sampler                  高频采样器，可为空
+     * @param clock                    毫秒时钟
+     */
+    public ThreadPoolDataReportJob(DynamicThreadPoolService dynamicThreadPoolService, Registry registry,
+                                   long reportInterval, long reportTimeout, int backlogLimit, ThreadPoolSampler sampler, LongSupplier clock) {
         this.dynamicThreadPoolService = dynamicThreadPoolService;
         this.registry = registry;
+        this.sampler = sampler;
+        this.reportInterval = reportInterval;
+        this.reportTimeout = Duration.ofMillis(reportTimeout);
+        this.backlogLimit = Math.max(1, backlogLimit);
+        this.clock = clock;
     }
 
     /**
-     * 定时任务，每20秒执行一次，用于上报线程池的配置信息。
-     * 该方法首先从动态线程池服务中获取线程池配置列表，然后将这些配置信息上报到注册中心。
-     * 最后，逐个上报每个线程池的详细配置参数。
+     * 在独立的守护线程上按固定频率执行上报
+     */
+    public synchronized void start() {
+        if (null != scheduler) return;
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "flash-tp-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::runSafely, reportInterval, reportInterval, TimeUnit.MILLISECONDS);
+        log.info("[flash-tp] ==> 动态线程池，上报任务已启动 间隔:{}ms 超时:{}ms 积压上限:{}", reportInterval, reportTimeout.toMillis(), backlogLimit);
+    }
+
+    public synchronized void stop() {
+        if (null == scheduler) return;
+        scheduler.shutdownNow();
+        scheduler = null;
+    }
+
+    /**
+     * 立即采集并上报一次，例如线程池配置变更后。
+     * 已启动时在上报线程上异步执行，调用线程不等待网络 I/O；未启动时在调用线程上执行。
+     */
+    public void reportNow() {
+        ScheduledExecutorService executor;
+        synchronized (this) {
+            executor = scheduler;
+        }
+        if (null == executor) {
+            runSafely();
+            return;
+        }
+        try {
+            executor.execute(this::runSafely);
+        } catch (Exception e) {
+            log.warn("[flash-tp] ==> 动态线程池，立即上报提交失败", e);
+        }
+    }
+
+    /**
+     * 执行一个上报周期：采集快照放入积压队列，上一次上报已完成时提交最新快照。
      */
-    @Scheduled(cron = "0/20 * * * * ?")
     public void execReportThreadPoolList() {
+        cycles.incrementAndGet();
         // 从动态线程池服务中查询线程池列表
         List<ThreadPoolConfig> configs = dynamicThreadPoolService.queryThreadPoolList();
-        // 上报线程池配置信息
-        registry.reportThreadPool(configs);
-        // 日志记录上报的线程池信息
-        log.info("[flash-tp] ==> 动态线程池，上报线程池信息：{}", JSON.toJSONString(configs));
-        // 遍历线程池配置列表，逐个上报每个线程池的详细配置参数
-        for (ThreadPoolConfig config : configs) {
-            registry.reportThreadPoolConfigParameter(config);
-            // 日志记录上报的线程池详细配置参数
-            log.info("[flash-tp] ==> 动态线程池，上报线程池配置：{}", JSON.toJSONString(config));
+        // 附带上一周期以来的采样窗口聚合值
+        if (null != sampler) sampler.drainTo(configs);
+        enqueue(new PendingReport(clock.getAsLong(), configs));
+
+        if (!inFlight.compareAndSet(false, true)) {
+            skipped.incrementAndGet();
+            log.warn("[flash-tp] ==> 动态线程池，上一次上报仍未完成，跳过本周期 积压:{}", backlogSize());
+            return;
+        }
+        PendingReport report = takeLatest();
+        if (null == report) {
+            inFlight.set(false);
+            return;
         }
+        long start = clock.getAsLong();
+        CompletableFuture<Void> future;
+        try {
+            future = registry.reportThreadPoolCycleAsync(report.configs, reportTimeout);
+        } catch (Exception e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        // 注册中心实现未按超时失败时，由本地超时兜底
+        future.orTimeout(reportTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .whenComplete((result, throwable) -> complete(report, start, throwable));
     }
 
-}
+    private void runSafely() {
+        try {
+            execReportThreadPoolList();
+        } catch (Exception e) {
+            failed.incrementAndGet();
+            log.error("[flash-tp] ==> 动态线程池，上报线程池信息失败", e);
+        }
+    }
+
+    private void complete(PendingReport report, long start, Throwable throwable) {
+        long now = clock.getAsLong();
+        lastDurationMillis = now - start;
+        try {
+            if (null == throwable) {
+                succeeded.incrementAndGet();
+                lastSuccessMillis = now;
+                lastLagMillis = now - report.oldestCollectedMillis;
+                maxLagMillis = Math.max(maxLagMillis, lastLagMillis);
+                log.debug("[flash-tp] ==> 动态线程池，上报线程池信息完成 线程池数:{} 耗时:{}ms 延迟:{}ms", report.configs.size(), lastDurationMillis, lastLagMillis);
+                return;
+            }
+            Throwable cause = throwable instanceof CompletionException && null != throwable.getCause() ? throwable.getCause() : throwable;
+            if (cause instanceof TimeoutException) {
+                timedOut.incrementAndGet();
+            } else {
+                failed.incrementAndGet();
+            }
+            requeue(report);
+            log.warn("[flash-tp] ==> 动态线程池，上报线程池信息失败，下一周期重试 耗时:{}ms 积压:{} 原因:{}", lastDurationMillis, backlogSize(), cause.toString());
+        } finally {
+            inFlight.set(false);
+        }
+    }
+
+    private synchronized void enqueue(PendingReport report) {
+        if (backlog.size() >= backlogLimit) {
+            // 丢弃最旧的快照，其窗口聚合值并入下一个快照
+            PendingReport oldest = backlog.pollFirst();
+            PendingReport next = backlog.isEmpty() ? report : backlog.peekFirst();
+            mergeWindows(next.configs, oldest.configs);
+            dropped.incrementAndGet();
+        }
+        backlog.addLast(report);
+    }
+
+    /**
+     * 取出最新的快照，较旧的快照已被覆盖，合并丢弃，但保留最旧的采集时间用于计算延迟
+     */
+    private synchronized PendingReport takeLatest() {
+        if (backlog.isEmpty()) return null;
+        long oldest = backlog.peekFirst().oldestCollectedMillis;
+        PendingReport latest = backlog.pollLast();
+        coalesced.addAndGet(backlog.size());
+        for (Iterator<PendingReport> it = backlog.descendingIterator(); it.hasNext(); ) {
+            mergeWindows(latest.configs, it.next().configs);
+        }
+        backlog.clear();
+        return new PendingReport(oldest, latest.configs);
+    }
+
+    /**
+     * 上报失败，快照放回队首；队列中已有更新的快照时只保留最旧的采集时间
+     */
+    private synchronized void requeue(PendingReport report) {
+        if (backlog.isEmpty()) {
+            backlog.addFirst(report);
+            return;
+        }
+        PendingReport newer = backlog.pollFirst();
+        mergeWindows(newer.configs, report.configs);
+        backlog.addFirst(new PendingReport(report.oldestCollectedMillis, newer.configs));
+        coalesced.incrementAndGet();
+    }
 
+    /**
+     * 将较早快照的采样窗口按线程池名称并入较新的快照
+     */
+    private static void mergeWindows(List<ThreadPoolConfig> target, List<ThreadPoolConfig> earlier) {
+        Map<String, ThreadPoolConfig> byName = new HashMap<>(target.size() * 2);
+        for (ThreadPoolConfig config : target) byName.put(config.getThreadPoolName(), config);
+        for (ThreadPoolConfig config : earlier) {
+            ThreadPoolConfig newer = byName.get(config.getThreadPoolName());
+            if (null != newer) SampleWindow.merge(newer, config);
+        }
+    }
+
+    private synchronized int backlogSize() {
+        return backlog.size();
+    }
+
+    /**
+     * 获取上报统计
+     *
+     * @return 上报统计
+     */
+    public ReporterStatistics statistics() {
+        return new ReporterStatistics(cycles.get(), succeeded.get(), failed.get(), timedOut.get(), skipped.get(),
+                dropped.get(), coalesced.get(), backlogSize(), inFlight.get(), lastLagMillis, maxLagMillis,
+                lastDurationMillis, lastSuccessMillis);
+    }
+
+    /**
+     * 一份待上报的快照
+     */
+    private static final class PendingReport {
+        private final long oldestCollectedMillis;
+        private final List<ThreadPoolConfig> configs;
+
+        PendingReport(long oldestCollectedMillis, List<ThreadPoolConfig> configs) {
+            this.oldestCollectedMillis = oldestCollectedMillis;
+            this.configs = configs;
+        }
+    }
+
+}
@@ -1,18 +1,25 @@
 package com.cz.flashtp.trigger.listener;
 
-import com.alibaba.fastjson2.JSON;
 import com.cz.flashtp.domain.DynamicThreadPoolService;
 import com.cz.flashtp.domain.entity.ThreadPoolConfig;
+import com.cz.flashtp.domain.entity.ThreadPoolConfigAck;
+import com.cz.flashtp.domain.entity.ThreadPoolConfigBatch;
 import com.cz.flashtp.registry.Registry;
+import com.cz.flashtp.trigger.job.ThreadPoolDataReportJob;
 import lombok.extern.slf4j.Slf4j;
 import org.redisson.api.listener.MessageListener;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 动态线程池变更监听
  * 实现了MessageListener接口，用于监听线程池配置的调整消息。
  * 当收到线程池配置调整的消息时，会动态更新线程池配置，并上报更新后的配置给注册中心。
+ * 批量调整消息 {@link ThreadPoolConfigBatch} 由 {@link #onBatch(CharSequence, ThreadPoolConfigBatch)} 一次性应用，并回传确认 {@link ThreadPoolConfigAck}。
  *
  * @author Zjianru
  */
@@ -25,19 +32,34 @@ public class ThreadPoolConfigAdjustListener implements MessageListener<ThreadPoo
     private final DynamicThreadPoolService dynamicThreadPoolService;
 
     /**
-     * 注册中心，用于上报线程池配置信息。
+     * 上报任务，用于上报更新后的线程池配置信息。
+     */
+    private final ThreadPoolDataReportJob threadPoolDataReportJob;
+
+    /**
+     * 注册中心，用于回传批量调整确认。
      */
     private final Registry registry;
 
+    private final String applicationName;
+    private final String instanceId;
+
     /**
-     * 构造函数，初始化动态线程池服务和注册中心。
+     * 构造函数，初始化动态线程池服务、上报任务与注册中心。
      *
      * @param dynamicThreadPoolService 动态线程池服务
+     * @param threadPoolDataReportJob  上报任务
      * @param registry                 注册中心
+     * @param applicationName          应用名称
+     * @param instanceId               实例标识
      */
-    public ThreadPoolConfigAdjustListener(DynamicThreadPoolService dynamicThreadPoolService, Registry registry) {
+    public ThreadPoolConfigAdjustListener(DynamicThreadPoolService dynamicThreadPoolService, ThreadPoolDataReportJob threadPoolDataReportJob,
+                                          Registry registry, String applicationName, String instanceId) {
         this.dynamicThreadPoolService = dynamicThreadPoolService;
+        this.threadPoolDataReportJob = threadPoolDataReportJob;
         this.registry = registry;
+        this.applicationName = applicationName;
+        this.instanceId = instanceId;
     }
 
     /**
@@ -50,23 +72,62 @@ public class ThreadPoolConfigAdjustListener implements MessageListener<ThreadPoo
     @Override
     public void onMessage(CharSequence charSequence, ThreadPoolConfig needChange) {
         // 日志记录线程池配置调整信息
-        log.info("动态线程池，调整线程池配置。线程池名称:{} 核心线程数:{} 最大线程数:{}", needChange.getThreadPoolName(), needChange.getPoolSize(), needChange.getMaximumPoolSize());
+        log.info("动态线程池，调整线程池配置。线程池名称:{} 核心线程数:{} 最大线程数:{} 队列容量:{}", needChange.getThreadPoolName(), needChange.getCorePoolSize(), needChange.getMaximumPoolSize(), needChange.getQueueCapacity());
 
-        // 更新线程池配置
+        // 更新线程池配置（线程数与队列容量一并调整）
         dynamicThreadPoolService.updateThreadPoolConfig(needChange);
 
         // 上报更新后的线程池配置给注册中心
-        // 更新后上报最新数据
-        List<ThreadPoolConfig> storedConfig = dynamicThreadPoolService.queryThreadPoolList();
-        registry.reportThreadPool(storedConfig);
+        // 交给上报任务在上报线程上异步提交，不在 Redisson 的消息监听线程上等待网络 I/O
+        threadPoolDataReportJob.reportNow();
+
+        // 日志记录上报的线程池配置，调整参数已在上方记录，不再序列化整个对象
+        log.info("动态线程池，已提交上报线程池配置。线程池名称:{}", needChange.getThreadPoolName());
+    }
 
-        // 上报特定名称的线程池配置参数给注册中心
-        ThreadPoolConfig current = dynamicThreadPoolService.queryThreadPoolConfigByName(needChange.getThreadPoolName());
-        registry.reportThreadPoolConfigParameter(current);
+    /**
+     * 当收到线程池配置批量调整的消息时，执行此方法。
+     * 在一次加锁内应用全部调整，回传实际生效的参数与本地耗时，再触发一次上报。
+     *
+     * @param charSequence 消息内容，这里未使用
+     * @param batch        批量调整
+     */
+    public void onBatch(CharSequence charSequence, ThreadPoolConfigBatch batch) {
+        if (!applicationName.equals(batch.getAppName()) || null == batch.getChanges()) return;
+        long start = System.nanoTime();
+        List<ThreadPoolConfig> changes = new ArrayList<>(batch.getChanges().size());
+        for (ThreadPoolConfig change : batch.getChanges()) {
+            // 批次中的应用名以批次为准，逐条消息不必重复携带
+            change.setAppName(applicationName);
+            changes.add(change);
+        }
+        List<ThreadPoolConfig> applied = dynamicThreadPoolService.updateThreadPoolConfigs(changes);
+        long applyMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+
+        Set<String> appliedNames = new HashSet<>(applied.size() * 2);
+        applied.forEach(config -> appliedNames.add(config.getThreadPoolName()));
+        List<String> rejected = new ArrayList<>();
+        for (ThreadPoolConfig change : changes) {
+            if (!appliedNames.contains(change.getThreadPoolName())) rejected.add(change.getThreadPoolName());
+        }
+        log.info("[flash-tp]==> 动态线程池，批量调整线程池配置 批次:{} 调整数:{} 生效数:{} 未生效:{} 耗时:{}us",
+                batch.getBatchId(), changes.size(), applied.size(), rejected, applyMicros);
 
-        // 日志记录上报的线程池配置
-        log.info("动态线程池，上报线程池配置：{}", JSON.toJSONString(needChange));
+        try {
+            registry.reportConfigAck(ThreadPoolConfigAck.builder()
+                    .batchId(batch.getBatchId())
+                    .appName(applicationName)
+                    .instanceId(instanceId)
+                    .appliedTimestamp(System.currentTimeMillis())
+                    .applyMicros(applyMicros)
+                    .applied(applied)
+                    .rejected(rejected)
+                    .build());
+        } catch (Exception e) {
+            // 确认失败不影响已生效的调整，管理端会显示该实例未确认
+            log.warn("[flash-tp]==> 动态线程池，回传批量调整确认失败 批次:{}", batch.getBatchId(), e);
+        }
+        if (!applied.isEmpty()) threadPoolDataReportJob.reportNow();
     }
 
 }
-
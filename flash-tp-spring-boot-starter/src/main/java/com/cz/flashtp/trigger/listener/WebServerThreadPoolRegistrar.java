@@ -0,0 +1,85 @@
+package com.cz.flashtp.trigger.listener;
+
+import com.cz.flashtp.domain.DynamicThreadPoolService;
+import com.cz.flashtp.domain.adapter.ThreadPoolAdapter;
+import com.cz.flashtp.domain.metrics.ThreadPoolSampler;
+import com.cz.flashtp.trigger.job.ThreadPoolDataReportJob;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang.StringUtils;
+import org.springframework.boot.web.context.WebServerInitializedEvent;
+import org.springframework.boot.web.server.WebServer;
+import org.springframework.context.ApplicationListener;
+
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 内嵌 Web 服务器工作线程池注册
+ * Web 服务器在容器刷新的最后阶段才启动，其工作线程池无法以 Bean 的形式在启动时发现；
+ * 监听 {@link WebServerInitializedEvent}，由 discoverer 从已启动的服务器中找出工作线程池，运行期注册到动态线程池服务与采样器，
+ * 随后与 Bean 线程池一样经由上报与调整流程管理。
+ * <p>
+ * 管理端口独立时 actuator 的服务器也会触发该事件，线程池名称追加服务器命名空间（如 tomcat-management）以作区分。
+ * flash_tp.* Micrometer 指标在容器启动时绑定，不包含这里注册的线程池，其本地指标由 Spring Boot 自带的 Web 服务器指标提供。
+ *
+ * @author Zjianru
+ */
+@Slf4j
+public class WebServerThreadPoolRegistrar implements ApplicationListener<WebServerInitializedEvent> {
+
+    private final DynamicThreadPoolService dynamicThreadPoolService;
+    private final ThreadPoolSampler threadPoolSampler;
+    private final ThreadPoolDataReportJob threadPoolDataReportJob;
+
+    /**
+     * 从 Web 服务器中发现工作线程池，不是对应类型的服务器时返回空映射
+     */
+    private final Function<WebServer, Map<String, ThreadPoolAdapter>> discoverer;
+
+    /**
+     * 拉取注册中心保存的线程池配置，入参为本次注册的线程池名称
+     */
+    private final Consumer<Set<String>> configRestorer;
+
+    /**
+     * @param dynamicThreadPoolService 动态线程池服务
+     * @param threadPoolSampler        线程池高频采样器
+     * @param threadPoolDataReportJob  上报任务，注册后立即上报一次
+     * @param discoverer               工作线程池发现
+     * @param configRestorer           注册中心配置恢复
+     */
+    public WebServerThreadPoolRegistrar(DynamicThreadPoolService dynamicThreadPoolService, ThreadPoolSampler threadPoolSampler,
+                                        ThreadPoolDataReportJob threadPoolDataReportJob,
+                                        Function<WebServer, Map<String, ThreadPoolAdapter>> discoverer, Consumer<Set<String>> configRestorer) {
+        this.dynamicThreadPoolService = dynamicThreadPoolService;
+        this.threadPoolSampler = threadPoolSampler;
+        this.threadPoolDataReportJob = threadPoolDataReportJob;
+        this.discoverer = discoverer;
+        this.configRestorer = configRestorer;
+    }
+
+    @Override
+    public void onApplicationEvent(WebServerInitializedEvent event) {
+        Map<String, ThreadPoolAdapter> adapters = discoverer.apply(event.getWebServer());
+        if (adapters.isEmpty()) return;
+        String namespace = event.getApplicationContext().getServerNamespace();
+        Set<String> registered = new LinkedHashSet<>();
+        adapters.forEach((name, adapter) -> {
+            String threadPoolName = StringUtils.isBlank(namespace) ? name : name + "-" + namespace;
+            if (!dynamicThreadPoolService.registerThreadPool(threadPoolName, adapter)) {
+                log.warn("[flash-tp]==> Web 服务器工作线程池注册失败 线程名:{} 线程池类型:{}", threadPoolName, adapter.getPoolType());
+                return;
+            }
+            threadPoolSampler.register(threadPoolName, adapter);
+            registered.add(threadPoolName);
+        });
+        if (registered.isEmpty()) return;
+        log.info("[flash-tp]==> Web 服务器工作线程池已注册 端口:{} 线程池:{}", event.getWebServer().getPort(), registered);
+        configRestorer.accept(registered);
+        threadPoolDataReportJob.reportNow();
+    }
+
+}
@@ -0,0 +1,188 @@
+package com.cz.flashtp.trigger.metrics;
+
+import com.cz.flashtp.domain.adapter.ForkJoinPoolAdapter;
+import com.cz.flashtp.domain.adapter.ScheduledThreadPoolAdapter;
+import com.cz.flashtp.domain.adapter.ThreadPoolAdapter;
+import com.cz.flashtp.domain.adapter.ThreadPoolAdapters;
+import com.cz.flashtp.domain.entity.ThreadPoolConfig;
+import com.cz.flashtp.domain.executor.FlashTpExecutor;
+import com.cz.flashtp.domain.executor.FlashTpScheduledExecutor;
+import com.cz.flashtp.domain.metrics.ThreadPoolSnapshotCache;
+import com.cz.flashtp.registry.Registry;
+import com.cz.flashtp.registry.ReportStatistics;
+import com.cz.flashtp.registry.invoke.redis.RedisRegistry;
+import com.cz.flashtp.trigger.job.ReporterStatistics;
+import com.cz.flashtp.trigger.job.ThreadPoolDataReportJob;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * flash-tp Micrometer 指标
+ * 将全部受管线程池注册为 Micrometer 的 Gauge 与 FunctionCounter，标签为 app 与 pool。
+ * 指标取值统一读取 {@link ThreadPoolSnapshotCache}，一次抓取只采集一次线程池快照，不直接访问线程池，也不产生注册中心流量。
+ * <p>
+ * 任务计数与耗时分位只有托管线程池（{@link FlashTpExecutor}）才有，普通线程池只注册线程数与队列指标；
+ * ForkJoinPool 额外注册并行度、窃取任务数、外部提交排队数与运行中线程数，定时线程池额外注册触发延迟（P99 只有 {@link FlashTpScheduledExecutor} 才有）。
+ * 另外附带上报任务与注册中心的统计，用于观察上报延迟与对 Redis 的压力。
+ *
+ * @author Zjianru
+ */
+@Slf4j
+public class FlashTpMeterBinder implements MeterBinder {
+
+    private static final String PREFIX = "flash_tp.";
+
+    private final String applicationName;
+    private final Map<String, ThreadPoolAdapter> threadPoolAdapterMap;
+    private final ThreadPoolSnapshotCache snapshotCache;
+    private final ThreadPoolDataReportJob threadPoolDataReportJob;
+    private final Registry registry;
+
+    /**
+     * @param applicationName         应用名称，作为 app 标签
+     * @param threadPoolExecutorMap   线程池的映射，值为线程池实例或 {@link ThreadPoolAdapter}，用于确定注册的线程池与线程池类型
+     * @param snapshotCache           线程池快照缓存，指标取值来源
+     * @param threadPoolDataReportJob 上报任务，可为空
+     * @param registry                注册中心，为 {@link RedisRegistry} 时附带上报流量统计，可为空
+     */
+    public FlashTpMeterBinder(String applicationName, Map<String, ?> threadPoolExecutorMap, ThreadPoolSnapshotCache snapshotCache,
+                              ThreadPoolDataReportJob threadPoolDataReportJob, Registry registry) {
+        this.applicationName = applicationName;
+        this.threadPoolAdapterMap = ThreadPoolAdapters.adapt(threadPoolExecutorMap);
+        this.snapshotCache = snapshotCache;
+        this.threadPoolDataReportJob = threadPoolDataReportJob;
+        this.registry = registry;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry meterRegistry) {
+        for (Map.Entry<String, ThreadPoolAdapter> entry : threadPoolAdapterMap.entrySet()) {
+            bindThreadPool(meterRegistry, entry.getKey(), entry.getValue());
+        }
+        if (null != threadPoolDataReportJob) bindReporter(meterRegistry);
+        if (registry instanceof RedisRegistry) bindRegistry(meterRegistry, (RedisRegistry) registry);
+        log.info("[flash-tp]==> Micrometer 指标已注册 线程池数:{}", threadPoolAdapterMap.size());
+    }
+
+    private void bindThreadPool(MeterRegistry meterRegistry, String threadPoolName, ThreadPoolAdapter adapter) {
+        Tags tags = Tags.of("app", applicationName, "pool", threadPoolName);
+        gauge(meterRegistry, "pool.core.size", "核心线程数", tags, threadPoolName, ThreadPoolConfig::getCorePoolSize);
+        gauge(meterRegistry, "pool.max.size", "最大线程数", tags, threadPoolName, ThreadPoolConfig::getMaximumPoolSize);
+        gauge(meterRegistry, "pool.size", "池中线程数", tags, threadPoolName, ThreadPoolConfig::getPoolSize);
+        gauge(meterRegistry, "pool.active", "活跃线程数", tags, threadPoolName, ThreadPoolConfig::getActiveCount);
+        gauge(meterRegistry, "queue.size", "队列深度", tags, threadPoolName, ThreadPoolConfig::getQueueSize);
+        gauge(meterRegistry, "queue.capacity", "队列容量", tags, threadPoolName, ThreadPoolConfig::getQueueCapacity);
+        gauge(meterRegistry, "queue.remaining", "队列剩余容量", tags, threadPoolName, ThreadPoolConfig::getRemainingCapacity);
+        if (adapter instanceof ForkJoinPoolAdapter) {
+            gauge(meterRegistry, "pool.parallelism", "并行度", tags, threadPoolName, ThreadPoolConfig::getParallelism);
+            gauge(meterRegistry, "pool.running", "未阻塞的工作线程数", tags, threadPoolName, ThreadPoolConfig::getRunningThreadCount);
+            gauge(meterRegistry, "queue.submissions", "外部提交排队数", tags, threadPoolName, ThreadPoolConfig::getQueuedSubmissionCount);
+            counter(meterRegistry, "tasks.stolen", "累计窃取任务数", tags, threadPoolName, ThreadPoolConfig::getStealCount);
+            return;
+        }
+        if (adapter instanceof ScheduledThreadPoolAdapter) {
+            // quantile=1 为最大值，包含已到期仍在排队的任务
+            quantile(meterRegistry, "schedule.lag", "统计窗口内定时任务触发延迟分位", tags.and("quantile", "1"), threadPoolName, ThreadPoolConfig::getScheduleLagMaxMs);
+            if (adapter.getExecutor() instanceof FlashTpScheduledExecutor) {
+                quantile(meterRegistry, "schedule.lag", "统计窗口内定时任务触发延迟分位", tags.and("quantile", "0.99"), threadPoolName, ThreadPoolConfig::getScheduleLagP99Ms);
+            }
+            return;
+        }
+        if (!(adapter.getExecutor() instanceof FlashTpExecutor)) return;
+
+        counter(meterRegistry, "tasks.submitted", "累计提交任务数", tags, threadPoolName, ThreadPoolConfig::getSubmittedTaskCount);
+        counter(meterRegistry, "tasks.completed", "累计完成任务数", tags, threadPoolName, ThreadPoolConfig::getCompletedTaskCount);
+        counter(meterRegistry, "tasks.failed", "累计执行失败任务数", tags, threadPoolName, ThreadPoolConfig::getFailedTaskCount);
+        counter(meterRegistry, "tasks.rejected", "累计拒绝任务数", tags, threadPoolName, ThreadPoolConfig::getRejectedTaskCount);
+        gauge(meterRegistry, "tasks.tps", "统计窗口内每秒完成任务数", tags, threadPoolName, ThreadPoolConfig::getTps);
+        gauge(meterRegistry, "tasks.rejection.rate", "统计窗口内拒绝率", tags, threadPoolName, ThreadPoolConfig::getRejectionRate);
+        latency(meterRegistry, "task.queue.wait", "统计窗口内任务排队耗时分位", tags, threadPoolName,
+                ThreadPoolConfig::getQueueWaitP50Ms, ThreadPoolConfig::getQueueWaitP99Ms, ThreadPoolConfig::getQueueWaitP999Ms);
+        latency(meterRegistry, "task.run.time", "统计窗口内任务执行耗时分位", tags, threadPoolName,
+                ThreadPoolConfig::getRunTimeP50Ms, ThreadPoolConfig::getRunTimeP99Ms, ThreadPoolConfig::getRunTimeP999Ms);
+        // 准入控制在首次异步提交时创建，之前读数为 0
+        gauge(meterRegistry, "admission.limit", "异步提交的准入限额", tags, threadPoolName, ThreadPoolConfig::getAdmissionLimit);
+        gauge(meterRegistry, "admission.in.flight", "已准入尚未执行完成的任务数", tags, threadPoolName, ThreadPoolConfig::getAdmissionInFlight);
+        counter(meterRegistry, "tasks.admission.rejected", "累计准入拒绝次数", tags, threadPoolName, ThreadPoolConfig::getAdmissionRejectedCount);
+        if (null != ((FlashTpExecutor) adapter.getExecutor()).slowTaskSnapshot()) {
+            gauge(meterRegistry, "slow.tasks.running", "执行超过阈值且仍在执行的任务数", tags, threadPoolName, ThreadPoolConfig::getSlowTaskRunningCount);
+            gauge(meterRegistry, "slow.tasks.max.run", "仍在执行的慢任务中最长的已执行时间（毫秒）", tags, threadPoolName, ThreadPoolConfig::getSlowTaskMaxRunMs);
+            counter(meterRegistry, "tasks.slow", "累计执行超过阈值的任务数", tags, threadPoolName, ThreadPoolConfig::getSlowTaskCount);
+        }
+        if (null == ((FlashTpExecutor) adapter.getExecutor()).spillSnapshot()) return;
+        gauge(meterRegistry, "spill.depth", "落盘等待回灌的任务数", tags, threadPoolName, ThreadPoolConfig::getSpillDepth);
+        gauge(meterRegistry, "spill.bytes", "溢出层尚未执行完成的任务占用的磁盘字节数", tags, threadPoolName, ThreadPoolConfig::getSpillBytes);
+        gauge(meterRegistry, "spill.drain.rate", "统计窗口内每秒回灌任务数", tags, threadPoolName, ThreadPoolConfig::getSpillDrainRate);
+        counter(meterRegistry, "tasks.spilled", "累计落盘任务数", tags, threadPoolName, ThreadPoolConfig::getSpilledTaskCount);
+        counter(meterRegistry, "tasks.spill.drained", "累计回灌任务数", tags, threadPoolName, ThreadPoolConfig::getSpillDrainedTaskCount);
+        counter(meterRegistry, "tasks.spill.failed", "累计序列化或反序列化失败的溢出任务数", tags, threadPoolName, ThreadPoolConfig::getSpillFailedTaskCount);
+    }
+
+    private void bindReporter(MeterRegistry meterRegistry) {
+        Tags tags = Tags.of("app", applicationName);
+        reporterCounter(meterRegistry, "reporter.cycles", "累计上报周期数", tags, ReporterStatistics::getCycles);
+        reporterCounter(meterRegistry, "reporter.succeeded", "累计上报成功数", tags, ReporterStatistics::getSucceeded);
+        reporterCounter(meterRegistry, "reporter.failed", "累计上报失败数", tags, ReporterStatistics::getFailed);
+        reporterCounter(meterRegistry, "reporter.timed.out", "累计上报超时数", tags, ReporterStatistics::getTimedOut);
+        reporterCounter(meterRegistry, "reporter.dropped", "累计因积压超限丢弃的快照数", tags, ReporterStatistics::getDropped);
+        Gauge.builder(PREFIX + "reporter.backlog", threadPoolDataReportJob, job -> job.statistics().getBacklog())
+                .description("本地积压的待上报快照数").tags(tags).register(meterRegistry);
+        Gauge.builder(PREFIX + "reporter.lag", threadPoolDataReportJob, job -> job.statistics().getLastLagMillis())
+                .description("最近一次上报成功的数据延迟").baseUnit("milliseconds").tags(tags).register(meterRegistry);
+    }
+
+    private void bindRegistry(MeterRegistry meterRegistry, RedisRegistry redisRegistry) {
+        Tags tags = Tags.of("app", applicationName);
+        registryCounter(meterRegistry, redisRegistry, "registry.round.trips", "累计网络往返次数", tags, ReportStatistics::getRoundTrips);
+        registryCounter(meterRegistry, redisRegistry, "registry.commands", "累计写命令数", tags, ReportStatistics::getCommands);
+        registryCounter(meterRegistry, redisRegistry, "registry.bytes", "累计写入字节数", tags, ReportStatistics::getBytes);
+    }
+
+    private void gauge(MeterRegistry meterRegistry, String name, String description, Tags tags, String threadPoolName, ToDoubleFunction<ThreadPoolConfig> value) {
+        Gauge.builder(PREFIX + name, snapshotCache, cache -> read(cache, threadPoolName, value))
+                .description(description).tags(tags).register(meterRegistry);
+    }
+
+    private void counter(MeterRegistry meterRegistry, String name, String description, Tags tags, String threadPoolName, ToDoubleFunction<ThreadPoolConfig> value) {
+        FunctionCounter.builder(PREFIX + name, snapshotCache, cache -> read(cache, threadPoolName, value))
+                .description(description).tags(tags).register(meterRegistry);
+    }
+
+    private void latency(MeterRegistry meterRegistry, String name, String description, Tags tags, String threadPoolName,
+                         ToDoubleFunction<ThreadPoolConfig> p50, ToDoubleFunction<ThreadPoolConfig> p99, ToDoubleFunction<ThreadPoolConfig> p999) {
+        quantile(meterRegistry, name, description, tags.and("quantile", "0.5"), threadPoolName, p50);
+        quantile(meterRegistry, name, description, tags.and("quantile", "0.99"), threadPoolName, p99);
+        quantile(meterRegistry, name, description, tags.and("quantile", "0.999"), threadPoolName, p999);
+    }
+
+    private void quantile(MeterRegistry meterRegistry, String name, String description, Tags tags, String threadPoolName, ToDoubleFunction<ThreadPoolConfig> value) {
+        Gauge.builder(PREFIX + name, snapshotCache, cache -> read(cache, threadPoolName, value))
+                .description(description).baseUnit("milliseconds").tags(tags).register(meterRegistry);
+    }
+
+    private void reporterCounter(MeterRegistry meterRegistry, String name, String description, Tags tags, ToDoubleFunction<ReporterStatistics> value) {
+        FunctionCounter.builder(PREFIX + name, threadPoolDataReportJob, job -> value.applyAsDouble(job.statistics()))
+                .description(description).tags(tags).register(meterRegistry);
+    }
+
+    private void registryCounter(MeterRegistry meterRegistry, RedisRegistry redisRegistry, String name, String description, Tags tags, ToDoubleFunction<ReportStatistics> value) {
+        FunctionCounter.builder(PREFIX + name, redisRegistry, r -> value.applyAsDouble(r.getReportStatistics()))
+                .description(description).tags(tags).register(meterRegistry);
+    }
+
+    /**
+     * 读取线程池快照中的指标，线程池不存在时返回 NaN，Micrometer 会跳过该值
+     */
+    private static double read(ThreadPoolSnapshotCache cache, String threadPoolName, ToDoubleFunction<ThreadPoolConfig> value) {
+        ThreadPoolConfig config = cache.get(threadPoolName);
+        return null == config ? Double.NaN : value.applyAsDouble(config);
+    }
+
+}
@@ -0,0 +1,73 @@
+package com.cz.flashtp.config;
+
+import com.cz.flashtp.domain.snapshot.LocalConfigSnapshotStore;
+import com.cz.flashtp.registry.invoke.redis.RedissonConnector;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 自动配置启动测试
+ * 注册中心地址不可达时应用照常启动，并立即应用本地快照中的线程池参数。
+ *
+ * @author Zjianru
+ */
+public class FlashTpAutoConfigTest {
+
+    private Path directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("flash-tp-autoconfig");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test(timeout = 30000)
+    public void test_startsWithSnapshotWhenRedisUnreachable() {
+        new LocalConfigSnapshotStore(directory, "snapshot-app").save("orderPool", 16, 32, 0);
+        long start = System.nanoTime();
+        new ApplicationContextRunner()
+                .withConfiguration(AutoConfigurations.of(FlashTpAutoConfig.class))
+                .withPropertyValues(
+                        "spring.application.name=snapshot-app",
+                        // 端口 1 没有监听，连接立即被拒绝
+                        "flash-tp.host=127.0.0.1",
+                        "flash-tp.port=1",
+                        "flash-tp.connect-timeout=200",
+                        "flash-tp.retry-interval=100",
+                        "flash-tp.snapshot-dir=" + directory)
+                .withBean("orderPool", ThreadPoolExecutor.class,
+                        () -> new ThreadPoolExecutor(2, 4, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(100)))
+                .run(context -> {
+                    assertNull(context.getStartupFailure());
+                    // 启动不等待连接超时与重试
+                    assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 10_000);
+                    assertNull(context.getBean(RedissonConnector.class).client());
+                    ThreadPoolExecutor orderPool = context.getBean("orderPool", ThreadPoolExecutor.class);
+                    assertEquals(16, orderPool.getCorePoolSize());
+                    assertEquals(32, orderPool.getMaximumPoolSize());
+                });
+    }
+
+}
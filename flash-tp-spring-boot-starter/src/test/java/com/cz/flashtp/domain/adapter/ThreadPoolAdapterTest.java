@@ -0,0 +1,288 @@
+package com.cz.flashtp.domain.adapter;
+
+import com.cz.flashtp.domain.entity.ThreadPoolConfig;
+import com.cz.flashtp.domain.executor.FlashTpScheduledExecutor;
+import com.cz.flashtp.domain.invoker.DefaultThreadPoolService;
+import com.cz.flashtp.domain.metrics.ThreadPoolSampler;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 线程池适配器测试
+ *
+ * @author Zjianru
+ */
+public class ThreadPoolAdapterTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private final List<ExecutorService> executors = new ArrayList<>();
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        executors.forEach(ExecutorService::shutdownNow);
+    }
+
+    @Test
+    public void test_adaptByType() {
+        assertTrue(ThreadPoolAdapters.adapt(track(new ForkJoinPool(2))) instanceof ForkJoinPoolAdapter);
+        assertTrue(ThreadPoolAdapters.adapt(track(new ScheduledThreadPoolExecutor(1))) instanceof ScheduledThreadPoolAdapter);
+        assertTrue(ThreadPoolAdapters.adapt(track(new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new LinkedBlockingQueue<>()))) instanceof ThreadPoolExecutorAdapter);
+        // 包装后的单线程池不暴露线程数，不受管
+        assertNull(ThreadPoolAdapters.adapt(track(Executors.newSingleThreadExecutor())));
+    }
+
+    @Test(timeout = 10000)
+    public void test_forkJoinPoolSnapshotAndParallelism() throws InterruptedException {
+        ForkJoinPool pool = track(new ForkJoinPool(2));
+        CountDownLatch started = new CountDownLatch(2);
+        for (int i = 0; i < 2; i++) {
+            pool.execute(() -> {
+                started.countDown();
+                await();
+            });
+        }
+        started.await();
+        for (int i = 0; i < 5; i++) {
+            pool.execute(() -> {
+            });
+        }
+        DefaultThreadPoolService service = service("fjp", pool);
+        ThreadPoolConfig config = service.queryThreadPoolConfigByName("fjp");
+        assertEquals(ForkJoinPoolAdapter.POOL_TYPE, config.getPoolType());
+        assertEquals(2, config.getParallelism());
+        assertEquals(ForkJoinPoolAdapter.isParallelismAdjustable(), config.getParallelismAdjustable());
+        assertEquals(2, config.getCorePoolSize());
+        assertEquals(2, config.getMaximumPoolSize());
+        assertEquals(5, config.getQueuedSubmissionCount());
+        assertEquals(5, config.getQueueSize());
+        assertEquals(2, config.getActiveCount());
+        // 阻塞在 CountDownLatch 上的线程不计入运行中线程数
+        assertTrue(config.getRunningThreadCount() <= config.getActiveCount());
+
+        service.updateThreadPoolConfig(ThreadPoolConfig.builder().appName("app").threadPoolName("fjp").parallelism(4).build());
+        // JDK 19 起支持调整并行度，更低版本只上报不调整
+        assertEquals(ForkJoinPoolAdapter.isParallelismAdjustable() ? 4 : 2, pool.getParallelism());
+
+        assertNull(new ForkJoinPoolAdapter(pool).apply(ThreadPoolConfig.builder().threadPoolName("fjp").parallelism(ForkJoinPoolAdapter.MAX_PARALLELISM + 1).build()));
+    }
+
+    @Test(timeout = 10000)
+    public void test_forkJoinPoolStealCount() {
+        ForkJoinPool pool = track(new ForkJoinPool(4));
+        long sum = pool.invoke(new SumTask(0, 1 << 20));
+        assertEquals((long) (1 << 20) * ((1 << 20) - 1) / 2, sum);
+        ThreadPoolConfig config = new ForkJoinPoolAdapter(pool).snapshot("app", "fjp");
+        assertEquals(pool.getStealCount(), config.getStealCount());
+    }
+
+    @Test(timeout = 10000)
+    public void test_scheduleLagRecorded() throws InterruptedException {
+        FlashTpScheduledExecutor executor = track(FlashTpScheduledExecutor.from(new ScheduledThreadPoolExecutor(1)));
+        CountDownLatch started = new CountDownLatch(1);
+        executor.execute(() -> {
+            started.countDown();
+            sleep(200);
+        });
+        started.await();
+        // 唯一的线程被占用约 200ms，10ms 后到期的任务至少延迟 150ms 才能触发
+        CountDownLatch fired = new CountDownLatch(1);
+        executor.schedule(fired::countDown, 10, TimeUnit.MILLISECONDS);
+        sleep(100);
+        ThreadPoolConfig pending = new ScheduledThreadPoolAdapter(executor).snapshot("app", "timer");
+        assertTrue("pending lag " + pending.getScheduleLagMaxMs(), pending.getScheduleLagMaxMs() >= 50);
+        fired.await();
+
+        ThreadPoolConfig config = new ScheduledThreadPoolAdapter(executor).snapshot("app", "timer");
+        assertEquals(ScheduledThreadPoolAdapter.POOL_TYPE, config.getPoolType());
+        assertEquals(1, config.getMaximumPoolSize());
+        assertTrue("lag p99 " + config.getScheduleLagP99Ms(), config.getScheduleLagP99Ms() >= 150);
+        assertTrue(config.getScheduleLagMaxMs() >= config.getScheduleLagP99Ms());
+    }
+
+    @Test(timeout = 10000)
+    public void test_scheduledPeriodicAndCancel() throws Exception {
+        ScheduledThreadPoolExecutor source = new ScheduledThreadPoolExecutor(2);
+        source.setRemoveOnCancelPolicy(true);
+        FlashTpScheduledExecutor executor = track(FlashTpScheduledExecutor.from(source));
+        assertTrue(executor.getRemoveOnCancelPolicy());
+
+        CountDownLatch fired = new CountDownLatch(3);
+        ScheduledFuture<?> periodic = executor.scheduleAtFixedRate(fired::countDown, 0, 5, TimeUnit.MILLISECONDS);
+        fired.await();
+        assertTrue(periodic.cancel(false));
+        assertTrue(executor.getQueue().isEmpty());
+
+        ScheduledFuture<String> delayed = executor.schedule(() -> "ok", 1, TimeUnit.HOURS);
+        assertEquals(1, executor.getQueue().size());
+        assertTrue(delayed.cancel(false));
+        assertEquals(0, executor.getQueue().size());
+        assertEquals("done", executor.schedule(() -> "done", 1, TimeUnit.MILLISECONDS).get());
+        assertTrue(executor.scheduleLagSnapshot().getSampleCount() >= 4);
+    }
+
+    @Test
+    public void test_scheduledAdjustCorePoolSize() {
+        ScheduledThreadPoolExecutor executor = track(new ScheduledThreadPoolExecutor(1));
+        DefaultThreadPoolService service = service("timer", executor);
+        service.updateThreadPoolConfig(ThreadPoolConfig.builder().appName("app").threadPoolName("timer").corePoolSize(3).maximumPoolSize(3).queueCapacity(10).build());
+        assertEquals(3, executor.getCorePoolSize());
+        ThreadPoolConfig config = service.queryThreadPoolConfigByName("timer");
+        assertEquals(3, config.getCorePoolSize());
+        assertEquals(3, config.getMaximumPoolSize());
+
+        service.updateThreadPoolConfig(ThreadPoolConfig.builder().appName("app").threadPoolName("timer").corePoolSize(0).maximumPoolSize(1).build());
+        assertEquals(3, executor.getCorePoolSize());
+    }
+
+    @Test
+    public void test_mixedPoolsListed() {
+        Map<String, Object> pools = new LinkedHashMap<>();
+        pools.put("tpe", track(new ThreadPoolExecutor(1, 2, 0, TimeUnit.SECONDS, new LinkedBlockingQueue<>())));
+        pools.put("timer", track(new ScheduledThreadPoolExecutor(1)));
+        pools.put("fjp", track(new ForkJoinPool(3)));
+        pools.put("single", track(Executors.newSingleThreadExecutor()));
+        List<ThreadPoolConfig> configs = new DefaultThreadPoolService("app", "instance", pools).queryThreadPoolList();
+        assertEquals(3, configs.size());
+        assertEquals(ThreadPoolExecutorAdapter.POOL_TYPE, configs.get(0).getPoolType());
+        assertEquals(ScheduledThreadPoolAdapter.POOL_TYPE, configs.get(1).getPoolType());
+        assertEquals(ForkJoinPoolAdapter.POOL_TYPE, configs.get(2).getPoolType());
+        assertEquals(3, configs.get(2).getParallelism());
+        assertFalse(configs.stream().anyMatch(c -> "single".equals(c.getThreadPoolName())));
+    }
+
+    @Test
+    public void test_threadPoolTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(4);
+        executor.setQueueCapacity(10);
+        // 未初始化时没有内部线程池，不受管
+        assertNull(ThreadPoolAdapters.adapt(executor));
+        executor.initialize();
+        try {
+            assertTrue(ThreadPoolAdapters.adapt(executor) instanceof ThreadPoolTaskExecutorAdapter);
+            DefaultThreadPoolService service = service("applicationTaskExecutor", executor);
+            ThreadPoolConfig config = service.queryThreadPoolConfigByName("applicationTaskExecutor");
+            assertEquals(ThreadPoolTaskExecutorAdapter.POOL_TYPE, config.getPoolType());
+            assertEquals(2, config.getCorePoolSize());
+            assertEquals(4, config.getMaximumPoolSize());
+            assertEquals(10, config.getQueueCapacity());
+
+            // 核心线程数大于当前最大线程数，先扩后缩；ThreadPoolTaskExecutor 记录的参数与内部线程池一致
+            service.updateThreadPoolConfig(ThreadPoolConfig.builder().appName("app").threadPoolName("applicationTaskExecutor").corePoolSize(6).maximumPoolSize(8).queueCapacity(20).build());
+            assertEquals(6, executor.getCorePoolSize());
+            assertEquals(8, executor.getMaxPoolSize());
+            assertEquals(6, executor.getThreadPoolExecutor().getCorePoolSize());
+            assertEquals(8, executor.getThreadPoolExecutor().getMaximumPoolSize());
+            // 内部队列不支持调整容量
+            assertEquals(10, service.queryThreadPoolConfigByName("applicationTaskExecutor").getQueueCapacity());
+
+            service.updateThreadPoolConfig(ThreadPoolConfig.builder().appName("app").threadPoolName("applicationTaskExecutor").corePoolSize(1).maximumPoolSize(3).build());
+            assertEquals(1, executor.getCorePoolSize());
+            assertEquals(3, executor.getMaxPoolSize());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void test_registerThreadPool() {
+        DefaultThreadPoolService service = service("tpe", track(new ThreadPoolExecutor(1, 2, 0, TimeUnit.SECONDS, new LinkedBlockingQueue<>())));
+        ThreadPoolSampler sampler = new ThreadPoolSampler(Collections.emptyMap(), 0);
+        ThreadPoolExecutor late = track(new ThreadPoolExecutor(1, 2, 0, TimeUnit.SECONDS, new LinkedBlockingQueue<>()));
+        assertFalse(service.registerThreadPool("single", track(Executors.newSingleThreadExecutor())));
+        assertTrue(service.registerThreadPool("late", late));
+        assertTrue(sampler.register("late", late));
+
+        List<ThreadPoolConfig> configs = service.queryThreadPoolList();
+        assertEquals(2, configs.size());
+        assertEquals("late", configs.get(1).getThreadPoolName());
+        service.updateThreadPoolConfig(ThreadPoolConfig.builder().appName("app").threadPoolName("late").corePoolSize(3).maximumPoolSize(5).build());
+        assertEquals(3, late.getCorePoolSize());
+        assertEquals(5, late.getMaximumPoolSize());
+
+        // 采样器只采样注册过的线程池，上报快照本身也计入窗口
+        sampler.sample();
+        sampler.drainTo(configs);
+        assertEquals(1, configs.get(0).getSampleCount());
+        assertEquals(2, configs.get(1).getSampleCount());
+    }
+
+    private DefaultThreadPoolService service(String name, Object executor) {
+        Map<String, Object> pools = new LinkedHashMap<>();
+        pools.put(name, executor);
+        return new DefaultThreadPoolService("app", "instance", pools);
+    }
+
+    private <T extends ExecutorService> T track(T executor) {
+        executors.add(executor);
+        return executor;
+    }
+
+    private void await() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class SumTask extends RecursiveTask<Long> {
+
+        private final int from;
+        private final int to;
+
+        SumTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Long compute() {
+            if (to - from <= 1024) {
+                long sum = 0;
+                for (int i = from; i < to; i++) {
+                    sum += i;
+                }
+                return sum;
+            }
+            int mid = (from + to) >>> 1;
+            SumTask left = new SumTask(from, mid);
+            left.fork();
+            return new SumTask(mid, to).compute() + left.join();
+        }
+    }
+
+}
@@ -0,0 +1,192 @@
+package com.cz.flashtp.domain.adapter.web;
+
+import com.cz.flashtp.domain.adapter.ThreadPoolAdapter;
+import com.cz.flashtp.domain.entity.ThreadPoolConfig;
+import com.cz.flashtp.domain.invoker.DefaultThreadPoolService;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.boot.web.embedded.jetty.JettyServletWebServerFactory;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.embedded.undertow.UndertowServletWebServerFactory;
+import org.springframework.boot.web.server.WebServer;
+import org.springframework.boot.web.servlet.ServletContextInitializer;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 内嵌 Web 服务器工作线程池适配器测试
+ * 在本机随机端口启动 Tomcat、Jetty 与 Undertow，以阻塞的 Servlet 占住请求线程，验证发现、上报与调整。
+ *
+ * @author Zjianru
+ */
+public class WebServerThreadPoolAdapterTest {
+
+    /**
+     * 同时占住的请求线程数
+     */
+    private static final int CONCURRENCY = 3;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private final List<WebServer> webServers = new ArrayList<>();
+
+    private final ExecutorService clients = Executors.newCachedThreadPool();
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        clients.shutdownNow();
+        webServers.forEach(WebServer::stop);
+    }
+
+    @Test(timeout = 30000)
+    public void test_tomcat() throws Exception {
+        WebServer webServer = start(new TomcatServletWebServerFactory(0).getWebServer(blockingServlet()));
+        Map<String, ThreadPoolAdapter> adapters = TomcatThreadPoolAdapter.discover(webServer);
+        assertEquals(Collections.singleton(TomcatThreadPoolAdapter.THREAD_POOL_NAME), adapters.keySet());
+        // 其他服务器类型的发现不处理 Tomcat
+        assertTrue(JettyThreadPoolAdapter.discover(webServer).isEmpty());
+        assertTrue(UndertowThreadPoolAdapter.discover(webServer).isEmpty());
+
+        ThreadPoolAdapter adapter = adapters.get(TomcatThreadPoolAdapter.THREAD_POOL_NAME);
+        ThreadPoolConfig config = adapter.snapshot("app", TomcatThreadPoolAdapter.THREAD_POOL_NAME);
+        // Tomcat 默认 minSpareThreads=10，maxThreads=200
+        assertEquals(TomcatThreadPoolAdapter.POOL_TYPE, config.getPoolType());
+        assertEquals(10, config.getCorePoolSize());
+        assertEquals(200, config.getMaximumPoolSize());
+        assertSaturatedAndResize(webServer, adapter, TomcatThreadPoolAdapter.THREAD_POOL_NAME);
+    }
+
+    @Test(timeout = 30000)
+    public void test_jetty() throws Exception {
+        WebServer webServer = start(new JettyServletWebServerFactory(0).getWebServer(blockingServlet()));
+        Map<String, ThreadPoolAdapter> adapters = JettyThreadPoolAdapter.discover(webServer);
+        assertEquals(Collections.singleton(JettyThreadPoolAdapter.THREAD_POOL_NAME), adapters.keySet());
+        assertTrue(TomcatThreadPoolAdapter.discover(webServer).isEmpty());
+
+        ThreadPoolAdapter adapter = adapters.get(JettyThreadPoolAdapter.THREAD_POOL_NAME);
+        ThreadPoolConfig config = adapter.snapshot("app", JettyThreadPoolAdapter.THREAD_POOL_NAME);
+        assertEquals(JettyThreadPoolAdapter.POOL_TYPE, config.getPoolType());
+        assertEquals(Integer.MAX_VALUE, config.getQueueCapacity());
+        assertSaturatedAndResize(webServer, adapter, JettyThreadPoolAdapter.THREAD_POOL_NAME);
+    }
+
+    @Test(timeout = 30000)
+    public void test_undertow() throws Exception {
+        WebServer webServer = start(new UndertowServletWebServerFactory(0).getWebServer(blockingServlet()));
+        Map<String, ThreadPoolAdapter> adapters = UndertowThreadPoolAdapter.discover(webServer);
+        assertEquals(Collections.singleton(UndertowThreadPoolAdapter.THREAD_POOL_NAME), adapters.keySet());
+        assertTrue(TomcatThreadPoolAdapter.discover(webServer).isEmpty());
+
+        ThreadPoolAdapter adapter = adapters.get(UndertowThreadPoolAdapter.THREAD_POOL_NAME);
+        ThreadPoolConfig config = adapter.snapshot("app", UndertowThreadPoolAdapter.THREAD_POOL_NAME);
+        assertEquals(UndertowThreadPoolAdapter.POOL_TYPE, config.getPoolType());
+        assertTrue(config.getCorePoolSize() <= config.getMaximumPoolSize());
+        assertSaturatedAndResize(webServer, adapter, UndertowThreadPoolAdapter.THREAD_POOL_NAME);
+    }
+
+    /**
+     * 占住请求线程后经由动态线程池服务查询与调整，与 Bean 线程池走同一流程
+     */
+    private void assertSaturatedAndResize(WebServer webServer, ThreadPoolAdapter adapter, String threadPoolName) throws Exception {
+        for (int i = 0; i < CONCURRENCY; i++) {
+            request(webServer.getPort());
+        }
+        waitUntil(() -> adapter.getActiveCount() >= CONCURRENCY);
+
+        DefaultThreadPoolService service = new DefaultThreadPoolService("app", "instance", Collections.emptyMap());
+        assertTrue(service.registerThreadPool(threadPoolName, adapter));
+        ThreadPoolConfig config = service.queryThreadPoolConfigByName(threadPoolName);
+        assertEquals(adapter.getPoolType(), config.getPoolType());
+        assertEquals("instance", config.getInstanceId());
+        assertTrue("active " + config.getActiveCount(), config.getActiveCount() >= CONCURRENCY);
+        assertTrue(config.getPoolSize() >= config.getActiveCount());
+
+        service.updateThreadPoolConfig(ThreadPoolConfig.builder().appName("app").threadPoolName(threadPoolName).corePoolSize(4).maximumPoolSize(64).build());
+        config = service.queryThreadPoolConfigByName(threadPoolName);
+        assertEquals(4, config.getCorePoolSize());
+        assertEquals(64, config.getMaximumPoolSize());
+
+        // 调大核心线程数超过当前最大线程数，先扩后缩
+        service.updateThreadPoolConfig(ThreadPoolConfig.builder().appName("app").threadPoolName(threadPoolName).corePoolSize(80).maximumPoolSize(100).build());
+        config = service.queryThreadPoolConfigByName(threadPoolName);
+        assertEquals(80, config.getCorePoolSize());
+        assertEquals(100, config.getMaximumPoolSize());
+
+        assertNull(adapter.apply(ThreadPoolConfig.builder().appName("app").threadPoolName(threadPoolName).corePoolSize(5).maximumPoolSize(4).build()));
+        assertEquals(100, adapter.snapshot("app", threadPoolName).getMaximumPoolSize());
+
+        // 请求线程释放后仍能正常响应
+        release.countDown();
+        assertEquals(200, get(webServer.getPort()));
+    }
+
+    private WebServer start(WebServer webServer) {
+        webServers.add(webServer);
+        webServer.start();
+        return webServer;
+    }
+
+    private ServletContextInitializer blockingServlet() {
+        return servletContext -> servletContext.addServlet("block", new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                response.setStatus(200);
+                response.getWriter().write("ok");
+            }
+        }).addMapping("/block");
+    }
+
+    private void request(int port) {
+        clients.execute(() -> {
+            try {
+                get(port);
+            } catch (IOException ignored) {
+                // 服务器关闭时中断的请求不影响断言
+            }
+        });
+    }
+
+    private static int get(int port) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + "/block").openConnection();
+        connection.setConnectTimeout(5000);
+        connection.setReadTimeout(20000);
+        try {
+            return connection.getResponseCode();
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) fail("condition not met within 10s");
+            Thread.sleep(10);
+        }
+    }
+
+}
@@ -0,0 +1,115 @@
+package com.cz.flashtp.domain.admission;
+
+import com.cz.flashtp.domain.metrics.AdmissionSnapshot;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 自适应准入控制测试
+ *
+ * @author Zjianru
+ */
+public class AdmissionControllerTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    public void test_fastFailWithRetryAfter() {
+        AdmissionController controller = new AdmissionController(2, 1, 2, 50);
+        assertTrue(controller.tryAcquire(0, TimeUnit.MILLISECONDS));
+        assertTrue(controller.tryAcquire(0, TimeUnit.MILLISECONDS));
+        assertFalse(controller.tryAcquire(0, TimeUnit.MILLISECONDS));
+        // 尚无耗时样本时按排队耗时目标估算：50ms × 1 / 2
+        AdmissionRejectedException rejected = controller.reject("limit reached");
+        assertEquals(25, rejected.getRetryAfterMillis());
+        AdmissionSnapshot snapshot = controller.snapshot();
+        assertEquals(2, snapshot.getInFlight());
+        assertEquals(1, snapshot.getRejectedCount());
+
+        controller.release(0, 400 * MS);
+        assertTrue(controller.tryAcquire(0, TimeUnit.MILLISECONDS));
+        // 有样本后按平均耗时估算：400ms × 1 / 2
+        assertEquals(200, controller.reject("limit reached").getRetryAfterMillis());
+    }
+
+    @Test(timeout = 10000)
+    public void test_timedWaitAdmittedAfterRelease() throws InterruptedException {
+        AdmissionController controller = new AdmissionController(1, 1, 1, 50);
+        assertTrue(controller.tryAcquire(0, TimeUnit.MILLISECONDS));
+        assertFalse(controller.tryAcquire(20, TimeUnit.MILLISECONDS));
+        Thread releaser = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            controller.release(-1, 0);
+        });
+        releaser.start();
+        assertTrue(controller.tryAcquire(5, TimeUnit.SECONDS));
+        releaser.join();
+        assertEquals(1, controller.getInFlight());
+    }
+
+    @Test
+    public void test_shrinkWhenQueueWaitAboveTarget() throws InterruptedException {
+        AdmissionController controller = new AdmissionController(10, 1, 100, 50);
+        Thread.sleep(110);
+        for (int i = 0; i < 8; i++) {
+            assertTrue(controller.tryAcquire(0, TimeUnit.MILLISECONDS));
+            controller.release(200 * MS, 300 * MS);
+        }
+        // 排队耗时是目标的 4 倍，单次最多减半
+        assertEquals(5, controller.getLimit());
+    }
+
+    @Test
+    public void test_growWhenSaturatedAndFast() throws InterruptedException {
+        AdmissionController controller = new AdmissionController(4, 1, 100, 50);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(controller.tryAcquire(0, TimeUnit.MILLISECONDS));
+        }
+        Thread.sleep(110);
+        for (int i = 0; i < 4; i++) {
+            controller.release(MS, 2 * MS);
+        }
+        assertEquals(4, controller.getLimit());
+        for (int i = 0; i < 4; i++) {
+            assertTrue(controller.tryAcquire(0, TimeUnit.MILLISECONDS));
+            controller.release(MS, 2 * MS);
+        }
+        // 周期内在途任务数达到限额且排队耗时低于目标：4 + sqrt(4)
+        assertEquals(6, controller.getLimit());
+    }
+
+    @Test
+    public void test_adjustLimits() {
+        AdmissionController controller = new AdmissionController(10, 1, 100, 50);
+        controller.setLimits(2, 4);
+        assertEquals(4, controller.getLimit());
+        controller.setTargetQueueWaitMs(20);
+        AdmissionSnapshot snapshot = controller.snapshot();
+        assertEquals(2, snapshot.getMinLimit());
+        assertEquals(4, snapshot.getMaxLimit());
+        assertEquals(20D, snapshot.getTargetQueueWaitMs(), 0.001D);
+        try {
+            controller.setLimits(5, 4);
+            fail("expected IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+            // 下限大于上限
+        }
+        try {
+            controller.setTargetQueueWaitMs(0);
+            fail("expected IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+            // 目标必须为正
+        }
+    }
+
+}
@@ -0,0 +1,200 @@
+package com.cz.flashtp.domain.executor;
+
+import com.cz.flashtp.domain.entity.ThreadPoolConfig;
+import com.cz.flashtp.domain.invoker.DefaultThreadPoolService;
+import com.cz.flashtp.domain.queue.EagerTaskQueue;
+import com.cz.flashtp.domain.queue.ResizableCapacityLinkedBlockingQueue;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 优先创建线程的托管线程池测试
+ *
+ * @author Zjianru
+ */
+public class EagerThreadPoolExecutorTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private final List<ThreadPoolExecutor> executors = new ArrayList<>();
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        executors.forEach(ThreadPoolExecutor::shutdownNow);
+    }
+
+    @Test(timeout = 10000)
+    public void test_spawnThreadsBeforeQueueing() throws InterruptedException {
+        EagerThreadPoolExecutor executor = eager(1, 4, 2);
+        for (int i = 1; i <= 4; i++) {
+            submitBlocking(executor, i);
+            // 线程数未达到最大线程数时不排队
+            assertEquals(0, executor.getQueue().size());
+        }
+        assertEquals(4, executor.getPoolSize());
+        // 达到最大线程数后排队
+        executor.execute(this::await);
+        executor.execute(this::await);
+        assertEquals(2, executor.getQueue().size());
+        assertEquals(6, executor.getSubmittedCount());
+        // 队列满后按拒绝策略处理
+        try {
+            executor.execute(this::await);
+            fail("expected RejectedExecutionException");
+        } catch (RejectedExecutionException expected) {
+            // ignore
+        }
+        assertEquals(1, executor.taskCountSnapshot().getRejectedCount());
+        assertEquals(4, executor.getPoolSize());
+    }
+
+    @Test(timeout = 10000)
+    public void test_standardExecutorQueuesFirst() throws InterruptedException {
+        FlashTpExecutor executor = new FlashTpExecutor(1, 4, 60, TimeUnit.SECONDS,
+                new ResizableCapacityLinkedBlockingQueue<>(2), Executors.defaultThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+        executors.add(executor);
+        submitBlocking(executor, 1);
+        executor.execute(this::await);
+        executor.execute(this::await);
+        // 对照：标准线程池队列未满时线程数停留在核心线程数
+        assertEquals(1, executor.getPoolSize());
+        assertEquals(2, executor.getQueue().size());
+    }
+
+    @Test(timeout = 10000)
+    public void test_reuseIdleThreads() throws InterruptedException {
+        EagerThreadPoolExecutor executor = eager(1, 4, 2);
+        CountDownLatch done = new CountDownLatch(1);
+        executor.execute(done::countDown);
+        executor.execute(() -> {
+        });
+        done.await();
+        // 两个任务都执行完成后，执行过任务的线程均已计入线程数
+        waitUntil(() -> executor.getCompletedTaskCount() == 2 && executor.getActiveCount() == 0);
+        int poolSize = executor.getPoolSize();
+        // 存在空闲线程时直接入队交给空闲线程，不再创建线程
+        CountDownLatch reused = new CountDownLatch(1);
+        executor.execute(reused::countDown);
+        reused.await();
+        assertEquals(poolSize, executor.getPoolSize());
+    }
+
+    @Test(timeout = 10000)
+    public void test_dynamicAdjust() throws InterruptedException {
+        EagerThreadPoolExecutor executor = eager(1, 2, 1);
+        DefaultThreadPoolService service = new DefaultThreadPoolService("app", "instance", Collections.singletonMap("eager", executor));
+        ThreadPoolConfig config = service.queryThreadPoolConfigByName("eager");
+        assertEquals(1, config.getQueueCapacity());
+
+        service.updateThreadPoolConfig(ThreadPoolConfig.builder()
+                .appName("app").threadPoolName("eager").corePoolSize(2).maximumPoolSize(6).queueCapacity(3).build());
+        assertEquals(2, executor.getCorePoolSize());
+        assertEquals(6, executor.getMaximumPoolSize());
+        assertEquals(3, ((EagerTaskQueue<Runnable>) executor.getQueue()).getCapacity());
+
+        // 调整后的最大线程数与队列容量立即生效
+        for (int i = 1; i <= 6; i++) {
+            submitBlocking(executor, i);
+        }
+        assertEquals(0, executor.getQueue().size());
+        for (int i = 0; i < 3; i++) {
+            executor.execute(this::await);
+        }
+        assertEquals(3, executor.getQueue().size());
+        assertEquals(6, service.queryThreadPoolConfigByName("eager").getPoolSize());
+    }
+
+    @Test(timeout = 10000)
+    public void test_forceBeforeReject() {
+        EagerThreadPoolExecutor executor = eager(1, 1, 1);
+        assertTrue(executor.beforeReject(() -> {
+        }));
+        assertEquals(1, executor.getQueue().size());
+        // 队列已满
+        assertFalse(executor.beforeReject(() -> {
+        }));
+        executor.shutdownNow();
+        executor.getQueue().clear();
+        // 已关闭
+        assertFalse(executor.beforeReject(() -> {
+        }));
+    }
+
+    @Test
+    public void test_fromKeepsSettingsAndTasks() {
+        ThreadPoolExecutor source = new ThreadPoolExecutor(2, 8, 30, TimeUnit.SECONDS,
+                new ResizableCapacityLinkedBlockingQueue<>(16), Executors.defaultThreadFactory(), new ThreadPoolExecutor.CallerRunsPolicy());
+        Runnable pending = () -> {
+        };
+        source.getQueue().offer(pending);
+        EagerThreadPoolExecutor executor = EagerThreadPoolExecutor.from(source);
+        executors.add(source);
+        executors.add(executor);
+        assertEquals(2, executor.getCorePoolSize());
+        assertEquals(8, executor.getMaximumPoolSize());
+        assertEquals(30, executor.getKeepAliveTime(TimeUnit.SECONDS));
+        assertTrue(executor.getRejectedExecutionHandler() instanceof ThreadPoolExecutor.CallerRunsPolicy);
+        assertEquals(16, ((EagerTaskQueue<Runnable>) executor.getQueue()).getCapacity());
+        assertSame(pending, executor.getQueue().peek());
+        assertEquals(0, source.getQueue().size());
+    }
+
+    @Test
+    public void test_queueBoundOnce() {
+        EagerThreadPoolExecutor executor = eager(1, 1, 1);
+        try {
+            new EagerThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS, (EagerTaskQueue<Runnable>) executor.getQueue(),
+                    Executors.defaultThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+            fail("expected IllegalStateException");
+        } catch (IllegalStateException expected) {
+            // ignore
+        }
+    }
+
+    private EagerThreadPoolExecutor eager(int core, int max, int capacity) {
+        EagerThreadPoolExecutor executor = new EagerThreadPoolExecutor(core, max, 60, TimeUnit.SECONDS,
+                new EagerTaskQueue<>(capacity), Executors.defaultThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+        executors.add(executor);
+        return executor;
+    }
+
+    /**
+     * 提交一个阻塞任务并等待其开始执行，保证每次提交时线程数与活跃数已稳定
+     */
+    private void submitBlocking(ThreadPoolExecutor executor, int expectedActive) throws InterruptedException {
+        executor.execute(this::await);
+        waitUntil(() -> executor.getActiveCount() == expectedActive && executor.getPoolSize() == expectedActive);
+    }
+
+    private void await() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        while (!condition.getAsBoolean()) {
+            Thread.sleep(1);
+        }
+    }
+
+}
@@ -0,0 +1,250 @@
+package com.cz.flashtp.domain.executor;
+
+import com.cz.flashtp.domain.admission.AdmissionRejectedException;
+import com.cz.flashtp.domain.entity.ThreadPoolConfig;
+import com.cz.flashtp.domain.invoker.DefaultThreadPoolService;
+import com.cz.flashtp.domain.metrics.AdmissionSnapshot;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 托管线程池带准入控制的异步提交测试
+ *
+ * @author Zjianru
+ */
+public class FlashTpExecutorAdmissionTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private final List<ThreadPoolExecutor> executors = new ArrayList<>();
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        executors.forEach(ThreadPoolExecutor::shutdownNow);
+    }
+
+    @Test(timeout = 10000)
+    public void test_fastFailThenComplete() throws Exception {
+        FlashTpExecutor executor = newExecutor();
+        assertNull(executor.admissionSnapshot());
+        // 初始限额为最大线程数
+        CompletableFuture<String> first = executor.submitAsync(() -> {
+            await();
+            return "done";
+        });
+        CompletableFuture<String> second = executor.submitAsync(() -> "never");
+        assertRejected(second);
+        AdmissionSnapshot snapshot = executor.admissionSnapshot();
+        assertEquals(1, snapshot.getLimit());
+        assertEquals(2, snapshot.getMaxLimit());
+        assertEquals(1, snapshot.getInFlight());
+        assertEquals(1, snapshot.getRejectedCount());
+        // 准入拒绝不进入线程池，不计入提交与拒绝次数
+        assertEquals(1, executor.taskCountSnapshot().getSubmittedCount());
+        assertEquals(0, executor.taskCountSnapshot().getRejectedCount());
+
+        release.countDown();
+        assertEquals("done", first.get(5, TimeUnit.SECONDS));
+        assertEquals(0, executor.admissionSnapshot().getInFlight());
+    }
+
+    @Test(timeout = 10000)
+    public void test_timedWaitAdmitted() throws Exception {
+        FlashTpExecutor executor = newExecutor();
+        CountDownLatch blocked = new CountDownLatch(1);
+        executor.submitAsync(() -> {
+            blocked.await();
+            return null;
+        });
+        new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            blocked.countDown();
+        }).start();
+        CompletableFuture<Void> waited = executor.submitAsync(() -> { }, 5, TimeUnit.SECONDS);
+        assertNull(waited.get(5, TimeUnit.SECONDS));
+        assertEquals(0, executor.admissionSnapshot().getRejectedCount());
+    }
+
+    @Test(timeout = 10000)
+    public void test_rejectedByPoolAfterAdmission() throws Exception {
+        FlashTpExecutor executor = newExecutor();
+        DefaultThreadPoolService service = new DefaultThreadPoolService("app", "instance", Collections.singletonMap("pool", executor));
+        service.updateThreadPoolConfig(ThreadPoolConfig.builder()
+                .appName("app").threadPoolName("pool").corePoolSize(1).maximumPoolSize(1)
+                .admissionMinLimit(3).admissionMaxLimit(3).admissionTargetQueueWaitMs(20).build());
+        ThreadPoolConfig config = service.queryThreadPoolConfigByName("pool");
+        assertEquals(3, config.getAdmissionLimit());
+        assertEquals(3, config.getAdmissionMinLimit());
+        assertEquals(3, config.getAdmissionMaxLimit());
+        assertEquals(20D, config.getAdmissionTargetQueueWaitMs(), 0.001D);
+
+        executor.submitAsync(this::await);
+        executor.submitAsync(() -> { });
+        // 线程与队列均已占满，AbortPolicy 不会被调用，拒绝体现在 future 上
+        CompletableFuture<Void> third = executor.submitAsync(() -> { });
+        assertRejected(third);
+        assertEquals(1, executor.taskCountSnapshot().getRejectedCount());
+        assertEquals(2, executor.admissionSnapshot().getInFlight());
+
+        // 下限大于上限时整体忽略，线程数也不调整
+        service.updateThreadPoolConfig(ThreadPoolConfig.builder()
+                .appName("app").threadPoolName("pool").corePoolSize(2).maximumPoolSize(2).admissionMinLimit(5).build());
+        assertEquals(1, executor.getCorePoolSize());
+        assertEquals(3, executor.admissionSnapshot().getMaxLimit());
+    }
+
+    @Test
+    public void test_rejectedUpdateLeavesAdmissionUncreated() {
+        FlashTpExecutor executor = newExecutor();
+        DefaultThreadPoolService service = new DefaultThreadPoolService("app", "instance", Collections.singletonMap("pool", executor));
+        // 默认上限为最大线程数与队列容量之和（2），下限 5 非法，整体忽略
+        service.updateThreadPoolConfig(ThreadPoolConfig.builder()
+                .appName("app").threadPoolName("pool").corePoolSize(1).maximumPoolSize(1).admissionMinLimit(5).build());
+        assertNull(executor.admissionSnapshot());
+        service.updateThreadPoolConfig(ThreadPoolConfig.builder()
+                .appName("app").threadPoolName("pool").corePoolSize(1).maximumPoolSize(1).admissionMinLimit(2).build());
+        assertEquals(2, executor.admissionSnapshot().getMinLimit());
+    }
+
+    @Test(timeout = 10000)
+    public void test_failureAndCancellation() throws Exception {
+        FlashTpExecutor executor = newExecutor();
+        CompletableFuture<Object> failed = executor.submitAsync(() -> {
+            throw new IllegalStateException("boom");
+        });
+        try {
+            failed.get(5, TimeUnit.SECONDS);
+            fail("expected ExecutionException");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        waitUntil(() -> executor.taskCountSnapshot().getFailedCount() == 1);
+
+        executor.admission().setLimits(2, 2);
+        executor.submitAsync(this::await);
+        AtomicInteger runs = new AtomicInteger();
+        CompletableFuture<Void> cancelled = executor.submitAsync(() -> {
+            runs.incrementAndGet();
+        });
+        cancelled.cancel(false);
+        release.countDown();
+        // 取消的任务跳过执行并归还名额
+        waitUntil(() -> executor.admissionSnapshot().getInFlight() == 0);
+        assertEquals(0, runs.get());
+    }
+
+    @Test(timeout = 10000)
+    public void test_shutdownNowRejectsQueued() throws Exception {
+        FlashTpExecutor executor = newExecutor();
+        executor.admission().setLimits(2, 2);
+        CompletableFuture<Void> running = executor.submitAsync(this::await);
+        AtomicInteger runs = new AtomicInteger();
+        CompletableFuture<Void> queued = executor.submitAsync(() -> {
+            runs.incrementAndGet();
+        });
+        List<Runnable> drained = executor.shutdownNow();
+        assertEquals(1, drained.size());
+        try {
+            queued.get(5, TimeUnit.SECONDS);
+            fail("expected RejectedExecutionException");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof RejectedExecutionException);
+        }
+        // 执行中的任务被中断后完成，名额全部归还
+        running.get(5, TimeUnit.SECONDS);
+        waitUntil(() -> executor.admissionSnapshot().getInFlight() == 0);
+        // 调用方再执行返回的任务时直接跳过，不重复归还名额
+        drained.get(0).run();
+        assertEquals(0, runs.get());
+        assertEquals(0, executor.admissionSnapshot().getInFlight());
+    }
+
+    @Test(timeout = 10000)
+    public void test_discardOldestRejectsAdmittedVictim() throws Exception {
+        FlashTpExecutor executor = newExecutor(new ThreadPoolExecutor.DiscardOldestPolicy());
+        executor.execute(this::await);
+        AtomicInteger runs = new AtomicInteger();
+        CompletableFuture<Void> victim = executor.submitAsync(() -> {
+            runs.incrementAndGet();
+        });
+        assertEquals(1, executor.admissionSnapshot().getInFlight());
+        // 队列已满，普通提交丢弃队首的异步任务
+        CountDownLatch latest = new CountDownLatch(1);
+        executor.execute(latest::countDown);
+        assertRejected(victim);
+        assertEquals(0, executor.admissionSnapshot().getInFlight());
+
+        release.countDown();
+        assertTrue(latest.await(5, TimeUnit.SECONDS));
+        assertEquals(0, runs.get());
+        assertEquals(3, executor.taskCountSnapshot().getSubmittedCount());
+        assertEquals(1, executor.taskCountSnapshot().getRejectedCount());
+    }
+
+    /**
+     * 单线程、队列容量为 1、AbortPolicy 的托管线程池
+     */
+    private FlashTpExecutor newExecutor() {
+        return newExecutor(new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    private FlashTpExecutor newExecutor(RejectedExecutionHandler handler) {
+        FlashTpExecutor executor = new FlashTpExecutor(1, 1, 0, TimeUnit.SECONDS, new LinkedBlockingQueue<>(1),
+                Executors.defaultThreadFactory(), handler);
+        executors.add(executor);
+        return executor;
+    }
+
+    private void await() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void assertRejected(CompletableFuture<?> future) throws InterruptedException {
+        assertTrue(future.isCompletedExceptionally());
+        try {
+            future.get();
+            fail("expected AdmissionRejectedException");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof AdmissionRejectedException);
+            assertTrue(((AdmissionRejectedException) e.getCause()).getRetryAfterMillis() > 0);
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) fail("condition not met within 5s");
+            Thread.sleep(5);
+        }
+    }
+
+}
@@ -0,0 +1,120 @@
+package com.cz.flashtp.domain.executor;
+
+import com.cz.flashtp.domain.entity.ThreadPoolConfig;
+import com.cz.flashtp.domain.invoker.DefaultThreadPoolService;
+import com.cz.flashtp.domain.metrics.SlowTaskSnapshot;
+import com.cz.flashtp.domain.watchdog.HashedTimingWheel;
+import com.cz.flashtp.domain.watchdog.SlowTaskDetector;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 托管线程池慢任务检测测试
+ *
+ * @author Zjianru
+ */
+public class FlashTpExecutorSlowTaskTest {
+
+    private final HashedTimingWheel timingWheel = new HashedTimingWheel("test-slow-task-watchdog", 10, TimeUnit.MILLISECONDS, 64);
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private final FlashTpExecutor executor = new FlashTpExecutor(2, 2, 0, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+            Executors.defaultThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+        timingWheel.stop();
+    }
+
+    @Test(timeout = 10000)
+    public void test_detectSlowTaskWithStack() throws InterruptedException {
+        assertNull(executor.slowTaskSnapshot());
+        executor.enableSlowTaskDetector(new SlowTaskDetector(timingWheel, "pool", 100, 2, 32));
+        for (int i = 0; i < 100; i++) {
+            executor.execute(() -> { });
+        }
+        executor.execute(this::awaitDownstream);
+        // 调用栈在计入仍在执行之后抓取
+        waitUntil(() -> null != executor.slowTaskSnapshot().getStacks());
+        SlowTaskSnapshot snapshot = executor.slowTaskSnapshot();
+        assertEquals(1, snapshot.getSlowCount());
+        assertEquals(1, snapshot.getRunningCount());
+        assertEquals(100, snapshot.getThresholdMs());
+        assertTrue(snapshot.getMaxRunMs() >= 100);
+        // 样本为工作线程执行慢任务时的调用栈
+        assertTrue(snapshot.getStacks(), snapshot.getStacks().contains("awaitDownstream"));
+
+        release.countDown();
+        waitUntil(() -> executor.slowTaskSnapshot().getRunningCount() == 0);
+        snapshot = executor.slowTaskSnapshot();
+        // 快任务执行完成时已取消，只计入一次
+        assertEquals(1, snapshot.getSlowCount());
+        assertEquals(0, snapshot.getMaxRunMs());
+        assertTrue(snapshot.getStacks().contains("awaitDownstream"));
+    }
+
+    @Test(timeout = 10000)
+    public void test_reportAndAdjustThreshold() throws InterruptedException {
+        executor.enableSlowTaskDetector(new SlowTaskDetector(timingWheel, "pool", 60_000, 2, 32));
+        DefaultThreadPoolService service = new DefaultThreadPoolService("app", "instance", Collections.singletonMap("pool", executor));
+        service.updateThreadPoolConfig(ThreadPoolConfig.builder()
+                .appName("app").threadPoolName("pool").corePoolSize(2).maximumPoolSize(2).slowTaskThresholdMs(50).build());
+        executor.execute(this::awaitDownstream);
+        waitUntil(() -> null != service.queryThreadPoolConfigByName("pool").getSlowTaskStacks());
+        ThreadPoolConfig config = service.queryThreadPoolConfigByName("pool");
+        assertEquals(1, config.getSlowTaskRunningCount());
+        assertEquals(50, config.getSlowTaskThresholdMs());
+        assertEquals(1, config.getSlowTaskCount());
+        assertTrue(config.getSlowTaskStacks().contains("awaitDownstream"));
+
+        // 负数阈值整体忽略
+        service.updateThreadPoolConfig(ThreadPoolConfig.builder()
+                .appName("app").threadPoolName("pool").corePoolSize(1).maximumPoolSize(2).slowTaskThresholdMs(-1).build());
+        assertEquals(2, executor.getCorePoolSize());
+        assertEquals(50, executor.getSlowTaskDetector().getThresholdMillis());
+    }
+
+    @Test
+    public void test_enableTwice() {
+        executor.enableSlowTaskDetector(new SlowTaskDetector(timingWheel, "pool", 100, 2, 32));
+        try {
+            executor.enableSlowTaskDetector(new SlowTaskDetector(timingWheel, "pool", 100, 2, 32));
+            fail("expected IllegalStateException");
+        } catch (IllegalStateException expected) {
+            // 只能开启一次
+        }
+    }
+
+    private void awaitDownstream() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) fail("condition not met within 5s");
+            Thread.sleep(5);
+        }
+    }
+
+}
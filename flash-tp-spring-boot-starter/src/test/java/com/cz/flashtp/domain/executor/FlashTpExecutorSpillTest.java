@@ -0,0 +1,239 @@
+package com.cz.flashtp.domain.executor;
+
+import com.cz.flashtp.domain.metrics.SpillSnapshot;
+import com.cz.flashtp.domain.spill.SpillSegmentLog;
+import com.cz.flashtp.domain.spill.TaskSpill;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 托管线程池溢出层测试
+ *
+ * @author Zjianru
+ */
+public class FlashTpExecutorSpillTest {
+
+    /**
+     * 可序列化任务的执行记录，反序列化后的任务无法持有测试实例的引用
+     */
+    private static final Queue<Integer> EXECUTED = new ConcurrentLinkedQueue<>();
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private final List<ThreadPoolExecutor> executors = new ArrayList<>();
+
+    private Path directory;
+
+    @Before
+    public void setUp() throws IOException {
+        EXECUTED.clear();
+        directory = Files.createTempDirectory("flash-tp-spill");
+    }
+
+    @After
+    public void tearDown() throws IOException, InterruptedException {
+        release.countDown();
+        for (ThreadPoolExecutor executor : executors) {
+            executor.shutdownNow();
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void test_spillAndDrain() throws InterruptedException {
+        FlashTpExecutor executor = newExecutor();
+        executor.execute(this::await);
+        executor.execute(new RecordingTask(0));
+        // 队列已满，可序列化的任务落盘，不计入拒绝
+        for (int i = 1; i <= 5; i++) {
+            executor.execute(new RecordingTask(i));
+        }
+        SpillSnapshot spill = executor.spillSnapshot();
+        assertEquals(5, spill.getDepth());
+        assertEquals(5, spill.getSpilledCount());
+        assertTrue(spill.getBytes() > 0);
+        // 不可序列化的任务照常交给拒绝策略
+        try {
+            executor.execute(() -> EXECUTED.add(-1));
+            fail("expected RejectedExecutionException");
+        } catch (RejectedExecutionException expected) {
+            // AbortPolicy
+        }
+        assertEquals(1, executor.taskCountSnapshot().getRejectedCount());
+
+        release.countDown();
+        waitUntil(() -> EXECUTED.size() == 6);
+        // 回灌按落盘顺序进行
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5), new ArrayList<>(EXECUTED));
+        waitUntil(() -> executor.spillSnapshot().getBytes() == 0);
+        spill = executor.spillSnapshot();
+        assertEquals(0, spill.getDepth());
+        assertEquals(5, spill.getDrainedCount());
+        assertEquals(0, spill.getFailedCount());
+        assertEquals(8, executor.taskCountSnapshot().getSubmittedCount());
+    }
+
+    @Test(timeout = 10000)
+    public void test_newTasksQueueBehindSpill() throws InterruptedException {
+        FlashTpExecutor executor = newExecutor();
+        executor.execute(this::await);
+        executor.execute(new RecordingTask(0));
+        for (int i = 1; i <= 3; i++) {
+            executor.execute(new RecordingTask(i));
+        }
+        assertEquals(3, executor.spillSnapshot().getDepth());
+        // 模拟工作线程已取走队首任务、尚未回灌：队列出现空位，溢出层仍有积压
+        Runnable head = executor.getQueue().poll();
+        assertNotNull(head);
+        head.run();
+        // 新任务先触发回灌，队列再次占满后落盘排在已落盘任务之后
+        executor.execute(new RecordingTask(4));
+        executor.execute(new RecordingTask(5));
+        assertEquals(4, executor.spillSnapshot().getDepth());
+        assertEquals(0, executor.taskCountSnapshot().getRejectedCount());
+
+        release.countDown();
+        waitUntil(() -> EXECUTED.size() == 6);
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5), new ArrayList<>(EXECUTED));
+        waitUntil(() -> executor.spillSnapshot().getBytes() == 0);
+        assertEquals(0, executor.spillSnapshot().getFailedCount());
+    }
+
+    @Test(timeout = 10000)
+    public void test_replayAfterRestart() throws InterruptedException {
+        FlashTpExecutor executor = newExecutor();
+        executor.execute(this::await);
+        executor.execute(new RecordingTask(0));
+        for (int i = 1; i <= 3; i++) {
+            executor.execute(new RecordingTask(i));
+        }
+        assertEquals(3, executor.spillSnapshot().getDepth());
+        // 关闭后不再回灌，落盘的任务保留在磁盘上
+        executor.shutdownNow();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertTrue(EXECUTED.isEmpty());
+
+        FlashTpExecutor restarted = newExecutor();
+        waitUntil(() -> EXECUTED.size() == 3);
+        assertEquals(Arrays.asList(1, 2, 3), new ArrayList<>(EXECUTED));
+        assertEquals(3, restarted.taskCountSnapshot().getSubmittedCount());
+        waitUntil(() -> restarted.getCompletedTaskCount() == 3);
+        restarted.shutdown();
+        assertTrue(restarted.awaitTermination(5, TimeUnit.SECONDS));
+
+        // 执行完成的任务已确认，不再重放
+        EXECUTED.clear();
+        FlashTpExecutor reopened = newExecutor();
+        assertEquals(0, reopened.spillSnapshot().getDepth());
+        assertEquals(0, reopened.spillSnapshot().getBytes());
+        assertTrue(EXECUTED.isEmpty());
+    }
+
+    @Test
+    public void test_unsupportedQueue() {
+        FlashTpExecutor executor = new FlashTpExecutor(1, 1, 0, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                Executors.defaultThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+        executors.add(executor);
+        TaskSpill taskSpill = new TaskSpill(new SpillSegmentLog(directory, 4096, 1 << 20));
+        try {
+            executor.enableSpill(taskSpill);
+            fail("expected IllegalStateException");
+        } catch (IllegalStateException expected) {
+            // 没有空位可供回灌
+        } finally {
+            taskSpill.close();
+        }
+        assertNull(executor.spillSnapshot());
+    }
+
+    @Test
+    public void test_keyedOrderedUnsupported() {
+        KeyedOrderedExecutor executor = new KeyedOrderedExecutor(1, 4, 16, Executors.defaultThreadFactory());
+        executors.add(executor);
+        TaskSpill taskSpill = new TaskSpill(new SpillSegmentLog(directory, 4096, 1 << 20));
+        try {
+            executor.enableSpill(taskSpill);
+            fail("expected IllegalStateException");
+        } catch (IllegalStateException expected) {
+            // 后处理器据此记录日志并跳过，不中断容器启动
+        } finally {
+            taskSpill.close();
+        }
+        assertNull(executor.spillSnapshot());
+    }
+
+    /**
+     * 单线程、队列容量为 1、AbortPolicy 的托管线程池，溢出日志使用同一目录，重启后允许重放测试任务
+     */
+    private FlashTpExecutor newExecutor() {
+        FlashTpExecutor executor = new FlashTpExecutor(1, 1, 0, TimeUnit.SECONDS, new LinkedBlockingQueue<>(1),
+                Executors.defaultThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+        executors.add(executor);
+        executor.enableSpill(new TaskSpill(new SpillSegmentLog(directory, 4096, 1 << 20),
+                Collections.singleton(RecordingTask.class.getName())));
+        return executor;
+    }
+
+    private void await() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) fail("condition not met within 5s");
+            Thread.sleep(5);
+        }
+    }
+
+    private static final class RecordingTask implements Runnable, Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final int id;
+
+        RecordingTask(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public void run() {
+            EXECUTED.add(id);
+        }
+    }
+
+}
@@ -0,0 +1,295 @@
+package com.cz.flashtp.domain.executor;
+
+import com.cz.flashtp.domain.entity.ThreadPoolConfig;
+import com.cz.flashtp.domain.invoker.DefaultThreadPoolService;
+import com.cz.flashtp.domain.metrics.LaneSnapshot;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 按 key 有序的托管线程池测试
+ *
+ * @author Zjianru
+ */
+public class KeyedOrderedExecutorTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private final List<KeyedOrderedExecutor> executors = new ArrayList<>();
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        executors.forEach(KeyedOrderedExecutor::shutdownNow);
+    }
+
+    @Test(timeout = 30000)
+    public void test_orderedPerKeyAndParallelAcrossKeys() throws InterruptedException {
+        KeyedOrderedExecutor executor = keyed(4, 16, 10_000);
+        Recorder recorder = run(executor, 64, 200, null);
+        recorder.assertOrdered();
+        assertTrue("max concurrency " + recorder.maxConcurrency.get(), recorder.maxConcurrency.get() > 1);
+        // 完成计数在任务返回后才更新
+        waitUntil(() -> executor.getCompletedTaskCount() == 64 * 200);
+    }
+
+    @Test(timeout = 30000)
+    public void test_orderedWhileLaneCountChanges() throws InterruptedException {
+        // 调整到 1 个通道时全部任务可能排在同一通道
+        KeyedOrderedExecutor executor = keyed(4, 8, 64 * 300);
+        Recorder recorder = run(executor, 64, 300, () -> {
+            int[] laneCounts = {3, 17, 1, 64, 8};
+            for (int laneCount : laneCounts) {
+                executor.setLaneCount(laneCount);
+                Thread.sleep(2);
+            }
+        });
+        recorder.assertOrdered();
+        assertEquals(8, executor.getLaneCount());
+    }
+
+    @Test(timeout = 10000)
+    public void test_laneCapacityRejects() throws InterruptedException {
+        KeyedOrderedExecutor executor = keyed(1, 1, 2);
+        CountDownLatch started = new CountDownLatch(1);
+        executor.execute("k", () -> {
+            started.countDown();
+            await();
+        });
+        started.await();
+        executor.execute("k", this::await);
+        executor.execute("other", this::await);
+        try {
+            executor.execute("k", this::await);
+            fail("expected RejectedExecutionException");
+        } catch (RejectedExecutionException expected) {
+            // ignore
+        }
+        assertEquals(1, executor.taskCountSnapshot().getRejectedCount());
+        // 调大上限后立即可以继续提交
+        executor.setLaneCapacity(3);
+        executor.execute("k", this::await);
+        assertEquals(3, executor.laneSnapshot().getLaneDepthMax());
+    }
+
+    @Test(timeout = 10000)
+    public void test_laneSnapshotReportsSkewAndHotKey() throws InterruptedException {
+        KeyedOrderedExecutor executor = keyed(1, 8, 1000);
+        // 建立窗口基线
+        executor.laneSnapshot();
+        CountDownLatch started = new CountDownLatch(1);
+        executor.execute("blocker", () -> {
+            started.countDown();
+            await();
+        });
+        started.await();
+        for (int i = 0; i < 90; i++) {
+            executor.execute("account-42", () -> {
+            });
+        }
+        for (int i = 0; i < 10; i++) {
+            executor.execute("account-" + i, () -> {
+            });
+        }
+        LaneSnapshot snapshot = executor.laneSnapshot();
+        assertEquals(8, snapshot.getLaneCount());
+        assertEquals(1000, snapshot.getLaneCapacity());
+        int total = 0;
+        for (int depth : snapshot.getLaneDepths()) {
+            total += depth;
+        }
+        // 每个通道的第一个任务已交给线程池，不计入通道深度
+        assertTrue("total " + total, total >= 92);
+        assertTrue(snapshot.getLaneDepthMax() >= 89);
+        assertTrue("skew " + snapshot.getSkew(), snapshot.getSkew() > 5);
+        assertEquals("account-42", snapshot.getHotKey());
+    }
+
+    @Test(timeout = 10000)
+    public void test_dynamicAdjustAndReport() {
+        KeyedOrderedExecutor executor = keyed(2, 4, 100);
+        DefaultThreadPoolService service = new DefaultThreadPoolService("app", "instance", Collections.singletonMap("keyed", executor));
+        service.updateThreadPoolConfig(ThreadPoolConfig.builder()
+                .appName("app").threadPoolName("keyed").corePoolSize(6).maximumPoolSize(6).laneCount(32).laneCapacity(500).build());
+        assertEquals(6, executor.getCorePoolSize());
+        assertEquals(32, executor.getLaneCount());
+        assertEquals(500, executor.getLaneCapacity());
+
+        ThreadPoolConfig config = service.queryThreadPoolConfigByName("keyed");
+        assertEquals(32, config.getLaneCount());
+        assertEquals(500, config.getLaneCapacity());
+        assertEquals(32, config.getLaneDepths().length);
+        assertEquals(32 * 500, config.getQueueCapacity());
+
+        // 非法的通道数整体忽略，线程数也不调整
+        service.updateThreadPoolConfig(ThreadPoolConfig.builder()
+                .appName("app").threadPoolName("keyed").corePoolSize(8).maximumPoolSize(8).laneCount(KeyedOrderedExecutor.MAX_LANE_COUNT + 1).build());
+        assertEquals(6, executor.getCorePoolSize());
+        assertEquals(32, executor.getLaneCount());
+    }
+
+    @Test(timeout = 10000)
+    public void test_shutdownDrainsLanesInOrder() throws InterruptedException {
+        KeyedOrderedExecutor executor = keyed(2, 4, 10_000);
+        List<Integer> seen = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch started = new CountDownLatch(1);
+        executor.execute("k", () -> {
+            started.countDown();
+            await();
+        });
+        started.await();
+        for (int i = 0; i < 1000; i++) {
+            int value = i;
+            executor.execute("k", () -> seen.add(value));
+        }
+        executor.shutdown();
+        release.countDown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(1000, seen.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(Integer.valueOf(i), seen.get(i));
+        }
+        try {
+            executor.execute("k", () -> {
+            });
+            fail("expected RejectedExecutionException");
+        } catch (RejectedExecutionException expected) {
+            // ignore
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void test_submitFailureCounted() throws InterruptedException {
+        KeyedOrderedExecutor executor = keyed(1, 2, 10);
+        Future<Object> failed = executor.submit("k", () -> {
+            throw new IllegalStateException("boom");
+        });
+        Future<String> ok = executor.submit("k", () -> "ok");
+        try {
+            failed.get();
+            fail("expected ExecutionException");
+        } catch (ExecutionException expected) {
+            // ignore
+        }
+        try {
+            assertEquals("ok", ok.get());
+        } catch (ExecutionException e) {
+            fail(e.toString());
+        }
+        waitUntil(() -> executor.getCompletedTaskCount() == 2);
+        assertEquals(1, executor.taskCountSnapshot().getFailedCount());
+    }
+
+    private KeyedOrderedExecutor keyed(int workers, int laneCount, int laneCapacity) {
+        KeyedOrderedExecutor executor = new KeyedOrderedExecutor(workers, laneCount, laneCapacity, Executors.defaultThreadFactory());
+        executors.add(executor);
+        return executor;
+    }
+
+    /**
+     * 每个生产者负责一部分 key，按序号递增提交；调整动作与生产者并发执行
+     */
+    private Recorder run(KeyedOrderedExecutor executor, int keys, int perKey, Action adjust) throws InterruptedException {
+        Recorder recorder = new Recorder(keys);
+        int producers = 4;
+        CountDownLatch done = new CountDownLatch(keys * perKey);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            threads.add(new Thread(() -> {
+                for (int seq = 0; seq < perKey; seq++) {
+                    for (int key = producer; key < keys; key += producers) {
+                        int k = key;
+                        int s = seq;
+                        executor.execute("key-" + k, () -> {
+                            recorder.record(k, s);
+                            done.countDown();
+                        });
+                    }
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        if (null != adjust) {
+            try {
+                adjust.run();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(done.await(20, TimeUnit.SECONDS));
+        return recorder;
+    }
+
+    private void await() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        while (!condition.getAsBoolean()) {
+            Thread.sleep(1);
+        }
+    }
+
+    private interface Action {
+        void run() throws Exception;
+    }
+
+    /**
+     * 校验每个 key 的执行顺序并记录最大并发数
+     */
+    private static final class Recorder {
+
+        private final AtomicInteger running = new AtomicInteger();
+        private final AtomicInteger maxConcurrency = new AtomicInteger();
+        private final AtomicInteger violations = new AtomicInteger();
+        private final int[] lastSeen;
+
+        Recorder(int keys) {
+            lastSeen = new int[keys];
+            Arrays.fill(lastSeen, -1);
+        }
+
+        void record(int key, int seq) {
+            int now = running.incrementAndGet();
+            maxConcurrency.accumulateAndGet(now, Math::max);
+            // 同一 key 不会并发执行，这里的读写由通道串行保证可见性
+            if (lastSeen[key] + 1 != seq) violations.incrementAndGet();
+            lastSeen[key] = seq;
+            // 拉长执行时间，让不同 key 的任务有机会并发
+            for (int i = 0; i < 1000; i++) {
+                Thread.onSpinWait();
+            }
+            running.decrementAndGet();
+        }
+
+        void assertOrdered() {
+            assertEquals(0, violations.get());
+        }
+    }
+
+}
@@ -0,0 +1,111 @@
+package com.cz.flashtp.domain.metrics;
+
+import com.cz.flashtp.domain.entity.ThreadPoolConfig;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 线程池高频采样测试
+ *
+ * @author Zjianru
+ */
+public class ThreadPoolSamplerTest {
+
+    @Test
+    public void test_burstBetweenReportsVisible() throws InterruptedException {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(2, 2, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+        try {
+            Map<String, ThreadPoolExecutor> executors = Collections.singletonMap("pool", executor);
+            ThreadPoolSampler sampler = new ThreadPoolSampler(executors, 0);
+            sampler.sample();
+
+            // 突发：2 个线程全部占用，队列积压 3 个任务
+            CountDownLatch started = new CountDownLatch(2);
+            CountDownLatch release = new CountDownLatch(1);
+            for (int i = 0; i < 5; i++) {
+                executor.execute(() -> {
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            sampler.sample();
+            release.countDown();
+            waitIdle(executor);
+            sampler.sample();
+
+            // 上报时突发已结束，快照只能看到空闲状态，窗口保留了峰值
+            ThreadPoolConfig config = ThreadPoolConfig.getInstance("app", "pool", executor);
+            assertEquals(0, config.getQueueSize());
+            List<ThreadPoolConfig> configs = Collections.singletonList(config);
+            sampler.drainTo(configs);
+            assertEquals(4, config.getSampleCount());
+            assertEquals(0, config.getActiveCountMin());
+            assertEquals(2, config.getActiveCountMax());
+            assertEquals(0.5, config.getActiveCountAvg(), 0.001);
+            assertEquals(0, config.getQueueSizeMin());
+            assertEquals(3, config.getQueueSizeMax());
+            assertEquals(0.75, config.getQueueSizeAvg(), 0.001);
+
+            // 取出后开始新的窗口
+            ThreadPoolConfig next = ThreadPoolConfig.getInstance("app", "pool", executor);
+            sampler.drainTo(Collections.singletonList(next));
+            assertEquals(1, next.getSampleCount());
+            assertEquals(0, next.getQueueSizeMax());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void test_mergeKeepsPeaksAndWeightsAverage() {
+        SampleWindow window = new SampleWindow();
+        window.record(1, 4, 10);
+        window.record(3, 4, 30);
+        ThreadPoolConfig earlier = ThreadPoolConfig.builder().build();
+        window.drainTo(earlier);
+
+        window.record(2, 8, 0);
+        ThreadPoolConfig later = ThreadPoolConfig.builder().build();
+        window.drainTo(later);
+
+        SampleWindow.merge(later, earlier);
+        assertEquals(3, later.getSampleCount());
+        assertEquals(1, later.getActiveCountMin());
+        assertEquals(3, later.getActiveCountMax());
+        assertEquals(2, later.getActiveCountAvg(), 0.001);
+        assertEquals(4, later.getPoolSizeMin());
+        assertEquals(8, later.getPoolSizeMax());
+        assertEquals(0, later.getQueueSizeMin());
+        assertEquals(30, later.getQueueSizeMax());
+        assertEquals(40 / 3D, later.getQueueSizeAvg(), 0.01);
+
+        // 没有采样的快照直接继承较早窗口
+        ThreadPoolConfig empty = ThreadPoolConfig.builder().build();
+        SampleWindow.merge(empty, earlier);
+        assertEquals(2, empty.getSampleCount());
+        assertEquals(30, empty.getQueueSizeMax());
+    }
+
+    private static void waitIdle(ThreadPoolExecutor executor) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while ((executor.getActiveCount() > 0 || !executor.getQueue().isEmpty()) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+}
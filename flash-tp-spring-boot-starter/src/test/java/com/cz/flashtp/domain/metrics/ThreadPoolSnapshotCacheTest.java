@@ -0,0 +1,96 @@
+package com.cz.flashtp.domain.metrics;
+
+import com.cz.flashtp.domain.DynamicThreadPoolService;
+import com.cz.flashtp.domain.entity.ThreadPoolConfig;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * 线程池快照缓存测试
+ *
+ * @author Zjianru
+ */
+public class ThreadPoolSnapshotCacheTest {
+
+    @Test
+    public void test_reusedWithinTtl() {
+        Counting service = new Counting();
+        AtomicLong now = new AtomicLong(10_000);
+        ThreadPoolSnapshotCache cache = new ThreadPoolSnapshotCache(service, 1000, now::get);
+
+        // 一次抓取读取多个线程池、多个指标，只采集一次
+        assertEquals(1, cache.get("a").getActiveCount());
+        assertEquals(1, cache.get("b").getActiveCount());
+        assertEquals(2, cache.all().size());
+        assertNull(cache.get("missing"));
+        assertEquals(1, service.queries.get());
+
+        now.addAndGet(999);
+        cache.get("a");
+        assertEquals(1, service.queries.get());
+
+        now.addAndGet(1);
+        assertEquals(2, cache.get("a").getActiveCount());
+        assertEquals(2, service.queries.get());
+    }
+
+    @Test
+    public void test_invalidateRefreshesOnNextRead() {
+        Counting service = new Counting();
+        ThreadPoolSnapshotCache cache = new ThreadPoolSnapshotCache(service, 60_000, () -> 0L);
+        cache.get("a");
+        cache.invalidate();
+        assertEquals(2, cache.get("a").getActiveCount());
+        assertEquals(2, service.queries.get());
+    }
+
+    @Test
+    public void test_staleSnapshotKeptWhenRefreshFails() {
+        Counting service = new Counting();
+        AtomicLong now = new AtomicLong();
+        ThreadPoolSnapshotCache cache = new ThreadPoolSnapshotCache(service, 1000, now::get);
+        cache.get("a");
+        service.failing = true;
+        now.addAndGet(5000);
+        assertEquals(1, cache.get("a").getActiveCount());
+        // 失败后不阻塞后续刷新
+        service.failing = false;
+        assertEquals(3, cache.get("a").getActiveCount());
+    }
+
+    /**
+     * 每次查询活跃线程数加一，用于区分不同批次的快照
+     */
+    private static final class Counting implements DynamicThreadPoolService {
+        private final AtomicInteger queries = new AtomicInteger();
+        private volatile boolean failing;
+
+        @Override
+        public List<ThreadPoolConfig> queryThreadPoolList() {
+            int query = queries.incrementAndGet();
+            if (failing) throw new IllegalStateException("query failed");
+            List<ThreadPoolConfig> configs = new ArrayList<>();
+            configs.add(ThreadPoolConfig.builder().appName("app").threadPoolName("a").activeCount(query).build());
+            configs.add(ThreadPoolConfig.builder().appName("app").threadPoolName("b").activeCount(query).build());
+            return configs;
+        }
+
+        @Override
+        public ThreadPoolConfig queryThreadPoolConfigByName(String threadPoolName) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void updateThreadPoolConfig(ThreadPoolConfig threadPoolConfig) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+}
@@ -0,0 +1,206 @@
+package com.cz.flashtp.domain.queue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 可调整容量队列的并发测试
+ *
+ * @author Zjianru
+ */
+public class ResizableCapacityLinkedBlockingQueueTest {
+
+    @Test
+    public void test_shrinkBelowCurrentDepth() {
+        ResizableCapacityLinkedBlockingQueue<Integer> queue = new ResizableCapacityLinkedBlockingQueue<>(100);
+        for (int i = 0; i < 100; i++) {
+            assertTrue(queue.offer(i));
+        }
+        queue.setCapacity(10);
+        // 已入队元素不丢弃，深度暂时大于容量
+        assertEquals(100, queue.size());
+        assertEquals(0, queue.remainingCapacity());
+        assertFalse(queue.offer(100));
+        // 消费到容量以下后才允许入队，且保持 FIFO
+        for (int i = 0; i < 91; i++) {
+            assertEquals(Integer.valueOf(i), queue.poll());
+        }
+        assertEquals(9, queue.size());
+        assertTrue(queue.offer(100));
+        assertFalse(queue.offer(101));
+        assertEquals(Integer.valueOf(91), queue.peek());
+    }
+
+    @Test(timeout = 10000)
+    public void test_growWakesBlockedProducers() throws InterruptedException {
+        ResizableCapacityLinkedBlockingQueue<Integer> queue = new ResizableCapacityLinkedBlockingQueue<>(1);
+        queue.put(0);
+        int producers = 4;
+        CountDownLatch done = new CountDownLatch(producers);
+        for (int i = 1; i <= producers; i++) {
+            int value = i;
+            Thread thread = new Thread(() -> {
+                try {
+                    queue.put(value);
+                    done.countDown();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            thread.setDaemon(true);
+            thread.start();
+        }
+        assertFalse(done.await(200, TimeUnit.MILLISECONDS));
+        queue.setCapacity(1 + producers);
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(1 + producers, queue.size());
+    }
+
+    @Test(timeout = 10000)
+    public void test_shrinkReleasesProducersOnlyBelowNewCapacity() throws InterruptedException {
+        ResizableCapacityLinkedBlockingQueue<Integer> queue = new ResizableCapacityLinkedBlockingQueue<>(20);
+        for (int i = 0; i < 20; i++) {
+            queue.put(i);
+        }
+        queue.setCapacity(5);
+        CountDownLatch done = new CountDownLatch(1);
+        Thread producer = new Thread(() -> {
+            try {
+                queue.put(-1);
+                done.countDown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        producer.setDaemon(true);
+        producer.start();
+        // 深度从 20 降到 5 的过程中生产者必须保持阻塞
+        for (int i = 0; i < 15; i++) {
+            queue.take();
+            assertFalse(done.await(10, TimeUnit.MILLISECONDS));
+        }
+        queue.take();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(5, queue.size());
+    }
+
+    @Test(timeout = 60000)
+    public void test_concurrentResizeWhileProducingAndConsuming() throws InterruptedException {
+        ResizableCapacityLinkedBlockingQueue<Long> queue = new ResizableCapacityLinkedBlockingQueue<>(64);
+        int producers = 4;
+        int consumers = 4;
+        int perProducer = 50_000;
+        AtomicLong consumedSum = new AtomicLong();
+        AtomicInteger consumedCount = new AtomicInteger();
+        AtomicBoolean resizing = new AtomicBoolean(true);
+        CountDownLatch producersDone = new CountDownLatch(producers);
+        List<Thread> threads = new ArrayList<>();
+
+        for (int p = 0; p < producers; p++) {
+            long base = (long) p * perProducer;
+            threads.add(new Thread(() -> {
+                try {
+                    for (int i = 1; i <= perProducer; i++) {
+                        long value = base + i;
+                        // 混合使用阻塞与限时入队
+                        if ((i & 1) == 0) {
+                            queue.put(value);
+                        } else {
+                            while (!queue.offer(value, 1, TimeUnit.MILLISECONDS)) {
+                                Thread.onSpinWait();
+                            }
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    producersDone.countDown();
+                }
+            }));
+        }
+        for (int c = 0; c < consumers; c++) {
+            threads.add(new Thread(() -> {
+                try {
+                    while (true) {
+                        Long value = queue.poll(50, TimeUnit.MILLISECONDS);
+                        if (value == null) {
+                            if (producersDone.getCount() == 0 && queue.isEmpty()) return;
+                            continue;
+                        }
+                        consumedSum.addAndGet(value);
+                        consumedCount.incrementAndGet();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+        }
+        Thread resizer = new Thread(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            while (resizing.get()) {
+                // 在远小于与远大于当前深度之间来回调整
+                queue.setCapacity(1 + random.nextInt(128));
+                Thread.yield();
+            }
+        });
+        threads.forEach(Thread::start);
+        resizer.start();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        resizing.set(false);
+        resizer.join();
+
+        long total = (long) producers * perProducer;
+        assertEquals(total, consumedCount.get());
+        assertEquals(total * (total + 1) / 2, consumedSum.get());
+        assertEquals(0, queue.size());
+    }
+
+    @Test(timeout = 60000)
+    public void test_threadPoolKeepsRunningWhenQueueShrinks() throws InterruptedException {
+        ResizableCapacityLinkedBlockingQueue<Runnable> queue = new ResizableCapacityLinkedBlockingQueue<>(1000);
+        AtomicInteger rejected = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(2, 2, 0, TimeUnit.SECONDS, queue, (r, e) -> rejected.incrementAndGet());
+        AtomicInteger executed = new AtomicInteger();
+        CountDownLatch gate = new CountDownLatch(1);
+        int submitted = 0;
+        // 阻塞工作线程，让任务堆积在队列中
+        for (int i = 0; i < 2; i++) {
+            executor.execute(() -> {
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        for (int i = 0; i < 500; i++, submitted++) {
+            executor.execute(executed::incrementAndGet);
+        }
+        assertEquals(500, queue.size());
+        queue.setCapacity(100);
+        for (int i = 0; i < 50; i++, submitted++) {
+            executor.execute(executed::incrementAndGet);
+        }
+        assertEquals(50, rejected.get());
+        gate.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        assertEquals(submitted, executed.get() + rejected.get());
+    }
+
+}
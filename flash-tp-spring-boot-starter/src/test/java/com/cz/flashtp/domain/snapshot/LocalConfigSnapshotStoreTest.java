@@ -0,0 +1,112 @@
+package com.cz.flashtp.domain.snapshot;
+
+import com.cz.flashtp.domain.entity.ThreadPoolConfig;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 线程池配置本地快照测试
+ *
+ * @author Zjianru
+ */
+public class LocalConfigSnapshotStoreTest {
+
+    private Path directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("flash-tp-snapshot");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void test_saveAndLoad() {
+        LocalConfigSnapshotStore store = new LocalConfigSnapshotStore(directory, "demo-app");
+        store.save("pool-a", 4, 8, 100);
+        store.save("pool-b", 1, 2, 0);
+        store.save("pool-a", 16, 32, 2000);
+
+        List<ThreadPoolConfig> configs = new LocalConfigSnapshotStore(directory, "demo-app").load();
+        assertEquals(2, configs.size());
+        assertEquals("pool-a", configs.get(0).getThreadPoolName());
+        assertEquals("demo-app", configs.get(0).getAppName());
+        assertEquals(16, configs.get(0).getCorePoolSize());
+        assertEquals(32, configs.get(0).getMaximumPoolSize());
+        assertEquals(2000, configs.get(0).getQueueCapacity());
+        assertEquals("pool-b", configs.get(1).getThreadPoolName());
+        assertEquals(0, configs.get(1).getQueueCapacity());
+    }
+
+    @Test
+    public void test_saveAllMerged() throws IOException {
+        LocalConfigSnapshotStore store = new LocalConfigSnapshotStore(directory, "demo-app");
+        store.save("pool-a", 4, 8, 100);
+        store.saveAll(Arrays.asList(
+                ThreadPoolConfig.builder().threadPoolName("pool-a").corePoolSize(4).maximumPoolSize(8).queueCapacity(100).build(),
+                ThreadPoolConfig.builder().threadPoolName("pool-b").corePoolSize(2).maximumPoolSize(4).build(),
+                ThreadPoolConfig.builder().threadPoolName("pool-c").corePoolSize(3).maximumPoolSize(6).build()));
+
+        List<ThreadPoolConfig> configs = new LocalConfigSnapshotStore(directory, "demo-app").load();
+        assertEquals(3, configs.size());
+        assertEquals("pool-c", configs.get(2).getThreadPoolName());
+        assertEquals(6, configs.get(2).getMaximumPoolSize());
+        // 临时文件已替换为正式文件
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    public void test_corruptedFileIgnored() throws IOException {
+        LocalConfigSnapshotStore store = new LocalConfigSnapshotStore(directory, "demo-app");
+        store.save("pool-a", 4, 8, 100);
+        Path file = directory.resolve("demo-app.snapshot");
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 0x5A;
+        Files.write(file, bytes);
+        assertTrue(new LocalConfigSnapshotStore(directory, "demo-app").load().isEmpty());
+
+        // 截断的文件同样视为无快照
+        Files.write(file, new byte[]{1, 2, 3});
+        assertTrue(new LocalConfigSnapshotStore(directory, "demo-app").load().isEmpty());
+    }
+
+    @Test
+    public void test_otherApplicationIgnored() throws IOException {
+        LocalConfigSnapshotStore store = new LocalConfigSnapshotStore(directory, "demo-app");
+        store.save("pool-a", 4, 8, 100);
+        Files.copy(directory.resolve("demo-app.snapshot"), directory.resolve("other-app.snapshot"));
+        assertTrue(new LocalConfigSnapshotStore(directory, "other-app").load().isEmpty());
+    }
+
+    @Test
+    public void test_noTemporaryFilesLeft() throws IOException {
+        LocalConfigSnapshotStore store = new LocalConfigSnapshotStore(directory, "demo-app");
+        for (int i = 1; i <= 50; i++) {
+            store.save("pool-a", i, i * 2, i * 10);
+        }
+        try (Stream<Path> paths = Files.list(directory)) {
+            assertEquals(1, paths.count());
+        }
+        assertEquals(50, store.load().get(0).getCorePoolSize());
+    }
+
+}
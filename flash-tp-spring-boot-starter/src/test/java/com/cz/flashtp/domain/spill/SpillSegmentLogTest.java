@@ -0,0 +1,181 @@
+package com.cz.flashtp.domain.spill;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 溢出分段日志测试
+ *
+ * @author Zjianru
+ */
+public class SpillSegmentLogTest {
+
+    private Path directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("flash-tp-spill");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void test_appendPollAck() {
+        SpillSegmentLog log = new SpillSegmentLog(directory, 4096, 1 << 20);
+        assertNull(log.poll());
+        assertTrue(log.append(bytes("a")));
+        assertTrue(log.append(bytes("bb")));
+        assertTrue(log.append(bytes("ccc")));
+        assertEquals(3, log.depth());
+        // 记录头 8 字节，按 4 字节对齐
+        assertEquals(12 + 12 + 12, log.bytes());
+
+        SpillSegmentLog.Record a = log.poll();
+        SpillSegmentLog.Record b = log.poll();
+        assertEquals("a", text(a));
+        assertEquals("bb", text(b));
+        assertEquals(1, log.depth());
+        assertEquals(2, log.inFlight());
+
+        log.ack(a);
+        log.ack(a);
+        assertEquals(1, log.inFlight());
+        assertEquals(24, log.bytes());
+        log.ack(b);
+        assertEquals("ccc", text(log.poll()));
+        assertNull(log.poll());
+        assertEquals(0, log.depth());
+        log.close();
+        assertFalse(log.append(bytes("d")));
+    }
+
+    @Test
+    public void test_rollAndDeleteSegments() {
+        SpillSegmentLog log = new SpillSegmentLog(directory, 64, 1 << 20);
+        for (int i = 0; i < 20; i++) {
+            assertTrue(log.append(bytes("task-" + i)));
+        }
+        assertTrue(log.segmentFiles().size() > 1);
+        for (int i = 0; i < 20; i++) {
+            SpillSegmentLog.Record record = log.poll();
+            assertEquals("task-" + i, text(record));
+            log.ack(record);
+        }
+        assertNull(log.poll());
+        assertEquals(0, log.bytes());
+        // 读完且全部确认的分段删除，只保留正在写入的分段
+        assertEquals(1, log.segmentFiles().size());
+        // 大于分段的记录无法写入
+        assertFalse(log.append(new byte[64]));
+        log.close();
+    }
+
+    @Test
+    public void test_maxBytes() {
+        SpillSegmentLog log = new SpillSegmentLog(directory, 4096, 32);
+        assertTrue(log.append(new byte[8]));
+        assertTrue(log.append(new byte[8]));
+        assertFalse(log.append(new byte[8]));
+        log.ack(log.poll());
+        assertTrue(log.append(new byte[8]));
+        log.close();
+    }
+
+    @Test
+    public void test_recoverUnacked() {
+        SpillSegmentLog log = new SpillSegmentLog(directory, 64, 1 << 20);
+        for (int i = 0; i < 10; i++) {
+            log.append(bytes("task-" + i));
+        }
+        // 0-3 已确认，4 已读取未确认，5-9 未读取
+        for (int i = 0; i < 4; i++) {
+            log.ack(log.poll());
+        }
+        log.poll();
+        log.close();
+
+        SpillSegmentLog recovered = new SpillSegmentLog(directory, 64, 1 << 20);
+        assertEquals(6, recovered.depth());
+        for (int i = 4; i < 10; i++) {
+            SpillSegmentLog.Record record = recovered.poll();
+            assertEquals("task-" + i, text(record));
+            recovered.ack(record);
+        }
+        assertNull(recovered.poll());
+        assertTrue(recovered.append(bytes("task-10")));
+        recovered.close();
+
+        SpillSegmentLog reopened = new SpillSegmentLog(directory, 64, 1 << 20);
+        assertEquals(1, reopened.depth());
+        assertEquals("task-10", text(reopened.poll()));
+        reopened.close();
+    }
+
+    @Test
+    public void test_truncateTornTail() throws IOException {
+        SpillSegmentLog log = new SpillSegmentLog(directory, 4096, 1 << 20);
+        log.append(bytes("first"));
+        log.append(bytes("second"));
+        List<Path> files = log.segmentFiles();
+        log.close();
+
+        // 模拟写入一半时崩溃：第二条记录的 payload 与 crc 不符
+        try (RandomAccessFile file = new RandomAccessFile(files.get(0).toFile(), "rw")) {
+            file.seek(16 + SpillSegmentLog.HEADER_SIZE);
+            file.write('X');
+        }
+        SpillSegmentLog recovered = new SpillSegmentLog(directory, 4096, 1 << 20);
+        assertEquals(1, recovered.depth());
+        assertTrue(recovered.append(bytes("third")));
+        assertEquals("first", text(recovered.poll()));
+        assertEquals("third", text(recovered.poll()));
+        assertNull(recovered.poll());
+        recovered.close();
+    }
+
+    @Test
+    public void test_illegalArguments() {
+        try {
+            new SpillSegmentLog(directory, SpillSegmentLog.HEADER_SIZE, 1024);
+            fail("expected IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+            // 分段放不下任何记录
+        }
+        try {
+            new SpillSegmentLog(directory, 4096, 0);
+            fail("expected IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+            // 字节上限必须为正
+        }
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(SpillSegmentLog.Record record) {
+        return new String(record.getPayload(), StandardCharsets.UTF_8);
+    }
+
+}
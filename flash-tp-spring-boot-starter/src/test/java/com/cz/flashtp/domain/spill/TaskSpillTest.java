@@ -0,0 +1,151 @@
+package com.cz.flashtp.domain.spill;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 任务溢出层反序列化过滤测试
+ *
+ * @author Zjianru
+ */
+public class TaskSpillTest {
+
+    private static final String TEST_PACKAGE = TaskSpillTest.class.getPackage().getName() + ".";
+
+    private Path directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("flash-tp-task-spill");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void test_registeredClassesDrainWithinRun() {
+        try (TaskSpill taskSpill = new TaskSpill(newLog())) {
+            assertTrue(taskSpill.spill(new PayloadTask(new ArrayList<>(Collections.singletonList("a")))));
+            TaskSpill.SpilledTask spilled = taskSpill.poll();
+            assertTrue(spilled.getTask() instanceof PayloadTask);
+            taskSpill.ack(spilled.getRecord());
+            assertEquals(0, taskSpill.snapshot().getFailedCount());
+        }
+    }
+
+    @Test
+    public void test_replayRequiresAllowedPrefix() {
+        try (TaskSpill taskSpill = new TaskSpill(newLog())) {
+            assertTrue(taskSpill.spill(new PayloadTask(null)));
+            assertTrue(taskSpill.spill(new PayloadTask(null)));
+        }
+        // 重启后登记的类型已不存在，未配置前缀时拒绝并确认丢弃
+        try (TaskSpill replay = new TaskSpill(newLog())) {
+            assertNull(replay.poll());
+            assertEquals(2, replay.snapshot().getFailedCount());
+            assertEquals(0, replay.depth());
+        }
+    }
+
+    @Test
+    public void test_replayWithAllowedPrefix() {
+        try (TaskSpill taskSpill = new TaskSpill(newLog())) {
+            assertTrue(taskSpill.spill(new PayloadTask(new ArrayList<>(Collections.singletonList("a")))));
+        }
+        try (TaskSpill replay = new TaskSpill(newLog(), Collections.singleton(TEST_PACKAGE))) {
+            TaskSpill.SpilledTask spilled = replay.poll();
+            assertEquals(Collections.singletonList("a"), ((PayloadTask) spilled.getTask()).payload);
+            replay.ack(spilled.getRecord());
+        }
+    }
+
+    @Test
+    public void test_rejectsUnlistedClassInGraph() throws IOException {
+        // 直接写入日志的记录：允许的任务类型内嵌未允许的类型（常见利用链的入口容器）
+        PayloadTask task = new PayloadTask(new PriorityQueue<>(Collections.singletonList("a")));
+        try (SpillSegmentLog segmentLog = newLog()) {
+            assertTrue(segmentLog.append(serialize(task)));
+        }
+        try (TaskSpill replay = new TaskSpill(newLog(), Collections.singleton(TEST_PACKAGE))) {
+            assertNull(replay.poll());
+            assertEquals(1, replay.snapshot().getFailedCount());
+            assertEquals(0, replay.depth());
+        }
+    }
+
+    @Test
+    public void test_rejectsDeepGraph() {
+        ChainTask head = new ChainTask(null);
+        for (int i = 0; i < TaskSpill.MAX_DEPTH * 2; i++) {
+            head = new ChainTask(head);
+        }
+        try (TaskSpill taskSpill = new TaskSpill(newLog(), Collections.singleton(TEST_PACKAGE))) {
+            assertTrue(taskSpill.spill(head));
+            assertNull(taskSpill.poll());
+            assertEquals(1, taskSpill.snapshot().getFailedCount());
+        }
+    }
+
+    private SpillSegmentLog newLog() {
+        return new SpillSegmentLog(directory, 4096, 1 << 20);
+    }
+
+    private static byte[] serialize(Object object) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static final class PayloadTask implements Runnable, Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final Object payload;
+
+        PayloadTask(Object payload) {
+            this.payload = payload;
+        }
+
+        @Override
+        public void run() {
+        }
+    }
+
+    private static final class ChainTask implements Runnable, Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final ChainTask next;
+
+        ChainTask(ChainTask next) {
+            this.next = next;
+        }
+
+        @Override
+        public void run() {
+        }
+    }
+
+}
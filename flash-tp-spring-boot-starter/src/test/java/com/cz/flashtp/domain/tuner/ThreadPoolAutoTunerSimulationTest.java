@@ -0,0 +1,254 @@
+package com.cz.flashtp.domain.tuner;
+
+import com.cz.flashtp.domain.DynamicThreadPoolService;
+import com.cz.flashtp.domain.entity.ThreadPoolConfig;
+import com.cz.flashtp.domain.entity.ThreadPoolConfigAck;
+import com.cz.flashtp.domain.entity.TuningDecision;
+import com.cz.flashtp.registry.Registry;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.LongToDoubleFunction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 自动调优确定性仿真
+ * 以离散时间的排队模型代替真实线程池：每个线程每秒处理 1 / serviceSeconds 个任务，到达率随时间变化，
+ * 排队耗时按当前队列深度与处理能力估算。仿真时钟每步 1 秒，调优控制器每 5 秒决策一次，结果与运行环境无关。
+ *
+ * @author Zjianru
+ */
+public class ThreadPoolAutoTunerSimulationTest {
+
+    private static final String APP = "sim-app";
+    private static final String POOL = "sim-pool";
+
+    private static AutoTuneSettings settings() {
+        AutoTuneSettings settings = new AutoTuneSettings();
+        settings.setEnabled(true);
+        settings.setCooldown(15_000);
+        settings.setRequiredStreak(2);
+        settings.setSmoothing(0.5);
+        settings.setTargetQueueWaitMs(100);
+        settings.setIncreaseStep(4);
+        settings.setDecreaseFactor(0.75);
+        settings.setMinPoolSize(2);
+        settings.setMaxPoolSize(80);
+        return settings;
+    }
+
+    @Test
+    public void test_convergesUnderStepLoad() {
+        // 100 任务/秒 -> 400 任务/秒 -> 100 任务/秒，单任务 100ms，分别需要 10 / 40 / 10 个线程
+        Simulation sim = new Simulation(settings(), 12, 0.1, 100_000);
+        sim.run(120, t -> 100);
+        sim.run(600, t -> 400);
+        // 积压消化期间会超调，消化完成后回落到 [1.25, 1 / busyLowWatermark] 倍需求线程数的区间内
+        assertTrue("core " + sim.core, sim.core >= 50 && sim.core <= 58);
+        assertTrue("queue " + sim.queue, sim.queue < 40);
+        assertTrue("queueWait " + sim.queueWaitMs, sim.queueWaitMs < 100);
+        // 进入稳态后不再调整
+        assertEquals(0, sim.decisionsBetween(sim.now - 300_000, sim.now));
+
+        sim.run(600, t -> 100);
+        assertTrue("core " + sim.core, sim.core >= 10 && sim.core <= 20);
+        assertTrue("queue " + sim.queue, sim.queue < 10);
+        assertEquals(0, sim.decisionsBetween(sim.now - 300_000, sim.now));
+        assertCooldownRespected(sim, 15_000);
+    }
+
+    @Test
+    public void test_boundedUnderBurstLoad() {
+        // 基线 100 任务/秒，每 60 秒出现一次持续 3 秒、1500 任务/秒的突发
+        Simulation sim = new Simulation(settings(), 12, 0.1, 100_000);
+        sim.run(1200, t -> (t / 1000) % 60 < 3 ? 1500 : 100);
+        assertTrue("core " + sim.core, sim.core <= 80);
+        assertCooldownRespected(sim, 15_000);
+        // 突发结束后队列能被消化，线程数回落到基线附近
+        sim.run(600, t -> 100);
+        assertTrue("queue " + sim.queue, sim.queue < 10);
+        assertTrue("core " + sim.core, sim.core >= 10 && sim.core <= 24);
+        assertEquals(0, sim.rejected, 0);
+    }
+
+    @Test
+    public void test_respectsBounds() {
+        AutoTuneSettings settings = settings();
+        AutoTuneSettings.PoolBounds bounds = new AutoTuneSettings.PoolBounds();
+        bounds.setMaxPoolSize(20);
+        settings.getPools().put(POOL, bounds);
+        Simulation sim = new Simulation(settings, 12, 0.1, 100_000);
+        sim.run(900, t -> 400);
+        assertEquals(20, sim.core);
+        assertTrue(sim.max <= 20);
+    }
+
+    @Test
+    public void test_keepsMaxAboveBound() {
+        // 最大线程数人工设置为 200，超过调优上限 80
+        Simulation sim = new Simulation(settings(), 12, 200, 0.1, 100_000);
+        sim.run(900, t -> 400);
+        // 核心线程数正常扩容，最大线程数不被压回上限
+        assertTrue("core " + sim.core, sim.core >= 40 && sim.core <= 80);
+        assertEquals(200, sim.max);
+        assertEquals(ThreadPoolAutoTuner.INCREASE, sim.decisions.get(0).getAction());
+        for (TuningDecision decision : sim.decisions) {
+            assertEquals(200, decision.getMaximumPoolSize());
+        }
+    }
+
+    @Test
+    public void test_keepsCoreAboveBoundUnderLoad() {
+        // 核心线程数人工设置为 100，超过调优上限 80；1200 任务/秒需要 120 个线程，持续过载
+        Simulation sim = new Simulation(settings(), 100, 0.1, 100_000);
+        sim.run(900, t -> 1200);
+        assertTrue("queue " + sim.queue, sim.queue > 0);
+        // 扩容信号不会把核心线程数压回上限
+        assertEquals(100, sim.core);
+        assertEquals(100, sim.max);
+        assertEquals(0, sim.decisions.size());
+    }
+
+    @Test
+    public void test_dryRunOnlyReports() {
+        AutoTuneSettings settings = settings();
+        settings.setDryRun(true);
+        Simulation sim = new Simulation(settings, 12, 0.1, 100_000);
+        sim.run(300, t -> 400);
+        assertEquals(12, sim.core);
+        assertTrue(sim.decisions.size() > 0);
+        for (TuningDecision decision : sim.decisions) {
+            assertTrue(decision.isDryRun());
+            assertEquals(ThreadPoolAutoTuner.INCREASE, decision.getAction());
+            assertEquals(12, decision.getPreviousCorePoolSize());
+        }
+    }
+
+    @Test
+    public void test_backsOffWhenDownstreamCongested() {
+        AutoTuneSettings settings = settings();
+        settings.setRunTimeLimitMs(200);
+        Simulation sim = new Simulation(settings, 40, 0.1, 100_000);
+        // 执行耗时随并发线程数上升，超过 20 个并发时 P99 超过 200ms
+        sim.runTimeModel = active -> active > 20 ? 100 + active * 10 : 100;
+        sim.run(600, t -> 400);
+        assertTrue("core " + sim.core, sim.core <= 27);
+        assertEquals(ThreadPoolAutoTuner.DECREASE, sim.decisions.get(0).getAction());
+    }
+
+    private static void assertCooldownRespected(Simulation sim, long cooldown) {
+        for (int i = 1; i < sim.decisions.size(); i++) {
+            long gap = sim.decisions.get(i).getTimestamp() - sim.decisions.get(i - 1).getTimestamp();
+            assertTrue("gap " + gap, gap >= cooldown);
+        }
+    }
+
+    /**
+     * 离散时间排队模型，同时充当 {@link DynamicThreadPoolService} 与 {@link Registry}
+     */
+    private static final class Simulation implements DynamicThreadPoolService, Registry {
+
+        private final double serviceSeconds;
+        private final int queueCapacity;
+        private final ThreadPoolAutoTuner tuner;
+        private final List<TuningDecision> decisions = new ArrayList<>();
+        private LongToDoubleFunction runTimeModel = active -> 0;
+
+        private long now;
+        private int core;
+        private int max;
+        private double queue;
+        private double active;
+        private double queueWaitMs;
+        private double rejected;
+
+        Simulation(AutoTuneSettings settings, int core, double serviceSeconds, int queueCapacity) {
+            this(settings, core, core, serviceSeconds, queueCapacity);
+        }
+
+        Simulation(AutoTuneSettings settings, int core, int max, double serviceSeconds, int queueCapacity) {
+            this.core = core;
+            this.max = max;
+            this.serviceSeconds = serviceSeconds;
+            this.queueCapacity = queueCapacity;
+            this.tuner = new ThreadPoolAutoTuner(this, this, settings, () -> now);
+        }
+
+        /**
+         * 以 1 秒为步长推进仿真，每 5 秒调用一次调优
+         */
+        void run(int seconds, LongToDoubleFunction arrivalRate) {
+            for (int i = 0; i < seconds; i++) {
+                double capacity = core / serviceSeconds;
+                double backlog = queue + arrivalRate.applyAsDouble(now);
+                double served = Math.min(backlog, capacity);
+                queue = backlog - served;
+                if (queue > queueCapacity) {
+                    rejected += queue - queueCapacity;
+                    queue = queueCapacity;
+                }
+                active = served * serviceSeconds;
+                queueWaitMs = queue / capacity * 1000;
+                now += 1000;
+                if (now % 5000 == 0) tuner.tune();
+            }
+        }
+
+        int decisionsBetween(long from, long to) {
+            int count = 0;
+            for (TuningDecision decision : decisions) {
+                if (decision.getTimestamp() > from && decision.getTimestamp() <= to) count++;
+            }
+            return count;
+        }
+
+        @Override
+        public List<ThreadPoolConfig> queryThreadPoolList() {
+            return Collections.singletonList(queryThreadPoolConfigByName(POOL));
+        }
+
+        @Override
+        public ThreadPoolConfig queryThreadPoolConfigByName(String threadPoolName) {
+            return ThreadPoolConfig.builder()
+                    .appName(APP)
+                    .threadPoolName(POOL)
+                    .corePoolSize(core)
+                    .maximumPoolSize(max)
+                    .activeCount((int) Math.round(active))
+                    .poolSize(core)
+                    .queueSize((int) Math.ceil(queue))
+                    .remainingCapacity(queueCapacity - (int) Math.ceil(queue))
+                    .queueWaitP99Ms(queueWaitMs)
+                    .runTimeP99Ms(runTimeModel.applyAsDouble(Math.round(active)))
+                    .build();
+        }
+
+        @Override
+        public void updateThreadPoolConfig(ThreadPoolConfig threadPoolConfig) {
+            core = threadPoolConfig.getCorePoolSize();
+            max = threadPoolConfig.getMaximumPoolSize();
+        }
+
+        @Override
+        public void reportThreadPool(List<ThreadPoolConfig> threadPools) {
+        }
+
+        @Override
+        public void reportThreadPoolConfigParameter(ThreadPoolConfig threadPoolConfig) {
+        }
+
+        @Override
+        public void reportTuningDecision(TuningDecision decision) {
+            decisions.add(decision);
+        }
+
+        @Override
+        public void reportConfigAck(ThreadPoolConfigAck ack) {
+        }
+    }
+
+}
@@ -0,0 +1,99 @@
+package com.cz.flashtp.domain.watchdog;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 哈希时间轮测试
+ *
+ * @author Zjianru
+ */
+public class HashedTimingWheelTest {
+
+    /**
+     * 每格 10ms，每圈 8 格，一圈 80ms
+     */
+    private final HashedTimingWheel timingWheel = new HashedTimingWheel("test-timing-wheel", 10, TimeUnit.MILLISECONDS, 8);
+
+    @After
+    public void tearDown() {
+        timingWheel.stop();
+    }
+
+    @Test(timeout = 10000)
+    public void test_expireInDeadlineOrder() throws InterruptedException {
+        List<Integer> expired = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(3);
+        long start = System.nanoTime();
+        // 250ms 超过三圈，按剩余圈数到期
+        timingWheel.schedule(timeout -> { expired.add(250); done.countDown(); }, 250, TimeUnit.MILLISECONDS);
+        timingWheel.schedule(timeout -> { expired.add(30); done.countDown(); }, 30, TimeUnit.MILLISECONDS);
+        timingWheel.schedule(timeout -> { expired.add(120); done.countDown(); }, 120, TimeUnit.MILLISECONDS);
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList(30, 120, 250), expired);
+        // 不早于延迟到期
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 250);
+    }
+
+    @Test(timeout = 10000)
+    public void test_cancel() throws InterruptedException {
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch marker = new CountDownLatch(1);
+        HashedTimingWheel.Timeout cancelled = timingWheel.schedule(timeout -> runs.incrementAndGet(), 50, TimeUnit.MILLISECONDS);
+        // 挂到槽位之后再取消
+        Thread.sleep(20);
+        assertTrue(cancelled.cancel());
+        assertFalse(cancelled.cancel());
+        HashedTimingWheel.Timeout immediate = timingWheel.schedule(timeout -> runs.incrementAndGet(), 0, TimeUnit.MILLISECONDS);
+        assertTrue(immediate.cancel());
+        HashedTimingWheel.Timeout expired = timingWheel.schedule(timeout -> marker.countDown(), 100, TimeUnit.MILLISECONDS);
+        assertTrue(marker.await(5, TimeUnit.SECONDS));
+        assertEquals(0, runs.get());
+        assertTrue(cancelled.isCancelled());
+        assertTrue(expired.isExpired());
+        // 已到期的任务无法取消
+        assertFalse(expired.cancel());
+    }
+
+    @Test(timeout = 10000)
+    public void test_manyTimeoutsAndFailingTask() throws InterruptedException {
+        int count = 10_000;
+        CountDownLatch done = new CountDownLatch(count / 2);
+        List<HashedTimingWheel.Timeout> timeouts = new ArrayList<>();
+        timingWheel.schedule(timeout -> {
+            throw new IllegalStateException("boom");
+        }, 0, TimeUnit.MILLISECONDS);
+        for (int i = 0; i < count; i++) {
+            timeouts.add(timingWheel.schedule(timeout -> done.countDown(), 100 + i % 200, TimeUnit.MILLISECONDS));
+        }
+        for (int i = 0; i < count; i += 2) {
+            timeouts.get(i).cancel();
+        }
+        // 抛出异常的任务不影响时间轮继续推进
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < count; i++) {
+            assertEquals(i % 2 == 0, timeouts.get(i).isCancelled());
+            assertEquals(i % 2 == 1, timeouts.get(i).isExpired());
+        }
+    }
+
+    @Test
+    public void test_scheduleAfterStop() {
+        timingWheel.stop();
+        HashedTimingWheel.Timeout timeout = timingWheel.schedule(t -> { }, 10, TimeUnit.MILLISECONDS);
+        assertTrue(timeout.isCancelled());
+    }
+
+}
@@ -0,0 +1,77 @@
+package com.cz.flashtp.registry.invoke.redis;
+
+import org.junit.Test;
+import org.redisson.api.RedissonClient;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Redisson 客户端异步连接器测试
+ *
+ * @author Zjianru
+ */
+public class RedissonConnectorTest {
+
+    private static RedissonClient client(AtomicBoolean shutdown) {
+        return (RedissonClient) Proxy.newProxyInstance(RedissonClient.class.getClassLoader(), new Class<?>[]{RedissonClient.class}, (proxy, method, args) -> {
+            if ("shutdown".equals(method.getName())) shutdown.set(true);
+            return null;
+        });
+    }
+
+    @Test(timeout = 10000)
+    public void test_retriesUntilConnected() throws InterruptedException {
+        AtomicBoolean shutdown = new AtomicBoolean();
+        RedissonClient redissonClient = client(shutdown);
+        AtomicInteger attempts = new AtomicInteger();
+        RedissonConnector connector = new RedissonConnector(() -> {
+            if (attempts.incrementAndGet() < 3) throw new IllegalStateException("connection refused");
+            return redissonClient;
+        }, 10);
+        CountDownLatch connected = new CountDownLatch(1);
+        AtomicReference<RedissonClient> received = new AtomicReference<>();
+        connector.whenConnected(client -> {
+            received.set(client);
+            connected.countDown();
+        });
+        assertNull(connector.client());
+        connector.start();
+        assertTrue(connected.await(5, TimeUnit.SECONDS));
+        assertSame(redissonClient, received.get());
+        assertSame(redissonClient, connector.client());
+        assertEquals(3, attempts.get());
+        // 已连接时回调立即执行
+        AtomicBoolean immediate = new AtomicBoolean();
+        connector.whenConnected(client -> immediate.set(true));
+        assertTrue(immediate.get());
+        connector.stop();
+        assertTrue(shutdown.get());
+    }
+
+    @Test(timeout = 10000)
+    public void test_stopBeforeConnected() {
+        RedissonConnector connector = new RedissonConnector(() -> {
+            throw new IllegalStateException("connection refused");
+        }, 10);
+        AtomicBoolean called = new AtomicBoolean();
+        connector.whenConnected(client -> called.set(true));
+        connector.start();
+        assertNull(connector.await(50));
+        connector.stop();
+        assertNull(connector.await(1000));
+        assertNull(connector.client());
+        assertFalse(called.get());
+    }
+
+}
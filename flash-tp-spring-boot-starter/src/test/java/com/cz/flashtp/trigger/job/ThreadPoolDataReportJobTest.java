@@ -0,0 +1,181 @@
+package com.cz.flashtp.trigger.job;
+
+import com.cz.flashtp.domain.DynamicThreadPoolService;
+import com.cz.flashtp.domain.entity.ThreadPoolConfig;
+import com.cz.flashtp.domain.entity.ThreadPoolConfigAck;
+import com.cz.flashtp.domain.entity.TuningDecision;
+import com.cz.flashtp.registry.Registry;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 线程池数据上报任务测试
+ * 注册中心的异步结果由测试手动完成，时钟由测试推进，结果与运行环境无关。
+ *
+ * @author Zjianru
+ */
+public class ThreadPoolDataReportJobTest {
+
+    @Test
+    public void test_skipWhileInFlightAndReportLatest() {
+        Fake fake = new Fake();
+        ThreadPoolDataReportJob job = new ThreadPoolDataReportJob(fake, fake, 20_000, 60_000, 16, null, () -> fake.now);
+        job.execReportThreadPoolList();
+        assertEquals(1, fake.pending.size());
+
+        // 上一次上报未完成，后两个周期跳过，快照留在积压队列中
+        fake.tick(20_000);
+        job.execReportThreadPoolList();
+        fake.tick(20_000);
+        job.execReportThreadPoolList();
+        assertEquals(1, fake.pending.size());
+        ReporterStatistics statistics = job.statistics();
+        assertEquals(2, statistics.getSkipped());
+        assertEquals(2, statistics.getBacklog());
+        assertTrue(statistics.isInFlight());
+
+        fake.complete(0, null);
+        fake.tick(20_000);
+        job.execReportThreadPoolList();
+        // 只提交最新的快照，较旧的两个快照被合并
+        assertEquals(2, fake.pending.size());
+        assertEquals(4, fake.reported.get(1).get(0).getCorePoolSize());
+        fake.complete(1, null);
+        statistics = job.statistics();
+        assertEquals(2, statistics.getSucceeded());
+        assertEquals(2, statistics.getCoalesced());
+        assertEquals(0, statistics.getBacklog());
+        // 延迟从最旧的未上报快照开始计算
+        assertEquals(40_000, statistics.getLastLagMillis());
+    }
+
+    @Test
+    public void test_failureRequeuedAndBacklogBounded() {
+        Fake fake = new Fake();
+        ThreadPoolDataReportJob job = new ThreadPoolDataReportJob(fake, fake, 20_000, 60_000, 3, null, () -> fake.now);
+        job.execReportThreadPoolList();
+        for (int i = 0; i < 5; i++) {
+            fake.tick(20_000);
+            job.execReportThreadPoolList();
+        }
+        ReporterStatistics statistics = job.statistics();
+        assertEquals(3, statistics.getBacklog());
+        assertEquals(2, statistics.getDropped());
+
+        fake.complete(0, new TimeoutException());
+        fake.complete(0, new IllegalStateException("redis down"));
+        statistics = job.statistics();
+        assertEquals(1, statistics.getTimedOut());
+        assertEquals(0, statistics.getFailed());
+        assertFalse(statistics.isInFlight());
+        // 失败的快照并入积压队列，保留最旧的采集时间
+        assertEquals(3, statistics.getBacklog());
+
+        // 积压队列已满，放回的最旧快照被丢弃
+        fake.tick(20_000);
+        job.execReportThreadPoolList();
+        assertEquals(3, job.statistics().getDropped());
+        fake.complete(1, new IllegalStateException("redis down"));
+        assertEquals(1, job.statistics().getFailed());
+        assertEquals(1, job.statistics().getBacklog());
+
+        fake.tick(20_000);
+        job.execReportThreadPoolList();
+        fake.complete(2, null);
+        statistics = job.statistics();
+        assertEquals(1, statistics.getSucceeded());
+        assertEquals(0, statistics.getBacklog());
+        assertEquals(8, fake.reported.get(2).get(0).getCorePoolSize());
+        assertEquals(60_000, statistics.getLastLagMillis());
+        assertEquals(60_000, statistics.getMaxLagMillis());
+    }
+
+    @Test
+    public void test_synchronousFailureDoesNotBlockNextCycle() {
+        Fake fake = new Fake();
+        fake.throwOnReport = true;
+        ThreadPoolDataReportJob job = new ThreadPoolDataReportJob(fake, fake, 20_000, 60_000, 16, null, () -> fake.now);
+        job.execReportThreadPoolList();
+        assertEquals(1, job.statistics().getFailed());
+        assertFalse(job.statistics().isInFlight());
+
+        fake.throwOnReport = false;
+        job.execReportThreadPoolList();
+        fake.complete(0, null);
+        assertEquals(1, job.statistics().getSucceeded());
+    }
+
+    /**
+     * 同时充当 {@link DynamicThreadPoolService} 与 {@link Registry}，每次采集的核心线程数递增
+     */
+    private static final class Fake implements DynamicThreadPoolService, Registry {
+
+        private long now;
+        private int version;
+        private boolean throwOnReport;
+        private final List<CompletableFuture<Void>> pending = new ArrayList<>();
+        private final List<List<ThreadPoolConfig>> reported = new ArrayList<>();
+
+        void tick(long millis) {
+            now += millis;
+        }
+
+        void complete(int index, Throwable throwable) {
+            if (null == throwable) {
+                pending.get(index).complete(null);
+            } else {
+                pending.get(index).completeExceptionally(throwable);
+            }
+        }
+
+        @Override
+        public List<ThreadPoolConfig> queryThreadPoolList() {
+            return Collections.singletonList(ThreadPoolConfig.builder().threadPoolName("pool").corePoolSize(++version).build());
+        }
+
+        @Override
+        public ThreadPoolConfig queryThreadPoolConfigByName(String threadPoolName) {
+            return queryThreadPoolList().get(0);
+        }
+
+        @Override
+        public void updateThreadPoolConfig(ThreadPoolConfig threadPoolConfig) {
+        }
+
+        @Override
+        public CompletableFuture<Void> reportThreadPoolCycleAsync(List<ThreadPoolConfig> threadPools, Duration timeout) {
+            if (throwOnReport) throw new IllegalStateException("redis down");
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            pending.add(future);
+            reported.add(threadPools);
+            return future;
+        }
+
+        @Override
+        public void reportThreadPool(List<ThreadPoolConfig> threadPools) {
+        }
+
+        @Override
+        public void reportThreadPoolConfigParameter(ThreadPoolConfig threadPoolConfig) {
+        }
+
+        @Override
+        public void reportTuningDecision(TuningDecision decision) {
+        }
+
+        @Override
+        public void reportConfigAck(ThreadPoolConfigAck ack) {
+        }
+    }
+
+}
@@ -0,0 +1,115 @@
+package com.cz.flashtp.trigger.listener;
+
+import com.cz.flashtp.domain.entity.ThreadPoolConfig;
+import com.cz.flashtp.domain.entity.ThreadPoolConfigAck;
+import com.cz.flashtp.domain.entity.ThreadPoolConfigBatch;
+import com.cz.flashtp.domain.entity.TuningDecision;
+import com.cz.flashtp.domain.invoker.DefaultThreadPoolService;
+import com.cz.flashtp.domain.queue.ResizableCapacityLinkedBlockingQueue;
+import com.cz.flashtp.registry.Registry;
+import com.cz.flashtp.trigger.job.ThreadPoolDataReportJob;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 线程池配置批量调整测试
+ *
+ * @author Zjianru
+ */
+public class ThreadPoolConfigAdjustListenerTest {
+
+    private final Map<String, ThreadPoolExecutor> executors = new LinkedHashMap<>();
+    private final List<ThreadPoolConfigAck> acks = new ArrayList<>();
+    private final List<List<ThreadPoolConfig>> reported = new ArrayList<>();
+
+    private final Registry registry = new Registry() {
+        @Override
+        public void reportThreadPool(List<ThreadPoolConfig> threadPools) {
+        }
+
+        @Override
+        public void reportThreadPoolConfigParameter(ThreadPoolConfig threadPoolConfig) {
+        }
+
+        @Override
+        public void reportThreadPoolCycle(List<ThreadPoolConfig> threadPools) {
+            reported.add(threadPools);
+        }
+
+        @Override
+        public void reportTuningDecision(TuningDecision decision) {
+        }
+
+        @Override
+        public void reportConfigAck(ThreadPoolConfigAck ack) {
+            acks.add(ack);
+        }
+    };
+
+    @After
+    public void tearDown() {
+        executors.values().forEach(ThreadPoolExecutor::shutdownNow);
+    }
+
+    private ThreadPoolConfigAdjustListener listener() {
+        executors.put("pool-a", new ThreadPoolExecutor(1, 2, 60, TimeUnit.SECONDS, new ResizableCapacityLinkedBlockingQueue<>(100)));
+        executors.put("pool-b", new ThreadPoolExecutor(1, 2, 60, TimeUnit.SECONDS, new ResizableCapacityLinkedBlockingQueue<>(100)));
+        DefaultThreadPoolService service = new DefaultThreadPoolService("demo-app", "i1", executors);
+        // 未启动调度线程，立即上报在调用线程上同步执行
+        ThreadPoolDataReportJob job = new ThreadPoolDataReportJob(service, registry);
+        return new ThreadPoolConfigAdjustListener(service, job, registry, "demo-app", "i1");
+    }
+
+    private static ThreadPoolConfig change(String threadPoolName, int corePoolSize, int maximumPoolSize, int queueCapacity) {
+        return ThreadPoolConfig.builder().threadPoolName(threadPoolName).corePoolSize(corePoolSize).maximumPoolSize(maximumPoolSize).queueCapacity(queueCapacity).build();
+    }
+
+    @Test
+    public void test_batchAppliedTogetherAndAcked() {
+        ThreadPoolConfigAdjustListener listener = listener();
+        listener.onBatch("topic", new ThreadPoolConfigBatch("b1", "demo-app", System.currentTimeMillis(), Arrays.asList(
+                change("pool-a", 8, 16, 500),
+                change("pool-missing", 1, 1, 0),
+                change("pool-b", 9, 3, 0))));
+
+        assertEquals(8, executors.get("pool-a").getCorePoolSize());
+        assertEquals(16, executors.get("pool-a").getMaximumPoolSize());
+        assertEquals(500, ((ResizableCapacityLinkedBlockingQueue<Runnable>) executors.get("pool-a").getQueue()).getCapacity());
+        // 非法参数不影响同批次的其他调整
+        assertEquals(2, executors.get("pool-b").getMaximumPoolSize());
+
+        assertEquals(1, acks.size());
+        ThreadPoolConfigAck ack = acks.get(0);
+        assertEquals("b1", ack.getBatchId());
+        assertEquals("i1", ack.getInstanceId());
+        assertEquals(1, ack.getApplied().size());
+        assertEquals(16, ack.getApplied().get(0).getMaximumPoolSize());
+        assertEquals(500, ack.getApplied().get(0).getQueueCapacity());
+        assertEquals(Arrays.asList("pool-missing", "pool-b"), ack.getRejected());
+        assertTrue(ack.getApplyMicros() >= 0);
+        assertEquals(1, reported.size());
+    }
+
+    @Test
+    public void test_otherAppIgnored() {
+        ThreadPoolConfigAdjustListener listener = listener();
+        listener.onBatch("topic", new ThreadPoolConfigBatch("b2", "other-app", System.currentTimeMillis(),
+                Collections.singletonList(change("pool-a", 8, 16, 0))));
+        assertEquals(1, executors.get("pool-a").getCorePoolSize());
+        assertTrue(acks.isEmpty());
+        assertTrue(reported.isEmpty());
+    }
+
+}